@@ -0,0 +1,159 @@
+package busca;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Arvore BK (Burkhard-Keller) das palavras de um indice, usada na busca
+ * aproximada.
+ *
+ * Cada no guarda uma palavra e os filhos ficam separados pela distancia de
+ * edicao (Levenshtein) ate ela. Pela desigualdade triangular, ao procurar as
+ * palavras a no maximo d edicoes de um termo basta descer nos filhos cuja
+ * distancia esta entre (distancia ao no - d) e (distancia ao no + d), o que
+ * evita calcular a distancia para todo o vocabulario.
+ *
+ * A arvore nao remove palavras: o {@link IndiceBusca} descarta as palavras que
+ * nao estao mais no vocabulario ao consultar e reconstroi a arvore quando elas
+ * ficam numerosas. Os metodos sao sincronizados, pois a arvore e alterada pelo
+ * controlador enquanto outras threads consultam.
+ *
+ */
+public class ArvoreBK {
+
+	/**
+	 * A raiz da arvore, ou null se a arvore esta vazia.
+	 *
+	 */
+	private No raiz;
+
+	/**
+	 * Quantidade de palavras na arvore.
+	 *
+	 */
+	private int tamanho;
+
+	/**
+	 * Metodo que adiciona uma palavra a arvore, se ainda nao estiver nela.
+	 *
+	 * @param palavra A palavra a ser adicionada.
+	 */
+	public synchronized void adiciona(String palavra) {
+		if (this.raiz == null) {
+			this.raiz = new No(palavra);
+			this.tamanho++;
+			return;
+		}
+		No atual = this.raiz;
+		while (true) {
+			int distancia = distancia(atual.palavra, palavra, Integer.MAX_VALUE);
+			if (distancia == 0) {
+				return;
+			}
+			No filho = atual.filhos.get(distancia);
+			if (filho == null) {
+				atual.filhos.put(distancia, new No(palavra));
+				this.tamanho++;
+				return;
+			}
+			atual = filho;
+		}
+	}
+
+	/**
+	 * Metodo que retorna as palavras da arvore a no maximo uma distancia de
+	 * edicao de um termo.
+	 *
+	 * @param termo          O termo procurado.
+	 * @param distanciaMaxima A quantidade maxima de edicoes.
+	 * @return As palavras encontradas.
+	 */
+	public synchronized List<String> procura(String termo, int distanciaMaxima) {
+		List<String> encontradas = new ArrayList<>();
+		if (this.raiz == null) {
+			return encontradas;
+		}
+		Deque<No> pendentes = new ArrayDeque<>();
+		pendentes.push(this.raiz);
+		while (!pendentes.isEmpty()) {
+			No no = pendentes.pop();
+			int distancia = distancia(no.palavra, termo, Integer.MAX_VALUE);
+			if (distancia <= distanciaMaxima) {
+				encontradas.add(no.palavra);
+			}
+			for (Map.Entry<Integer, No> filho : no.filhos.entrySet()) {
+				if (Math.abs(filho.getKey() - distancia) <= distanciaMaxima) {
+					pendentes.push(filho.getValue());
+				}
+			}
+		}
+		return encontradas;
+	}
+
+	/**
+	 * Metodo que retorna a quantidade de palavras na arvore.
+	 *
+	 * @return A quantidade de palavras.
+	 */
+	public synchronized int tamanho() {
+		return this.tamanho;
+	}
+
+	/**
+	 * Metodo que calcula a distancia de edicao (insercoes, remocoes e trocas)
+	 * entre duas palavras, interrompendo o calculo quando ela certamente passa
+	 * de um limite.
+	 *
+	 * @param a      A primeira palavra.
+	 * @param b      A segunda palavra.
+	 * @param limite A distancia a partir da qual o calculo pode ser interrompido.
+	 * @return A distancia entre as palavras, ou um valor maior que o limite se
+	 *         ela passa do limite.
+	 */
+	public static int distancia(String a, String b, int limite) {
+		if (Math.abs(a.length() - b.length()) > limite) {
+			return limite + 1;
+		}
+		int[] anterior = new int[b.length() + 1];
+		int[] atual = new int[b.length() + 1];
+		for (int j = 0; j <= b.length(); j++) {
+			anterior[j] = j;
+		}
+		for (int i = 1; i <= a.length(); i++) {
+			atual[0] = i;
+			int menor = atual[0];
+			for (int j = 1; j <= b.length(); j++) {
+				int troca = anterior[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+				atual[j] = Math.min(troca, Math.min(anterior[j], atual[j - 1]) + 1);
+				menor = Math.min(menor, atual[j]);
+			}
+			if (menor > limite) {
+				return limite + 1;
+			}
+			int[] troca = anterior;
+			anterior = atual;
+			atual = troca;
+		}
+		return anterior[b.length()];
+	}
+
+	/**
+	 * No da arvore: uma palavra e os filhos indexados pela distancia ate ela.
+	 *
+	 */
+	private static class No {
+
+		private final String palavra;
+
+		private final Map<Integer, No> filhos;
+
+		No(String palavra) {
+			this.palavra = palavra;
+			this.filhos = new HashMap<>();
+		}
+	}
+}
@@ -1,35 +1,137 @@
 package busca;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import comparadores.ComparadorPontuacao;
+import controladores.ControllerAtividade;
 import controladores.ControllerGeral;
+import controladores.ControllerPesquisa;
+import controladores.ControllerPesquisador;
+import controladores.ControllerProblemaObjetivo;
 import modulos.Atividade;
 import modulos.Objetivo;
 import modulos.Pesquisa;
 import modulos.Pesquisador;
 import modulos.Problema;
+import util.Normalizador;
 import util.Validador;
 
 
 /**
  *Classe representativa para a realizacao de buscas no sistema
  *
+ * As buscas consultam os indices mantidos pelos controladores para obter as
+ * entidades candidatas, verificando apenas essas contra o texto real.
+ *
+ * A busca nao guarda estado de uma consulta para outra: cada consulta produz a
+ * sua propria {@link RespostaBusca}, o que permite atender varias threads ao
+ * mesmo tempo sem bloqueio, inclusive enquanto os textos das entidades sao
+ * alterados. Uma consulta feita durante uma alteracao encontra a entidade
+ * alterada pelo texto anterior ou pelo novo, e pode exibir o texto anterior;
+ * essa resposta nunca fica no cache depois que a alteracao termina. Os mapas
+ * de entidades dos controladores nao sao concorrentes, entao cadastros e
+ * remocoes nao devem ser feitos durante as consultas; um candidato do indice
+ * que nao esta mais cadastrado e ignorado.
  * 
  */
 public class Busca {
 	
-	private List <ResultadoBusca> resulEncontrados;
-	private ControllerGeral cg;
+	/**
+	 * Quantidade padrao de termos mantidos no cache de resultados.
+	 * 
+	 */
+	public static final int CAPACIDADE_CACHE = 128;
+	
+	/**
+	 * Quantidade minima de candidatos para que a verificacao de uma lista seja
+	 * dividida entre as threads do pool.
+	 * 
+	 */
+	public static final int LIMIAR_PARALELO = 2048;
+	
+	private volatile ControllerGeral cg;
 	private Validador validador;
+	private volatile CacheBusca cache;
+	
+	/**
+	 * Pool usado pelo modo paralelo, ou null quando a busca e sequencial.
+	 * 
+	 */
+	private volatile ForkJoinPool pool;
+	
+	/**
+	 * Distancia de edicao usada quando a busca comum nao encontra resultados,
+	 * ou 0 quando o modo aproximado esta desligado.
+	 * 
+	 */
+	private volatile int distanciaAproximada;
 	
 	public Busca(ControllerGeral controller){
 
-		this.resulEncontrados = new ArrayList<>();
+		this.cache = new CacheBusca(CAPACIDADE_CACHE);
 		this.validador = new Validador();
 		this.cg = controller;
 	}
 	
+	/**
+	 * Metodo que passa a buscar em outro sistema, como o carregado de um
+	 * snapshot, mantendo a configuracao da busca e descartando o cache.
+	 * 
+	 * @param controller O sistema onde as buscas serao feitas.
+	 * */
+	public void trocaControlador(ControllerGeral controller) {
+		
+		this.cg = controller;
+		this.cache = new CacheBusca(CAPACIDADE_CACHE);
+	}
+	
+	/**
+	 * Metodo que configura o modo paralelo da busca. Com paralelismo maior que
+	 * um, as buscas de cada tipo de entidade (e a verificacao de listas grandes)
+	 * sao executadas em um ForkJoinPool com essa quantidade de threads; os
+	 * resultados continuam na mesma ordem da busca sequencial.
+	 * 
+	 * @param paralelismo A quantidade de threads, ou 1 para a busca sequencial.
+	 * */
+	public void configuraParalelismo(int paralelismo) {
+		
+		if(paralelismo < 1)
+			throw new IllegalArgumentException("Paralelismo deve ser positivo");
+		
+		ForkJoinPool anterior = this.pool;
+		this.pool = paralelismo == 1 ? null : new ForkJoinPool(paralelismo);
+		
+		if(anterior != null)
+			anterior.shutdown();
+	}
+	
+	/**
+	 * Metodo que configura o modo paralelo da busca com um pool ja existente,
+	 * como o ForkJoinPool.commonPool().
+	 * 
+	 * @param pool O pool a ser usado, ou null para a busca sequencial.
+	 * */
+	public void configuraPool(ForkJoinPool pool) {
+		
+		this.pool = pool;
+	}
+	
 	/**
 	 * Metodo que realiza uma busca a partir de um termo nas entidades:
 	 * 	
@@ -44,48 +146,450 @@ public class Busca {
 	 * */
 	public String busca(String termo, boolean buscaNumerada) {
 		
+		RespostaBusca resposta = consulta(termo);
+
+		if(resposta.isVazia() && !buscaNumerada)
+			//throw new Error("Entidade nao encontrada.");	
+			return "";
+		if(resposta.isVazia() && buscaNumerada)
+			throw new Error("Nenhum resultado encontrado");
+		
+		return resposta.toString();
+	}
+	
+	/**
+	 * Metodo que realiza uma consulta e retorna a resposta com todos os
+	 * resultados, na ordem de exibicao. Cada consulta tem a sua propria
+	 * resposta; a mesma resposta e reaproveitada do cache enquanto nenhum
+	 * indice for alterado pelos controladores.
+	 * 
+	 * @param termo O termo a ser procurado.
+	 * @return A resposta da consulta.
+	 * */
+	public RespostaBusca consulta(String termo) {
+		
 		validador.valida(termo, "Campo termo nao pode ser nulo ou vazio.");
 		
-		StringBuilder sb = new StringBuilder();
+		long versao = versaoIndices();
+		CacheBusca cache = this.cache;
+		RespostaBusca resposta = cache.get(termo, versao);
+		
+		if(resposta != null)
+			return resposta;
+		
+		List<ResultadoBusca> encontrados = new ArrayList<ResultadoBusca>();
+		ForkJoinPool pool = this.pool;
+		
+		if (pool == null) {
+			for (Supplier<List<ResultadoBusca>> etapa : etapas(termo))
+				encontrados.addAll(etapa.get());
+		} else {
+			List<ForkJoinTask<List<ResultadoBusca>>> tarefas = new ArrayList<>();
+			for (Supplier<List<ResultadoBusca>> etapa : etapas(termo))
+				tarefas.add(pool.submit(etapa::get));
+			for (ForkJoinTask<List<ResultadoBusca>> tarefa : tarefas)
+				encontrados.addAll(tarefa.join());
+		}
 		
-		List<ResultadoBusca> resultPesquisa = buscaPesquisa(termo);
-		List<ResultadoBusca> resultPesquisador = buscaPesquisador(termo);
-		List<ResultadoBusca> resultProblema = buscaProblema(termo);
-		List<ResultadoBusca> resultObjetivo = buscaObjetivo(termo);
-		List<ResultadoBusca> resultAtividade = buscaAtividade(termo);
+		int distancia = this.distanciaAproximada;
 		
-		this.resulEncontrados = new ArrayList<ResultadoBusca>();
+		if(encontrados.isEmpty() && distancia > 0)
+			resposta = consultaAproximada(termo, distancia);
+		else
+			resposta = new RespostaBusca(encontrados);
 		
-		///Busca em pesquisa		
-		this.resulEncontrados.addAll(resultPesquisa);									
+		cache.put(termo, versao, resposta);
+		return resposta;
+	}
+	
+	/**
+	 * Metodo interno que retorna as buscas de cada tipo de entidade, na ordem
+	 * em que os resultados sao exibidos.
+	 * 
+	 * @param termo O termo a ser procurado.
+	 * @return A lista de buscas a serem executadas.
+	 * */
+	private List<Supplier<List<ResultadoBusca>>> etapas(String termo) {
 		
-		///Busca em pesquisador		
-		this.resulEncontrados.addAll(resultPesquisador);	
-
+		List<Supplier<List<ResultadoBusca>>> etapas = new ArrayList<>();
+		String normalizado = Normalizador.normaliza(termo);
+		
+		///Busca em pesquisa
+		etapas.add(() -> buscaPesquisa(normalizado));
 		
-		///Busca em problema	
-		this.resulEncontrados.addAll(resultProblema);			
+		///Busca em pesquisador
+		etapas.add(() -> buscaPesquisador(normalizado));
+		
+		///Busca em problema
+		etapas.add(() -> buscaProblema(normalizado));
 		
 		///Busca em objetivo
-		this.resulEncontrados.addAll(resultObjetivo);	
-
+		etapas.add(() -> buscaObjetivo(normalizado));
+		
 		///Busca em atividade
-		this.resulEncontrados.addAll(resultAtividade);	
-
-		if(this.resulEncontrados.size()==0 && !buscaNumerada)
-			//throw new Error("Entidade nao encontrada.");	
-			return "";
-		if(this.resulEncontrados.size()==0 && buscaNumerada)
-			throw new Error("Nenhum resultado encontrado");
-			
+		etapas.add(() -> buscaAtividade(normalizado));
+		
+		return etapas;
+	}
+	
+	/**
+	 * Metodo que retorna um cursor sobre os resultados de uma busca. Se o termo
+	 * ja esta no cache o cursor percorre a lista guardada; caso contrario cada
+	 * tipo de entidade so e buscado quando o cursor chega nele.
+	 * 
+	 * @param termo O termo a ser procurado.
+	 * @return O cursor com os resultados, na ordem de exibicao.
+	 * */
+	public Iterator<ResultadoBusca> cursor(String termo) {
+		
+		validador.valida(termo, "Campo termo nao pode ser nulo ou vazio.");
+		
+		RespostaBusca guardada = this.cache.get(termo, versaoIndices());
+		
+		if(guardada != null)
+			return guardada.getResultados().iterator();
+		
+		// No modo aproximado so se sabe se a busca comum ficou vazia no final.
+		if(this.distanciaAproximada > 0)
+			return consulta(termo).getResultados().iterator();
+		
+		return new CursorBusca(etapas(termo));
+	}
+	
+	/**
+	 * Metodo que retorna os resultados de uma busca como um Stream produzido
+	 * sob demanda a partir do cursor.
+	 * 
+	 * @param termo O termo a ser procurado.
+	 * @return O Stream de resultados, na ordem de exibicao.
+	 * */
+	public Stream<ResultadoBusca> buscaStream(String termo) {
+		
+		Spliterator<ResultadoBusca> spliterator = Spliterators.spliteratorUnknownSize(cursor(termo),
+				Spliterator.ORDERED | Spliterator.NONNULL);
+		return StreamSupport.stream(spliterator, false);
+	}
+	
+	/**
+	 * Metodo que retorna uma pagina dos resultados de uma busca, percorrendo
+	 * apenas os resultados necessarios para monta-la.
+	 * 
+	 * @param termo O termo a ser procurado.
+	 * @param deslocamento A quantidade de resultados a serem ignorados.
+	 * @param limite A quantidade maxima de resultados retornados.
+	 * @return Os resultados da pagina separados por " | ", ou vazio se nao houver.
+	 * */
+	public String buscaPagina(String termo, int deslocamento, int limite) {
+		
+		validador.valida(termo, "Campo termo nao pode ser nulo ou vazio.");
+		validador.validaPositivo(deslocamento, "Deslocamento nao pode ser negativo");
+		validador.validaPositivo(limite, "Limite nao pode ser negativo");
 		
-		for(ResultadoBusca res : this.resulEncontrados) {
-			sb.append(res+" | ");
+		StringBuilder sb = new StringBuilder();
+		Iterator<ResultadoBusca> cursor = cursor(termo);
+		
+		for(int i = 0; i < deslocamento && cursor.hasNext(); i++)
+			cursor.next();
+		
+		for(int i = 0; i < limite && cursor.hasNext(); i++) {
+			if(sb.length() > 0)
+				sb.append(" | ");
+			sb.append(cursor.next());
 		}
 		
-		String tmp = sb.toString();
-		tmp = tmp.substring(0, tmp.length()-3);
-		return tmp;		
+		return sb.toString();
+	}
+	
+	/**
+	 * Metodo que retorna os primeiros resultados de uma busca.
+	 * 
+	 * @param termo O termo a ser procurado.
+	 * @param limite A quantidade maxima de resultados retornados.
+	 * @return Os resultados separados por " | ", ou vazio se nao houver.
+	 * */
+	public String buscaLimit(String termo, int limite) {
+		
+		return buscaPagina(termo, 0, limite);
+	}
+
+	/**
+	 * Metodo que retorna os K resultados mais relevantes para um termo, entre
+	 * todos os tipos de entidade. A relevancia e a frequencia do termo no texto
+	 * multiplicada pelo peso do campo (descricao, campos de interesse ou
+	 * biografia). Os resultados passam por um heap limitado a K elementos, de
+	 * modo que apenas os K vencedores sao ordenados.
+	 *
+	 * @param termo O termo a ser procurado.
+	 * @param k A quantidade maxima de resultados retornados.
+	 * @return Os resultados mais relevantes, do mais para o menos relevante.
+	 * */
+	public List<ResultadoPontuado> melhores(String termo, int k) {
+
+		validador.valida(termo, "Campo termo nao pode ser nulo ou vazio.");
+		validador.validaPositivo(k, "Quantidade de resultados nao pode ser negativa");
+
+		List<ResultadoPontuado> melhores = new ArrayList<>();
+		if(k == 0)
+			return melhores;
+
+		Comparator<ResultadoPontuado> ordem = new ComparadorPontuacao();
+		PriorityQueue<ResultadoPontuado> heap = new PriorityQueue<>(k, ordem.reversed());
+		List<ResultadoBusca> resultados = consulta(termo).getResultados();
+
+		for(int i = 0; i < resultados.size(); i++) {
+			ResultadoPontuado candidato = new ResultadoPontuado(resultados.get(i),
+					resultados.get(i).pontuacao(termo), i);
+			if(heap.size() < k)
+				heap.add(candidato);
+			else if(ordem.compare(candidato, heap.peek()) < 0) {
+				heap.poll();
+				heap.add(candidato);
+			}
+		}
+
+		melhores.addAll(heap);
+		melhores.sort(ordem);
+		return melhores;
+	}
+
+	/**
+	 * Metodo que retorna os K resultados mais relevantes para um termo.
+	 *
+	 * @param termo O termo a ser procurado.
+	 * @param k A quantidade maxima de resultados retornados.
+	 * @return Os resultados separados por " | ", ou vazio se nao houver.
+	 * */
+	public String buscaRanqueada(String termo, int k) {
+
+		return melhores(termo, k).stream().map(ResultadoPontuado::toString).collect(Collectors.joining(" | "));
+	}
+
+	/**
+	 * Metodo que realiza uma consulta com varios termos combinados por AND, OR
+	 * e NOT, frases entre aspas e parenteses (ver {@link ConsultaBooleana}). A
+	 * consulta e resolvida nas listas de postagens dos indices de cada campo,
+	 * e os resultados seguem a mesma ordem e o mesmo formato da busca comum.
+	 *
+	 * @param consulta O texto da consulta.
+	 * @return A resposta da consulta.
+	 * */
+	public RespostaBusca consultaBooleana(String consulta) {
+
+		ConsultaBooleana booleana = new ConsultaBooleana(consulta);
+		return porCampo(booleana::avalia);
+	}
+
+	/**
+	 * Metodo que realiza uma consulta booleana e retorna os resultados.
+	 *
+	 * @param consulta O texto da consulta.
+	 * @return Os resultados separados por " | ", ou vazio se nao houver.
+	 * */
+	public String buscaBooleana(String consulta) {
+
+		return consultaBooleana(consulta).toString();
+	}
+
+	/**
+	 * Metodo que realiza uma consulta tolerante a erros de digitacao: cada
+	 * palavra do termo casa com as palavras do campo a no maximo algumas
+	 * edicoes dela. As palavras parecidas sao obtidas na arvore BK do
+	 * vocabulario de cada indice, sem calcular a distancia para cada texto.
+	 *
+	 * A distancia usada em cada palavra e limitada pelo seu tamanho: palavras
+	 * com ate 2 letras precisam ser exatas, com ate 5 letras aceitam uma edicao
+	 * e as demais aceitam duas.
+	 *
+	 * @param termo O termo a ser procurado.
+	 * @param distanciaMaxima A quantidade maxima de edicoes por palavra.
+	 * @return A resposta da consulta, na ordem e no formato da busca comum.
+	 * */
+	public RespostaBusca consultaAproximada(String termo, int distanciaMaxima) {
+
+		validador.valida(termo, "Campo termo nao pode ser nulo ou vazio.");
+		validador.validaPositivo(distanciaMaxima, "Distancia nao pode ser negativa");
+
+		List<String> palavras = IndiceBusca.tokeniza(Normalizador.normaliza(termo));
+
+		if(palavras.isEmpty())
+			return new RespostaBusca(new ArrayList<ResultadoBusca>());
+
+		return porCampo((indice, texto) -> {
+			List<String> codigos = null;
+			for (String palavra : palavras) {
+				List<String> encontrados = indice.aproximados(palavra,
+						Math.min(distanciaMaxima, distanciaPorTamanho(palavra)));
+				codigos = codigos == null ? encontrados : intersecao(codigos, encontrados);
+			}
+			return codigos;
+		});
+	}
+
+	/**
+	 * Metodo que realiza uma busca tolerante a erros de digitacao e retorna os
+	 * resultados.
+	 *
+	 * @param termo O termo a ser procurado.
+	 * @param distanciaMaxima A quantidade maxima de edicoes por palavra.
+	 * @return Os resultados separados por " | ", ou vazio se nao houver.
+	 * */
+	public String buscaAproximada(String termo, int distanciaMaxima) {
+
+		return consultaAproximada(termo, distanciaMaxima).toString();
+	}
+
+	/**
+	 * Metodo que configura o modo aproximado da busca: quando a busca comum
+	 * nao encontra nenhum resultado, a consulta e refeita tolerando ate a
+	 * distancia configurada em cada palavra.
+	 *
+	 * @param distanciaMaxima A quantidade maxima de edicoes, ou 0 para desligar
+	 * o modo aproximado.
+	 * */
+	public void configuraBuscaAproximada(int distanciaMaxima) {
+
+		validador.validaPositivo(distanciaMaxima, "Distancia nao pode ser negativa");
+		this.distanciaAproximada = distanciaMaxima;
+		this.cache = new CacheBusca(CAPACIDADE_CACHE);
+	}
+
+	/**
+	 * Metodo interno que limita a distancia de edicao pelo tamanho da palavra.
+	 *
+	 * @param palavra A palavra procurada.
+	 * @return A maior distancia aceita para a palavra.
+	 * */
+	private static int distanciaPorTamanho(String palavra) {
+
+		if(palavra.length() <= 2)
+			return 0;
+		if(palavra.length() <= 5)
+			return 1;
+		return 2;
+	}
+
+	/**
+	 * Metodo interno que intercala duas listas ordenadas de codigos, mantendo
+	 * os codigos presentes nas duas.
+	 *
+	 * @param a A primeira lista.
+	 * @param b A segunda lista.
+	 * @return A intersecao ordenada.
+	 * */
+	private static List<String> intersecao(List<String> a, List<String> b) {
+
+		List<String> resultado = new ArrayList<>();
+		int i = 0, j = 0;
+
+		while(i < a.size() && j < b.size()) {
+			int comparacao = a.get(i).compareTo(b.get(j));
+			if(comparacao == 0) {
+				resultado.add(a.get(i));
+				i++;
+				j++;
+			} else if(comparacao < 0)
+				i++;
+			else
+				j++;
+		}
+
+		return resultado;
+	}
+
+	/**
+	 * Metodo interno que resolve uma consulta no indice de cada campo das
+	 * entidades e monta a resposta na ordem de exibicao da busca comum.
+	 *
+	 * @param codigos A funcao que recebe o indice de um campo e o texto
+	 * normalizado de cada codigo e retorna, em ordem crescente, os codigos que
+	 * satisfazem a consulta.
+	 * @return A resposta da consulta.
+	 * */
+	private RespostaBusca porCampo(BiFunction<IndiceBusca, Function<String, String>, List<String>> codigos) {
+
+		ControllerPesquisa pesquisas = this.cg.getControllerPesquisa();
+		ControllerPesquisador pesquisadores = this.cg.getControllerPesquisador();
+		ControllerProblemaObjetivo problemasObjetivos = this.cg.getControllerProblemaObjetivo();
+		ControllerAtividade atividades = this.cg.getControllerAtividade();
+		List<ResultadoBusca> encontrados = new ArrayList<ResultadoBusca>();
+
+		encontrados.addAll(resultados(codigos, pesquisas.getIndiceDescricao(), pesquisas::pesquisa,
+				Pesquisa::getDescricaoNormalizada,
+				pesquisa -> new ResultadoBusca(pesquisa.getCodigo(), pesquisa.getDescricao(),
+						pesquisa.getDescricaoNormalizada(), ResultadoBusca.PESO_DESCRICAO)));
+
+		encontrados.addAll(resultados(codigos, pesquisas.getIndiceCamposInteresse(), pesquisas::pesquisa,
+				Pesquisa::getCamposInteresseTextoNormalizado,
+				pesquisa -> new ResultadoBusca(pesquisa.getCodigo(), pesquisa.getCamposInteresse(),
+						pesquisa.getCamposInteresseNormalizados())));
+
+		encontrados.addAll(resultados(codigos, pesquisadores.getIndiceBiografia(), pesquisadores::pesquisador,
+				Pesquisador::getBiografiaNormalizada,
+				pesquisador -> new ResultadoBusca(pesquisador.getEmail(), pesquisador.getBiografia(),
+						pesquisador.getBiografiaNormalizada(), ResultadoBusca.PESO_BIOGRAFIA)));
+
+		encontrados.addAll(resultados(codigos, problemasObjetivos.getIndiceProblemas(), problemasObjetivos::problema,
+				Problema::getDescricaoNormalizada,
+				problema -> new ResultadoBusca(problema.getCodigo(), problema.getDescricao(),
+						problema.getDescricaoNormalizada(), ResultadoBusca.PESO_DESCRICAO)));
+
+		encontrados.addAll(resultados(codigos, problemasObjetivos.getIndiceObjetivos(), problemasObjetivos::objetivo,
+				Objetivo::getDescricaoNormalizada,
+				objetivo -> new ResultadoBusca(objetivo.getCodigo(), objetivo.getDescricao(),
+						objetivo.getDescricaoNormalizada(), ResultadoBusca.PESO_DESCRICAO)));
+
+		encontrados.addAll(resultados(codigos, atividades.getIndiceAtividades(), atividades::getAtividade,
+				Atividade::getDescricaoNormalizada,
+				atividade -> new ResultadoBusca(atividade.getCodigo(), atividade.getDescricao(),
+						atividade.getDescricaoNormalizada(), ResultadoBusca.PESO_DESCRICAO)));
+
+		return new RespostaBusca(encontrados);
+	}
+
+	/**
+	 * Metodo interno que resolve uma consulta no indice de um campo e cria os
+	 * resultados em ordem decrescente de codigo, como na busca comum.
+	 *
+	 * @param codigos A funcao que resolve a consulta no indice.
+	 * @param indice O indice do campo.
+	 * @param entidade A funcao que retorna a entidade de um codigo.
+	 * @param texto A funcao que retorna o texto normalizado da entidade.
+	 * @param resultado A funcao que cria o resultado de uma entidade.
+	 * @return A lista de resultados do campo.
+	 * */
+	private <T> List<ResultadoBusca> resultados(BiFunction<IndiceBusca, Function<String, String>, List<String>> codigos,
+			IndiceBusca indice, Function<String, T> entidade, Function<T, String> texto,
+			Function<T, ResultadoBusca> resultado) {
+
+		List<String> encontrados = codigos.apply(indice, codigo -> {
+			T encontrada = entidade.apply(codigo);
+			return encontrada == null ? null : texto.apply(encontrada);
+		});
+		List<ResultadoBusca> matchsList = new ArrayList<ResultadoBusca>(encontrados.size());
+
+		for (int i = encontrados.size() - 1; i >= 0; i--) {
+			T encontrada = entidade.apply(encontrados.get(i));
+			if (encontrada != null)
+				matchsList.add(resultado.apply(encontrada));
+		}
+
+		return matchsList;
+	}
+
+	/**
+	 * Metodo interno que soma os contadores de modificacao dos indices de todos
+	 * os controladores, usado para invalidar o cache.
+	 * 
+	 * @return A versao atual dos indices.
+	 * */
+	private long versaoIndices() {
+		
+		return this.cg.getControllerPesquisa().getIndiceDescricao().getVersao()
+				+ this.cg.getControllerPesquisa().getIndiceCamposInteresse().getVersao()
+				+ this.cg.getControllerPesquisador().getIndiceBiografia().getVersao()
+				+ this.cg.getControllerProblemaObjetivo().getIndiceProblemas().getVersao()
+				+ this.cg.getControllerProblemaObjetivo().getIndiceObjetivos().getVersao()
+				+ this.cg.getControllerAtividade().getIndiceAtividades().getVersao();
 	}
 
 	/**
@@ -97,25 +601,17 @@ public class Busca {
 	private List<ResultadoBusca> buscaPesquisa(String termo) {
 		
 		List<ResultadoBusca> matchsList = new ArrayList<ResultadoBusca>();		
-		List<Pesquisa> pesquisas = this.cg.getControllerPesquisa().getPesquisas();
-		
-		for (final Pesquisa pesquisa : pesquisas) {			
-			
-			final ResultadoBusca result = new ResultadoBusca(pesquisa.getCodigo(), pesquisa.getDescricao());
-			
-			if(result.match(termo))
-				matchsList.add(result);
-							
-			//if(pesquisa.getAtividades().size() > 0) {				
-			
-				result.setCamposInteresses(pesquisa.getCamposInteresse());
-				
-				if(result.matchInteresses(termo)) {
-					matchsList.add(new ResultadoBusca(pesquisa.getCodigo(), pesquisa.getCamposInteresse()));
-				}
-				
-			//}			
-		}		
+		ControllerPesquisa controller = this.cg.getControllerPesquisa();
+		
+		matchsList.addAll(filtra(pesquisasCandidatas(controller.getIndiceDescricao().candidatos(termo)),
+				pesquisa -> new ResultadoBusca(pesquisa.getCodigo(), pesquisa.getDescricao(),
+						pesquisa.getDescricaoNormalizada(), ResultadoBusca.PESO_DESCRICAO),
+				result -> result.casa(termo)));
+		
+		matchsList.addAll(filtra(pesquisasCandidatas(controller.getIndiceCamposInteresse().candidatos(termo)),
+				pesquisa -> new ResultadoBusca(pesquisa.getCodigo(), pesquisa.getCamposInteresse(),
+						pesquisa.getCamposInteresseNormalizados()),
+				result -> result.casaInteresses(termo)));
 		
 		matchsList.sort(ResultadoBusca.getComparador());
 		return matchsList;
@@ -129,16 +625,14 @@ public class Busca {
 	 * */
 	private List<ResultadoBusca> buscaPesquisador(String termo) {
 		
-		List<ResultadoBusca> matchsList = new ArrayList<ResultadoBusca>();		
-		List<Pesquisador> pesquisadores = this.cg.getControllerPesquisador().getPesquisadores();
-		
-		for (Pesquisador pesquisador : pesquisadores) {
-			
-			ResultadoBusca result = new ResultadoBusca(pesquisador.getEmail(), pesquisador.getBiografia());			
-			
-			if(result.match(termo))
-				matchsList.add(result);
-		}
+		ControllerPesquisador controller = this.cg.getControllerPesquisador();
+		List<Pesquisador> pesquisadores = candidatas(controller.getIndiceBiografia().candidatos(termo),
+				controller::getPesquisadores, controller::pesquisador);
+		
+		List<ResultadoBusca> matchsList = filtra(pesquisadores,
+				pesquisador -> new ResultadoBusca(pesquisador.getEmail(), pesquisador.getBiografia(),
+						pesquisador.getBiografiaNormalizada(), ResultadoBusca.PESO_BIOGRAFIA),
+				result -> result.casa(termo));
 		
 		matchsList.sort(ResultadoBusca.getComparador());
 		return matchsList;
@@ -153,39 +647,35 @@ public class Busca {
 	 * */
 	private List<ResultadoBusca> buscaProblema(String termo) {
 		
-		List<ResultadoBusca> matchsList = new ArrayList<ResultadoBusca>();		
-		List<Problema> problemas = this.cg.getControllerProblemaObjetivo().getProblemas();
-		
-		for (Problema problema : problemas) {
-			
-			ResultadoBusca result = new ResultadoBusca(problema.getCodigo(), problema.getDescricao());			
-			
-			if(result.match(termo))
-				matchsList.add(result);
-		}
+		ControllerProblemaObjetivo controller = this.cg.getControllerProblemaObjetivo();
+		List<Problema> problemas = candidatas(controller.getIndiceProblemas().candidatos(termo),
+				controller::getProblemas, controller::problema);
+		
+		List<ResultadoBusca> matchsList = filtra(problemas,
+				problema -> new ResultadoBusca(problema.getCodigo(), problema.getDescricao(),
+						problema.getDescricaoNormalizada(), ResultadoBusca.PESO_DESCRICAO),
+				result -> result.casa(termo));
 		
 		matchsList.sort(ResultadoBusca.getComparador());
 		return matchsList;
 	}
 	
 	/**
-	 * Metodo interno para a busca espec�fica de Objetivos
+	 * Metodo interno para a busca especifica de Objetivos
 	 * 
 	 * @param String termo
 	 * @return List<ResultadoBusca>
 	 * */
 	private List<ResultadoBusca> buscaObjetivo(String termo) {
 		
-		List<ResultadoBusca> matchsList  = new ArrayList<ResultadoBusca>();				
-		List<Objetivo> objetivos = this.cg.getControllerProblemaObjetivo().getObjetivos();
+		ControllerProblemaObjetivo controller = this.cg.getControllerProblemaObjetivo();
+		List<Objetivo> objetivos = candidatas(controller.getIndiceObjetivos().candidatos(termo),
+				controller::getObjetivos, controller::objetivo);
 		
-		for (Objetivo objetivo : objetivos) {
-			
-			ResultadoBusca result = new ResultadoBusca(objetivo.getCodigo(), objetivo.getDescricao());			
-			
-			if(result.match(termo))
-				matchsList.add(result);
-		}
+		List<ResultadoBusca> matchsList = filtra(objetivos,
+				objetivo -> new ResultadoBusca(objetivo.getCodigo(), objetivo.getDescricao(),
+						objetivo.getDescricaoNormalizada(), ResultadoBusca.PESO_DESCRICAO),
+				result -> result.casa(termo));
 		
 		matchsList.sort(ResultadoBusca.getComparador());
 		
@@ -200,24 +690,92 @@ public class Busca {
 	 * */
 	private List<ResultadoBusca> buscaAtividade(String termo) {
 		
-		List<ResultadoBusca> matchsList  = new ArrayList<ResultadoBusca>();
-		
-		
-		List<Atividade> atividades = this.cg.getControllerAtividade().getAtividades();
+		ControllerAtividade controller = this.cg.getControllerAtividade();
+		List<Atividade> atividades = candidatas(controller.getIndiceAtividades().candidatos(termo),
+				controller::getAtividades, controller::getAtividade);
 		
-		for (Atividade atividade : atividades) {
-			
-			ResultadoBusca result = new ResultadoBusca(atividade.getCodigo(), atividade.getDescricao());			
-			
-			if(result.match(termo))
-				matchsList.add(result);
-		}
+		List<ResultadoBusca> matchsList = filtra(atividades,
+				atividade -> new ResultadoBusca(atividade.getCodigo(), atividade.getDescricao(),
+						atividade.getDescricaoNormalizada(), ResultadoBusca.PESO_DESCRICAO),
+				result -> result.casa(termo));
 		
 		matchsList.sort(ResultadoBusca.getComparador());
 
 		return matchsList;
 	}
 	
+	/**
+	 * Metodo interno que verifica as entidades candidatas, mantendo a ordem da
+	 * lista recebida. Com o modo paralelo ativo, listas grandes sao verificadas
+	 * em paralelo no pool configurado; fora de uma tarefa desse pool (como no
+	 * cursor) a verificacao e submetida a ele, para nao cair no pool comum.
+	 * 
+	 * @param entidades As entidades candidatas.
+	 * @param resultado A funcao que cria o resultado de uma entidade.
+	 * @param casa O criterio de verificacao do resultado.
+	 * @return A lista dos resultados que casam com o termo.
+	 * */
+	private <T> List<ResultadoBusca> filtra(List<T> entidades, Function<T, ResultadoBusca> resultado,
+			Predicate<ResultadoBusca> casa) {
+		
+		ForkJoinPool pool = this.pool;
+		
+		if (pool == null || entidades.size() < LIMIAR_PARALELO) {
+			List<ResultadoBusca> matchsList = new ArrayList<ResultadoBusca>();
+			for (T entidade : entidades) {
+				ResultadoBusca result = resultado.apply(entidade);
+				if (casa.test(result))
+					matchsList.add(result);
+			}
+			return matchsList;
+		}
+		
+		Supplier<List<ResultadoBusca>> verificacao = () -> entidades.parallelStream().map(resultado).filter(casa)
+				.collect(Collectors.toCollection(ArrayList::new));
+		
+		if (ForkJoinTask.getPool() == pool)
+			return verificacao.get();
+		
+		return pool.submit(verificacao::get).join();
+	}
+	
+	/**
+	 * Metodo interno que retorna as pesquisas candidatas indicadas por um indice.
+	 * 
+	 * @param candidatos Os codigos candidatos, ou null para todas as pesquisas.
+	 * @return A lista de pesquisas a serem verificadas.
+	 * */
+	private List<Pesquisa> pesquisasCandidatas(Set<String> candidatos) {
+		
+		ControllerPesquisa controller = this.cg.getControllerPesquisa();
+		return candidatas(candidatos, controller::getPesquisas, controller::pesquisa);
+	}
+	
+	/**
+	 * Metodo interno que retorna as entidades candidatas indicadas por um
+	 * indice, ignorando as que foram removidas depois de indexadas.
+	 * 
+	 * @param candidatos Os codigos candidatos, ou null para todas as entidades.
+	 * @param todas A funcao que retorna todas as entidades.
+	 * @param entidade A funcao que retorna a entidade de um codigo, ou null se
+	 * ela nao existe mais.
+	 * @return A lista de entidades a serem verificadas.
+	 * */
+	private static <T> List<T> candidatas(Set<String> candidatos, Supplier<List<T>> todas,
+			Function<String, T> entidade) {
+		
+		if (candidatos == null)
+			return todas.get();
+		
+		List<T> entidades = new ArrayList<>(candidatos.size());
+		for (String codigo : candidatos) {
+			T encontrada = entidade.apply(codigo);
+			if (encontrada != null)
+				entidades.add(encontrada);
+		}
+		return entidades;
+	}
+	
 	/**
 	 *Metodo retorna um resultado de uma busca em uma determinada posicao
 	 *
@@ -231,12 +789,15 @@ public class Busca {
 		if(numeroDoResultado<0)
 			throw new Error("Numero do resultado nao pode ser negativo");
 		
-		busca(termo, true);
+		RespostaBusca resposta = consulta(termo);
+		
+		if(resposta.isVazia())
+			throw new Error("Nenhum resultado encontrado");
 		
-		if(this.resulEncontrados.size() <= numeroDoResultado)
+		if(resposta.tamanho() <= numeroDoResultado)
 			throw new Error("Entidade nao encontrada.");
 			 
-		return this.resulEncontrados.get(numeroDoResultado-1).toString();
+		return resposta.get(numeroDoResultado-1).toString();
 	}
 	
     
@@ -248,9 +809,11 @@ public class Busca {
 	 * */
 	public int contaResultadosBusca(String termo) {
     	
-		validador.valida(termo, "Campo termo nao pode ser nulo ou vazio.");
-
-    	busca(termo, true);
-    	return this.resulEncontrados.size();
+		RespostaBusca resposta = consulta(termo);
+    	
+    	if(resposta.isVazia())
+    		throw new Error("Nenhum resultado encontrado");
+    	
+    	return resposta.tamanho();
     }
 }
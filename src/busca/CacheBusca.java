@@ -0,0 +1,109 @@
+package busca;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache limitado (LRU) das listas de resultados ja calculadas pela busca.
+ *
+ * Cada lista e guardada pelo termo procurado. O cache guarda tambem a versao
+ * dos indices no momento em que as listas foram calculadas; quando os
+ * controladores alteram algum indice a versao muda e o cache e descartado.
+ *
+ * Os metodos sao sincronizados, mas apenas para consultar ou guardar uma
+ * resposta: o calculo da busca acontece fora do cache, sem bloquear outras
+ * consultas.
+ *
+ */
+public class CacheBusca {
+
+	/**
+	 * Quantidade maxima de termos mantidos no cache.
+	 *
+	 */
+	private final int capacidade;
+
+	/**
+	 * Mapa em ordem de acesso com as listas de resultados por termo.
+	 *
+	 */
+	private Map<String, RespostaBusca> resultados;
+
+	/**
+	 * Versao dos indices a que os resultados guardados correspondem.
+	 *
+	 */
+	private long versao;
+
+	/**
+	 * Construtor do cache.
+	 *
+	 * @param capacidade A quantidade maxima de termos guardados.
+	 */
+	public CacheBusca(int capacidade) {
+		if (capacidade < 1) {
+			throw new IllegalArgumentException("Capacidade do cache deve ser positiva.");
+		}
+		this.capacidade = capacidade;
+		this.versao = -1;
+		this.resultados = new LinkedHashMap<String, RespostaBusca>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, RespostaBusca> maisAntigo) {
+				return size() > CacheBusca.this.capacidade;
+			}
+		};
+	}
+
+	/**
+	 * Metodo que recupera os resultados de um termo, se ainda validos.
+	 *
+	 * @param termo  O termo procurado.
+	 * @param versao A versao atual dos indices.
+	 * @return Os resultados guardados, ou null se nao estao no cache.
+	 */
+	public synchronized RespostaBusca get(String termo, long versao) {
+		if (!this.atualizaVersao(versao)) {
+			return null;
+		}
+		return this.resultados.get(termo);
+	}
+
+	/**
+	 * Metodo que guarda os resultados de um termo.
+	 *
+	 * @param termo      O termo procurado.
+	 * @param versao     A versao dos indices usada no calculo. Respostas
+	 *                   calculadas com uma versao mais antiga que a do cache
+	 *                   sao ignoradas.
+	 * @param resultados Os resultados encontrados.
+	 */
+	public synchronized void put(String termo, long versao, RespostaBusca resultados) {
+		if (this.atualizaVersao(versao)) {
+			this.resultados.put(termo, resultados);
+		}
+	}
+
+	/**
+	 * Metodo que retorna a quantidade de termos guardados.
+	 *
+	 * @return A quantidade de termos no cache.
+	 */
+	public synchronized int tamanho() {
+		return this.resultados.size();
+	}
+
+	/**
+	 * Metodo interno que descarta o cache quando os indices ficam mais novos
+	 * que os resultados guardados.
+	 *
+	 * @param versao A versao dos indices conhecida por quem chama.
+	 * @return "True" se a versao corresponde a dos resultados guardados.
+	 */
+	private boolean atualizaVersao(long versao) {
+		if (versao > this.versao) {
+			this.resultados.clear();
+			this.versao = versao;
+		}
+		return versao == this.versao;
+	}
+}
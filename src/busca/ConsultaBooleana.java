@@ -0,0 +1,449 @@
+package busca;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import util.Normalizador;
+
+/**
+ * Consulta com varios termos combinados por operadores booleanos.
+ *
+ * A sintaxe aceita palavras, frases entre aspas duplas, parenteses e os
+ * operadores AND, OR e NOT (em maiusculo). Termos lado a lado sem operador sao
+ * combinados por AND. A precedencia, da maior para a menor, e NOT, AND e OR.
+ * Exemplo: {@code "teoria dos grafos" AND (ufcg OR ufpb) NOT python}.
+ *
+ * Cada palavra casa com as entidades que possuem exatamente essa palavra (sem
+ * distinguir maiusculas de minusculas nem acentos) no campo indexado. A consulta e
+ * resolvida sobre as listas de postagens ordenadas de um {@link IndiceBusca}:
+ * AND intercala as listas mantendo os codigos em comum, OR intercala as listas
+ * unindo os codigos e NOT retira os codigos da lista de todas as entidades
+ * indexadas. Frases usam a intersecao das postagens das suas palavras e sao
+ * confirmadas contra o texto real da entidade.
+ *
+ */
+public class ConsultaBooleana {
+
+	/**
+	 * A consulta original.
+	 *
+	 */
+	private final String consulta;
+
+	/**
+	 * A raiz da arvore de operadores da consulta.
+	 *
+	 */
+	private final No raiz;
+
+	/**
+	 * Simbolos da consulta, produzidos pela analise lexica.
+	 *
+	 */
+	private List<String> simbolos;
+
+	/**
+	 * Posicao do proximo simbolo a ser consumido pela analise sintatica.
+	 *
+	 */
+	private int posicao;
+
+	/**
+	 * Construtor da consulta, que analisa o texto recebido.
+	 *
+	 * @param consulta O texto da consulta.
+	 */
+	public ConsultaBooleana(String consulta) {
+		if (consulta == null || consulta.trim().isEmpty()) {
+			throw new IllegalArgumentException("Consulta nao pode ser nula ou vazia.");
+		}
+		this.consulta = consulta;
+		this.simbolos = simbolos(consulta);
+		this.posicao = 0;
+		this.raiz = this.ou();
+		if (this.posicao < this.simbolos.size()) {
+			throw new IllegalArgumentException("Consulta invalida: simbolo inesperado " + this.simbolos.get(this.posicao));
+		}
+		this.simbolos = null;
+	}
+
+	/**
+	 * Metodo que avalia a consulta sobre um indice.
+	 *
+	 * @param indice O indice do campo consultado.
+	 * @param texto  A funcao que retorna o texto normalizado de um codigo,
+	 *               usada para confirmar frases.
+	 * @return Os codigos, em ordem crescente, das entidades que satisfazem a
+	 *         consulta.
+	 */
+	public List<String> avalia(IndiceBusca indice, Function<String, String> texto) {
+		return this.raiz.avalia(indice, texto);
+	}
+
+	@Override
+	public String toString() {
+		return this.consulta;
+	}
+
+	/**
+	 * Metodo interno da analise sintatica: uma sequencia de operandos de AND
+	 * separados por OR.
+	 *
+	 * @return O no da disjuncao.
+	 */
+	private No ou() {
+		List<No> operandos = new ArrayList<>();
+		operandos.add(this.e());
+		while (this.consome("OR")) {
+			operandos.add(this.e());
+		}
+		return operandos.size() == 1 ? operandos.get(0) : new Ou(operandos);
+	}
+
+	/**
+	 * Metodo interno da analise sintatica: uma sequencia de operandos separados
+	 * por AND ou apenas justapostos.
+	 *
+	 * @return O no da conjuncao.
+	 */
+	private No e() {
+		List<No> operandos = new ArrayList<>();
+		operandos.add(this.nao());
+		while (true) {
+			if (this.consome("AND")) {
+				operandos.add(this.nao());
+			} else if (this.iniciaOperando()) {
+				operandos.add(this.nao());
+			} else {
+				break;
+			}
+		}
+		return operandos.size() == 1 ? operandos.get(0) : new E(operandos);
+	}
+
+	/**
+	 * Metodo interno da analise sintatica: um operando precedido ou nao de NOT.
+	 *
+	 * @return O no do operando.
+	 */
+	private No nao() {
+		if (this.consome("NOT")) {
+			return new Nao(this.nao());
+		}
+		return this.primario();
+	}
+
+	/**
+	 * Metodo interno da analise sintatica: uma consulta entre parenteses, uma
+	 * frase ou uma palavra.
+	 *
+	 * @return O no do operando.
+	 */
+	private No primario() {
+		if (this.posicao >= this.simbolos.size()) {
+			throw new IllegalArgumentException("Consulta invalida: termo esperado.");
+		}
+		String simbolo = this.simbolos.get(this.posicao++);
+		if (simbolo.equals("(")) {
+			No interno = this.ou();
+			if (!this.consome(")")) {
+				throw new IllegalArgumentException("Consulta invalida: parentese nao fechado.");
+			}
+			return interno;
+		}
+		if (simbolo.equals(")") || simbolo.equals("AND") || simbolo.equals("OR")) {
+			throw new IllegalArgumentException("Consulta invalida: termo esperado antes de " + simbolo);
+		}
+		String texto = simbolo.startsWith("\"") ? simbolo.substring(1) : simbolo;
+		List<String> palavras = IndiceBusca.tokeniza(Normalizador.normaliza(texto));
+		if (palavras.isEmpty()) {
+			throw new IllegalArgumentException("Consulta invalida: termo sem letras ou digitos.");
+		}
+		return palavras.size() == 1 ? new Palavra(palavras.get(0)) : new Frase(palavras);
+	}
+
+	/**
+	 * Metodo interno que informa se o proximo simbolo inicia um operando.
+	 *
+	 * @return "True" se o proximo simbolo inicia um operando.
+	 */
+	private boolean iniciaOperando() {
+		if (this.posicao >= this.simbolos.size()) {
+			return false;
+		}
+		String simbolo = this.simbolos.get(this.posicao);
+		return !simbolo.equals(")") && !simbolo.equals("OR") && !simbolo.equals("AND");
+	}
+
+	/**
+	 * Metodo interno que consome o proximo simbolo se ele for o esperado.
+	 *
+	 * @param esperado O simbolo esperado.
+	 * @return "True" se o simbolo foi consumido.
+	 */
+	private boolean consome(String esperado) {
+		if (this.posicao < this.simbolos.size() && this.simbolos.get(this.posicao).equals(esperado)) {
+			this.posicao++;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Metodo interno que separa a consulta em simbolos: parenteses, frases
+	 * (guardadas com a aspa inicial) e palavras.
+	 *
+	 * @param consulta O texto da consulta.
+	 * @return A lista de simbolos.
+	 */
+	private static List<String> simbolos(String consulta) {
+		List<String> simbolos = new ArrayList<>();
+		int i = 0;
+		while (i < consulta.length()) {
+			char c = consulta.charAt(i);
+			if (Character.isWhitespace(c)) {
+				i++;
+			} else if (c == '(' || c == ')') {
+				simbolos.add(String.valueOf(c));
+				i++;
+			} else if (c == '"') {
+				int fim = consulta.indexOf('"', i + 1);
+				if (fim < 0) {
+					throw new IllegalArgumentException("Consulta invalida: aspas nao fechadas.");
+				}
+				simbolos.add(consulta.substring(i, fim));
+				i = fim + 1;
+			} else {
+				int inicio = i;
+				while (i < consulta.length() && !Character.isWhitespace(consulta.charAt(i))
+						&& "()\"".indexOf(consulta.charAt(i)) < 0) {
+					i++;
+				}
+				simbolos.add(consulta.substring(inicio, i));
+			}
+		}
+		return simbolos;
+	}
+
+	/**
+	 * Metodo interno que intercala duas listas ordenadas, mantendo os codigos
+	 * presentes nas duas.
+	 *
+	 * @param a A primeira lista.
+	 * @param b A segunda lista.
+	 * @return A intersecao ordenada.
+	 */
+	private static List<String> intersecao(List<String> a, List<String> b) {
+		List<String> resultado = new ArrayList<>(Math.min(a.size(), b.size()));
+		int i = 0;
+		int j = 0;
+		while (i < a.size() && j < b.size()) {
+			int comparacao = a.get(i).compareTo(b.get(j));
+			if (comparacao == 0) {
+				resultado.add(a.get(i));
+				i++;
+				j++;
+			} else if (comparacao < 0) {
+				i++;
+			} else {
+				j++;
+			}
+		}
+		return resultado;
+	}
+
+	/**
+	 * Metodo interno que intercala duas listas ordenadas, unindo os codigos.
+	 *
+	 * @param a A primeira lista.
+	 * @param b A segunda lista.
+	 * @return A uniao ordenada, sem repeticoes.
+	 */
+	private static List<String> uniao(List<String> a, List<String> b) {
+		List<String> resultado = new ArrayList<>(a.size() + b.size());
+		int i = 0;
+		int j = 0;
+		while (i < a.size() || j < b.size()) {
+			int comparacao = i == a.size() ? 1 : j == b.size() ? -1 : a.get(i).compareTo(b.get(j));
+			if (comparacao <= 0) {
+				resultado.add(a.get(i));
+				i++;
+				if (comparacao == 0) {
+					j++;
+				}
+			} else {
+				resultado.add(b.get(j));
+				j++;
+			}
+		}
+		return resultado;
+	}
+
+	/**
+	 * Metodo interno que intercala duas listas ordenadas, retirando da primeira
+	 * os codigos presentes na segunda.
+	 *
+	 * @param a A lista de origem.
+	 * @param b A lista de codigos retirados.
+	 * @return A diferenca ordenada.
+	 */
+	private static List<String> diferenca(List<String> a, List<String> b) {
+		List<String> resultado = new ArrayList<>(a.size());
+		int j = 0;
+		for (String codigo : a) {
+			while (j < b.size() && b.get(j).compareTo(codigo) < 0) {
+				j++;
+			}
+			if (j == b.size() || !b.get(j).equals(codigo)) {
+				resultado.add(codigo);
+			}
+		}
+		return resultado;
+	}
+
+	/**
+	 * No da arvore de operadores da consulta.
+	 *
+	 */
+	private interface No {
+
+		/**
+		 * Metodo que avalia o no sobre um indice.
+		 *
+		 * @param indice O indice consultado.
+		 * @param texto  A funcao que retorna o texto indexado de um codigo.
+		 * @return Os codigos que satisfazem o no, em ordem crescente.
+		 */
+		List<String> avalia(IndiceBusca indice, Function<String, String> texto);
+	}
+
+	/**
+	 * Uma palavra da consulta.
+	 *
+	 */
+	private static class Palavra implements No {
+
+		private final String palavra;
+
+		Palavra(String palavra) {
+			this.palavra = palavra;
+		}
+
+		@Override
+		public List<String> avalia(IndiceBusca indice, Function<String, String> texto) {
+			return indice.postagem(this.palavra);
+		}
+	}
+
+	/**
+	 * Uma frase da consulta: palavras que precisam aparecer em sequencia.
+	 *
+	 */
+	private static class Frase implements No {
+
+		private final List<String> palavras;
+
+		Frase(List<String> palavras) {
+			this.palavras = palavras;
+		}
+
+		@Override
+		public List<String> avalia(IndiceBusca indice, Function<String, String> texto) {
+			List<String> candidatos = null;
+			for (String palavra : this.palavras) {
+				List<String> postagem = indice.postagem(palavra);
+				candidatos = candidatos == null ? postagem : intersecao(candidatos, postagem);
+				if (candidatos.isEmpty()) {
+					return candidatos;
+				}
+			}
+			List<String> resultado = new ArrayList<>();
+			for (String codigo : candidatos) {
+				if (Collections.indexOfSubList(IndiceBusca.tokeniza(texto.apply(codigo)), this.palavras) >= 0) {
+					resultado.add(codigo);
+				}
+			}
+			return resultado;
+		}
+	}
+
+	/**
+	 * Conjuncao de operandos. Operandos negados sao retirados do resultado dos
+	 * demais, sem avaliar a lista de todas as entidades.
+	 *
+	 */
+	private static class E implements No {
+
+		private final List<No> operandos;
+
+		E(List<No> operandos) {
+			this.operandos = operandos;
+		}
+
+		@Override
+		public List<String> avalia(IndiceBusca indice, Function<String, String> texto) {
+			List<String> resultado = null;
+			List<No> negados = new ArrayList<>();
+			for (No operando : this.operandos) {
+				if (operando instanceof Nao) {
+					negados.add(((Nao) operando).operando);
+				} else {
+					List<String> codigos = operando.avalia(indice, texto);
+					resultado = resultado == null ? codigos : intersecao(resultado, codigos);
+				}
+				if (resultado != null && resultado.isEmpty()) {
+					return resultado;
+				}
+			}
+			if (resultado == null) {
+				resultado = indice.codigos();
+			}
+			for (No negado : negados) {
+				resultado = diferenca(resultado, negado.avalia(indice, texto));
+			}
+			return resultado;
+		}
+	}
+
+	/**
+	 * Disjuncao de operandos.
+	 *
+	 */
+	private static class Ou implements No {
+
+		private final List<No> operandos;
+
+		Ou(List<No> operandos) {
+			this.operandos = operandos;
+		}
+
+		@Override
+		public List<String> avalia(IndiceBusca indice, Function<String, String> texto) {
+			List<String> resultado = new ArrayList<>();
+			for (No operando : this.operandos) {
+				resultado = uniao(resultado, operando.avalia(indice, texto));
+			}
+			return resultado;
+		}
+	}
+
+	/**
+	 * Negacao de um operando, em relacao a todas as entidades do indice.
+	 *
+	 */
+	private static class Nao implements No {
+
+		private final No operando;
+
+		Nao(No operando) {
+			this.operando = operando;
+		}
+
+		@Override
+		public List<String> avalia(IndiceBusca indice, Function<String, String> texto) {
+			return diferenca(indice.codigos(), this.operando.avalia(indice, texto));
+		}
+	}
+}
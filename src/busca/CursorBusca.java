@@ -0,0 +1,76 @@
+package busca;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+/**
+ * Cursor sobre os resultados de uma busca.
+ *
+ * Os resultados sao produzidos por tipo de entidade, na ordem de exibicao da
+ * busca: a busca de um tipo so e executada quando o cursor termina de percorrer
+ * os resultados do tipo anterior. Assim, quem consome apenas os primeiros
+ * resultados nao paga pela busca nos demais tipos de entidade.
+ *
+ */
+public class CursorBusca implements Iterator<ResultadoBusca> {
+
+	/**
+	 * Buscas de cada tipo de entidade, na ordem de exibicao.
+	 *
+	 */
+	private List<Supplier<List<ResultadoBusca>>> etapas;
+
+	/**
+	 * Indice da proxima etapa a ser executada.
+	 *
+	 */
+	private int proximaEtapa;
+
+	/**
+	 * Resultados da etapa atual ainda nao percorridos.
+	 *
+	 */
+	private Iterator<ResultadoBusca> atual;
+
+	/**
+	 * Construtor do cursor.
+	 *
+	 * @param etapas As buscas de cada tipo de entidade, na ordem de exibicao.
+	 */
+	public CursorBusca(List<Supplier<List<ResultadoBusca>>> etapas) {
+		this.etapas = etapas;
+		this.proximaEtapa = 0;
+		this.atual = Collections.emptyIterator();
+	}
+
+	/**
+	 * Metodo que informa se ainda ha resultados, executando as proximas etapas
+	 * apenas quando necessario.
+	 *
+	 * @return "True" se ha mais resultados.
+	 */
+	@Override
+	public boolean hasNext() {
+		while (!this.atual.hasNext() && this.proximaEtapa < this.etapas.size()) {
+			this.atual = this.etapas.get(this.proximaEtapa).get().iterator();
+			this.proximaEtapa++;
+		}
+		return this.atual.hasNext();
+	}
+
+	/**
+	 * Metodo que retorna o proximo resultado.
+	 *
+	 * @return O proximo resultado da busca.
+	 */
+	@Override
+	public ResultadoBusca next() {
+		if (!this.hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return this.atual.next();
+	}
+}
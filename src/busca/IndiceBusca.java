@@ -0,0 +1,290 @@
+package busca;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Indice invertido de um campo textual das entidades do sistema.
+ *
+ * Associa cada termo (sequencia de letras e digitos, em minusculo) aos codigos
+ * das entidades cujo texto contem esse termo. O indice recebe o texto ja
+ * normalizado pelas entidades (ver {@link util.Normalizador}), e as consultas
+ * devem usar termos normalizados da mesma forma. Os controladores mantem o indice
+ * atualizado no cadastro, na alteracao e na remocao das entidades, permitindo
+ * que a busca verifique apenas as entidades candidatas.
+ *
+ * Termos com pelo menos tres caracteres sao resolvidos pelo {@link IndiceNGrama}
+ * mantido junto com as palavras; termos menores usam o vocabulario de palavras.
+ *
+ * As postagens de cada termo sao mantidas ordenadas por codigo, permitindo
+ * que consultas com varios termos sejam resolvidas pela intercalacao das listas
+ * (ver {@link ConsultaBooleana}).
+ *
+ * O vocabulario de palavras tambem e guardado em uma {@link ArvoreBK}, usada
+ * pela busca aproximada para encontrar palavras parecidas com um termo sem
+ * comparar o termo com todo o vocabulario.
+ *
+ * As consultas ao indice podem ser feitas por varias threads ao mesmo tempo,
+ * inclusive durante uma atualizacao; as atualizacoes sao feitas pelo
+ * controlador dono do indice, uma de cada vez. Os codigos retornados podem
+ * pertencer a entidades ja removidas, que devem ser ignoradas por quem consulta.
+ *
+ */
+public class IndiceBusca {
+
+	/**
+	 * Mapa que associa cada termo aos codigos (ordenados) das entidades que o
+	 * contem.
+	 *
+	 */
+	private Map<String, Set<String>> postagens;
+
+	/**
+	 * Mapa, ordenado por codigo, que associa cada codigo aos termos indexados
+	 * para a entidade.
+	 *
+	 */
+	private Map<String, Set<String>> termosPorCodigo;
+
+	/**
+	 * Indice de n-gramas do mesmo campo, usado para termos maiores.
+	 *
+	 */
+	private IndiceNGrama indiceNGrama;
+
+	/**
+	 * Arvore com as palavras do vocabulario, para a busca aproximada.
+	 *
+	 */
+	private volatile ArvoreBK vocabulario;
+
+	/**
+	 * Contador de modificacoes do indice, incrementado depois de cada indexacao
+	 * ou remocao terminar. Uma consulta que le uma versao ve todas as
+	 * alteracoes anteriores a ela; uma resposta calculada durante uma alteracao
+	 * fica com a versao antiga e e descartada do cache quando a versao muda.
+	 *
+	 */
+	private volatile long versao;
+
+	/**
+	 * Construtor do indice, inicia os mapas vazios.
+	 *
+	 */
+	public IndiceBusca() {
+		this.postagens = new ConcurrentHashMap<>();
+		this.termosPorCodigo = new ConcurrentSkipListMap<>();
+		this.indiceNGrama = new IndiceNGrama();
+		this.vocabulario = new ArvoreBK();
+	}
+
+	/**
+	 * Metodo que indexa o texto de uma entidade, substituindo o que ja estava
+	 * indexado para o mesmo codigo.
+	 *
+	 * @param codigo O identificador da entidade.
+	 * @param texto  O texto a ser indexado.
+	 */
+	public void indexa(String codigo, String texto) {
+		this.remove(codigo);
+		Set<String> termos = new HashSet<>(tokeniza(texto));
+		for (String termo : termos) {
+			Set<String> codigos = this.postagens.get(termo);
+			if (codigos == null) {
+				codigos = new ConcurrentSkipListSet<>();
+				this.postagens.put(termo, codigos);
+				this.vocabulario.adiciona(termo);
+			}
+			codigos.add(codigo);
+		}
+		this.termosPorCodigo.put(codigo, termos);
+		this.indiceNGrama.indexa(codigo, texto);
+		this.versao++;
+	}
+
+	/**
+	 * Metodo que remove do indice tudo o que foi indexado para um codigo.
+	 *
+	 * @param codigo O identificador da entidade.
+	 */
+	public void remove(String codigo) {
+		this.indiceNGrama.remove(codigo);
+		Set<String> termos = this.termosPorCodigo.remove(codigo);
+		if (termos == null) {
+			return;
+		}
+		for (String termo : termos) {
+			Set<String> codigos = this.postagens.get(termo);
+			codigos.remove(codigo);
+			if (codigos.isEmpty()) {
+				this.postagens.remove(termo);
+			}
+		}
+		if (this.vocabulario.tamanho() > 2 * this.postagens.size() + 64) {
+			this.reconstroiVocabulario();
+		}
+		this.versao++;
+	}
+
+	/**
+	 * Metodo que retorna os codigos das entidades que podem conter o termo
+	 * procurado. O resultado e um superconjunto das entidades cujo texto contem
+	 * o termo, devendo ser verificado contra o texto real.
+	 *
+	 * Termos com ao menos um n-grama sao resolvidos pela intersecao das
+	 * postagens de n-gramas. Nos demais, cada palavra do termo precisa estar
+	 * contida em alguma palavra indexada da entidade. Ambos preservam a
+	 * semantica de "contem" da busca.
+	 *
+	 * @param termo O termo procurado.
+	 * @return Os codigos candidatos, ou null se o termo nao possui palavras e
+	 *         todas as entidades precisam ser verificadas.
+	 */
+	public Set<String> candidatos(String termo) {
+		Set<String> porNGrama = this.indiceNGrama.candidatos(termo);
+		if (porNGrama != null) {
+			return porNGrama;
+		}
+		List<String> palavras = tokeniza(termo);
+		if (palavras.isEmpty()) {
+			return null;
+		}
+		Set<String> candidatos = null;
+		for (String palavra : new HashSet<>(palavras)) {
+			Set<String> codigos = new HashSet<>();
+			for (Map.Entry<String, Set<String>> entrada : this.postagens.entrySet()) {
+				if (entrada.getKey().contains(palavra)) {
+					codigos.addAll(entrada.getValue());
+				}
+			}
+			if (candidatos == null) {
+				candidatos = codigos;
+			} else {
+				candidatos.retainAll(codigos);
+			}
+			if (candidatos.isEmpty()) {
+				break;
+			}
+		}
+		return candidatos;
+	}
+
+	/**
+	 * Metodo que retorna a lista de postagens de uma palavra: os codigos, em
+	 * ordem crescente, das entidades que possuem exatamente essa palavra.
+	 *
+	 * @param palavra A palavra procurada, normalizada.
+	 * @return Os codigos das entidades com a palavra.
+	 */
+	public List<String> postagem(String palavra) {
+		Set<String> codigos = this.postagens.get(palavra);
+		if (codigos == null) {
+			return Collections.emptyList();
+		}
+		return new ArrayList<>(codigos);
+	}
+
+	/**
+	 * Metodo que retorna os codigos, em ordem crescente, de todas as entidades
+	 * indexadas.
+	 *
+	 * @return Os codigos indexados.
+	 */
+	public List<String> codigos() {
+		return new ArrayList<>(this.termosPorCodigo.keySet());
+	}
+
+	/**
+	 * Metodo que retorna as palavras do vocabulario a no maximo uma distancia
+	 * de edicao de uma palavra.
+	 *
+	 * @param palavra         A palavra procurada, normalizada.
+	 * @param distanciaMaxima A quantidade maxima de edicoes.
+	 * @return As palavras parecidas presentes no indice.
+	 */
+	public List<String> similares(String palavra, int distanciaMaxima) {
+		List<String> similares = new ArrayList<>();
+		for (String encontrada : this.vocabulario.procura(palavra, distanciaMaxima)) {
+			if (this.postagens.containsKey(encontrada)) {
+				similares.add(encontrada);
+			}
+		}
+		return similares;
+	}
+
+	/**
+	 * Metodo que retorna os codigos das entidades que possuem alguma palavra a
+	 * no maximo uma distancia de edicao da palavra recebida.
+	 *
+	 * @param palavra         A palavra procurada, normalizada.
+	 * @param distanciaMaxima A quantidade maxima de edicoes.
+	 * @return Os codigos encontrados, em ordem crescente.
+	 */
+	public List<String> aproximados(String palavra, int distanciaMaxima) {
+		Set<String> codigos = new TreeSet<>();
+		for (String similar : this.similares(palavra, distanciaMaxima)) {
+			codigos.addAll(this.postagens.getOrDefault(similar, Collections.emptySet()));
+		}
+		return new ArrayList<>(codigos);
+	}
+
+	/**
+	 * Metodo interno que reconstroi a arvore do vocabulario apenas com as
+	 * palavras ainda presentes no indice.
+	 *
+	 */
+	private void reconstroiVocabulario() {
+		ArvoreBK arvore = new ArvoreBK();
+		for (String palavra : this.postagens.keySet()) {
+			arvore.adiciona(palavra);
+		}
+		this.vocabulario = arvore;
+	}
+
+	/**
+	 * Metodo que retorna o contador de modificacoes do indice.
+	 *
+	 * @return A versao atual do indice.
+	 */
+	public long getVersao() {
+		return this.versao;
+	}
+
+	/**
+	 * Metodo que separa um texto nas palavras usadas pelo indice: sequencias
+	 * maximas de letras e digitos do texto em minusculo.
+	 *
+	 * @param texto O texto a ser separado.
+	 * @return A lista de palavras, na ordem em que aparecem.
+	 */
+	public static List<String> tokeniza(String texto) {
+		List<String> palavras = new ArrayList<>();
+		if (texto == null) {
+			return palavras;
+		}
+		String minusculo = texto.toLowerCase();
+		int inicio = -1;
+		for (int i = 0; i < minusculo.length(); i++) {
+			if (Character.isLetterOrDigit(minusculo.charAt(i))) {
+				if (inicio < 0) {
+					inicio = i;
+				}
+			} else if (inicio >= 0) {
+				palavras.add(minusculo.substring(inicio, i));
+				inicio = -1;
+			}
+		}
+		if (inicio >= 0) {
+			palavras.add(minusculo.substring(inicio));
+		}
+		return palavras;
+	}
+}
@@ -0,0 +1,147 @@
+package busca;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Indice de n-gramas (trigramas) de um campo textual das entidades do sistema.
+ *
+ * Associa cada sequencia de tres caracteres do texto em minusculo aos codigos
+ * das entidades que a contem. Como todo trecho contido no texto possui todos os
+ * seus trigramas no texto, a intersecao das postagens dos trigramas de um termo
+ * retorna um superconjunto das entidades que contem o termo como substring.
+ *
+ */
+public class IndiceNGrama {
+
+	/**
+	 * Tamanho dos n-gramas indexados.
+	 *
+	 */
+	public static final int TAMANHO_GRAMA = 3;
+
+	/**
+	 * Mapa que associa cada n-grama aos codigos das entidades que o contem.
+	 *
+	 */
+	private Map<String, Set<String>> postagens;
+
+	/**
+	 * Mapa que associa cada codigo aos n-gramas indexados para a entidade,
+	 * compartilhados entre as entidades.
+	 *
+	 */
+	private Map<String, String[]> gramasPorCodigo;
+
+	/**
+	 * Instancia compartilhada de cada n-grama indexado, para que entidades com
+	 * os mesmos n-gramas nao guardem copias deles.
+	 *
+	 */
+	private Map<String, String> canonicos;
+
+	/**
+	 * Construtor do indice, inicia os mapas vazios.
+	 *
+	 */
+	public IndiceNGrama() {
+		this.postagens = new ConcurrentHashMap<>();
+		this.gramasPorCodigo = new ConcurrentHashMap<>();
+		this.canonicos = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Metodo que indexa o texto de uma entidade, substituindo o que ja estava
+	 * indexado para o mesmo codigo.
+	 *
+	 * @param codigo O identificador da entidade.
+	 * @param texto  O texto a ser indexado.
+	 */
+	public void indexa(String codigo, String texto) {
+		this.remove(codigo);
+		Set<String> gramas = gramas(texto == null ? "" : texto.toLowerCase());
+		String[] indexados = new String[gramas.size()];
+		int i = 0;
+		for (String grama : gramas) {
+			this.postagens.computeIfAbsent(grama, g -> ConcurrentHashMap.newKeySet()).add(codigo);
+			String canonico = this.canonicos.putIfAbsent(grama, grama);
+			indexados[i++] = canonico == null ? grama : canonico;
+		}
+		this.gramasPorCodigo.put(codigo, indexados);
+	}
+
+	/**
+	 * Metodo que remove do indice tudo o que foi indexado para um codigo.
+	 *
+	 * @param codigo O identificador da entidade.
+	 */
+	public void remove(String codigo) {
+		String[] gramas = this.gramasPorCodigo.remove(codigo);
+		if (gramas == null) {
+			return;
+		}
+		for (String grama : gramas) {
+			Set<String> codigos = this.postagens.get(grama);
+			if (codigos == null) {
+				continue;
+			}
+			codigos.remove(codigo);
+			if (codigos.isEmpty()) {
+				this.postagens.remove(grama);
+				this.canonicos.remove(grama);
+			}
+		}
+	}
+
+	/**
+	 * Metodo que retorna os codigos das entidades cujo texto pode conter o termo
+	 * como substring, sem distinguir maiusculas de minusculas.
+	 *
+	 * @param termo O termo procurado.
+	 * @return Os codigos candidatos, ou null se o termo e menor que um n-grama.
+	 */
+	public Set<String> candidatos(String termo) {
+		String minusculo = termo.toLowerCase();
+		if (minusculo.length() < TAMANHO_GRAMA) {
+			return null;
+		}
+		Set<String> gramasTermo = gramas(minusculo);
+		List<Set<String>> postagensTermo = new ArrayList<>(gramasTermo.size());
+		Set<String> menor = null;
+		for (String grama : gramasTermo) {
+			Set<String> codigos = this.postagens.get(grama);
+			if (codigos == null) {
+				return new HashSet<>();
+			}
+			postagensTermo.add(codigos);
+			if (menor == null || codigos.size() < menor.size()) {
+				menor = codigos;
+			}
+		}
+		Set<String> candidatos = new HashSet<>(menor);
+		for (Set<String> codigos : postagensTermo) {
+			if (codigos != menor) {
+				candidatos.retainAll(codigos);
+			}
+		}
+		return candidatos;
+	}
+
+	/**
+	 * Metodo interno que retorna o conjunto de n-gramas de um texto.
+	 *
+	 * @param texto O texto, ja em minusculo.
+	 * @return O conjunto de n-gramas.
+	 */
+	private static Set<String> gramas(String texto) {
+		Set<String> gramas = new HashSet<>();
+		for (int i = 0; i + TAMANHO_GRAMA <= texto.length(); i++) {
+			gramas.add(texto.substring(i, i + TAMANHO_GRAMA));
+		}
+		return gramas;
+	}
+}
@@ -0,0 +1,84 @@
+package busca;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado completo de uma consulta da busca.
+ *
+ * Cada consulta produz a sua propria resposta, que nao e alterada depois de
+ * criada. Assim a mesma resposta pode ser guardada no cache e lida por varias
+ * threads ao mesmo tempo sem sincronizacao.
+ *
+ */
+public class RespostaBusca {
+
+	/**
+	 * Resultados encontrados, na ordem de exibicao.
+	 *
+	 */
+	private final List<ResultadoBusca> resultados;
+
+	/**
+	 * Construtor da resposta.
+	 *
+	 * @param resultados Os resultados encontrados, na ordem de exibicao.
+	 */
+	public RespostaBusca(List<ResultadoBusca> resultados) {
+		this.resultados = Collections.unmodifiableList(new ArrayList<>(resultados));
+	}
+
+	/**
+	 * Metodo que retorna a quantidade de resultados encontrados.
+	 *
+	 * @return A quantidade de resultados.
+	 */
+	public int tamanho() {
+		return this.resultados.size();
+	}
+
+	/**
+	 * Metodo que informa se a consulta nao encontrou resultados.
+	 *
+	 * @return "True" se nao ha resultados.
+	 */
+	public boolean isVazia() {
+		return this.resultados.isEmpty();
+	}
+
+	/**
+	 * Metodo que retorna um resultado pela sua posicao, comecando em zero.
+	 *
+	 * @param posicao A posicao do resultado.
+	 * @return O resultado na posicao.
+	 */
+	public ResultadoBusca get(int posicao) {
+		return this.resultados.get(posicao);
+	}
+
+	/**
+	 * Metodo que retorna a lista (nao modificavel) de resultados.
+	 *
+	 * @return Os resultados, na ordem de exibicao.
+	 */
+	public List<ResultadoBusca> getResultados() {
+		return this.resultados;
+	}
+
+	/**
+	 * Metodo que constroi a representacao textual da resposta, com os
+	 * resultados separados por " | ".
+	 *
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (ResultadoBusca res : this.resultados) {
+			if (sb.length() > 0)
+				sb.append(" | ");
+			sb.append(res);
+		}
+		return sb.toString();
+	}
+}
@@ -1,36 +1,142 @@
 package busca;
 
-import java.util.Optional;
-
-import javax.net.ssl.SSLContext;
-
 import comparadores.ComparadorResultadoBusca;
+import util.Normalizador;
 
 public class ResultadoBusca {
 	
+	/**
+	 * Peso de um resultado encontrado na descricao de uma entidade.
+	 */
+	public static final double PESO_DESCRICAO = 3.0;
+	
+	/**
+	 * Peso de um resultado encontrado nos campos de interesse de uma pesquisa.
+	 */
+	public static final double PESO_CAMPOS_INTERESSE = 2.0;
+	
+	/**
+	 * Peso de um resultado encontrado na biografia de um pesquisador.
+	 */
+	public static final double PESO_BIOGRAFIA = 1.0;
+	
 	private String codigo;
 	private String descricao = null;	
 	private String[] camposInteresses=null;
+	private String descricaoNormalizada = null;
+	private String[] camposNormalizados = null;
+	private double peso;
 	
 	public ResultadoBusca(String codigo, String descricao) {
+		this(codigo, descricao, PESO_DESCRICAO);
+	}
+	
+	public ResultadoBusca(String codigo, String descricao, double peso) {
+		this(codigo, descricao, Normalizador.normaliza(descricao), peso);
+	}
+	
+	/**
+	 * Construtor de um resultado encontrado em uma descricao, recebendo a forma
+	 * normalizada ja guardada pela entidade.
+	 * 
+	 * @param codigo O codigo da entidade.
+	 * @param descricao O texto exibido.
+	 * @param descricaoNormalizada O texto normalizado usado na comparacao.
+	 * @param peso O peso do campo.
+	 */
+	public ResultadoBusca(String codigo, String descricao, String descricaoNormalizada, double peso) {
 		this.codigo = codigo;
 		this.descricao = descricao;
+		this.descricaoNormalizada = descricaoNormalizada;
+		this.peso = peso;
 	}
 	
 	public ResultadoBusca(String codigo, String[] camposInteresse) {
+		this(codigo, camposInteresse, Normalizador.normaliza(camposInteresse));
+	}
+	
+	/**
+	 * Construtor de um resultado encontrado nos campos de interesse, recebendo
+	 * a forma normalizada ja guardada pela pesquisa.
+	 * 
+	 * @param codigo O codigo da pesquisa.
+	 * @param camposInteresse Os campos exibidos.
+	 * @param camposNormalizados Os campos normalizados usados na comparacao.
+	 */
+	public ResultadoBusca(String codigo, String[] camposInteresse, String[] camposNormalizados) {
 		this.camposInteresses = camposInteresse;
+		this.camposNormalizados = camposNormalizados;
 		this.codigo = codigo;
+		this.peso = PESO_CAMPOS_INTERESSE;
 	}
 
 	public boolean match(String termo){
-		termo = termo.toLowerCase();
-		return this.descricao.toLowerCase().contains(termo);
+		return casa(Normalizador.normaliza(termo));
+	}
+	
+	/**
+	 * Metodo que verifica se a descricao contem um termo ja normalizado, sem
+	 * criar nenhum objeto.
+	 * 
+	 * @param termoNormalizado O termo normalizado.
+	 * @return "True" se a descricao contem o termo.
+	 */
+	public boolean casa(String termoNormalizado) {
+		return this.descricaoNormalizada.contains(termoNormalizado);
 	}
 	
 	public String getCodigo() {
 		return codigo;
 	}
 	
+	/**
+	 * Metodo que calcula a relevancia do resultado para um termo: a quantidade
+	 * de ocorrencias do termo no texto (sem distinguir maiusculas nem acentos) multiplicada
+	 * pelo peso do campo em que o resultado foi encontrado.
+	 * 
+	 * @param termo O termo procurado.
+	 * @return A pontuacao do resultado.
+	 */
+	public double pontuacao(String termo) {
+		
+		String procurado = Normalizador.normaliza(termo);
+		int ocorrencias = 0;
+		
+		if(descricao != null)
+			ocorrencias = contaOcorrencias(descricaoNormalizada, procurado);
+		else
+			for (String string : camposNormalizados)
+				if (string != null)
+					ocorrencias += contaOcorrencias(string, procurado);
+		
+		return ocorrencias * this.peso;
+	}
+	
+	/**
+	 * Metodo interno que conta as ocorrencias, sem sobreposicao, de um termo
+	 * em um texto.
+	 * 
+	 * @param texto O texto analisado.
+	 * @param termo O termo procurado.
+	 * @return A quantidade de ocorrencias.
+	 */
+	private static int contaOcorrencias(String texto, String termo) {
+		
+		int ocorrencias = 0;
+		int inicio = texto.indexOf(termo);
+		
+		while(inicio >= 0) {
+			ocorrencias++;
+			inicio = texto.indexOf(termo, inicio + termo.length());
+		}
+		
+		return ocorrencias;
+	}
+	
+	public double getPeso() {
+		return peso;
+	}
+	
 	public static ComparadorResultadoBusca getComparador() {
 		return new ComparadorResultadoBusca();
 	}
@@ -56,16 +162,28 @@ public class ResultadoBusca {
 	
 	public boolean matchInteresses(String termo) {
 		
-		if(camposInteresses == null)
+		return casaInteresses(Normalizador.normaliza(termo));
+	}
+	
+	/**
+	 * Metodo que verifica se algum campo de interesse contem um termo ja
+	 * normalizado, sem criar nenhum objeto.
+	 * 
+	 * @param termoNormalizado O termo normalizado.
+	 * @return "True" se algum campo contem o termo.
+	 */
+	public boolean casaInteresses(String termoNormalizado) {
+		
+		if(camposNormalizados == null)
 			return false;	
 		
 		
-		for (String string : camposInteresses) {
+		for (String string : camposNormalizados) {
 			
 			if(string == null)
 				continue;
 			
-			if(string.contains(termo)) {				
+			if(string.contains(termoNormalizado)) {				
 				return true;
 			}
 				
@@ -77,6 +195,7 @@ public class ResultadoBusca {
 	
 	public void setCamposInteresses(String[] camposInteresses) {
 		this.camposInteresses = camposInteresses;
+		this.camposNormalizados = Normalizador.normaliza(camposInteresses);
 	}
 
 }
\ No newline at end of file
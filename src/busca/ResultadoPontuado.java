@@ -0,0 +1,59 @@
+package busca;
+
+/**
+ * Resultado da busca acompanhado da sua relevancia para o termo procurado.
+ *
+ * Guarda tambem a posicao do resultado na busca comum, usada para desempatar
+ * resultados com a mesma pontuacao mantendo a ordem de exibicao da busca.
+ *
+ */
+public class ResultadoPontuado {
+
+	/**
+	 * O resultado da busca.
+	 *
+	 */
+	private final ResultadoBusca resultado;
+
+	/**
+	 * A relevancia do resultado para o termo procurado.
+	 *
+	 */
+	private final double pontuacao;
+
+	/**
+	 * A posicao do resultado na busca comum, comecando em zero.
+	 *
+	 */
+	private final int posicao;
+
+	/**
+	 * Construtor do resultado pontuado.
+	 *
+	 * @param resultado O resultado da busca.
+	 * @param pontuacao A relevancia do resultado.
+	 * @param posicao   A posicao do resultado na busca comum.
+	 */
+	public ResultadoPontuado(ResultadoBusca resultado, double pontuacao, int posicao) {
+		this.resultado = resultado;
+		this.pontuacao = pontuacao;
+		this.posicao = posicao;
+	}
+
+	public ResultadoBusca getResultado() {
+		return resultado;
+	}
+
+	public double getPontuacao() {
+		return pontuacao;
+	}
+
+	public int getPosicao() {
+		return posicao;
+	}
+
+	@Override
+	public String toString() {
+		return this.resultado.toString();
+	}
+}
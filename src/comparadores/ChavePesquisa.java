@@ -0,0 +1,46 @@
+package comparadores;
+
+/**
+ * Copia imutavel dos dados de ordenacao de uma pesquisa, guardada nas
+ * ordenacoes mantidas pelo controlador sem manter a pesquisa em memoria.
+ *
+ */
+public class ChavePesquisa implements PesquisaOrdenavel {
+
+	private final String codigo;
+	private final String codigoProblema;
+	private final int quantidadeObjetivos;
+	private final String maiorId;
+
+	/**
+	 * Constroi a chave com os dados atuais da pesquisa.
+	 * 
+	 * @param pesquisa A pesquisa.
+	 */
+	public ChavePesquisa(PesquisaOrdenavel pesquisa) {
+		this.codigo = pesquisa.getCodigo();
+		this.codigoProblema = pesquisa.getCodigoProblema();
+		this.quantidadeObjetivos = pesquisa.getQuantiadeDeObjetivos();
+		this.maiorId = pesquisa.maiorId();
+	}
+
+	@Override
+	public String getCodigo() {
+		return this.codigo;
+	}
+
+	@Override
+	public String getCodigoProblema() {
+		return this.codigoProblema;
+	}
+
+	@Override
+	public int getQuantiadeDeObjetivos() {
+		return this.quantidadeObjetivos;
+	}
+
+	@Override
+	public String maiorId() {
+		return this.maiorId;
+	}
+}
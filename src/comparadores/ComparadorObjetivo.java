@@ -1,13 +1,11 @@
 package comparadores;
 
-import modulos.Pesquisa;
-
 import java.util.Comparator;
 
-public class ComparadorObjetivo implements Comparator<Pesquisa> {
+public class ComparadorObjetivo implements Comparator<PesquisaOrdenavel> {
 
     @Override
-    public int compare(Pesquisa p1, Pesquisa p2) {
+    public int compare(PesquisaOrdenavel p1, PesquisaOrdenavel p2) {
         if (p2.getQuantiadeDeObjetivos() > p1.getQuantiadeDeObjetivos()) {
             return 1;
         } else if (p2.getQuantiadeDeObjetivos() < p1.getQuantiadeDeObjetivos()) {
@@ -16,7 +14,8 @@ public class ComparadorObjetivo implements Comparator<Pesquisa> {
             if (p1.getQuantiadeDeObjetivos() == 0 && p2.getQuantiadeDeObjetivos() == 0) {
                 return p2.getCodigo().compareTo(p1.getCodigo());
             }else{
-                return p2.maiorId().compareTo(p1.maiorId());
+                int comparacao = p2.maiorId().compareTo(p1.maiorId());
+                return comparacao != 0 ? comparacao : p2.getCodigo().compareTo(p1.getCodigo());
             }
         }
     }
@@ -1,12 +1,10 @@
 package comparadores;
 
-import modulos.Pesquisa;
-
 import java.util.Comparator;
 
-public class ComparadorPesquisa implements Comparator<Pesquisa> {
+public class ComparadorPesquisa implements Comparator<PesquisaOrdenavel> {
     @Override
-    public int compare(Pesquisa p1, Pesquisa p2) {
+    public int compare(PesquisaOrdenavel p1, PesquisaOrdenavel p2) {
         return p2.getCodigo().compareTo(p1.getCodigo());
     }
 }
@@ -0,0 +1,22 @@
+package comparadores;
+
+import java.util.Comparator;
+
+import busca.ResultadoPontuado;
+
+/**
+ * Ordena os resultados pontuados do mais relevante para o menos relevante,
+ * desempatando pela posicao na busca comum.
+ *
+ */
+public class ComparadorPontuacao implements Comparator<ResultadoPontuado> {
+
+	@Override
+	public int compare(ResultadoPontuado r1, ResultadoPontuado r2) {
+		int comparacao = Double.compare(r2.getPontuacao(), r1.getPontuacao());
+		if (comparacao != 0)
+			return comparacao;
+		return Integer.compare(r1.getPosicao(), r2.getPosicao());
+	}
+
+}
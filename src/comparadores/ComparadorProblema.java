@@ -1,15 +1,11 @@
 package comparadores;
 
-import modulos.Pesquisa;
-import modulos.Problema;
-
 import java.util.Comparator;
-import java.util.Optional;
 
-public class ComparadorProblema implements Comparator<Pesquisa> {
-    public int compare(Pesquisa p1, Pesquisa p2) {
-        Problema pp1 = p1.getProblema();
-        Problema pp2 = p2.getProblema();
+public class ComparadorProblema implements Comparator<PesquisaOrdenavel> {
+    public int compare(PesquisaOrdenavel p1, PesquisaOrdenavel p2) {
+        String pp1 = p1.getCodigoProblema();
+        String pp2 = p2.getCodigoProblema();
 
         if (pp2 != null && pp1 == null) {
             return 1;
@@ -17,8 +13,8 @@ public class ComparadorProblema implements Comparator<Pesquisa> {
         if (pp2 == null && pp1 != null) {
             return -1;
         }
-        if (pp2 != null && pp1 != null) {
-            return pp2.getCodigo().compareTo(pp1.getCodigo());
+        if (pp2 != null && pp1 != null && !pp2.equals(pp1)) {
+            return pp2.compareTo(pp1);
         } else {
             return p2.getCodigo().compareTo(p1.getCodigo());
         }
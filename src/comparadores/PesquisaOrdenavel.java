@@ -0,0 +1,37 @@
+package comparadores;
+
+/**
+ * Dados de uma pesquisa usados para ordenar a listagem das pesquisas, tanto
+ * pela propria pesquisa quanto por uma chave guardada para ela.
+ *
+ */
+public interface PesquisaOrdenavel {
+
+	/**
+	 * Retorna o codigo da pesquisa.
+	 * 
+	 * @return O codigo da pesquisa.
+	 */
+	String getCodigo();
+
+	/**
+	 * Retorna o codigo do problema associado a pesquisa.
+	 * 
+	 * @return O codigo do problema, ou null se nao houver problema associado.
+	 */
+	String getCodigoProblema();
+
+	/**
+	 * Retorna a quantidade de objetivos associados a pesquisa.
+	 * 
+	 * @return A quantidade de objetivos.
+	 */
+	int getQuantiadeDeObjetivos();
+
+	/**
+	 * Retorna o maior codigo entre os objetivos associados a pesquisa.
+	 * 
+	 * @return O maior codigo, ou vazio se nao houver objetivos.
+	 */
+	String maiorId();
+}
@@ -4,7 +4,9 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
+import busca.IndiceBusca;
 import modulos.Atividade;
 import util.Validador;
 
@@ -20,7 +22,7 @@ public class ControllerAtividade {
 	 * Mapa que guarda as atividades cadastradas.
 	 * 
 	 */
-	private HashMap<String, Atividade> atividades;
+	private Map<String, Atividade> atividades;
 
 	/**
 	 * Validador, que verifica os parâmetros dos métodos para tratamento.
@@ -34,14 +36,31 @@ public class ControllerAtividade {
 	 */
 	private int codigo;
 
+	/**
+	 * Indice de busca das descrições das atividades.
+	 * 
+	 */
+	private IndiceBusca indiceAtividades;
+
 	/**
 	 * Construtor do controller, que sera utilizado pelo controller geral.
 	 * 
 	 */
 	public ControllerAtividade() {
-		this.atividades = new HashMap<>();
+		this(new HashMap<>());
+	}
+
+	/**
+	 * Construtor do controller sobre um mapa de atividades já preenchido, usado
+	 * ao abrir um arquivo paginado, em que as atividades são lidas sob demanda.
+	 * 
+	 * @param atividades O mapa das atividades cadastradas.
+	 */
+	public ControllerAtividade(Map<String, Atividade> atividades) {
+		this.atividades = atividades;
 		this.validador = new Validador();
 		this.codigo = 1;
+		this.indiceAtividades = new IndiceBusca();
 	}
 	
 	/**
@@ -183,10 +202,44 @@ public class ControllerAtividade {
 		Atividade atividade = new Atividade(descricao, nivelRisco, descricaoRisco);
 		atividade.concatenaCodigo(this.codigo);
 		this.atividades.put((atividade.getCodigo()), atividade);
+		this.indiceAtividades.indexa(atividade.getCodigo(), atividade.getDescricaoNormalizada());
 		this.codigo += 1;
 		return atividade.getCodigo();
 	}
 
+	/**
+	 * Método que cadastra um lote de atividades. Todas as entradas são
+	 * validadas antes de qualquer cadastro, o mapa é preparado para o lote
+	 * inteiro e os códigos são reservados em um único bloco.
+	 * 
+	 * @param descricoes Os objetivos das atividades.
+	 * @param niveisRisco Os níveis de risco de cada atividade.
+	 * @param descricoesRisco As descrições dos riscos de cada atividade.
+	 * @return Os códigos das atividades, na ordem das entradas.
+	 */
+	public List<String> cadastraAtividades(String[] descricoes, String[] niveisRisco, String[] descricoesRisco) {
+		this.validador.validaQuantidades("Quantidade de descricoes e riscos diferentes.", descricoes.length,
+				niveisRisco.length, descricoesRisco.length);
+		for (int i = 0; i < descricoes.length; i++) {
+			this.validador.valida(descricoes[i], "Campo Descricao nao pode ser nulo ou vazio.");
+			this.validador.valida(niveisRisco[i], "Campo nivelRisco nao pode ser nulo ou vazio.");
+			this.validador.valida(descricoesRisco[i], "Campo descricaoRisco nao pode ser nulo ou vazio.");
+			this.validador.validaNivelRisco(niveisRisco[i], "Valor invalido do nivel do risco.");
+		}
+		int primeiro = this.codigo;
+		this.codigo += descricoes.length;
+		this.atividades = Mapas.reserva(this.atividades, descricoes.length);
+		List<String> codigos = new ArrayList<>(descricoes.length);
+		for (int i = 0; i < descricoes.length; i++) {
+			Atividade atividade = new Atividade(descricoes[i], niveisRisco[i], descricoesRisco[i]);
+			atividade.concatenaCodigo(primeiro + i);
+			this.atividades.put(atividade.getCodigo(), atividade);
+			this.indiceAtividades.indexa(atividade.getCodigo(), atividade.getDescricaoNormalizada());
+			codigos.add(atividade.getCodigo());
+		}
+		return codigos;
+	}
+
 	/**
 	 * Método que passa os parâmetros paras apagar uma atividade do sistema.
 	 * 
@@ -198,6 +251,7 @@ public class ControllerAtividade {
 			throw new IllegalArgumentException("Atividade nao encontrada");
 		} else {
 			this.atividades.remove(codigo);
+			this.indiceAtividades.remove(codigo);
 		}
 
 	}
@@ -388,4 +442,41 @@ public class ControllerAtividade {
 		return listAtividade;
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Método que retorna o indice de busca das descrições das atividades.
+	 * 
+	 * @return O indice das atividades.
+	 */
+	public IndiceBusca getIndiceAtividades() {
+		return this.indiceAtividades;
+	}
+
+	/**
+	 * Método que restaura uma atividade lida de um snapshot, indexando-a para a busca.
+	 * 
+	 * @param atividade A atividade a ser restaurada.
+	 */
+	public void restauraAtividade(Atividade atividade) {
+		this.atividades.put(atividade.getCodigo(), atividade);
+		this.indiceAtividades.indexa(atividade.getCodigo(), atividade.getDescricaoNormalizada());
+	}
+
+	/**
+	 * Método que retorna o número usado no código da próxima atividade.
+	 * 
+	 * @return O próximo número de atividade.
+	 */
+	public int getCodigo() {
+		return this.codigo;
+	}
+
+	/**
+	 * Método que restaura o contador de códigos lido de um snapshot.
+	 * 
+	 * @param codigo O próximo número de atividade.
+	 */
+	public void restauraCodigo(int codigo) {
+		this.codigo = codigo;
+	}
+
+}
@@ -1,5 +1,8 @@
 package controladores;
 
+import java.io.IOException;
+import java.util.List;
+
 import modulos.Pesquisa;
 import modulos.Pesquisador;
 import util.Validador;
@@ -41,6 +44,25 @@ public class ControllerGeral {
 	 */
 	protected Validador validador;
 
+	/**
+	 * Número de sequência do último registro do diário refletido neste estado.
+	 * 
+	 */
+	protected long sequenciaDiario;
+
+	/**
+	 * Identificador do snapshot completo de onde este estado veio ou para onde
+	 * foi gravado por último, ou 0 se nenhum.
+	 * 
+	 */
+	protected long identificadorSnapshot;
+
+	/**
+	 * Quantidade de snapshots incrementais gravados sobre o snapshot completo.
+	 * 
+	 */
+	protected int numeroDelta;
+
 	/**
 	 * Construtor que inicializa os controladores instâciados.
 	 * 
@@ -53,6 +75,24 @@ public class ControllerGeral {
 		this.validador = new Validador();
 	}
 
+	/**
+	 * Construtor que recebe controladores já preenchidos, usado ao restaurar um
+	 * snapshot do sistema.
+	 * 
+	 * @param controllerPesquisa O controlador das pesquisas.
+	 * @param controllerProblemaObjetivo O controlador dos problemas e objetivos.
+	 * @param controllerPesquisador O controlador dos pesquisadores.
+	 * @param controllerAtividade O controlador das atividades.
+	 */
+	public ControllerGeral(ControllerPesquisa controllerPesquisa, ControllerProblemaObjetivo controllerProblemaObjetivo,
+			ControllerPesquisador controllerPesquisador, ControllerAtividade controllerAtividade) {
+		this.controllerPesquisa = controllerPesquisa;
+		this.controllerProblemaObjetivo = controllerProblemaObjetivo;
+		this.controllerPesquisador = controllerPesquisador;
+		this.controllerAtividade = controllerAtividade;
+		this.validador = new Validador();
+	}
+
 	/**
 	 * US1
 	 */
@@ -68,6 +108,17 @@ public class ControllerGeral {
 		this.controllerPesquisa.cadastraPesquisa(descricao, campoDeInteresse);
 	}
 
+	/**
+	 * Método passa ao controlador de pesquisa um lote de pesquisas a serem cadastradas.
+	 * 
+	 * @param descricoes Os resumos descritivos das pesquisas.
+	 * @param camposDeInteresse As areas abrangidas por cada pesquisa.
+	 * @return Os códigos das pesquisas cadastradas.
+	 */
+	public List<String> cadastraPesquisas(String[] descricoes, String[] camposDeInteresse) {
+		return this.controllerPesquisa.cadastraPesquisas(descricoes, camposDeInteresse);
+	}
+
 	/**
 	 * Método passa ao controlador de pesquisa os parâmetros a serem alterados em pesquisa
 	 * 
@@ -210,6 +261,32 @@ public class ControllerGeral {
 		this.controllerProblemaObjetivo.cadastraObjetivo(tipo, descricao, aderenciaProblema, viabilidade);
 	}
 
+	/**
+	 * Método que passa ao controlador dos problemas e objetivos um lote de problemas a serem cadastrados.
+	 * 
+	 * @param descricoes As descrições dos problemas.
+	 * @param viabilidades A viabilidade de cada problema.
+	 * @return Os códigos dos problemas cadastrados.
+	 */
+	public List<String> cadastraProblemas(String[] descricoes, int[] viabilidades) {
+		return this.controllerProblemaObjetivo.cadastraProblemas(descricoes, viabilidades);
+	}
+
+	/**
+	 * Método que passa ao controlador dos problemas e objetivos um lote de objetivos a serem cadastrados.
+	 * 
+	 * @param tipos Os tipos dos objetivos.
+	 * @param descricoes As descrições dos objetivos.
+	 * @param aderenciasProblema A aderência de cada objetivo ao problema.
+	 * @param viabilidades A viabilidade de cada objetivo.
+	 * @return Os códigos dos objetivos cadastrados.
+	 */
+	public List<String> cadastraObjetivos(String[] tipos, String[] descricoes, int[] aderenciasProblema,
+			int[] viabilidades) {
+		return this.controllerProblemaObjetivo.cadastraObjetivos(tipos, descricoes, aderenciasProblema,
+				viabilidades);
+	}
+
 	/**
 	 * Método que passa ao controlador dos problemas e objetivos o parâmetro para a remoção.
 	 * 
@@ -264,6 +341,18 @@ public class ControllerGeral {
 		return this.controllerAtividade.cadastraAtividade(Descricao, nivelRisco, descricaoRisco);
 	}
 
+	/**
+	 * Método que passa ao controle de atividade um lote de atividades a serem cadastradas.
+	 * 
+	 * @param descricoes      Os objetivos das atividades.
+	 * @param niveisRisco     O nível de risco de cada atividade.
+	 * @param descricoesRisco A descrição do risco de cada atividade.
+	 * @return Os códigos das atividades cadastradas.
+	 */
+	public List<String> cadastraAtividades(String[] descricoes, String[] niveisRisco, String[] descricoesRisco) {
+		return this.controllerAtividade.cadastraAtividades(descricoes, niveisRisco, descricoesRisco);
+	}
+
 	/**
 	 * Método que passa ao controle de atividade os parâmetros para apagar uma atividade.
 	 * 
@@ -376,6 +465,21 @@ public class ControllerGeral {
 	public String listaPesquisas(String ordem) {
 		return this.controllerPesquisa.listaPesquisas(ordem);
 	}
+
+	/**
+	 * Método que passa ao controlador de pesquisa os parâmetros para escrever uma página da lista
+	 * ordenada de pesquisas.
+	 * 
+	 * @param ordem O critério de ordenação da lista.
+	 * @param inicio Quantas pesquisas pular do início da lista.
+	 * @param limite A quantidade máxima de pesquisas escritas.
+	 * @param destino Onde a lista é escrita.
+	 * @return A quantidade de pesquisas escritas.
+	 * @throws IOException Se a escrita no destino falhar.
+	 */
+	public int escrevePesquisas(String ordem, int inicio, int limite, Appendable destino) throws IOException {
+		return this.controllerPesquisa.escrevePesquisas(ordem, inicio, limite, destino);
+	}
 	
 	/**
 	 * US6
@@ -458,6 +562,23 @@ public class ControllerGeral {
 		return this.controllerPesquisador.listaPesquisadores(tipo);
 	}
 
+	/**
+	 * Método que repassa ao controlador de pesquisador os parâmetros para escrever uma página da
+	 * lista dos pesquisadores de um tipo.
+	 * 
+	 * @param tipo O tipo dos pesquisadores listados.
+	 * @param inicio Quantos pesquisadores pular do início da lista.
+	 * @param limite A quantidade máxima de pesquisadores escritos.
+	 * @param destino Onde a lista é escrita.
+	 * @return A quantidade de pesquisadores escritos.
+	 * @throws IOException Se a escrita no destino falhar.
+	 */
+	public int escrevePesquisadores(String tipo, int inicio, int limite, Appendable destino) throws IOException {
+		this.validador.valida(tipo, "Campo tipo nao pode ser nulo ou vazio.");
+		this.validador.validaFuncao(tipo);
+		return this.controllerPesquisador.escrevePesquisadores(tipo, inicio, limite, destino);
+	}
+
 	/**
 	 * US7
 	 */
@@ -550,6 +671,58 @@ public class ControllerGeral {
 		return this.controllerAtividade.listaResultados(codigoAtividade);
 	}
 	
+	/**
+	 * Método que retorna o número de sequência do último registro do diário
+	 * refletido neste estado.
+	 * 
+	 * @return O número de sequência.
+	 */
+	public long getSequenciaDiario() {
+		return this.sequenciaDiario;
+	}
+
+	/**
+	 * Método que define o número de sequência do último registro do diário
+	 * refletido neste estado.
+	 * 
+	 * @param sequenciaDiario O número de sequência.
+	 */
+	public void setSequenciaDiario(long sequenciaDiario) {
+		this.sequenciaDiario = sequenciaDiario;
+	}
+
+	/**
+	 * Método que retorna o identificador do snapshot completo de onde este
+	 * estado veio ou para onde foi gravado por último.
+	 * 
+	 * @return O identificador, ou 0 se nenhum.
+	 */
+	public long getIdentificadorSnapshot() {
+		return this.identificadorSnapshot;
+	}
+
+	/**
+	 * Método que define o snapshot completo de onde este estado veio e quantos
+	 * snapshots incrementais foram aplicados sobre ele.
+	 * 
+	 * @param identificadorSnapshot O identificador do snapshot completo.
+	 * @param numeroDelta           A quantidade de snapshots incrementais.
+	 */
+	public void setIdentificadorSnapshot(long identificadorSnapshot, int numeroDelta) {
+		this.identificadorSnapshot = identificadorSnapshot;
+		this.numeroDelta = numeroDelta;
+	}
+
+	/**
+	 * Método que retorna quantos snapshots incrementais foram gravados sobre o
+	 * snapshot completo.
+	 * 
+	 * @return A quantidade de snapshots incrementais.
+	 */
+	public int getNumeroDelta() {
+		return this.numeroDelta;
+	}
+
 	//getter controladores
 	
 	public ControllerPesquisa getControllerPesquisa() {
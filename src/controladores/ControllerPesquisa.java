@@ -1,10 +1,15 @@
 package controladores;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeSet;
 
+import busca.IndiceBusca;
+import comparadores.ChavePesquisa;
 import comparadores.ComparadorObjetivo;
 import comparadores.ComparadorPesquisa;
 import comparadores.ComparadorProblema;
@@ -38,14 +43,65 @@ public class ControllerPesquisa {
 	private Map<String, Pesquisa> pesquisas;
 	private Estrategia estrategia;
 
+	/**
+	 * Nome da estratégia configurada, guardado para o snapshot do sistema.
+	 * 
+	 */
+	private String nomeEstrategia;
+
+	/**
+	 * Indice de busca das descrições das pesquisas.
+	 * 
+	 */
+	private IndiceBusca indiceDescricao;
+
+	/**
+	 * Indice de busca dos campos de interesse das pesquisas.
+	 * 
+	 */
+	private IndiceBusca indiceCamposInteresse;
+
+	/**
+	 * Quantidade de pesquisas cadastradas por prefixo de código, ou null se
+	 * ainda não foi contada.
+	 * 
+	 */
+	private Map<String, Integer> contadoresPrefixo;
+
+	/**
+	 * Ordenações das pesquisas mantidas para a listagem, por critério, ou null
+	 * se ainda não foram montadas.
+	 * 
+	 */
+	private Map<String, TreeSet<ChavePesquisa>> ordenacoes;
+
+	/**
+	 * Chave atual de cada pesquisa nas ordenações mantidas.
+	 * 
+	 */
+	private Map<String, ChavePesquisa> chavesOrdenacao;
+
 	/**
 	 * Construtor do mapa e do verificador do validador.
 	 * 
 	 */
 	public ControllerPesquisa() {
+		this(new HashMap<String, Pesquisa>());
+	}
+
+	/**
+	 * Construtor sobre um mapa de pesquisas já preenchido, usado ao abrir um
+	 * arquivo paginado, em que as pesquisas são lidas sob demanda.
+	 * 
+	 * @param pesquisas O mapa das pesquisas cadastradas.
+	 */
+	public ControllerPesquisa(Map<String, Pesquisa> pesquisas) {
 		this.validador = new Validador();
-		this.pesquisas = new HashMap<String, Pesquisa>();
+		this.pesquisas = pesquisas;
 		this.estrategia = new MaisAntiga();
+		this.nomeEstrategia = "MAIS_ANTIGA";
+		this.indiceDescricao = new IndiceBusca();
+		this.indiceCamposInteresse = new IndiceBusca();
 	}
 
 	/**
@@ -62,25 +118,97 @@ public class ControllerPesquisa {
 		String codigoPesquisa = this.geraCodigo(campoDeInteresse);
 		pesquisa.setCodigo(codigoPesquisa);
 		this.pesquisas.put(codigoPesquisa, pesquisa);
+		this.indiceDescricao.indexa(codigoPesquisa, pesquisa.getDescricaoNormalizada());
+		this.indiceCamposInteresse.indexa(codigoPesquisa, pesquisa.getCamposInteresseTextoNormalizado());
+		this.atualizaOrdenacoes(pesquisa);
 		return codigoPesquisa;
 	}
 
+	/**
+	 * Método que cadastra um lote de pesquisas. Todas as pesquisas são
+	 * criadas, e portanto validadas, antes de qualquer cadastro, de modo que
+	 * uma entrada inválida não deixa parte do lote cadastrada nem consome
+	 * códigos. O mapa é preparado para o lote
+	 * inteiro e os códigos de cada prefixo são reservados de uma vez, na mesma
+	 * sequência que cadastros individuais gerariam.
+	 * 
+	 * @param descricoes Os resumos das pesquisas.
+	 * @param camposDeInteresse As áreas abrangidas por cada pesquisa.
+	 * @return Os códigos das pesquisas, na ordem das entradas.
+	 */
+	public List<String> cadastraPesquisas(String[] descricoes, String[] camposDeInteresse) {
+		this.validador.validaQuantidades("Quantidade de descricoes e campos de interesse diferentes.",
+				descricoes.length, camposDeInteresse.length);
+		String[] prefixos = new String[descricoes.length];
+		Pesquisa[] novas = new Pesquisa[descricoes.length];
+		Map<String, Integer> quantidades = new HashMap<>();
+		for (int i = 0; i < descricoes.length; i++) {
+			this.validador.valida(descricoes[i], "Descricao nao pode ser nula ou vazia.");
+			this.validador.validaTamanhoEntrada(camposDeInteresse[i], "Formato do campo de interesse invalido.");
+			novas[i] = new Pesquisa(descricoes[i], camposDeInteresse[i]);
+			prefixos[i] = camposDeInteresse[i].substring(0, 3).toUpperCase();
+			quantidades.merge(prefixos[i], 1, Integer::sum);
+		}
+		Map<String, Integer> proximos = new HashMap<>();
+		for (Map.Entry<String, Integer> quantidade : quantidades.entrySet()) {
+			int ultimo = this.getContadoresPrefixo().merge(quantidade.getKey(), quantidade.getValue(), Integer::sum);
+			proximos.put(quantidade.getKey(), ultimo - quantidade.getValue() + 1);
+		}
+		this.pesquisas = Mapas.reserva(this.pesquisas, descricoes.length);
+		List<String> codigos = new ArrayList<>(descricoes.length);
+		for (int i = 0; i < descricoes.length; i++) {
+			Pesquisa pesquisa = novas[i];
+			int numero = proximos.get(prefixos[i]);
+			proximos.put(prefixos[i], numero + 1);
+			String codigoPesquisa = prefixos[i] + numero;
+			pesquisa.setCodigo(codigoPesquisa);
+			this.pesquisas.put(codigoPesquisa, pesquisa);
+			this.indiceDescricao.indexa(codigoPesquisa, pesquisa.getDescricaoNormalizada());
+			this.indiceCamposInteresse.indexa(codigoPesquisa, pesquisa.getCamposInteresseTextoNormalizado());
+			this.atualizaOrdenacoes(pesquisa);
+			codigos.add(codigoPesquisa);
+		}
+		return codigos;
+	}
+
 	/**
 	 * Método que repassa os parâmetros para o retorno código para uma pesquisa.
+	 * O código é o prefixo seguido da quantidade de pesquisas com o mesmo
+	 * prefixo mais um, tirada dos contadores por prefixo em tempo constante.
 	 * 
 	 * @param campoDeInteresse O campo de interesse da pesquisa.
 	 * @return O código da pesquisa.
 	 */
 	private String geraCodigo(String campoDeInteresse) {
-		int count = 1;
-		String codigo = campoDeInteresse.substring(0, 3).toUpperCase();
-		for (String key : pesquisas.keySet()) {
-			String precode = pesquisas.get(key).getCodigo().substring(0, 3).toUpperCase();
-			if (precode.equals(codigo))
-				count++;
+		String prefixo = campoDeInteresse.substring(0, 3).toUpperCase();
+		int count = this.getContadoresPrefixo().merge(prefixo, 1, Integer::sum);
+		return prefixo + count;
+	}
+
+	/**
+	 * Método interno que retorna os contadores por prefixo, contando na
+	 * primeira vez os códigos já cadastrados, sem ler as pesquisas.
+	 * 
+	 * @return Os contadores por prefixo.
+	 */
+	private Map<String, Integer> getContadoresPrefixo() {
+		if (this.contadoresPrefixo == null) {
+			this.contadoresPrefixo = new HashMap<>();
+			for (String codigo : this.pesquisas.keySet()) {
+				this.contaPrefixo(codigo);
+			}
 		}
-		codigo += String.valueOf(count);
-		return codigo;
+		return this.contadoresPrefixo;
+	}
+
+	/**
+	 * Método interno que conta uma pesquisa cadastrada no prefixo do seu
+	 * código.
+	 * 
+	 * @param codigo O código da pesquisa.
+	 */
+	private void contaPrefixo(String codigo) {
+		this.contadoresPrefixo.merge(codigo.substring(0, 3).toUpperCase(), 1, Integer::sum);
 	}
 
 	/**
@@ -101,9 +229,11 @@ public class ControllerPesquisa {
 		if (conteudoASerAlterado.equals("CAMPO")) {
 			this.validador.valida(novoConteudo, "Formato do campo de interesse invalido.");
 			pesquisa.setCamposInteresse(novoConteudo);
+			this.indiceCamposInteresse.indexa(codigo, pesquisa.getCamposInteresseTextoNormalizado());
 		} else {
 			this.validador.valida(novoConteudo, "Descricao nao pode ser nula ou vazia.");
 			pesquisa.setDescricao(novoConteudo);
+			this.indiceDescricao.indexa(codigo, pesquisa.getDescricaoNormalizada());
 		}
 	}
 
@@ -185,7 +315,10 @@ public class ControllerPesquisa {
 	public boolean associaProblema(String idPesquisa, Problema problema) {
 		if (this.pesquisas.containsKey(idPesquisa)) {
 			if (this.pesquisaEhAtiva(idPesquisa)) {
-				return this.pesquisas.get(idPesquisa).associaProblema(problema);
+				Pesquisa pesquisa = this.pesquisas.get(idPesquisa);
+				boolean retorno = pesquisa.associaProblema(problema);
+				this.atualizaOrdenacoes(pesquisa);
+				return retorno;
 			} else {
 				throw new IllegalArgumentException("Pesquisa desativada.");
 			}
@@ -203,7 +336,10 @@ public class ControllerPesquisa {
 	public boolean desassociaProblema(String idPesquisa) {
 		if (this.pesquisas.containsKey(idPesquisa)) {
 			if (this.pesquisaEhAtiva(idPesquisa)) {
-				return this.pesquisas.get(idPesquisa).desassociaProblema();
+				Pesquisa pesquisa = this.pesquisas.get(idPesquisa);
+				boolean retorno = pesquisa.desassociaProblema();
+				this.atualizaOrdenacoes(pesquisa);
+				return retorno;
 			} else {
 				throw new IllegalArgumentException("Pesquisa desativada.");
 			}
@@ -223,7 +359,10 @@ public class ControllerPesquisa {
 	public boolean associaObjetivo(String idPesquisa, Objetivo objetivo, String idObjetivo) {
 		if (this.pesquisas.containsKey(idPesquisa)) {
 			if (this.pesquisaEhAtiva(idPesquisa)) {
-				return this.pesquisas.get(idPesquisa).associaObjetivo(objetivo, idObjetivo);
+				Pesquisa pesquisa = this.pesquisas.get(idPesquisa);
+				boolean retorno = pesquisa.associaObjetivo(objetivo, idObjetivo);
+				this.atualizaOrdenacoes(pesquisa);
+				return retorno;
 			} else {
 				throw new IllegalArgumentException("Pesquisa desativada.");
 			}
@@ -242,7 +381,10 @@ public class ControllerPesquisa {
 	public boolean desassociaObjetivo(String idPesquisa, String idObjetivo) {
 		if (this.pesquisas.containsKey(idPesquisa)) {
 			if (this.pesquisaEhAtiva(idPesquisa)) {
-				return this.pesquisas.get(idPesquisa).desassociaObjetivo(idObjetivo);
+				Pesquisa pesquisa = this.pesquisas.get(idPesquisa);
+				boolean retorno = pesquisa.desassociaObjetivo(idObjetivo);
+				this.atualizaOrdenacoes(pesquisa);
+				return retorno;
 			} else {
 				throw new IllegalArgumentException("Pesquisa desativada.");
 			}
@@ -252,41 +394,97 @@ public class ControllerPesquisa {
 	}
 
 	/**
-	 * Método que recebe a lista de pesquisas e a formata para ser exibido.
+	 * Método responsável pela forma de ordenação da lista de pesquisas.
 	 *
-	 * @param lista A lista de pesquisas.
-	 * @return A lista de pesquisas formatada.
+	 * @param ordem A critério de ordenação da lista.
+	 * @return A lista ordenada seguindo o criterio definido.
 	 */
-	private String percorreLista(ArrayList<Pesquisa> lista){
-		String listar= "";
-		for (Pesquisa dados : lista) {
-			listar += dados.toString() + " | " ;
+	public String listaPesquisas(String ordem) {
+		StringBuilder lista = new StringBuilder();
+		try {
+			this.escrevePesquisas(ordem, 0, Integer.MAX_VALUE, lista);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
 		}
-		return listar.substring(0, listar.length()-3);
+		return lista.toString();
 	}
 
 	/**
-	 * Método responsável pela forma de ordenação da lista de pesquisas.
+	 * Método que escreve uma página da lista ordenada de pesquisas no destino
+	 * informado, uma pesquisa por vez, separadas por " | ", sem montar a lista
+	 * inteira em memória.
 	 *
-	 * @param ordem A critério de ordenação da lista.
-	 * @return A lista ordenada seguindo o criterio definido.
+	 * @param ordem O critério de ordenação da lista.
+	 * @param inicio Quantas pesquisas pular do início da lista.
+	 * @param limite A quantidade máxima de pesquisas escritas.
+	 * @param destino Onde a lista é escrita.
+	 * @return A quantidade de pesquisas escritas.
+	 * @throws IOException Se a escrita no destino falhar.
 	 */
-	public String listaPesquisas(String ordem) {
-		ArrayList<Pesquisa> listaPesquisas = new ArrayList<>(this.pesquisas.values());
-		String result = "";
-		if (ordem.equals("PROBLEMA")) {
-			listaPesquisas.sort(new ComparadorProblema());
-			result = this.percorreLista(listaPesquisas);
-		} else if (ordem.equals("OBJETIVOS")) {
-			listaPesquisas.sort(new ComparadorObjetivo());
-			result = this.percorreLista(listaPesquisas);
-		} else if (ordem.equals("PESQUISA")) {
-			listaPesquisas.sort(new ComparadorPesquisa());
-			result = this.percorreLista(listaPesquisas);
-		} else {
+	public int escrevePesquisas(String ordem, int inicio, int limite, Appendable destino) throws IOException {
+		if (!ordem.equals("PROBLEMA") && !ordem.equals("OBJETIVOS") && !ordem.equals("PESQUISA")) {
 			throw new IllegalArgumentException("Valor invalido da ordem");
 		}
-		return result;
+		this.validador.validaPositivo(inicio, "Inicio da pagina nao pode ser negativo.");
+		this.validador.validaPositivo(limite, "Limite da pagina nao pode ser negativo.");
+		int pulados = 0;
+		int escritos = 0;
+		for (ChavePesquisa chave : this.getOrdenacoes().get(ordem)) {
+			if (escritos == limite) {
+				break;
+			}
+			if (pulados < inicio) {
+				pulados++;
+				continue;
+			}
+			if (escritos > 0) {
+				destino.append(" | ");
+			}
+			destino.append(this.pesquisas.get(chave.getCodigo()).toString());
+			escritos++;
+		}
+		return escritos;
+	}
+
+	/**
+	 * Método interno que retorna as ordenações mantidas, montando-as na
+	 * primeira vez a partir das pesquisas já cadastradas.
+	 * 
+	 * @return As ordenações por critério de listagem.
+	 */
+	private Map<String, TreeSet<ChavePesquisa>> getOrdenacoes() {
+		if (this.ordenacoes == null) {
+			this.ordenacoes = new HashMap<>();
+			this.ordenacoes.put("PROBLEMA", new TreeSet<>(new ComparadorProblema()));
+			this.ordenacoes.put("OBJETIVOS", new TreeSet<>(new ComparadorObjetivo()));
+			this.ordenacoes.put("PESQUISA", new TreeSet<>(new ComparadorPesquisa()));
+			this.chavesOrdenacao = new HashMap<>();
+			for (Pesquisa pesquisa : this.pesquisas.values()) {
+				this.atualizaOrdenacoes(pesquisa);
+			}
+		}
+		return this.ordenacoes;
+	}
+
+	/**
+	 * Método interno que reposiciona uma pesquisa nas ordenações mantidas,
+	 * depois de um cadastro ou de uma mudança no problema ou nos objetivos.
+	 * Nada é feito enquanto as ordenações não tiverem sido montadas.
+	 * 
+	 * @param pesquisa A pesquisa cadastrada ou alterada.
+	 */
+	private void atualizaOrdenacoes(Pesquisa pesquisa) {
+		if (this.ordenacoes == null) {
+			return;
+		}
+		ChavePesquisa chave = new ChavePesquisa(pesquisa);
+		ChavePesquisa anterior = this.chavesOrdenacao.put(chave.getCodigo(), chave);
+		for (TreeSet<ChavePesquisa> ordenacao : this.ordenacoes.values()) {
+			if (anterior != null) {
+				ordenacao.remove(anterior);
+			}
+			ordenacao.add(chave);
+		}
 	}
 
 	/**
@@ -346,6 +544,17 @@ public class ControllerPesquisa {
     	}
     }
     
+    /**
+     * Método que retorna a pesquisa sem exigir que ela exista, usado pela
+     * busca para ignorar candidatos removidos durante a consulta.
+     * 
+     * @param codigo O código da pesquisa.
+     * @return A pesquisa, ou null se ela não está cadastrada.
+     */
+    public Pesquisa pesquisa(String codigo) {
+    	return this.pesquisas.get(codigo);
+    }
+    
     /**
      * Método retorna a lista de pesquisas cadastradas.
      * 
@@ -362,6 +571,24 @@ public class ControllerPesquisa {
 		return listPesquisa;
     }
     
+    /**
+     * Método que retorna o indice de busca das descrições das pesquisas.
+     * 
+     * @return O indice das descrições.
+     */
+    public IndiceBusca getIndiceDescricao() {
+    	return this.indiceDescricao;
+    }
+    
+    /**
+     * Método que retorna o indice de busca dos campos de interesse das pesquisas.
+     * 
+     * @return O indice dos campos de interesse.
+     */
+    public IndiceBusca getIndiceCamposInteresse() {
+    	return this.indiceCamposInteresse;
+    }
+    
     /**
      * Método que configura a estratégia da interface.
      *  
@@ -387,6 +614,16 @@ public class ControllerPesquisa {
 			throw new IllegalArgumentException("Valor invalido da estrategia");
 			
 		}
+    	this.nomeEstrategia = estrategia;
+    }
+    
+    /**
+     * Método que retorna o nome da estratégia configurada.
+     * 
+     * @return O nome da estratégia.
+     */
+    public String getNomeEstrategia() {
+    	return this.nomeEstrategia;
     }
     
     /**
@@ -409,4 +646,20 @@ public class ControllerPesquisa {
     	}
     	
     }
+    
+    /**
+     * Método que restaura uma pesquisa lida de um snapshot, indexando-a para a busca.
+     * 
+     * @param pesquisa A pesquisa a ser restaurada.
+     */
+    public void restauraPesquisa(Pesquisa pesquisa) {
+    	if (this.contadoresPrefixo != null && !this.pesquisas.containsKey(pesquisa.getCodigo())) {
+    		this.contaPrefixo(pesquisa.getCodigo());
+    	}
+    	this.pesquisas.put(pesquisa.getCodigo(), pesquisa);
+    	this.indiceDescricao.indexa(pesquisa.getCodigo(), pesquisa.getDescricaoNormalizada());
+    	this.indiceCamposInteresse.indexa(pesquisa.getCodigo(), pesquisa.getCamposInteresseTextoNormalizado());
+    	this.atualizaOrdenacoes(pesquisa);
+    }
+
 }
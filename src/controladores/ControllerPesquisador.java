@@ -1,9 +1,14 @@
 package controladores;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
+import busca.IndiceBusca;
 import modulos.Pesquisador;
 import util.Validador;
 
@@ -23,15 +28,58 @@ public class ControllerPesquisador {
      * Mapa onde os pesquisadores serão armazenados para as operações do sistema.
      * 
      */
-    private HashMap<String, Pesquisador> mapaPesquisador;
+    private Map<String, Pesquisador> mapaPesquisador;
+
+    /**
+     * Indice de busca das biografias dos pesquisadores.
+     * 
+     */
+    private IndiceBusca indiceBiografia;
+
+    /**
+     * Emails dos pesquisadores de cada função, pela posição na ordem de
+     * cadastro, usados para paginar a listagem em uma ordem que não muda com
+     * novos cadastros, ou null se ainda não foram montados. Um controlador
+     * criado vazio as mantém desde o primeiro cadastro, e os pesquisadores
+     * restaurados de um snapshot seguem a ordem de leitura; sobre um mapa
+     * recebido pronto, elas são montadas na primeira listagem e os
+     * pesquisadores já presentes seguem a ordem do mapa.
+     * 
+     */
+    private Map<String, TreeMap<Long, String>> ordenacoes;
+
+    /**
+     * Posição atual de cada pesquisador, pelo email, na ordem de cadastro.
+     * 
+     */
+    private Map<String, Long> posicoes;
+
+    /**
+     * Próxima posição livre na ordem de cadastro.
+     * 
+     */
+    private long proximaPosicao;
 
     /**
      * Construtor do mapa e do verificador do validador.
      * 
      */
     public ControllerPesquisador(){
-        this.mapaPesquisador = new HashMap<>();
+        this(new HashMap<>());
+        this.ordenacoes = new HashMap<>();
+        this.posicoes = new HashMap<>();
+    }
+
+    /**
+     * Construtor sobre um mapa de pesquisadores já preenchido, usado ao abrir um
+     * arquivo paginado, em que os pesquisadores são lidos sob demanda.
+     * 
+     * @param mapaPesquisador O mapa dos pesquisadores cadastrados, pelo email.
+     */
+    public ControllerPesquisador(Map<String, Pesquisador> mapaPesquisador) {
+        this.mapaPesquisador = mapaPesquisador;
         this.validador = new Validador();
+        this.indiceBiografia = new IndiceBusca();
     }
 
     /**
@@ -53,6 +101,8 @@ public class ControllerPesquisador {
         this.validador.validaFotoURL(foto, "Formato de foto invalido.");
         Pesquisador pesquisador = new Pesquisador(nome, funcao, biografia, email, foto);
         this.mapaPesquisador.put(email, pesquisador);
+        this.indiceBiografia.indexa(email, pesquisador.getBiografiaNormalizada());
+        this.atualizaOrdenacoes(email, pesquisador);
     }
     /**
      * Método que passa os parâmetros realiza alterações no pesquisador.
@@ -70,8 +120,10 @@ public class ControllerPesquisador {
             	pesquisador.setNome(novoValor);
 	        } else if (atributo.equals("FUNCAO")) {
 	            pesquisador.setFuncao(novoValor);
+	            this.atualizaOrdenacoes(email, pesquisador);
 	        } else if (atributo.equals("BIOGRAFIA")) {
 	            pesquisador.setBiografia(novoValor);
+	            this.indiceBiografia.indexa(email, pesquisador.getBiografiaNormalizada());
 	        } else if (atributo.equals("FOTO")) {
 	            this.validador.validaFotoURL(novoValor, "Formato de foto invalido.");
 	            pesquisador.setFoto(novoValor);
@@ -80,6 +132,9 @@ public class ControllerPesquisador {
 	            pesquisador.setEmail(novoValor);
 	            this.mapaPesquisador.put(novoValor, pesquisador);
 	            this.mapaPesquisador.remove(email);
+	            this.indiceBiografia.remove(email);
+	            this.indiceBiografia.indexa(novoValor, pesquisador.getBiografiaNormalizada());
+	            this.atualizaOrdenacoes(email, pesquisador);
 	        } else if (this.verificaAtributos(atributo)) {
 	        	pesquisador.alteraEspecialidade(atributo, novoValor);
 	        }
@@ -209,21 +264,147 @@ public class ControllerPesquisador {
     }
     
     /**
-     * Método que lista pesquisadores do tipo especificado
+     * Método que retorna um Pesquisador sem exigir que ele exista, usado pela
+     * busca para ignorar candidatos removidos durante a consulta.
+     * 
+     * @param email A chave de busca do pesquisador.
+     * @return O Pesquisador, ou null se ele não está cadastrado.
+     */
+    public Pesquisador pesquisador(String email) {
+    	return this.mapaPesquisador.get(email);
+    }
+    
+    /**
+     * Método que retorna o indice de busca das biografias dos pesquisadores.
+     * 
+     * @return O indice das biografias.
+     */
+    public IndiceBusca getIndiceBiografia() {
+    	return this.indiceBiografia;
+    }
+    
+    /**
+     * Método que lista pesquisadores do tipo especificado, na ordem de cadastro.
      * 
      * @param tipo A tipo do pesquisador que se quer listar.
-     * @return A representação textual dos pesquisadores.
+     * @return A representação textual dos pesquisadores, ou uma string vazia
+     *         se não há pesquisadores do tipo.
      */
     public String listaPesquisadores(String tipo) {
-    	tipo = tipo.toLowerCase();
-    	String retorno = "";
-    	for (String email : this.mapaPesquisador.keySet()) {
-    		Pesquisador pesquisador = this.mapaPesquisador.get(email);
-    		if (tipo.equals(pesquisador.getFuncao())) {
-    			retorno += pesquisador.toString() + " | ";
+    	StringBuilder lista = new StringBuilder();
+    	try {
+    		this.escrevePesquisadores(tipo, 0, Integer.MAX_VALUE, lista);
+    	} catch (IOException e) {
+    		throw new UncheckedIOException(e);
+    	}
+    	return lista.toString();
+    }
+
+    /**
+     * Método que escreve uma página da lista dos pesquisadores do tipo
+     * especificado no destino informado, um pesquisador por vez, separados
+     * por " | ", sem montar a lista inteira em memória. Os pesquisadores
+     * seguem a ordem de cadastro, de modo que cadastros entre a leitura de
+     * duas páginas não repetem nem pulam pesquisadores das páginas seguintes,
+     * e os pulados no início não são carregados.
+     * 
+     * @param tipo O tipo do pesquisador que se quer listar.
+     * @param inicio Quantos pesquisadores do tipo pular do início da lista.
+     * @param limite A quantidade máxima de pesquisadores escritos.
+     * @param destino Onde a lista é escrita.
+     * @return A quantidade de pesquisadores escritos.
+     * @throws IOException Se a escrita no destino falhar.
+     */
+    public int escrevePesquisadores(String tipo, int inicio, int limite, Appendable destino) throws IOException {
+    	this.validador.validaPositivo(inicio, "Inicio da pagina nao pode ser negativo.");
+    	this.validador.validaPositivo(limite, "Limite da pagina nao pode ser negativo.");
+    	TreeMap<Long, String> ordenacao = this.getOrdenacoes().get(tipo.toLowerCase());
+    	if (ordenacao == null) {
+    		return 0;
+    	}
+    	int pulados = 0;
+    	int escritos = 0;
+    	for (String email : ordenacao.values()) {
+    		if (escritos == limite) {
+    			break;
+    		}
+    		if (pulados < inicio) {
+    			pulados++;
+    			continue;
     		}
+    		if (escritos > 0) {
+    			destino.append(" | ");
+    		}
+    		destino.append(this.mapaPesquisador.get(email).toString());
+    		escritos++;
+    	}
+    	return escritos;
+    }
+
+    /**
+     * Método interno que retorna as ordenações mantidas, montando-as na
+     * primeira vez a partir dos pesquisadores já cadastrados.
+     * 
+     * @return Os emails de cada função, na ordem de cadastro.
+     */
+    private Map<String, TreeMap<Long, String>> getOrdenacoes() {
+    	if (this.ordenacoes == null) {
+    		this.ordenacoes = new HashMap<>();
+    		this.posicoes = new HashMap<>();
+    		for (Pesquisador pesquisador : this.mapaPesquisador.values()) {
+    			this.atualizaOrdenacoes(pesquisador.getEmail(), pesquisador);
+    		}
+    	}
+    	return this.ordenacoes;
+    }
+
+    /**
+     * Método interno que posiciona um pesquisador nas ordenações mantidas,
+     * depois de um cadastro ou de uma mudança de email ou de função. Um
+     * pesquisador já cadastrado mantém a sua posição. Nada é feito enquanto
+     * as ordenações não tiverem sido montadas.
+     * 
+     * @param emailAnterior O email do pesquisador antes da alteração.
+     * @param pesquisador O pesquisador cadastrado ou alterado.
+     */
+    private void atualizaOrdenacoes(String emailAnterior, Pesquisador pesquisador) {
+    	if (this.ordenacoes == null) {
+    		return;
+    	}
+    	Long posicao = this.posicoes.remove(emailAnterior);
+    	if (posicao == null) {
+    		posicao = this.proximaPosicao++;
+    	} else {
+    		this.removeDasOrdenacoes(posicao);
+    	}
+    	Long substituida = this.posicoes.put(pesquisador.getEmail(), posicao);
+    	if (substituida != null) {
+    		this.removeDasOrdenacoes(substituida);
     	}
-    	retorno = retorno.substring(0, retorno.length() - 3);
-    	return retorno;
+    	this.ordenacoes.computeIfAbsent(pesquisador.getFuncao(), funcao -> new TreeMap<>())
+    			.put(posicao, pesquisador.getEmail());
     }
+
+    /**
+     * Método interno que retira uma posição da ordenação de todas as funções.
+     * 
+     * @param posicao A posição na ordem de cadastro.
+     */
+    private void removeDasOrdenacoes(Long posicao) {
+    	for (TreeMap<Long, String> ordenacao : this.ordenacoes.values()) {
+    		ordenacao.remove(posicao);
+    	}
+    }
+    
+    /**
+     * Método que restaura um pesquisador lido de um snapshot, indexando-o para a busca.
+     * 
+     * @param pesquisador O pesquisador a ser restaurado.
+     */
+    public void restauraPesquisador(Pesquisador pesquisador) {
+    	this.mapaPesquisador.put(pesquisador.getEmail(), pesquisador);
+    	this.indiceBiografia.indexa(pesquisador.getEmail(), pesquisador.getBiografiaNormalizada());
+    	this.atualizaOrdenacoes(pesquisador.getEmail(), pesquisador);
+    }
+
 }
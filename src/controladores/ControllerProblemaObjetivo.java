@@ -5,6 +5,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import busca.IndiceBusca;
 import modulos.Objetivo;
 import modulos.Problema;
 import util.Validador;
@@ -47,16 +48,41 @@ public class ControllerProblemaObjetivo {
 	 */
 	private int codigoObjetivo;
 
+	/**
+	 * Indice de busca das descrições dos problemas.
+	 * 
+	 */
+	private IndiceBusca indiceProblemas;
+
+	/**
+	 * Indice de busca das descrições dos objetivos.
+	 * 
+	 */
+	private IndiceBusca indiceObjetivos;
+
 	/**
 	 * Construtor que inicia os mapas e o validador.
 	 * 
 	 */
 	public ControllerProblemaObjetivo() {
-		this.problemas = new HashMap<>();
+		this(new HashMap<>(), new HashMap<>());
+	}
+
+	/**
+	 * Construtor sobre mapas de problemas e objetivos já preenchidos, usado ao
+	 * abrir um arquivo paginado, em que as entidades são lidas sob demanda.
+	 * 
+	 * @param problemas Os problemas cadastrados.
+	 * @param objetivos Os objetivos cadastrados.
+	 */
+	public ControllerProblemaObjetivo(Map<String, Problema> problemas, Map<String, Objetivo> objetivos) {
+		this.problemas = problemas;
 		this.validador = new Validador();
-		this.objetivos = new HashMap<>();
+		this.objetivos = objetivos;
 		this.codigoProblema = 1;
 		this.codigoObjetivo = 1;
+		this.indiceProblemas = new IndiceBusca();
+		this.indiceObjetivos = new IndiceBusca();
 	}
 
 	/**
@@ -71,6 +97,7 @@ public class ControllerProblemaObjetivo {
 		Problema problema = new Problema(descricao, viabilidade);
 		problema.geraCodigo(this.codigoProblema);
 		this.problemas.put(problema.getCodigo(), problema);
+		this.indiceProblemas.indexa(problema.getCodigo(), problema.getDescricaoNormalizada());
 		this.codigoProblema += 1;
 	}
 
@@ -91,9 +118,76 @@ public class ControllerProblemaObjetivo {
 		Objetivo objetivo = new Objetivo(tipo, descricao, aderenciaProblema, viabilidade);
 		objetivo.geraCodigo(this.codigoObjetivo);
 		this.objetivos.put(objetivo.getCodigo(), objetivo);
+		this.indiceObjetivos.indexa(objetivo.getCodigo(), objetivo.getDescricaoNormalizada());
 		this.codigoObjetivo += 1;
 	}
 
+	/**
+	 * Método que cadastra um lote de problemas. Todas as entradas são
+	 * validadas antes de qualquer cadastro, o mapa é preparado para o lote
+	 * inteiro e os códigos são reservados em um único bloco.
+	 * 
+	 * @param descricoes   As descrições dos problemas.
+	 * @param viabilidades A viabilidade de cada problema.
+	 * @return Os códigos dos problemas, na ordem das entradas.
+	 */
+	public List<String> cadastraProblemas(String[] descricoes, int[] viabilidades) {
+		this.validador.validaQuantidades("Quantidade de descricoes e viabilidades diferentes.", descricoes.length,
+				viabilidades.length);
+		for (int i = 0; i < descricoes.length; i++) {
+			this.validador.valida(descricoes[i], "Campo descricao nao pode ser nulo ou vazio.");
+			this.validador.validaInteiros(viabilidades[i], "Valor invalido de viabilidade.");
+		}
+		int primeiro = this.codigoProblema;
+		this.codigoProblema += descricoes.length;
+		this.problemas = Mapas.reserva(this.problemas, descricoes.length);
+		List<String> codigos = new ArrayList<>(descricoes.length);
+		for (int i = 0; i < descricoes.length; i++) {
+			Problema problema = new Problema(descricoes[i], viabilidades[i]);
+			problema.geraCodigo(primeiro + i);
+			this.problemas.put(problema.getCodigo(), problema);
+			this.indiceProblemas.indexa(problema.getCodigo(), problema.getDescricaoNormalizada());
+			codigos.add(problema.getCodigo());
+		}
+		return codigos;
+	}
+
+	/**
+	 * Método que cadastra um lote de objetivos. Todas as entradas são
+	 * validadas antes de qualquer cadastro, o mapa é preparado para o lote
+	 * inteiro e os códigos são reservados em um único bloco.
+	 * 
+	 * @param tipos              Os tipos dos objetivos, GERAL ou ESPECIFICO.
+	 * @param descricoes         As descrições dos objetivos.
+	 * @param aderenciasProblema A aderência de cada objetivo ao problema.
+	 * @param viabilidades       A viabilidade de cada objetivo.
+	 * @return Os códigos dos objetivos, na ordem das entradas.
+	 */
+	public List<String> cadastraObjetivos(String[] tipos, String[] descricoes, int[] aderenciasProblema,
+			int[] viabilidades) {
+		this.validador.validaQuantidades("Quantidade de tipos, descricoes, aderencias e viabilidades diferentes.",
+				tipos.length, descricoes.length, aderenciasProblema.length, viabilidades.length);
+		for (int i = 0; i < tipos.length; i++) {
+			this.validador.valida(tipos[i], "Campo tipo nao pode ser nulo ou vazio.");
+			this.validador.valida(descricoes[i], "Campo descricao nao pode ser nulo ou vazio.");
+			this.validador.validaTipo(tipos[i], "Valor invalido de tipo.");
+			this.validador.validaInteiros(aderenciasProblema[i], "Valor invalido de aderencia");
+			this.validador.validaInteiros(viabilidades[i], "Valor invalido de viabilidade.");
+		}
+		int primeiro = this.codigoObjetivo;
+		this.codigoObjetivo += tipos.length;
+		this.objetivos = Mapas.reserva(this.objetivos, tipos.length);
+		List<String> codigos = new ArrayList<>(tipos.length);
+		for (int i = 0; i < tipos.length; i++) {
+			Objetivo objetivo = new Objetivo(tipos[i], descricoes[i], aderenciasProblema[i], viabilidades[i]);
+			objetivo.geraCodigo(primeiro + i);
+			this.objetivos.put(objetivo.getCodigo(), objetivo);
+			this.indiceObjetivos.indexa(objetivo.getCodigo(), objetivo.getDescricaoNormalizada());
+			codigos.add(objetivo.getCodigo());
+		}
+		return codigos;
+	}
+
 	/**
 	 * Método que repassa os parâmetros para retornar a representação textual de um problema.
 	 * 
@@ -132,6 +226,7 @@ public class ControllerProblemaObjetivo {
 		this.validador.valida(codigo, "Campo codigo nao pode ser nulo ou vazio.");
 		if (problemas.containsKey(codigo)) {
 			this.problemas.remove(codigo);
+			this.indiceProblemas.remove(codigo);
 		} else {
 			throw new IllegalArgumentException("Problema nao encontrado");
 		}
@@ -147,6 +242,7 @@ public class ControllerProblemaObjetivo {
 		this.validador.valida(codigo, "Campo codigo nao pode ser nulo ou vazio.");
 		if (objetivos.containsKey(codigo)) {
 			this.objetivos.remove(codigo);
+			this.indiceObjetivos.remove(codigo);
 		} else {
 			throw new IllegalArgumentException("Objetivo nao encontrado");
 		}
@@ -204,4 +300,72 @@ public class ControllerProblemaObjetivo {
 		}
 		return objs;
 	}
+
+	/**
+	 * Método que retorna o indice de busca das descrições dos problemas.
+	 * 
+	 * @return O indice dos problemas.
+	 */
+	public IndiceBusca getIndiceProblemas() {
+		return this.indiceProblemas;
+	}
+
+	/**
+	 * Método que retorna o indice de busca das descrições dos objetivos.
+	 * 
+	 * @return O indice dos objetivos.
+	 */
+	public IndiceBusca getIndiceObjetivos() {
+		return this.indiceObjetivos;
+	}
+
+	/**
+	 * Método que restaura um problema lido de um snapshot, indexando-o para a busca.
+	 * 
+	 * @param problema O problema a ser restaurado.
+	 */
+	public void restauraProblema(Problema problema) {
+		this.problemas.put(problema.getCodigo(), problema);
+		this.indiceProblemas.indexa(problema.getCodigo(), problema.getDescricaoNormalizada());
+	}
+
+	/**
+	 * Método que restaura um objetivo lido de um snapshot, indexando-o para a busca.
+	 * 
+	 * @param objetivo O objetivo a ser restaurado.
+	 */
+	public void restauraObjetivo(Objetivo objetivo) {
+		this.objetivos.put(objetivo.getCodigo(), objetivo);
+		this.indiceObjetivos.indexa(objetivo.getCodigo(), objetivo.getDescricaoNormalizada());
+	}
+
+	/**
+	 * Método que retorna o número usado no código do próximo problema.
+	 * 
+	 * @return O próximo número de problema.
+	 */
+	public int getCodigoProblema() {
+		return this.codigoProblema;
+	}
+
+	/**
+	 * Método que retorna o número usado no código do próximo objetivo.
+	 * 
+	 * @return O próximo número de objetivo.
+	 */
+	public int getCodigoObjetivo() {
+		return this.codigoObjetivo;
+	}
+
+	/**
+	 * Método que restaura os contadores de códigos lidos de um snapshot.
+	 * 
+	 * @param codigoProblema O próximo número de problema.
+	 * @param codigoObjetivo O próximo número de objetivo.
+	 */
+	public void restauraCodigos(int codigoProblema, int codigoObjetivo) {
+		this.codigoProblema = codigoProblema;
+		this.codigoObjetivo = codigoObjetivo;
+	}
+
 }
@@ -1,8 +1,25 @@
 package controladores;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
 import busca.Busca;
 import easyaccept.EasyAccept;
 
+import persistencia.AcervoEncerradas;
+import persistencia.ArquivoPaginado;
+import persistencia.ArquivoSegmentado;
+import persistencia.Compressao;
+import persistencia.Diario;
+import persistencia.Operacao;
+import persistencia.RegistroDiario;
+import persistencia.Snapshot;
+import persistencia.SnapshotAssincrono;
 import util.Resultado;
 
 public class Facade {
@@ -10,6 +27,12 @@ public class Facade {
 	private ControllerGeral controllerGeral;
 	private Resultado resultados;
 	private Busca busca;
+	private Path arquivoSnapshot;
+	private Diario diario;
+	private SnapshotAssincrono snapshotEmSegundoPlano;
+	private int maximoDeltas = 8;
+	private Compressao compressao = Compressao.NENHUMA;
+	private ArquivoPaginado arquivoPaginado;
 
 	public static void main(String[] args) {
 		args = new String[] { "controladores.Facade", "testes_aceitacao/use_case_1.txt",
@@ -26,6 +49,7 @@ public class Facade {
 		controllerGeral = new ControllerGeral();
 		resultados = new Resultado(controllerGeral);
 		busca = new Busca(controllerGeral);
+		arquivoSnapshot = Paths.get("files", "psquiza.snap");
 	}
 
 	/**
@@ -33,18 +57,32 @@ public class Facade {
 	 */
 	public void cadastraPesquisa(String descricao, String campoDeInteresse) {
 		this.controllerGeral.cadastraPesquisa(descricao, campoDeInteresse);
+		this.registra(Operacao.CADASTRA_PESQUISA, descricao, campoDeInteresse);
+	}
+
+	public List<String> cadastraPesquisas(String[] descricoes, String[] camposDeInteresse) {
+		List<String> codigos = this.controllerGeral.cadastraPesquisas(descricoes, camposDeInteresse);
+		List<Object[]> argumentos = new ArrayList<>(descricoes.length);
+		for (int i = 0; i < descricoes.length; i++) {
+			argumentos.add(new Object[] { descricoes[i], camposDeInteresse[i] });
+		}
+		this.registraTodos(Operacao.CADASTRA_PESQUISA, argumentos);
+		return codigos;
 	}
 
 	public void alteraPesquisa(String codigo, String conteudoASerAlterado, String novoConteudo) {
 		this.controllerGeral.alteraPesquisa(codigo, conteudoASerAlterado, novoConteudo);
+		this.registra(Operacao.ALTERA_PESQUISA, codigo, conteudoASerAlterado, novoConteudo);
 	}
 
 	public void encerraPesquisa(String codigo, String motivo) {
 		this.controllerGeral.encerraPesquisa(codigo, motivo);
+		this.registra(Operacao.ENCERRA_PESQUISA, codigo, motivo);
 	}
 
 	public void ativaPesquisa(String codigo) {
 		this.controllerGeral.ativaPesquisa(codigo);
+		this.registra(Operacao.ATIVA_PESQUISA, codigo);
 
 	}
 
@@ -61,18 +99,22 @@ public class Facade {
 	 */
 	public void cadastraPesquisador(String nome, String funcao, String biografia, String email, String foto) {
 		this.controllerGeral.cadastraPesquisador(nome, funcao, biografia, email, foto);
+		this.registra(Operacao.CADASTRA_PESQUISADOR, nome, funcao, biografia, email, foto);
 	}
 
 	public void alteraPesquisador(String email, String atributo, String novoValor) {
 		this.controllerGeral.alteraPesquisador(email, atributo, novoValor);
+		this.registra(Operacao.ALTERA_PESQUISADOR, email, atributo, novoValor);
 	}
 
 	public void desativaPesquisador(String email) {
 		this.controllerGeral.desativaPesquisador(email);
+		this.registra(Operacao.DESATIVA_PESQUISADOR, email);
 	}
 
 	public void ativaPesquisador(String email) {
 		this.controllerGeral.ativaPesquisador(email);
+		this.registra(Operacao.ATIVA_PESQUISADOR, email);
 	}
 
 	public String exibePesquisador(String email) {
@@ -88,18 +130,44 @@ public class Facade {
 	 */
 	public void cadastraProblema(String descricao, int viabilidade) {
 		this.controllerGeral.cadastraProblema(descricao, viabilidade);
+		this.registra(Operacao.CADASTRA_PROBLEMA, descricao, viabilidade);
 	}
 
 	public void cadastraObjetivo(String tipo, String descricao, int aderenciaProblema, int viabilidade) {
 		this.controllerGeral.cadastraObjetivo(tipo, descricao, aderenciaProblema, viabilidade);
+		this.registra(Operacao.CADASTRA_OBJETIVO, tipo, descricao, aderenciaProblema, viabilidade);
+	}
+
+	public List<String> cadastraProblemas(String[] descricoes, int[] viabilidades) {
+		List<String> codigos = this.controllerGeral.cadastraProblemas(descricoes, viabilidades);
+		List<Object[]> argumentos = new ArrayList<>(descricoes.length);
+		for (int i = 0; i < descricoes.length; i++) {
+			argumentos.add(new Object[] { descricoes[i], viabilidades[i] });
+		}
+		this.registraTodos(Operacao.CADASTRA_PROBLEMA, argumentos);
+		return codigos;
+	}
+
+	public List<String> cadastraObjetivos(String[] tipos, String[] descricoes, int[] aderenciasProblema,
+			int[] viabilidades) {
+		List<String> codigos = this.controllerGeral.cadastraObjetivos(tipos, descricoes, aderenciasProblema,
+				viabilidades);
+		List<Object[]> argumentos = new ArrayList<>(tipos.length);
+		for (int i = 0; i < tipos.length; i++) {
+			argumentos.add(new Object[] { tipos[i], descricoes[i], aderenciasProblema[i], viabilidades[i] });
+		}
+		this.registraTodos(Operacao.CADASTRA_OBJETIVO, argumentos);
+		return codigos;
 	}
 
 	public void apagarProblema(String codigo) {
 		this.controllerGeral.apagarProblema(codigo);
+		this.registra(Operacao.APAGAR_PROBLEMA, codigo);
 	}
 
 	public void apagarObjetivo(String codigo) {
 		this.controllerGeral.apagarObjetivo(codigo);
+		this.registra(Operacao.APAGAR_OBJETIVO, codigo);
 	}
 
 	public String exibeProblema(String codigo) {
@@ -115,15 +183,29 @@ public class Facade {
 	 */
 
 	public String cadastraAtividade(String Descricao, String nivelRisco, String descricaoRisco) {
-		return this.controllerGeral.cadastraAtividade(Descricao, nivelRisco, descricaoRisco);
+		String retorno = this.controllerGeral.cadastraAtividade(Descricao, nivelRisco, descricaoRisco);
+		this.registra(Operacao.CADASTRA_ATIVIDADE, Descricao, nivelRisco, descricaoRisco);
+		return retorno;
+	}
+
+	public List<String> cadastraAtividades(String[] descricoes, String[] niveisRisco, String[] descricoesRisco) {
+		List<String> codigos = this.controllerGeral.cadastraAtividades(descricoes, niveisRisco, descricoesRisco);
+		List<Object[]> argumentos = new ArrayList<>(descricoes.length);
+		for (int i = 0; i < descricoes.length; i++) {
+			argumentos.add(new Object[] { descricoes[i], niveisRisco[i], descricoesRisco[i] });
+		}
+		this.registraTodos(Operacao.CADASTRA_ATIVIDADE, argumentos);
+		return codigos;
 	}
 
 	public void apagaAtividade(String codigo) {
 		this.controllerGeral.apagaAtividade(codigo);
+		this.registra(Operacao.APAGA_ATIVIDADE, codigo);
 	}
 
 	public void cadastraItem(String codigo, String item) {
 		this.controllerGeral.cadastraItem(codigo, item);
+		this.registra(Operacao.CADASTRA_ITEM, codigo, item);
 	}
 
 	public String exibeAtividade(String codigo) {
@@ -142,71 +224,130 @@ public class Facade {
 	 * US5
 	 */
 	public boolean associaProblema(String idPesquisa, String idProblema) {
-		return this.controllerGeral.associaProblema(idPesquisa, idProblema);
+		boolean retorno = this.controllerGeral.associaProblema(idPesquisa, idProblema);
+		this.registra(Operacao.ASSOCIA_PROBLEMA, idPesquisa, idProblema);
+		return retorno;
 	}
 
 	public boolean desassociaProblema(String idPesquisa) {
-		return this.controllerGeral.desassociaProblema(idPesquisa);
+		boolean retorno = this.controllerGeral.desassociaProblema(idPesquisa);
+		this.registra(Operacao.DESASSOCIA_PROBLEMA, idPesquisa);
+		return retorno;
 	}
 
 	public boolean associaObjetivo(String idPesquisa, String idObjetivo) {
-		return this.controllerGeral.associaObjetivo(idPesquisa, idObjetivo);
+		boolean retorno = this.controllerGeral.associaObjetivo(idPesquisa, idObjetivo);
+		this.registra(Operacao.ASSOCIA_OBJETIVO, idPesquisa, idObjetivo);
+		return retorno;
 	}
 
 	public boolean desassociaObjetivo(String idPesquisa, String idObjetivo) {
-		return this.controllerGeral.desassociaObjetivo(idPesquisa, idObjetivo);
+		boolean retorno = this.controllerGeral.desassociaObjetivo(idPesquisa, idObjetivo);
+		this.registra(Operacao.DESASSOCIA_OBJETIVO, idPesquisa, idObjetivo);
+		return retorno;
 	}
 
 	public String listaPesquisas(String ordem) {
 		return this.controllerGeral.listaPesquisas(ordem);
 	}
 
+	public String listaPesquisasPaginada(String ordem, int inicio, int limite) {
+		StringBuilder pagina = new StringBuilder();
+		this.escrevePesquisas(ordem, inicio, limite, pagina);
+		return pagina.toString();
+	}
+
+	public int escrevePesquisas(String ordem, Appendable destino) {
+		return this.escrevePesquisas(ordem, 0, Integer.MAX_VALUE, destino);
+	}
+
+	public int escrevePesquisas(String ordem, int inicio, int limite, Appendable destino) {
+		try {
+			return this.controllerGeral.escrevePesquisas(ordem, inicio, limite, destino);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Nao foi possivel escrever a lista de pesquisas.", e);
+		}
+	}
+
 	/**
 	 * US6
 	 */
 
 	public boolean associaPesquisador(String idPesquisa, String emailPesquisador) {
-		return this.controllerGeral.associaPesquisador(idPesquisa, emailPesquisador);
+		boolean retorno = this.controllerGeral.associaPesquisador(idPesquisa, emailPesquisador);
+		this.registra(Operacao.ASSOCIA_PESQUISADOR, idPesquisa, emailPesquisador);
+		return retorno;
 	}
 
 	public boolean desassociaPesquisador(String idPesquisa, String emailPesquisador) {
-		return this.controllerGeral.desassociaPesquisador(idPesquisa, emailPesquisador);
+		boolean retorno = this.controllerGeral.desassociaPesquisador(idPesquisa, emailPesquisador);
+		this.registra(Operacao.DESASSOCIA_PESQUISADOR, idPesquisa, emailPesquisador);
+		return retorno;
 	}
 
 	public void cadastraEspecialidadeProfessor(String email, String formacao, String unidade, String data) {
 		this.controllerGeral.cadastraEspecialidadeProfessor(email, formacao, unidade, data);
+		this.registra(Operacao.CADASTRA_ESPECIALIDADE_PROFESSOR, email, formacao, unidade, data);
 	}
 
 	public void cadastraEspecialidadeAluno(String email, int semestre, double IEA) {
 		this.controllerGeral.cadastraEspecialidadeAluno(email, semestre, IEA);
+		this.registra(Operacao.CADASTRA_ESPECIALIDADE_ALUNO, email, semestre, IEA);
 	}
 
 	public String listaPesquisadores(String tipo) {
 		return this.controllerGeral.listaPesquisadores(tipo);
 	}
+
+	public String listaPesquisadoresPaginada(String tipo, int inicio, int limite) {
+		StringBuilder pagina = new StringBuilder();
+		this.escrevePesquisadores(tipo, inicio, limite, pagina);
+		return pagina.toString();
+	}
+
+	public int escrevePesquisadores(String tipo, Appendable destino) {
+		return this.escrevePesquisadores(tipo, 0, Integer.MAX_VALUE, destino);
+	}
+
+	public int escrevePesquisadores(String tipo, int inicio, int limite, Appendable destino) {
+		try {
+			return this.controllerGeral.escrevePesquisadores(tipo, inicio, limite, destino);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Nao foi possivel escrever a lista de pesquisadores.", e);
+		}
+	}
 	
 	/**
 	 * US7
 	 */
 
 	public boolean associaAtividade(String codigoPesquisa, String codigoAtividade) {
-		return this.controllerGeral.associaAtividade(codigoPesquisa, codigoAtividade);
+		boolean retorno = this.controllerGeral.associaAtividade(codigoPesquisa, codigoAtividade);
+		this.registra(Operacao.ASSOCIA_ATIVIDADE, codigoPesquisa, codigoAtividade);
+		return retorno;
 	}
 
 	public boolean desassociaAtividade(String codigoPesquisa, String codigoAtividade) {
-		return this.controllerGeral.desassociaAtividade(codigoPesquisa, codigoAtividade);
+		boolean retorno = this.controllerGeral.desassociaAtividade(codigoPesquisa, codigoAtividade);
+		this.registra(Operacao.DESASSOCIA_ATIVIDADE, codigoPesquisa, codigoAtividade);
+		return retorno;
 	}
 
 	public void executaAtividade(String codigoAtividade, int item, int duracao) {
 		this.controllerGeral.executaAtividade(codigoAtividade, item, duracao);
+		this.registra(Operacao.EXECUTA_ATIVIDADE, codigoAtividade, item, duracao);
 	}
 
 	public int cadastraResultado(String codigoAtividade, String resultado) {
-		return this.controllerGeral.cadastraResultado(codigoAtividade, resultado);
+		int retorno = this.controllerGeral.cadastraResultado(codigoAtividade, resultado);
+		this.registra(Operacao.CADASTRA_RESULTADO, codigoAtividade, resultado);
+		return retorno;
 	}
 
 	public boolean removeResultado(String codigoAtividade, int numeroResultado) {
-		return this.controllerGeral.removeResultado(codigoAtividade, numeroResultado);
+		boolean retorno = this.controllerGeral.removeResultado(codigoAtividade, numeroResultado);
+		this.registra(Operacao.REMOVE_RESULTADO, codigoAtividade, numeroResultado);
+		return retorno;
 	}
 
 	public int getDuracao(String codigoAtividade) {
@@ -232,6 +373,34 @@ public class Facade {
 	public int contaResultadosBusca(String termo) {
 		return this.busca.contaResultadosBusca(termo);
 	}
+
+	public String buscaLimit(String termo, int limite) {
+		return this.busca.buscaLimit(termo, limite);
+	}
+
+	public String buscaPagina(String termo, int deslocamento, int limite) {
+		return this.busca.buscaPagina(termo, deslocamento, limite);
+	}
+
+	public String buscaRanqueada(String termo, int k) {
+		return this.busca.buscaRanqueada(termo, k);
+	}
+
+	public String buscaBooleana(String consulta) {
+		return this.busca.buscaBooleana(consulta);
+	}
+
+	public String buscaAproximada(String termo, int distanciaMaxima) {
+		return this.busca.buscaAproximada(termo, distanciaMaxima);
+	}
+
+	public void configuraBuscaAproximada(int distanciaMaxima) {
+		this.busca.configuraBuscaAproximada(distanciaMaxima);
+	}
+
+	public void configuraParalelismoBusca(int paralelismo) {
+		this.busca.configuraParalelismo(paralelismo);
+	}
 	
 	/**
 	  * US9
@@ -239,10 +408,12 @@ public class Facade {
 	 
 	 public void defineProximaAtividade(String idPrecedente, String idSubsquente) {
 		 this.controllerGeral.defineProximaAtividade(idPrecedente, idSubsquente);
+		 this.registra(Operacao.DEFINE_PROXIMA_ATIVIDADE, idPrecedente, idSubsquente);
 	 }
 	 
 	 public void tiraProximaAtividade(String idPrecedente) {
 		 this.controllerGeral.tiraProximaAtividade(idPrecedente);
+		 this.registra(Operacao.TIRA_PROXIMA_ATIVIDADE, idPrecedente);
 	 }
 	 
 	 public int contaProximos(String idPrecedente) {
@@ -263,6 +434,7 @@ public class Facade {
 
 	public void configuraEstrategia(String estrategia) {
 		this.controllerGeral.configuraEstrategia(estrategia);
+		this.registra(Operacao.CONFIGURA_ESTRATEGIA, estrategia);
 	}
 
 	public String proximaAtividade(String codigoPesquisa) {
@@ -280,5 +452,449 @@ public class Facade {
 		 this.resultados.gravarResultados(codigoPesquisa);
 	 }
 
+	/**
+	 * US12
+	 */
+	public void configuraArquivoSnapshot(String caminho) {
+		this.arquivoSnapshot = Paths.get(caminho);
+	}
+
+	public String salva() {
+		this.esperaSnapshotEmSegundoPlano();
+		long inicio = System.nanoTime();
+		try {
+			Snapshot snapshot = new Snapshot();
+			long bytes = snapshot.salva(this.controllerGeral, this.arquivoSnapshot, this.compressao);
+			if (this.diario != null) {
+				this.diario.trunca(snapshot.menorSequencia(this.arquivoSnapshot));
+			}
+			return relatorioSnapshot("salvo em", this.arquivoSnapshot, bytes, inicio);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Nao foi possivel salvar o sistema.", e);
+		}
+	}
+
+	public String carrega() {
+		this.esperaSnapshotEmSegundoPlano();
+		long inicio = System.nanoTime();
+		try {
+			Snapshot snapshot = new Snapshot();
+			this.controllerGeral = snapshot.carrega(this.arquivoSnapshot);
+			this.fechaArquivoPaginado(null);
+			long bytes = Files.size(snapshot.getArquivoCarregado());
+			this.resultados = new Resultado(this.controllerGeral);
+			this.busca.trocaControlador(this.controllerGeral);
+			if (this.diario != null) {
+				this.diario.reproduz(this.controllerGeral.getSequenciaDiario(), this::reaplica);
+				this.diario.avancaSequencia(this.controllerGeral.getSequenciaDiario());
+			}
+			return relatorioSnapshot("carregado de", snapshot.getArquivoCarregado(), bytes, inicio);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Nao foi possivel carregar o sistema.", e);
+		}
+	}
+
+	/**
+	 * Grava o sistema em um arquivo paginado, em que cada entidade pode ser lida
+	 * separadamente.
+	 */
+	public String salvaPaginado(String caminho) {
+		this.esperaSnapshotEmSegundoPlano();
+		Path arquivo = Paths.get(caminho);
+		long inicio = System.nanoTime();
+		try {
+			long bytes = new ArquivoPaginado().salva(this.controllerGeral, arquivo);
+			return relatorioSnapshot("salvo em", arquivo, bytes, inicio);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Nao foi possivel salvar o sistema.", e);
+		}
+	}
+
+	/**
+	 * Abre um arquivo paginado lendo apenas o indice: cada entidade e lida do
+	 * disco no primeiro acesso. O arquivo fica aberto ate o proximo carrega ou
+	 * abrePaginado.
+	 */
+	public String abrePaginado(String caminho) {
+		this.esperaSnapshotEmSegundoPlano();
+		Path arquivo = Paths.get(caminho);
+		long inicio = System.nanoTime();
+		ArquivoPaginado paginado = new ArquivoPaginado();
+		try {
+			this.controllerGeral = paginado.abre(arquivo);
+			this.fechaArquivoPaginado(paginado);
+			this.resultados = new Resultado(this.controllerGeral);
+			this.busca.trocaControlador(this.controllerGeral);
+			if (this.diario != null) {
+				this.diario.reproduz(this.controllerGeral.getSequenciaDiario(), this::reaplica);
+				this.diario.avancaSequencia(this.controllerGeral.getSequenciaDiario());
+			}
+			return relatorioSnapshot("aberto de", arquivo, Files.size(arquivo), inicio);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Nao foi possivel abrir o sistema.", e);
+		}
+	}
+
+	/**
+	 * Grava o sistema em um arquivo com um segmento por tipo de entidade,
+	 * codificados em paralelo.
+	 */
+	public String salvaSegmentado(String caminho) {
+		this.esperaSnapshotEmSegundoPlano();
+		Path arquivo = Paths.get(caminho);
+		long inicio = System.nanoTime();
+		try {
+			long bytes = new ArquivoSegmentado().salva(this.controllerGeral, arquivo);
+			return relatorioSnapshot("salvo em", arquivo, bytes, inicio);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Nao foi possivel salvar o sistema.", e);
+		}
+	}
+
+	/**
+	 * Carrega todos os segmentos de um arquivo segmentado.
+	 */
+	public String carregaSegmentado(String caminho) {
+		this.esperaSnapshotEmSegundoPlano();
+		Path arquivo = Paths.get(caminho);
+		long inicio = System.nanoTime();
+		try {
+			this.controllerGeral = new ArquivoSegmentado().carrega(arquivo);
+			this.fechaArquivoPaginado(null);
+			this.resultados = new Resultado(this.controllerGeral);
+			this.busca.trocaControlador(this.controllerGeral);
+			if (this.diario != null) {
+				this.diario.reproduz(this.controllerGeral.getSequenciaDiario(), this::reaplica);
+				this.diario.avancaSequencia(this.controllerGeral.getSequenciaDiario());
+			}
+			return relatorioSnapshot("carregado de", arquivo, Files.size(arquivo), inicio);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Nao foi possivel carregar o sistema.", e);
+		}
+	}
+
+	/**
+	 * Tira da memoria as pesquisas encerradas, com as suas atividades e os
+	 * pesquisadores associados, gravando-as em um acervo mapeado em memoria de
+	 * onde sao lidas sob demanda. Uma pesquisa arquivada que for ativada volta
+	 * para a memoria.
+	 */
+	public String arquivaEncerradas(String caminho) {
+		this.esperaSnapshotEmSegundoPlano();
+		Path arquivo = Paths.get(caminho);
+		AcervoEncerradas acervo = new AcervoEncerradas();
+		try {
+			this.controllerGeral = acervo.arquiva(this.controllerGeral, arquivo);
+			this.fechaArquivoPaginado(null);
+			this.resultados = new Resultado(this.controllerGeral);
+			this.busca.trocaControlador(this.controllerGeral);
+			return acervo.getPesquisasArquivadas() + " pesquisas arquivadas em " + arquivo + ": "
+					+ Files.size(arquivo) + " bytes";
+		} catch (IOException e) {
+			throw new UncheckedIOException("Nao foi possivel arquivar as pesquisas.", e);
+		}
+	}
+
+	/**
+	 * Grava apenas as entidades alteradas desde o ultimo snapshot, em um
+	 * incremental sobre o snapshot completo. A cada maximoDeltas incrementais,
+	 * ou se o snapshot completo em disco nao for o de onde o estado veio, grava
+	 * um snapshot completo no lugar (compactacao).
+	 */
+	public String salvaIncremental() {
+		this.esperaSnapshotEmSegundoPlano();
+		Snapshot snapshot = new Snapshot();
+		if (!snapshot.aceitaDelta(this.controllerGeral, this.arquivoSnapshot, this.maximoDeltas)) {
+			return this.salva();
+		}
+		long inicio = System.nanoTime();
+		try {
+			long bytes = snapshot.salvaDelta(this.controllerGeral, this.arquivoSnapshot);
+			return relatorioSnapshot("salvo em",
+					Snapshot.arquivoDelta(this.arquivoSnapshot, this.controllerGeral.getNumeroDelta()), bytes, inicio);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Nao foi possivel salvar o sistema.", e);
+		}
+	}
+
+	public void configuraCompactacao(int maximoDeltas) {
+		if (maximoDeltas < 0) {
+			throw new IllegalArgumentException("Quantidade de incrementais nao pode ser negativa.");
+		}
+		this.maximoDeltas = maximoDeltas;
+	}
+
+	/**
+	 * Escolhe a compressao dos proximos snapshots completos: NENHUMA,
+	 * DICIONARIO ou DEFLATE.
+	 */
+	public void configuraCompressao(String compressao) {
+		if (compressao == null || compressao.trim().isEmpty()) {
+			throw new IllegalArgumentException("Compressao nao pode ser nula ou vazia.");
+		}
+		try {
+			this.compressao = Compressao.valueOf(compressao.trim().toUpperCase());
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Compressao invalida.");
+		}
+	}
+
+	/**
+	 * Inicia um snapshot em segundo plano: o estado e capturado agora, e a
+	 * gravacao em disco segue enquanto o sistema continua sendo alterado.
+	 */
+	public String salvaEmSegundoPlano() {
+		if (this.snapshotEmSegundoPlano != null && !this.snapshotEmSegundoPlano.isConcluido()) {
+			throw new IllegalArgumentException("Snapshot em segundo plano ainda em andamento.");
+		}
+		this.esperaSnapshotEmSegundoPlano();
+		try {
+			Snapshot snapshot = new Snapshot();
+			Path arquivo = this.arquivoSnapshot;
+			Diario diarioAtual = this.diario;
+			Runnable aposGravar = null;
+			if (diarioAtual != null) {
+				aposGravar = () -> {
+					try {
+						diarioAtual.trunca(snapshot.menorSequencia(arquivo));
+					} catch (IOException e) {
+						throw new UncheckedIOException("Nao foi possivel truncar o diario.", e);
+					}
+				};
+			}
+			this.snapshotEmSegundoPlano = new SnapshotAssincrono(snapshot, this.controllerGeral, arquivo,
+					this.compressao, aposGravar);
+			return "Snapshot de " + arquivo + " iniciado: " + this.snapshotEmSegundoPlano.getBytesTotais()
+					+ " bytes capturados em " + this.snapshotEmSegundoPlano.getDuracaoCaptura() + " ms";
+		} catch (IOException e) {
+			throw new UncheckedIOException("Nao foi possivel salvar o sistema.", e);
+		}
+	}
+
+	public String progressoSnapshot() {
+		SnapshotAssincrono snapshot = this.snapshotEmSegundoPlano;
+		if (snapshot == null) {
+			return "Nenhum snapshot em segundo plano.";
+		}
+		if (!snapshot.isConcluido()) {
+			return "Snapshot de " + snapshot.getArquivo() + " em andamento: " + snapshot.getBytesGravados() + " de "
+					+ snapshot.getBytesTotais() + " bytes gravados em " + snapshot.getDuracao() + " ms";
+		}
+		try {
+			long bytes = snapshot.aguarda();
+			return "Sistema salvo em " + snapshot.getArquivo() + ": " + bytes + " bytes em " + snapshot.getDuracao()
+					+ " ms";
+		} catch (IOException e) {
+			throw new UncheckedIOException("Nao foi possivel salvar o sistema.", e);
+		}
+	}
+
+	public String aguardaSnapshot() {
+		this.esperaSnapshotEmSegundoPlano();
+		return this.progressoSnapshot();
+	}
+
+	public void salvar() {
+		this.salva();
+	}
+
+	public void carregar() {
+		this.carrega();
+	}
+
+	/**
+	 * Liga o diario de operacoes: os registros ja existentes no arquivo e ainda
+	 * nao refletidos no estado atual (por exemplo, o carregado do ultimo
+	 * snapshot) sao reaplicados, e cada operacao seguinte e gravada antes de
+	 * retornar.
+	 */
+	public void configuraDiario(String caminho) {
+		try {
+			this.desativaDiario();
+			Diario novo = new Diario(Paths.get(caminho));
+			try {
+				novo.reproduz(this.controllerGeral.getSequenciaDiario(), this::reaplica);
+			} catch (IOException | RuntimeException e) {
+				novo.close();
+				throw e;
+			}
+			novo.avancaSequencia(this.controllerGeral.getSequenciaDiario());
+			this.diario = novo;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Nao foi possivel abrir o diario.", e);
+		}
+	}
+
+	public void desativaDiario() {
+		if (this.diario == null) {
+			return;
+		}
+		try {
+			this.diario.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Nao foi possivel fechar o diario.", e);
+		} finally {
+			this.diario = null;
+		}
+	}
+
+	/**
+	 * Espera o snapshot em segundo plano terminar. Uma falha na gravacao e
+	 * lancada aqui, uma unica vez, para que a proxima operacao de persistencia
+	 * nao siga como se o snapshot tivesse sido salvo.
+	 */
+	private void esperaSnapshotEmSegundoPlano() {
+		SnapshotAssincrono snapshot = this.snapshotEmSegundoPlano;
+		if (snapshot == null) {
+			return;
+		}
+		try {
+			snapshot.aguarda();
+		} catch (IOException e) {
+			if (snapshot.isConcluido()) {
+				this.snapshotEmSegundoPlano = null;
+			}
+			throw new UncheckedIOException("Nao foi possivel salvar o sistema em segundo plano.", e);
+		}
+	}
+
+	private void registra(Operacao operacao, Object... argumentos) {
+		if (this.diario == null) {
+			return;
+		}
+		try {
+			this.controllerGeral.setSequenciaDiario(this.diario.registra(operacao, argumentos));
+		} catch (IOException e) {
+			throw new UncheckedIOException("Nao foi possivel gravar a operacao no diario.", e);
+		}
+	}
+
+	private void registraTodos(Operacao operacao, List<Object[]> argumentos) {
+		if (this.diario == null || argumentos.isEmpty()) {
+			return;
+		}
+		try {
+			this.controllerGeral.setSequenciaDiario(this.diario.registraTodos(operacao, argumentos));
+		} catch (IOException e) {
+			throw new UncheckedIOException("Nao foi possivel gravar as operacoes no diario.", e);
+		}
+	}
+
+	private void reaplica(RegistroDiario r) {
+		ControllerGeral cg = this.controllerGeral;
+		switch (r.getOperacao()) {
+		case CADASTRA_PESQUISA:
+			cg.cadastraPesquisa(r.texto(0), r.texto(1));
+			break;
+		case ALTERA_PESQUISA:
+			cg.alteraPesquisa(r.texto(0), r.texto(1), r.texto(2));
+			break;
+		case ENCERRA_PESQUISA:
+			cg.encerraPesquisa(r.texto(0), r.texto(1));
+			break;
+		case ATIVA_PESQUISA:
+			cg.ativaPesquisa(r.texto(0));
+			break;
+		case CADASTRA_PESQUISADOR:
+			cg.cadastraPesquisador(r.texto(0), r.texto(1), r.texto(2), r.texto(3), r.texto(4));
+			break;
+		case ALTERA_PESQUISADOR:
+			cg.alteraPesquisador(r.texto(0), r.texto(1), r.texto(2));
+			break;
+		case DESATIVA_PESQUISADOR:
+			cg.desativaPesquisador(r.texto(0));
+			break;
+		case ATIVA_PESQUISADOR:
+			cg.ativaPesquisador(r.texto(0));
+			break;
+		case CADASTRA_PROBLEMA:
+			cg.cadastraProblema(r.texto(0), r.inteiro(1));
+			break;
+		case CADASTRA_OBJETIVO:
+			cg.cadastraObjetivo(r.texto(0), r.texto(1), r.inteiro(2), r.inteiro(3));
+			break;
+		case APAGAR_PROBLEMA:
+			cg.apagarProblema(r.texto(0));
+			break;
+		case APAGAR_OBJETIVO:
+			cg.apagarObjetivo(r.texto(0));
+			break;
+		case CADASTRA_ATIVIDADE:
+			cg.cadastraAtividade(r.texto(0), r.texto(1), r.texto(2));
+			break;
+		case APAGA_ATIVIDADE:
+			cg.apagaAtividade(r.texto(0));
+			break;
+		case CADASTRA_ITEM:
+			cg.cadastraItem(r.texto(0), r.texto(1));
+			break;
+		case ASSOCIA_PROBLEMA:
+			cg.associaProblema(r.texto(0), r.texto(1));
+			break;
+		case DESASSOCIA_PROBLEMA:
+			cg.desassociaProblema(r.texto(0));
+			break;
+		case ASSOCIA_OBJETIVO:
+			cg.associaObjetivo(r.texto(0), r.texto(1));
+			break;
+		case DESASSOCIA_OBJETIVO:
+			cg.desassociaObjetivo(r.texto(0), r.texto(1));
+			break;
+		case ASSOCIA_PESQUISADOR:
+			cg.associaPesquisador(r.texto(0), r.texto(1));
+			break;
+		case DESASSOCIA_PESQUISADOR:
+			cg.desassociaPesquisador(r.texto(0), r.texto(1));
+			break;
+		case CADASTRA_ESPECIALIDADE_PROFESSOR:
+			cg.cadastraEspecialidadeProfessor(r.texto(0), r.texto(1), r.texto(2), r.texto(3));
+			break;
+		case CADASTRA_ESPECIALIDADE_ALUNO:
+			cg.cadastraEspecialidadeAluno(r.texto(0), r.inteiro(1), r.decimal(2));
+			break;
+		case ASSOCIA_ATIVIDADE:
+			cg.associaAtividade(r.texto(0), r.texto(1));
+			break;
+		case DESASSOCIA_ATIVIDADE:
+			cg.desassociaAtividade(r.texto(0), r.texto(1));
+			break;
+		case EXECUTA_ATIVIDADE:
+			cg.executaAtividade(r.texto(0), r.inteiro(1), r.inteiro(2));
+			break;
+		case CADASTRA_RESULTADO:
+			cg.cadastraResultado(r.texto(0), r.texto(1));
+			break;
+		case REMOVE_RESULTADO:
+			cg.removeResultado(r.texto(0), r.inteiro(1));
+			break;
+		case DEFINE_PROXIMA_ATIVIDADE:
+			cg.defineProximaAtividade(r.texto(0), r.texto(1));
+			break;
+		case TIRA_PROXIMA_ATIVIDADE:
+			cg.tiraProximaAtividade(r.texto(0));
+			break;
+		case CONFIGURA_ESTRATEGIA:
+			cg.configuraEstrategia(r.texto(0));
+			break;
+		}
+		cg.setSequenciaDiario(r.getSequencia());
+	}
+
+	private void fechaArquivoPaginado(ArquivoPaginado novo) {
+		ArquivoPaginado anterior = this.arquivoPaginado;
+		this.arquivoPaginado = novo;
+		if (anterior != null) {
+			try {
+				anterior.close();
+			} catch (IOException e) {
+				// o sistema aberto dele ja foi substituido
+			}
+		}
+	}
+
+	private String relatorioSnapshot(String acao, Path arquivo, long bytes, long inicio) {
+		long milissegundos = (System.nanoTime() - inicio) / 1_000_000;
+		return "Sistema " + acao + " " + arquivo + ": " + bytes + " bytes em " + milissegundos + " ms";
+	}
+
 }
-	
\ No newline at end of file
@@ -0,0 +1,36 @@
+package controladores;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Classe com operações auxiliares sobre os mapas das entidades dos
+ * controladores.
+ *
+ */
+final class Mapas {
+
+	private Mapas() {
+	}
+
+	/**
+	 * Método que prepara um mapa para receber um lote de entidades sem ser
+	 * redimensionado a cada crescimento. Um HashMap comum que ao menos dobraria
+	 * de tamanho é copiado uma única vez para um mapa já com a capacidade
+	 * final; lotes menores e mapas de outros tipos, como os paginados, são
+	 * retornados sem mudança.
+	 * 
+	 * @param mapa       O mapa das entidades.
+	 * @param adicionais A quantidade de entidades do lote.
+	 * @return O mapa a ser usado no lugar do informado.
+	 */
+	static <V> Map<String, V> reserva(Map<String, V> mapa, int adicionais) {
+		if (mapa.getClass() != HashMap.class || adicionais < Math.max(1, mapa.size())) {
+			return mapa;
+		}
+		int total = mapa.size() + adicionais;
+		Map<String, V> reservado = new HashMap<>((int) Math.min(1 << 30, total / 0.75 + 1));
+		reservado.putAll(mapa);
+		return reservado;
+	}
+}
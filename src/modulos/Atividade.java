@@ -1,15 +1,15 @@
 package modulos;
 
-import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import util.Normalizador;
 import util.Validador;
 
 /**
  * Classe que representa a atividade.
  *
  */
-public class Atividade implements Serializable {
+public class Atividade extends EntidadeRastreavel {
 
 	/**
 	 * Descrição da atividade.
@@ -17,6 +17,12 @@ public class Atividade implements Serializable {
 	 */
 	private String descricao;
 
+	/**
+	 * Descrição da atividade normalizada para a busca.
+	 * 
+	 */
+	private String descricaoNormalizada;
+
 	/**
 	 * Resultados (items) da atividade.
 	 * 
@@ -24,10 +30,10 @@ public class Atividade implements Serializable {
 	private List<Item> items;
 	
 	/**
-	 * Lista de resultados.
+	 * Resultados, guardados fora do heap, pelo número.
 	 * 
 	 */
-	private List<String> resultados;
+	private RegistroResultados resultados;
 	
 	/**
 	 * booleano que representa se uma atividade está associada a uma pesquisa.
@@ -85,10 +91,11 @@ public class Atividade implements Serializable {
 	 */
 	public Atividade(String descricao, String nivelRisco, String descricaoRisco) {
 		this.descricao = descricao;
+		this.descricaoNormalizada = Normalizador.normaliza(descricao);
 		this.nivelRisco = nivelRisco;
 		this.descricaoRisco = descricaoRisco;
 		this.items = new ArrayList();
-		this.resultados = new ArrayList<>();
+		this.resultados = new RegistroResultados();
 		this.codigo = "A";
 		this.contResultado = 0;
 		this.duracao = 0;
@@ -126,6 +133,7 @@ public class Atividade implements Serializable {
 		} else {
 			Item novoItem = new Item(item);
 			this.items.add(novoItem);
+			this.registraAlteracao();
 		}
 	}
 
@@ -201,6 +209,7 @@ public class Atividade implements Serializable {
 	 */
 	public void concatenaCodigo(int numero) {
 		this.codigo += numero;
+		this.registraAlteracao();
 	}
 
 	/**
@@ -236,6 +245,7 @@ public class Atividade implements Serializable {
 
 		}
 		this.duracao += duracao;
+		this.registraAlteracao();
 	}
 
 	/**
@@ -245,28 +255,25 @@ public class Atividade implements Serializable {
 	 * @return O identificador do resultado.
 	 */
 	public int addResultado(String resultado) {
-		this.resultados.add(resultado);
-		if (!resultado.equals(resultado)) {
-			this.contResultado = 0;
-		}
 		this.contResultado += 1;
-
+		this.resultados.adiciona(this.contResultado, resultado);
+		this.registraAlteracao();
 		return this.contResultado;
 	}
 
 	/**
-	 * Método qu remove um resultado.
+	 * Método qu remove um resultado. Os demais resultados mantêm os seus
+	 * números.
 	 * 
-	 * @param numeroResultado O resultado a ser removido.
+	 * @param numeroResultado O número do resultado a ser removido.
 	 * @return O identificador do resultado.
 	 */
 	public boolean removeResultado(int numeroResultado) {
-		if (numeroResultado - 1 > this.resultados.size()) {
+		if (!this.resultados.remove(numeroResultado)) {
 			throw new IllegalArgumentException("Resultado nao encontrado.");
-		} else {
-			this.resultados.remove(numeroResultado - 1);
-			return true;
 		}
+		this.registraAlteracao();
+		return true;
 	}
 
 	/**
@@ -275,11 +282,7 @@ public class Atividade implements Serializable {
 	 * @return Uma string com todos os resultados.
 	 */
 	public String listaResultados() {
-		String retorno = "";
-		for (int i = 0; i < resultados.size(); i++) {
-			retorno += resultados.get(i).toString() + " | ";
-		}
-		return retorno = retorno.substring(0, retorno.length() - 3);
+		return this.resultados.lista(" | ");
 	}
 
 	/**
@@ -300,12 +303,24 @@ public class Atividade implements Serializable {
 		return descricao;
 	}
 
+	/**
+	 * Método que retorna a descrição da atividade normalizada para a busca.
+	 * 
+	 * @return A descrição normalizada.
+	 */
+	public String getDescricaoNormalizada() {
+		return descricaoNormalizada;
+	}
+
 	/**
 	 * Método que altera a atividade para associada.
 	 * 
 	 */
 	public void setEhAssociada() {
-		this.ehAssociada = true;
+		if (!this.ehAssociada) {
+			this.ehAssociada = true;
+			this.registraAlteracao();
+		}
 	}
 
 	/**
@@ -322,7 +337,10 @@ public class Atividade implements Serializable {
 	 * 
 	 */
 	public void setNaoAssociada() {
-		this.ehAssociada = false;
+		if (this.ehAssociada) {
+			this.ehAssociada = false;
+			this.registraAlteracao();
+		}
 	}
 
 	/**
@@ -347,10 +365,19 @@ public class Atividade implements Serializable {
 	/**
 	 * Método que retorna o resultados. 
 	 * 
-	 * @return A lista de resultados.
+	 * @return Uma cópia da lista de resultados.
 	 */
 	public List<String> getResultados() {
-		return resultados;
+		return this.resultados.getResultados();
+	}
+
+	/**
+	 * Método que retorna o registro dos resultados, com os seus números.
+	 * 
+	 * @return O registro de resultados.
+	 */
+	public RegistroResultados getRegistroResultados() {
+		return this.resultados;
 	}
 	
 	/**
@@ -390,6 +417,7 @@ public class Atividade implements Serializable {
 			throw new IllegalArgumentException("Atividade ja possui uma subsequente.");
 		} else {
 			this.proximaAtividade = codigo;
+			this.registraAlteracao();
 		}
 	}
 	
@@ -406,7 +434,10 @@ public class Atividade implements Serializable {
 	 * Remove a proxima atividade
 	 */
 	public void removeProximaAtividade() {
-		this.proximaAtividade = "";
+		if (!this.proximaAtividade.equals("")) {
+			this.proximaAtividade = "";
+			this.registraAlteracao();
+		}
 	}
 	
 	/**
@@ -417,6 +448,44 @@ public class Atividade implements Serializable {
 	public String getRisco() {
 		return this.nivelRisco;
 	}
+	
+	/**
+	 * Método que define o código da atividade, usado ao restaurar um snapshot.
+	 * 
+	 * @param codigo O código da atividade.
+	 */
+	public void setCodigo(String codigo) {
+		this.codigo = codigo;
+		this.registraAlteracao();
+	}
+	
+	/**
+	 * Método que retorna o contador de resultados da atividade.
+	 * 
+	 * @return A quantidade de resultados já cadastrados.
+	 */
+	public int getContResultado() {
+		return this.contResultado;
+	}
+	
+	/**
+	 * Método que define o contador de resultados, usado ao restaurar um snapshot.
+	 * 
+	 * @param contResultado A quantidade de resultados já cadastrados.
+	 */
+	public void setContResultado(int contResultado) {
+		this.contResultado = contResultado;
+		this.registraAlteracao();
+	}
+	
+	/**
+	 * Método que define a duração da atividade, usado ao restaurar um snapshot.
+	 * 
+	 * @param duracao A quantidade de horas gastas na atividade.
+	 */
+	public void setDuracao(int duracao) {
+		this.duracao = duracao;
+		this.registraAlteracao();
+	}
 
-
-}
\ No newline at end of file
+}
@@ -0,0 +1,54 @@
+package modulos;
+
+import java.io.Serializable;
+
+/**
+ * Base das entidades cujas alterações são acompanhadas (ver {@link Rastreavel}),
+ * com a marcação de alteração e o observador comuns a todas elas.
+ *
+ */
+public abstract class EntidadeRastreavel implements Serializable, Rastreavel {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Se a entidade foi alterada desde o último snapshot.
+	 *
+	 */
+	private transient boolean alterado = true;
+
+	/**
+	 * Quem é avisado a cada alteração, ou null.
+	 *
+	 */
+	private transient Runnable observador;
+
+	@Override
+	public boolean isAlterado() {
+		return this.alterado;
+	}
+
+	@Override
+	public void limpaAlteracao() {
+		this.alterado = false;
+	}
+
+	@Override
+	public void observaAlteracao(Runnable observador) {
+		this.observador = observador;
+	}
+
+	/**
+	 * Método que marca a entidade como alterada e avisa o observador. Deve ser
+	 * chamado apenas depois que a alteração foi validada e de fato aconteceu,
+	 * para que operações rejeitadas não regravem a entidade.
+	 *
+	 */
+	protected void registraAlteracao() {
+		this.alterado = true;
+		if (this.observador != null) {
+			this.observador.run();
+		}
+	}
+
+}
@@ -1,7 +1,6 @@
 package modulos;
 
-import java.io.Serializable;
-
+import util.Normalizador;
 import util.Validador;
 
 /**
@@ -10,7 +9,7 @@ import util.Validador;
  * @author Guilherme Rogerio
  *
  */
-public class Objetivo implements Serializable{
+public class Objetivo extends EntidadeRastreavel {
 	
 	/**
 	 * Tipo do objetivo que pode ser GERAL ou ESPECIFICO.
@@ -24,6 +23,12 @@ public class Objetivo implements Serializable{
 	 */
 	private String descricao;
 	
+	/**
+	 * Descricao do objetivo normalizada para a busca.
+	 * 
+	 */
+	private String descricaoNormalizada;
+	
 	/**
 	 * Objeto para validar os parâmetros.
 	 * 
@@ -71,6 +76,7 @@ public class Objetivo implements Serializable{
 	public Objetivo(String tipo, String descricao, int aderencia, int viabilidade) {
 		this.tipo = tipo;
 		this.descricao = descricao;
+		this.descricaoNormalizada = Normalizador.normaliza(descricao);
 		this.aderencia = aderencia;
 		this.codigo = "O";
 		this.viabilidade = viabilidade;
@@ -85,6 +91,7 @@ public class Objetivo implements Serializable{
 	 */
 	public void geraCodigo(int numero) {
 		this.codigo += numero;
+		this.registraAlteracao();
 	}
 
 	/**
@@ -133,6 +140,7 @@ public class Objetivo implements Serializable{
 	 */
 	public void setAssociado(boolean estadoOjetivo) {
 		this.associado = estadoOjetivo;
+		this.registraAlteracao();
 	}
 
     /**
@@ -178,4 +186,51 @@ public class Objetivo implements Serializable{
 	public String getDescricao() {
 		return descricao;
 	}
+
+	/**
+	 * Método que retorna a descrição do objetivo normalizada para a busca.
+	 * 
+	 * @return A descrição normalizada do objetivo.
+	 */
+	public String getDescricaoNormalizada() {
+		return descricaoNormalizada;
+	}
+
+	/**
+	 * Método que retorna o tipo do objetivo.
+	 * 
+	 * @return O tipo do objetivo (GERAL ou ESPECIFICO).
+	 */
+	public String getTipo() {
+		return tipo;
+	}
+
+	/**
+	 * Método que retorna a aderência do objetivo ao problema.
+	 * 
+	 * @return A aderência do objetivo.
+	 */
+	public int getAderencia() {
+		return aderencia;
+	}
+
+	/**
+	 * Método que retorna a viabilidade do objetivo.
+	 * 
+	 * @return A viabilidade do objetivo.
+	 */
+	public int getViabilidade() {
+		return viabilidade;
+	}
+
+	/**
+	 * Método que define o código do objetivo, usado ao restaurar um snapshot.
+	 * 
+	 * @param codigo O código do objetivo.
+	 */
+	public void setCodigo(String codigo) {
+		this.codigo = codigo;
+		this.registraAlteracao();
+	}
+
 }
@@ -6,9 +6,15 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 
 /**
  * Classe responsavel pela armazenação e leitura de objetos em arquivos.
+ * Formato legado: novos arquivos são gravados por {@link persistencia.Snapshot}.
  * 
  */
 public class Persistencia {
@@ -49,65 +55,60 @@ public class Persistencia {
     }
 
     /**
-     * Salva um objeto em um arquivo.
+     * Salva um objeto em um arquivo. O objeto é gravado em um arquivo temporário,
+     * sincronizado com o disco e então renomeado sobre o destino, que nunca fica
+     * pela metade.
      *
      * @param obj         representa o objeto que vamos salvar no arquivo.
      * @param nomeArquivo representa o nome do arquivo que vai ser salvo objeto.
+     * @throws UncheckedIOException se a escrita falhar.
+     * @deprecated o estado do sistema é gravado em {@link persistencia.Snapshot};
+     *             a serialização Java é mantida apenas para leitura.
      */
+    @Deprecated
     public void salvar(Object obj, String nomeArquivo) {
-        FileOutputStream fos = null;
-        ObjectOutputStream oos = null;
+        Path destino = Paths.get(this.caminhoDiretorio + nomeArquivo + EXTENSAO_ARQUIVO);
+        Path temporario = destino.resolveSibling(destino.getFileName() + ".tmp");
 
         try {
-            fos = new FileOutputStream(this.caminhoDiretorio + nomeArquivo + EXTENSAO_ARQUIVO);
-            oos = new ObjectOutputStream(fos);
-            oos.writeObject(obj);
-
+            try (FileOutputStream fos = new FileOutputStream(temporario.toFile());
+                    ObjectOutputStream oos = new ObjectOutputStream(fos)) {
+                oos.writeObject(obj);
+                oos.flush();
+                fos.getFD().sync();
+            }
+            Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
         } catch (IOException e) {
-            e.printStackTrace();
-        } finally {
-            if (oos != null) {
-                try {
-                    oos.close();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
+            try {
+                Files.deleteIfExists(temporario);
+            } catch (IOException suprimida) {
+                e.addSuppressed(suprimida);
             }
+            throw new UncheckedIOException("Nao foi possivel salvar " + destino + ".", e);
         }
-
     }
 
     /**
      * Recupera o objeto, caso esteja, no arquivo recebindo como paramentro.
      *
      * @param nomeArquivo representa o nome do aquivo que vai ser recuperado o objeto.
-     * @return o objeto que estava armazenado.
+     * @return o objeto que estava armazenado, ou null se o arquivo não existe ou
+     *         está vazio.
+     * @throws UncheckedIOException se o arquivo existir mas não puder ser lido.
      */
     public Object carregar(String nomeArquivo) {
-        FileInputStream fis = null;
-        ObjectInputStream ois = null;
-        Object obj = null;
         File file = new File(this.caminhoDiretorio + nomeArquivo + EXTENSAO_ARQUIVO);
 
-        if (file.length() != 0) {
-            try {
-                fis = new FileInputStream(file);
-                ois = new ObjectInputStream(fis);
-                obj = ois.readObject();
-
-            } catch (IOException | ClassNotFoundException e) {
-                e.printStackTrace();
-            } finally {
-                if (ois != null) {
-                    try {
-                        ois.close();
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                    }
-                }
-            }
+        if (file.length() == 0) {
+            return null;
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
+            return ois.readObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Nao foi possivel carregar " + file + ".", e);
+        } catch (ClassNotFoundException e) {
+            throw new UncheckedIOException("Nao foi possivel carregar " + file + ".",
+                    new IOException("Classe desconhecida no arquivo.", e));
         }
-        return obj;
     }
 }
-
@@ -1,6 +1,5 @@
 package modulos;
 
-import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -9,12 +8,14 @@ import java.util.Optional;
 import java.util.Set;
 
 import comparadores.ComparadorAtividade;
+import comparadores.PesquisaOrdenavel;
+import util.Normalizador;
 import util.Validador;
 
 /**
  * Representação de Pesquisa no Sistema
  */
-public class Pesquisa implements Serializable{
+public class Pesquisa extends EntidadeRastreavel implements PesquisaOrdenavel {
 
 	/**
 	 * Atributo que representa a descrição da pesquisa.
@@ -28,6 +29,18 @@ public class Pesquisa implements Serializable{
 	 */
 	private String camposInteresse[];
 	
+	/**
+	 * Atributo que representa a descrição da pesquisa normalizada para a busca.
+	 * 
+	 */
+	private String descricaoNormalizada;
+	
+	/**
+	 * Atributo que representa os campos de interesse normalizados para a busca.
+	 * 
+	 */
+	private String camposInteresseNormalizados[];
+	
 	/**
 	 * Atributo que representa o codigo da pesquisa.
 	 * 
@@ -63,6 +76,13 @@ public class Pesquisa implements Serializable{
 	 */
 	private Map<String, Atividade> atividades;
 
+	/**
+	 * Maior código entre os objetivos associados, ou null se ainda não foi
+	 * calculado desde a última mudança nos objetivos.
+	 * 
+	 */
+	private transient String maiorIdObjetivo;
+
 	/**
 	 * Construtor da calsse pequisa, inicia as coleções e atribui valores iniciais aos atributos.
 	 *  
@@ -73,6 +93,7 @@ public class Pesquisa implements Serializable{
 		this.camposInteresse = new String[4];
 		this.gerarCamposInteresse(camposInteresse);
 		this.descricao = descricao;
+		this.descricaoNormalizada = Normalizador.normaliza(descricao);
 		this.ativa = true;
 		this.atividades = new HashMap<>();
 		this.objetivos = new HashMap<>();
@@ -93,6 +114,7 @@ public class Pesquisa implements Serializable{
 		if (!atividades.containsKey(codigoAtividade)) {
 			this.atividades.put(codigoAtividade, atividade);
 			this.atividades.get(codigoAtividade).setEhAssociada();
+			this.registraAlteracao();
 			return true;
 		} else {
 			return false;
@@ -110,6 +132,7 @@ public class Pesquisa implements Serializable{
 		if (atividades.get(codigoAtividade) != null) {
 			this.atividades.get(codigoAtividade).setNaoAssociada();
 			this.atividades.remove(codigoAtividade);
+			this.registraAlteracao();
 			return true;
 		} else {
 			return false;
@@ -138,6 +161,7 @@ public class Pesquisa implements Serializable{
 			throw new IllegalArgumentException("Formato do campo de interesse invalido.");
 		}
 
+		this.camposInteresseNormalizados = Normalizador.normaliza(this.camposInteresse);
 	}
 
 	/**
@@ -152,13 +176,17 @@ public class Pesquisa implements Serializable{
 	 */
 	public void setCamposInteresse(String camposInteresse) {
 		this.gerarCamposInteresse(camposInteresse);
+		this.registraAlteracao();
 	}
 
 	/**
 	 * @param ativa the ativa to set
 	 */
 	public void setAtiva(boolean ativa) {
-		this.ativa = ativa;
+		if (this.ativa != ativa) {
+			this.ativa = ativa;
+			this.registraAlteracao();
+		}
 	}
 
 	@Override
@@ -202,6 +230,8 @@ public class Pesquisa implements Serializable{
 	 */
 	public void setDescricao(String novoConteudo) {
 		this.descricao = novoConteudo;
+		this.descricaoNormalizada = Normalizador.normaliza(novoConteudo);
+		this.registraAlteracao();
 	}
 
 	/**
@@ -222,6 +252,7 @@ public class Pesquisa implements Serializable{
 
 	public void setCodigo(String codigoPesquisa) {
 		this.codigo = codigoPesquisa;
+		this.registraAlteracao();
 	}
 	/**
 	 * Método que associa o problema na pesquisa.
@@ -234,6 +265,7 @@ public class Pesquisa implements Serializable{
 		if (problema != this.problema) {
 			if (this.problema == null) {
 				this.problema = problema;
+				this.registraAlteracao();
 				retorno = true;
 
 			} else if (this.problema != null) {
@@ -253,6 +285,7 @@ public class Pesquisa implements Serializable{
 		boolean retorno = false;
 		if(this.problema != null) {
 			this.problema = null;
+			this.registraAlteracao();
 			retorno = true;
 		}
 		return retorno;
@@ -266,6 +299,8 @@ public class Pesquisa implements Serializable{
 			}
 			this.objetivos.put(idObjetivo, objetivo);
 			this.objetivos.get(idObjetivo).setAssociado(true);
+			this.maiorIdObjetivo = null;
+			this.registraAlteracao();
 			retorno = true;
 		}
 		return retorno;
@@ -276,6 +311,8 @@ public class Pesquisa implements Serializable{
 		if (this.objetivos.containsKey(idObjetivo)) {
 			this.objetivos.get(idObjetivo).setAssociado(false);
 			this.objetivos.remove(idObjetivo);
+			this.maiorIdObjetivo = null;
+			this.registraAlteracao();
 			retorno = true;
 		}
 		return retorno;
@@ -300,11 +337,26 @@ public class Pesquisa implements Serializable{
 	}
 
 	/**
-	 * Método que analisa os ids dos objetivos procurando o maior
+	 * Método que retorna o código do problema associado à pesquisa.
+	 *
+	 * @return O código do problema, ou null se não houver problema associado.
+	 */
+	@Override
+	public String getCodigoProblema() {
+		return this.problema == null ? null : this.problema.getCodigo();
+	}
+
+	/**
+	 * Método que analisa os ids dos objetivos procurando o maior, guardando o
+	 * resultado até a próxima mudança nos objetivos.
 	 * 
 	 * @return O maior id dos objetivos.
 	 */
+	@Override
 	public String maiorId() {
+		if (this.maiorIdObjetivo != null) {
+			return this.maiorIdObjetivo;
+		}
 		String variavelId = "";
 		for (String id : objetivos.keySet()) {
 			if (id == "") {
@@ -315,6 +367,7 @@ public class Pesquisa implements Serializable{
 				}
 			}
 		}
+		this.maiorIdObjetivo = variavelId;
 		return variavelId;
 	}
 
@@ -359,6 +412,52 @@ public class Pesquisa implements Serializable{
 		return camposInteresse;
 	}
 
+	/**
+	 * Método que retorna os campos de interesse da pesquisa normalizados para a
+	 * busca.
+	 * 
+	 * @return A lista com os interesses normalizados.
+	 */
+	public String[] getCamposInteresseNormalizados() {
+		return camposInteresseNormalizados;
+	}
+
+	/**
+	 * Método que retorna os campos de interesse normalizados em um único texto,
+	 * separados por vírgula.
+	 * 
+	 * @return Os campos de interesse normalizados.
+	 */
+	public String getCamposInteresseTextoNormalizado() {
+		StringBuilder sbCamposInteresse = new StringBuilder();
+		for (String string : camposInteresseNormalizados) {
+			if (string != null) {
+				if (sbCamposInteresse.length() > 0)
+					sbCamposInteresse.append(", ");
+				sbCamposInteresse.append(string);
+			}
+		}
+		return sbCamposInteresse.toString();
+	}
+
+	/**
+	 * Método que retorna os campos de interesse da pesquisa em um único texto,
+	 * separados por vírgula.
+	 * 
+	 * @return Os campos de interesse da pesquisa.
+	 */
+	public String getCamposInteresseTexto() {
+		StringBuilder sbCamposInteresse = new StringBuilder();
+		for (String string : camposInteresse) {
+			if (string != null) {
+				if (sbCamposInteresse.length() > 0)
+					sbCamposInteresse.append(", ");
+				sbCamposInteresse.append(string);
+			}
+		}
+		return sbCamposInteresse.toString();
+	}
+
 	/**
 	 * Método que busca a atividade com a maior duração.
 	 * 
@@ -451,5 +550,49 @@ public class Pesquisa implements Serializable{
 	public String getDescricao() {
 		return descricao;
 	}
+	
+	/**
+	 * Método que retorna a descrição da pesquisa normalizada para a busca.
+	 * 
+	 * @return A descrição normalizada.
+	 */
+	public String getDescricaoNormalizada() {
+		return descricaoNormalizada;
+	}
+	
+	/**
+	 * Método que restaura os campos de interesse exatamente como foram guardados
+	 * em um snapshot, inclusive as posições vazias.
+	 * 
+	 * @param camposInteresse Os campos de interesse da pesquisa.
+	 */
+	public void restauraCamposInteresse(String[] camposInteresse) {
+		this.camposInteresse = camposInteresse;
+		this.camposInteresseNormalizados = Normalizador.normaliza(camposInteresse);
+		this.registraAlteracao();
+	}
+	
+	/**
+	 * Método que restaura um objetivo da pesquisa sem alterar o estado de
+	 * associação do objetivo, que é guardado no próprio snapshot.
+	 * 
+	 * @param objetivo O objetivo a ser restaurado.
+	 */
+	public void restauraObjetivo(Objetivo objetivo) {
+		this.objetivos.put(objetivo.getCodigo(), objetivo);
+		this.maiorIdObjetivo = null;
+		this.registraAlteracao();
+	}
+	
+	/**
+	 * Método que restaura uma atividade da pesquisa sem alterar o estado de
+	 * associação da atividade, que é guardado no próprio snapshot.
+	 * 
+	 * @param atividade A atividade a ser restaurada.
+	 */
+	public void restauraAtividade(Atividade atividade) {
+		this.atividades.put(atividade.getCodigo(), atividade);
+		this.registraAlteracao();
+	}
 
 }
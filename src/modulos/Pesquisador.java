@@ -1,18 +1,18 @@
 package modulos;
 
-import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
 
+import util.Normalizador;
 import util.Validador;
 
 /**
  * Classe destinada a alocação as informação do pesquisador.
  *
  */
-public class Pesquisador implements Serializable {
+public class Pesquisador extends EntidadeRastreavel {
 	
     /**
      * Atributo que representa o nome do pesquisador.
@@ -32,6 +32,12 @@ public class Pesquisador implements Serializable {
      */
 	private String biografia;
 	
+    /**
+     * Atributo que representa a biografia normalizada para a busca.
+     *
+     */
+	private String biografiaNormalizada;
+	
     /**
      * Atributo que representa o email do pesquisador.
      *
@@ -82,6 +88,7 @@ public class Pesquisador implements Serializable {
 		this.nome = nome;
 		this.funcao = funcao;
 		this.biografia = biografia;
+		this.biografiaNormalizada = Normalizador.normaliza(biografia);
 		this.email = email;
 		this.foto = foto;
 		this.ativo = true;
@@ -100,6 +107,7 @@ public class Pesquisador implements Serializable {
 		this.validador.validaEspecialidadeAluno(this.funcao);
 		InterfacePesquisador aluno = new Aluno(semestre, iea);
 		this.especialidade = aluno;
+		this.registraAlteracao();
 	}
 	
 	/**
@@ -113,6 +121,7 @@ public class Pesquisador implements Serializable {
 		this.validador.validaEspecialidadeProfessor(this.funcao);
 		InterfacePesquisador professor = new Professor(formacao, unidade, data);
 		this.especialidade = professor;
+		this.registraAlteracao();
 	}
 	
 	/**
@@ -123,6 +132,7 @@ public class Pesquisador implements Serializable {
 	 */
 	public void alteraEspecialidade(String atributo, String novoValor) {
 		this.especialidade.alteraEspecialidade(atributo, novoValor);
+		this.registraAlteracao();
 	}
 	
 	/**
@@ -136,6 +146,7 @@ public class Pesquisador implements Serializable {
 		this.validador.validaPesquisa(pesquisa, idPesquisa, this.pesquisas);
 		if (!this.pesquisas.containsKey(idPesquisa)) {
 			this.pesquisas.put(idPesquisa, pesquisa);
+			this.registraAlteracao();
 			return true;
 		} else {
 			return false;
@@ -153,6 +164,7 @@ public class Pesquisador implements Serializable {
 		this.validador.validaPesquisa(pesquisa, idPesquisa, this.pesquisas);
 		if (this.pesquisas.containsKey(idPesquisa)) {
 			this.pesquisas.remove(idPesquisa, pesquisa);
+			this.registraAlteracao();
 			return true;
 		} else {
 			return false;
@@ -191,6 +203,7 @@ public class Pesquisador implements Serializable {
 	 */
 	public void setNome(String nome) {
 		this.nome = nome;
+		this.registraAlteracao();
 	}
 
 	/**
@@ -200,6 +213,7 @@ public class Pesquisador implements Serializable {
 	 */
 	public void setFuncao(String funcao) {
 		this.funcao = funcao;
+		this.registraAlteracao();
 	}
 
 	/**
@@ -209,6 +223,8 @@ public class Pesquisador implements Serializable {
 	 */
 	public void setBiografia(String biografia) {
 		this.biografia = biografia;
+		this.biografiaNormalizada = Normalizador.normaliza(biografia);
+		this.registraAlteracao();
 	}
 	/**
 	 * Método que realiza a alteração do valor do atributo telefone.
@@ -217,6 +233,7 @@ public class Pesquisador implements Serializable {
 	 */
 	public void setEmail(String email) {
 		this.email = email;
+		this.registraAlteracao();
 	}
 	
 	/**
@@ -226,6 +243,7 @@ public class Pesquisador implements Serializable {
 	 */
 	public void setFoto(String foto) {
 		this.foto = foto;
+		this.registraAlteracao();
 	}
 	
 	/**
@@ -273,6 +291,7 @@ public class Pesquisador implements Serializable {
 	 */
 	public boolean setAtivo(boolean novoEstado) {
 		this.ativo = novoEstado;
+		this.registraAlteracao();
 		return this.ativo;
 	}
 	
@@ -310,6 +329,15 @@ public class Pesquisador implements Serializable {
 		return biografia;
 	}
 
+	/**
+	 * Método que retorna a biografia do pesquisador normalizada para a busca.
+	 * 
+	 * @return A biografia normalizada.
+	 */
+	public String getBiografiaNormalizada() {
+		return biografiaNormalizada;
+	}
+
 	/**
 	 * Método que retorna o email do pesquisador.
 	 * 
@@ -319,4 +347,53 @@ public class Pesquisador implements Serializable {
 		return email;
 	}
 
+	/**
+	 * Método que retorna o nome do pesquisador.
+	 * 
+	 * @return O nome do pesquisador.
+	 */
+	public String getNome() {
+		return nome;
+	}
+
+	/**
+	 * Método que retorna a foto do pesquisador.
+	 * 
+	 * @return A foto do pesquisador.
+	 */
+	public String getFoto() {
+		return foto;
+	}
+
+	/**
+	 * Método que retorna a especialidade do pesquisador.
+	 * 
+	 * @return A especialidade (Aluno ou Professor), ou null se não houver.
+	 */
+	public InterfacePesquisador getEspecialidade() {
+		return especialidade;
+	}
+
+	/**
+	 * Método que define a especialidade do pesquisador, usado ao restaurar um
+	 * snapshot.
+	 * 
+	 * @param especialidade A especialidade do pesquisador.
+	 */
+	public void setEspecialidade(InterfacePesquisador especialidade) {
+		this.especialidade = especialidade;
+		this.registraAlteracao();
+	}
+
+	/**
+	 * Método que restaura a associação do pesquisador a uma pesquisa, sem exigir
+	 * que ela ainda esteja ativa.
+	 * 
+	 * @param pesquisa A pesquisa associada.
+	 */
+	public void restauraPesquisa(Pesquisa pesquisa) {
+		this.pesquisas.put(pesquisa.getCodigo(), pesquisa);
+		this.registraAlteracao();
+	}
+
 }
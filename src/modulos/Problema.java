@@ -1,7 +1,6 @@
 package modulos;
 
-import java.io.Serializable;
-
+import util.Normalizador;
 import util.Validador;
 
 /**
@@ -10,11 +9,15 @@ import util.Validador;
  * @author Guilherme Rogerio
  *
  */
-public class Problema implements Serializable {
+public class Problema extends EntidadeRastreavel {
 	/**
 	 * Descrição do problema.
 	 */
 	private String descricao;
+	/**
+	 * Descrição do problema normalizada para a busca.
+	 */
+	private String descricaoNormalizada;
 	/**
 	 * Viabilidade do problema ser resolvido.
 	 */
@@ -36,6 +39,7 @@ public class Problema implements Serializable {
 	 */
 	public Problema(String descricao, int viabilidade) {
 		this.descricao = descricao;
+		this.descricaoNormalizada = Normalizador.normaliza(descricao);
 		this.viabilidade = viabilidade;
 		this.codigo = "P";
 	}
@@ -47,6 +51,7 @@ public class Problema implements Serializable {
 	 */
 	public void geraCodigo(int numero) {
 		this.codigo += numero;
+		this.registraAlteracao();
 	}
 	
 	
@@ -115,4 +120,27 @@ public class Problema implements Serializable {
 		return descricao;
 	}
 
+	public String getDescricaoNormalizada() {
+		return descricaoNormalizada;
+	}
+
+	/**
+	 * Método que retorna a viabilidade do problema.
+	 * 
+	 * @return A viabilidade do problema.
+	 */
+	public int getViabilidade() {
+		return viabilidade;
+	}
+
+	/**
+	 * Método que define o código do problema, usado ao restaurar um snapshot.
+	 * 
+	 * @param codigo O código do problema.
+	 */
+	public void setCodigo(String codigo) {
+		this.codigo = codigo;
+		this.registraAlteracao();
+	}
+
 }
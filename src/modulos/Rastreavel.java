@@ -0,0 +1,32 @@
+package modulos;
+
+/**
+ * Entidade cujas alterações são acompanhadas, para que um snapshot incremental
+ * grave apenas as entidades que mudaram desde o snapshot anterior.
+ *
+ */
+public interface Rastreavel {
+
+	/**
+	 * Método que informa se a entidade foi alterada desde a última vez que foi
+	 * gravada ou lida de um snapshot. Uma entidade nova é sempre alterada.
+	 *
+	 * @return Se a entidade foi alterada.
+	 */
+	public boolean isAlterado();
+
+	/**
+	 * Método que marca a entidade como igual à gravada no snapshot.
+	 *
+	 */
+	public void limpaAlteracao();
+
+	/**
+	 * Método que registra quem deve ser avisado a cada alteração da entidade,
+	 * usado por quem mantém entidades em memória apenas enquanto não mudam.
+	 *
+	 * @param observador Executado a cada alteração, ou null para nenhum.
+	 */
+	public void observaAlteracao(Runnable observador);
+
+}
@@ -0,0 +1,348 @@
+package modulos;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Classe que guarda os resultados de uma atividade fora do heap, em blocos de
+ * buffers diretos, com um número estável para cada resultado.
+ *
+ * O texto de cada resultado é gravado em UTF-8 no fim do último bloco; no heap
+ * ficam apenas, por resultado, o número, o bloco, a posição e o tamanho. Os
+ * blocos crescem em dobro até {@link #TAMANHO_MAXIMO_BLOCO}, de modo que
+ * atividades com poucos resultados ocupam pouco. Remover um resultado não
+ * muda o número dos demais; o espaço dos removidos é recuperado quando passa
+ * a ser maior que o dos resultados guardados.
+ *
+ */
+public class RegistroResultados implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Tamanho do primeiro bloco, em bytes.
+	 *
+	 */
+	public static final int TAMANHO_MINIMO_BLOCO = 1 << 8;
+
+	/**
+	 * Tamanho máximo de um bloco, em bytes, exceto para um resultado maior que
+	 * ele, que ocupa um bloco próprio.
+	 *
+	 */
+	public static final int TAMANHO_MAXIMO_BLOCO = 1 << 16;
+
+	/**
+	 * Blocos com os textos dos resultados.
+	 *
+	 */
+	private transient List<ByteBuffer> blocos;
+
+	/**
+	 * Número de cada resultado, em ordem crescente.
+	 *
+	 */
+	private transient int[] numeros;
+
+	/**
+	 * Bloco de cada resultado.
+	 *
+	 */
+	private transient int[] blocosResultados;
+
+	/**
+	 * Posição de cada resultado no seu bloco.
+	 *
+	 */
+	private transient int[] posicoes;
+
+	/**
+	 * Tamanho de cada resultado, em bytes.
+	 *
+	 */
+	private transient int[] tamanhos;
+
+	/**
+	 * Quantidade de resultados guardados.
+	 *
+	 */
+	private transient int quantidade;
+
+	/**
+	 * Bytes ocupados por resultados guardados.
+	 *
+	 */
+	private transient long bytesGuardados;
+
+	/**
+	 * Bytes ocupados por resultados já removidos.
+	 *
+	 */
+	private transient long bytesRemovidos;
+
+	/**
+	 * Construtor do registro, ainda vazio e sem blocos.
+	 *
+	 */
+	public RegistroResultados() {
+		this.inicia();
+	}
+
+	/**
+	 * Método que adiciona um resultado, com um número maior que o de todos os
+	 * já adicionados.
+	 *
+	 * @param numero    O número do resultado.
+	 * @param resultado O texto do resultado.
+	 */
+	public synchronized void adiciona(int numero, String resultado) {
+		if (this.quantidade > 0 && numero <= this.numeros[this.quantidade - 1]) {
+			throw new IllegalArgumentException("Numero de resultado fora de ordem.");
+		}
+		byte[] bytes = resultado.getBytes(StandardCharsets.UTF_8);
+		ByteBuffer bloco = this.blocoCom(bytes.length);
+		if (this.quantidade == this.numeros.length) {
+			int capacidade = Math.max(4, this.quantidade * 2);
+			this.numeros = Arrays.copyOf(this.numeros, capacidade);
+			this.blocosResultados = Arrays.copyOf(this.blocosResultados, capacidade);
+			this.posicoes = Arrays.copyOf(this.posicoes, capacidade);
+			this.tamanhos = Arrays.copyOf(this.tamanhos, capacidade);
+		}
+		this.numeros[this.quantidade] = numero;
+		this.blocosResultados[this.quantidade] = this.blocos.size() - 1;
+		this.posicoes[this.quantidade] = bloco.position();
+		this.tamanhos[this.quantidade] = bytes.length;
+		this.quantidade++;
+		bloco.put(bytes);
+		this.bytesGuardados += bytes.length;
+	}
+
+	/**
+	 * Método que remove o resultado com o número informado.
+	 *
+	 * @param numero O número do resultado.
+	 * @return Se o resultado existia.
+	 */
+	public synchronized boolean remove(int numero) {
+		int indice = Arrays.binarySearch(this.numeros, 0, this.quantidade, numero);
+		if (indice < 0) {
+			return false;
+		}
+		this.bytesGuardados -= this.tamanhos[indice];
+		this.bytesRemovidos += this.tamanhos[indice];
+		int seguintes = this.quantidade - indice - 1;
+		System.arraycopy(this.numeros, indice + 1, this.numeros, indice, seguintes);
+		System.arraycopy(this.blocosResultados, indice + 1, this.blocosResultados, indice, seguintes);
+		System.arraycopy(this.posicoes, indice + 1, this.posicoes, indice, seguintes);
+		System.arraycopy(this.tamanhos, indice + 1, this.tamanhos, indice, seguintes);
+		this.quantidade--;
+		if (this.quantidade == 0) {
+			this.inicia();
+		} else if (this.bytesRemovidos > TAMANHO_MAXIMO_BLOCO && this.bytesRemovidos > this.bytesGuardados) {
+			this.compacta();
+		}
+		return true;
+	}
+
+	/**
+	 * Método que retorna a quantidade de resultados guardados.
+	 *
+	 * @return A quantidade de resultados.
+	 */
+	public synchronized int quantidade() {
+		return this.quantidade;
+	}
+
+	/**
+	 * Método que retorna o número de um resultado.
+	 *
+	 * @param indice A posição do resultado, da mais antiga para a mais recente.
+	 * @return O número do resultado.
+	 */
+	public synchronized int getNumero(int indice) {
+		this.verificaIndice(indice);
+		return this.numeros[indice];
+	}
+
+	/**
+	 * Método que retorna o texto de um resultado.
+	 *
+	 * @param indice A posição do resultado, da mais antiga para a mais recente.
+	 * @return O texto do resultado.
+	 */
+	public synchronized String getResultado(int indice) {
+		this.verificaIndice(indice);
+		return new String(this.leBytes(indice), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Método que retorna os textos de todos os resultados, em ordem.
+	 *
+	 * @return Uma cópia dos resultados.
+	 */
+	public synchronized List<String> getResultados() {
+		List<String> resultados = new ArrayList<>(this.quantidade);
+		for (int i = 0; i < this.quantidade; i++) {
+			resultados.add(new String(this.leBytes(i), StandardCharsets.UTF_8));
+		}
+		return resultados;
+	}
+
+	/**
+	 * Método que lista os resultados, em ordem, separados pelo texto
+	 * informado.
+	 *
+	 * @param separador O separador entre os resultados.
+	 * @return Os resultados listados.
+	 */
+	public synchronized String lista(String separador) {
+		StringBuilder lista = new StringBuilder((int) Math.min(Integer.MAX_VALUE / 2, this.bytesGuardados + 16));
+		for (int i = 0; i < this.quantidade; i++) {
+			if (i > 0) {
+				lista.append(separador);
+			}
+			lista.append(new String(this.leBytes(i), StandardCharsets.UTF_8));
+		}
+		return lista.toString();
+	}
+
+	/**
+	 * Método que retorna quantos bytes os blocos ocupam fora do heap.
+	 *
+	 * @return A capacidade somada dos blocos.
+	 */
+	public synchronized long getBytesForaDoHeap() {
+		long total = 0;
+		for (ByteBuffer bloco : this.blocos) {
+			total += bloco.capacity();
+		}
+		return total;
+	}
+
+	/**
+	 * Método interno que volta o registro ao estado vazio, liberando os blocos.
+	 *
+	 */
+	private void inicia() {
+		this.blocos = new ArrayList<>();
+		this.numeros = new int[0];
+		this.blocosResultados = new int[0];
+		this.posicoes = new int[0];
+		this.tamanhos = new int[0];
+		this.quantidade = 0;
+		this.bytesGuardados = 0;
+		this.bytesRemovidos = 0;
+	}
+
+	/**
+	 * Método interno que retorna um bloco com espaço para a quantidade de bytes
+	 * informada, alocando um novo se o último não tiver.
+	 *
+	 * @param tamanho A quantidade de bytes necessária.
+	 * @return O último bloco, com espaço suficiente.
+	 */
+	private ByteBuffer blocoCom(int tamanho) {
+		if (!this.blocos.isEmpty()) {
+			ByteBuffer ultimo = this.blocos.get(this.blocos.size() - 1);
+			if (ultimo.remaining() >= tamanho) {
+				return ultimo;
+			}
+		}
+		int capacidade = TAMANHO_MINIMO_BLOCO;
+		if (!this.blocos.isEmpty()) {
+			capacidade = Math.min(TAMANHO_MAXIMO_BLOCO, this.blocos.get(this.blocos.size() - 1).capacity() * 2);
+		}
+		ByteBuffer bloco = ByteBuffer.allocateDirect(Math.max(capacidade, tamanho));
+		this.blocos.add(bloco);
+		return bloco;
+	}
+
+	/**
+	 * Método interno que copia os resultados guardados para blocos novos,
+	 * descartando o espaço dos removidos.
+	 *
+	 */
+	private void compacta() {
+		List<ByteBuffer> antigos = this.blocos;
+		this.blocos = new ArrayList<>();
+		ByteBuffer bloco = ByteBuffer.allocateDirect((int) Math.max(TAMANHO_MINIMO_BLOCO,
+				Math.min(TAMANHO_MAXIMO_BLOCO, this.bytesGuardados)));
+		this.blocos.add(bloco);
+		for (int i = 0; i < this.quantidade; i++) {
+			ByteBuffer origem = antigos.get(this.blocosResultados[i]).duplicate();
+			origem.limit(this.posicoes[i] + this.tamanhos[i]);
+			origem.position(this.posicoes[i]);
+			bloco = this.blocoCom(this.tamanhos[i]);
+			this.blocosResultados[i] = this.blocos.size() - 1;
+			this.posicoes[i] = bloco.position();
+			bloco.put(origem);
+		}
+		this.bytesRemovidos = 0;
+	}
+
+	/**
+	 * Método interno que lê os bytes de um resultado sem alterar o bloco.
+	 *
+	 * @param indice A posição do resultado.
+	 * @return Os bytes do resultado.
+	 */
+	private byte[] leBytes(int indice) {
+		ByteBuffer origem = this.blocos.get(this.blocosResultados[indice]).duplicate();
+		origem.limit(this.posicoes[indice] + this.tamanhos[indice]);
+		origem.position(this.posicoes[indice]);
+		byte[] bytes = new byte[this.tamanhos[indice]];
+		origem.get(bytes);
+		return bytes;
+	}
+
+	/**
+	 * Método interno que confere se há um resultado na posição informada.
+	 *
+	 * @param indice A posição do resultado.
+	 */
+	private void verificaIndice(int indice) {
+		if (indice < 0 || indice >= this.quantidade) {
+			throw new IndexOutOfBoundsException("Resultado " + indice + " de " + this.quantidade + ".");
+		}
+	}
+
+	/**
+	 * Método que grava o registro na serialização Java: a quantidade e, para
+	 * cada resultado, o número e o texto.
+	 *
+	 * @param saida O fluxo de destino.
+	 * @throws IOException Se a escrita falhar.
+	 */
+	private synchronized void writeObject(ObjectOutputStream saida) throws IOException {
+		saida.defaultWriteObject();
+		saida.writeInt(this.quantidade);
+		for (int i = 0; i < this.quantidade; i++) {
+			saida.writeInt(this.numeros[i]);
+			saida.writeObject(new String(this.leBytes(i), StandardCharsets.UTF_8));
+		}
+	}
+
+	/**
+	 * Método que lê o registro da serialização Java, de volta para blocos fora
+	 * do heap.
+	 *
+	 * @param entrada O fluxo de origem.
+	 * @throws IOException            Se a leitura falhar.
+	 * @throws ClassNotFoundException Se alguma classe não for encontrada.
+	 */
+	private void readObject(ObjectInputStream entrada) throws IOException, ClassNotFoundException {
+		entrada.defaultReadObject();
+		this.inicia();
+		int lidos = entrada.readInt();
+		for (int i = 0; i < lidos; i++) {
+			this.adiciona(entrada.readInt(), (String) entrada.readObject());
+		}
+	}
+}
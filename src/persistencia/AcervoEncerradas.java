@@ -0,0 +1,342 @@
+package persistencia;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import busca.IndiceBusca;
+import controladores.ControllerAtividade;
+import controladores.ControllerGeral;
+import controladores.ControllerPesquisa;
+import controladores.ControllerPesquisador;
+import controladores.ControllerProblemaObjetivo;
+import modulos.Atividade;
+import modulos.Objetivo;
+import modulos.Pesquisa;
+import modulos.Pesquisador;
+import modulos.Problema;
+import modulos.Rastreavel;
+
+/**
+ * Acervo das pesquisas encerradas, que tira da memória as pesquisas inativas,
+ * com as suas atividades, itens e resultados, e os pesquisadores associados a
+ * elas, gravando-as em um arquivo mapeado em memória apenas para leitura.
+ *
+ * Cada entidade arquivada é um registro com o seu CRC32, na mesma codificação
+ * do {@link Snapshot}, lido diretamente do mapeamento, sem cópia para o heap,
+ * no primeiro acesso. Uma pesquisa arquivada que volta a ser ativada, ou
+ * qualquer entidade arquivada que seja alterada, passa a ficar em memória
+ * como as demais. As atividades que também pertencem a pesquisas ativas não
+ * são arquivadas.
+ *
+ * O acervo não substitui o snapshot: as entidades arquivadas continuam
+ * cadastradas e são gravadas normalmente. O arquivo precisa existir enquanto
+ * o sistema devolvido estiver em uso, e é liberado quando ele é descartado.
+ *
+ */
+public class AcervoEncerradas implements OrigemRegistros {
+
+	/**
+	 * Assinatura no início do acervo.
+	 *
+	 */
+	public static final int ASSINATURA = 0x50535141;
+
+	/**
+	 * Versão atual do formato do acervo.
+	 *
+	 */
+	public static final int VERSAO = 1;
+
+	/**
+	 * Quantidade padrão de entidades arquivadas mantidas em cache, por tipo.
+	 *
+	 */
+	public static final int CAPACIDADE_CACHE = 64;
+
+	/**
+	 * Codificador das atividades.
+	 *
+	 */
+	private final CodecAtividade codecAtividade;
+
+	/**
+	 * Quantidade de entidades arquivadas mantidas em cache, por tipo.
+	 *
+	 */
+	private final int capacidade;
+
+	/**
+	 * Quantidade de registros lidos do acervo.
+	 *
+	 */
+	private final AtomicLong registrosLidos;
+
+	/**
+	 * Conteúdo do acervo mapeado em memória, ou null se nada foi arquivado.
+	 *
+	 */
+	private volatile ByteBuffer conteudo;
+
+	/**
+	 * Quantidade de pesquisas arquivadas.
+	 *
+	 */
+	private int pesquisasArquivadas;
+
+	/**
+	 * Construtor com o cache padrão.
+	 *
+	 */
+	public AcervoEncerradas() {
+		this(CAPACIDADE_CACHE);
+	}
+
+	/**
+	 * Construtor com a quantidade de entidades mantidas em cache informada.
+	 *
+	 * @param capacidade A quantidade de entidades arquivadas mantidas em cache,
+	 *                   por tipo.
+	 */
+	public AcervoEncerradas(int capacidade) {
+		if (capacidade < 1) {
+			throw new IllegalArgumentException("Capacidade do cache precisa ser positiva.");
+		}
+		this.codecAtividade = new CodecAtividade();
+		this.capacidade = capacidade;
+		this.registrosLidos = new AtomicLong();
+	}
+
+	/**
+	 * Método que arquiva as pesquisas encerradas de um sistema, devolvendo um
+	 * sistema equivalente em que elas são lidas do acervo sob demanda. O
+	 * arquivo é escrito em um temporário, sincronizado com o disco e renomeado
+	 * sobre o destino.
+	 *
+	 * @param controllerGeral O sistema, que não deve mais ser usado depois.
+	 * @param arquivo         O arquivo do acervo.
+	 * @return O sistema com as pesquisas encerradas arquivadas.
+	 * @throws IOException Se a escrita falhar ou o acervo não couber em um
+	 *                     mapeamento.
+	 */
+	public ControllerGeral arquiva(ControllerGeral controllerGeral, Path arquivo) throws IOException {
+		Snapshot.Entidades entidades = new Snapshot.Entidades(controllerGeral);
+		Set<Object> arquivadas = Collections.newSetFromMap(new IdentityHashMap<>());
+		Set<Object> emUso = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (Pesquisa pesquisa : entidades.pesquisas.keySet()) {
+			if (!pesquisa.getAtiva()) {
+				arquivadas.add(pesquisa);
+			} else {
+				emUso.addAll(pesquisa.getAtividades());
+			}
+		}
+		this.pesquisasArquivadas = arquivadas.size();
+		for (Pesquisa pesquisa : entidades.pesquisas.keySet()) {
+			if (!pesquisa.getAtiva()) {
+				for (Atividade atividade : pesquisa.getAtividades()) {
+					if (!emUso.contains(atividade)) {
+						arquivadas.add(atividade);
+					}
+				}
+			}
+		}
+		for (Pesquisador pesquisador : entidades.pesquisadores.keySet()) {
+			for (Pesquisa pesquisa : pesquisador.getPesquisas()) {
+				if (arquivadas.contains(pesquisa)) {
+					arquivadas.add(pesquisador);
+					break;
+				}
+			}
+		}
+
+		Map<Object, long[]> posicoes = new IdentityHashMap<>();
+		new Snapshot(1).substitui(arquivo, false, canal -> this.escreve(canal, entidades, arquivadas, posicoes));
+		this.mapeia(arquivo);
+		this.registrosLidos.set(0);
+
+		MapaPaginado<Problema> problemas = new MapaPaginado<>(new CodecProblema(), this.capacidade);
+		MapaPaginado<Objetivo> objetivos = new MapaPaginado<>(new CodecObjetivo(), this.capacidade);
+		MapaPaginado<Atividade> atividades = new MapaPaginado<>(this.codecAtividade, this.capacidade);
+		MapaPaginado<Pesquisa> pesquisas = new MapaPaginado<>(new CodecPesquisa(problemas.getReferencias(),
+				objetivos.getReferencias(), atividades.getReferencias()), this.capacidade);
+		MapaPaginado<Pesquisador> pesquisadores = new MapaPaginado<>(new CodecPesquisador(pesquisas.getReferencias()),
+				this.capacidade);
+		ControllerPesquisa controllerPesquisa = new ControllerPesquisa(pesquisas);
+		ControllerProblemaObjetivo controllerProblemaObjetivo = new ControllerProblemaObjetivo(problemas, objetivos);
+		ControllerPesquisador controllerPesquisador = new ControllerPesquisador(pesquisadores);
+		ControllerAtividade controllerAtividade = new ControllerAtividade(atividades);
+
+		this.distribui(entidades.problemas, problemas, posicoes, Problema::getCodigo,
+				problema -> new String[] { problema.getDescricaoNormalizada() },
+				controllerProblemaObjetivo.getIndiceProblemas());
+		this.distribui(entidades.objetivos, objetivos, posicoes, Objetivo::getCodigo,
+				objetivo -> new String[] { objetivo.getDescricaoNormalizada() },
+				controllerProblemaObjetivo.getIndiceObjetivos());
+		this.distribui(entidades.atividades, atividades, posicoes, Atividade::getCodigo,
+				atividade -> new String[] { atividade.getDescricaoNormalizada() },
+				controllerAtividade.getIndiceAtividades());
+		this.distribui(entidades.pesquisas, pesquisas, posicoes, Pesquisa::getCodigo,
+				pesquisa -> new String[] { pesquisa.getDescricaoNormalizada(),
+						pesquisa.getCamposInteresseTextoNormalizado() },
+				controllerPesquisa.getIndiceDescricao(), controllerPesquisa.getIndiceCamposInteresse());
+		this.distribui(entidades.pesquisadores, pesquisadores, posicoes, Pesquisador::getEmail,
+				pesquisador -> new String[] { pesquisador.getBiografiaNormalizada() },
+				controllerPesquisador.getIndiceBiografia());
+
+		ControllerProblemaObjetivo anterior = controllerGeral.getControllerProblemaObjetivo();
+		controllerPesquisa.configuraEstrategia(controllerGeral.getControllerPesquisa().getNomeEstrategia());
+		controllerProblemaObjetivo.restauraCodigos(anterior.getCodigoProblema(), anterior.getCodigoObjetivo());
+		controllerAtividade.restauraCodigo(controllerGeral.getControllerAtividade().getCodigo());
+		ControllerGeral arquivado = new ControllerGeral(controllerPesquisa, controllerProblemaObjetivo,
+				controllerPesquisador, controllerAtividade);
+		arquivado.setSequenciaDiario(controllerGeral.getSequenciaDiario());
+		return arquivado;
+	}
+
+	/**
+	 * Método que retorna quantas pesquisas foram arquivadas na última chamada
+	 * de {@link #arquiva(ControllerGeral, Path)}.
+	 *
+	 * @return A quantidade de pesquisas arquivadas.
+	 */
+	public int getPesquisasArquivadas() {
+		return this.pesquisasArquivadas;
+	}
+
+	/**
+	 * Método que retorna quantos registros de entidades foram lidos do acervo.
+	 *
+	 * @return A quantidade de registros lidos.
+	 */
+	public long getRegistrosLidos() {
+		return this.registrosLidos.get();
+	}
+
+	@Override
+	public <T> T le(long posicao, int tamanho, Codec<T> codec, String codigo) throws IOException {
+		ByteBuffer mapeado = this.conteudo;
+		if (mapeado == null || posicao + tamanho > mapeado.capacity()) {
+			throw new IOException("Registro fora do acervo: " + codigo + ".");
+		}
+		ByteBuffer registro = mapeado.duplicate();
+		registro.limit((int) (posicao + tamanho));
+		registro.position((int) posicao);
+		EntradaSnapshot entrada = new EntradaSnapshot(registro.slice());
+		entrada.iniciaSecao();
+		T entidade = codec.le(entrada);
+		entrada.verificaSecao(codigo);
+		this.registrosLidos.incrementAndGet();
+		return entidade;
+	}
+
+	/**
+	 * Método interno que escreve o acervo: a assinatura, a versão e os
+	 * registros das entidades arquivadas, anotando a posição de cada um.
+	 *
+	 * @param canal      O canal do arquivo temporário.
+	 * @param entidades  As entidades do sistema.
+	 * @param arquivadas As entidades a serem arquivadas.
+	 * @param posicoes   O destino da posição e do tamanho de cada registro.
+	 * @return A quantidade de bytes escritos.
+	 * @throws IOException Se a escrita falhar.
+	 */
+	private long escreve(FileChannel canal, Snapshot.Entidades entidades, Set<Object> arquivadas,
+			Map<Object, long[]> posicoes) throws IOException {
+		posicoes.clear();
+		SaidaSnapshot saida = new SaidaSnapshot(canal);
+		saida.escreveInteiroFixo(ASSINATURA);
+		saida.escreveInteiro(VERSAO);
+		escreveRegistros(saida, entidades.atividades.keySet(), this.codecAtividade, arquivadas, posicoes);
+		escreveRegistros(saida, entidades.pesquisas.keySet(), entidades.codecPesquisa, arquivadas, posicoes);
+		escreveRegistros(saida, entidades.pesquisadores.keySet(), entidades.codecPesquisador, arquivadas,
+				posicoes);
+		saida.descarrega();
+		return saida.getBytesEscritos();
+	}
+
+	/**
+	 * Método interno que escreve os registros das entidades arquivadas de um
+	 * tipo.
+	 *
+	 * @param saida      O destino dos registros.
+	 * @param entidades  As entidades do tipo.
+	 * @param codec      O codificador das entidades.
+	 * @param arquivadas As entidades a serem arquivadas.
+	 * @param posicoes   O destino da posição e do tamanho de cada registro.
+	 * @throws IOException Se a escrita falhar.
+	 */
+	private static <T> void escreveRegistros(SaidaSnapshot saida, Set<T> entidades, Codec<T> codec,
+			Set<Object> arquivadas, Map<Object, long[]> posicoes) throws IOException {
+		for (T entidade : entidades) {
+			if (!arquivadas.contains(entidade)) {
+				continue;
+			}
+			long posicao = saida.getBytesEscritos();
+			saida.iniciaSecao();
+			codec.escreve(saida, entidade);
+			saida.terminaSecao();
+			posicoes.put(entidade, new long[] { posicao, saida.getBytesEscritos() - posicao });
+		}
+	}
+
+	/**
+	 * Método interno que mapeia o acervo em memória, apenas para leitura.
+	 *
+	 * @param arquivo O arquivo do acervo.
+	 * @throws IOException Se a leitura falhar ou o acervo for inválido.
+	 */
+	private void mapeia(Path arquivo) throws IOException {
+		try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+			if (canal.size() > Integer.MAX_VALUE) {
+				throw new IOException("Acervo grande demais para ser mapeado.");
+			}
+			ByteBuffer mapeado = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+			EntradaSnapshot cabecalho = new EntradaSnapshot(mapeado.duplicate());
+			if (cabecalho.leInteiroFixo() != ASSINATURA || cabecalho.leInteiro() != VERSAO) {
+				throw new IOException("Arquivo nao e um acervo do sistema.");
+			}
+			this.conteudo = mapeado;
+		}
+	}
+
+	/**
+	 * Método interno que coloca as entidades de um tipo no mapa do sistema
+	 * arquivado: as arquivadas pela posição do registro, as demais em memória.
+	 * As cadastradas são indexadas para a busca.
+	 *
+	 * @param entidades As entidades e se estão cadastradas.
+	 * @param mapa      O mapa das entidades do tipo.
+	 * @param posicoes  A posição e o tamanho do registro de cada entidade
+	 *                  arquivada.
+	 * @param codigo    O código de uma entidade.
+	 * @param textos    Os textos indexados para a busca de uma entidade.
+	 * @param buscas    Os índices de busca do tipo, na ordem dos textos.
+	 */
+	private <T extends Rastreavel> void distribui(Map<T, Boolean> entidades, MapaPaginado<T> mapa,
+			Map<Object, long[]> posicoes, Function<T, String> codigo, Function<T, String[]> textos,
+			IndiceBusca... buscas) {
+		for (Map.Entry<T, Boolean> entidade : entidades.entrySet()) {
+			String chave = codigo.apply(entidade.getKey());
+			long[] posicao = posicoes.get(entidade.getKey());
+			if (posicao != null) {
+				mapa.registra(chave, this, posicao[0], (int) posicao[1], entidade.getValue());
+			} else {
+				mapa.mantem(chave, entidade.getKey(), entidade.getValue());
+			}
+			if (entidade.getValue()) {
+				String[] indexados = textos.apply(entidade.getKey());
+				for (int i = 0; i < buscas.length; i++) {
+					buscas[i].indexa(chave, indexados[i]);
+				}
+			}
+		}
+	}
+}
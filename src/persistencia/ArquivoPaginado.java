@@ -0,0 +1,400 @@
+package persistencia;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import busca.IndiceBusca;
+import controladores.ControllerAtividade;
+import controladores.ControllerGeral;
+import controladores.ControllerPesquisa;
+import controladores.ControllerPesquisador;
+import controladores.ControllerProblemaObjetivo;
+import modulos.Atividade;
+import modulos.Objetivo;
+import modulos.Pesquisa;
+import modulos.Pesquisador;
+import modulos.Problema;
+import modulos.Rastreavel;
+
+/**
+ * Arquivo do sistema em que cada entidade é um registro independente,
+ * localizado por um índice de posições, para que o sistema possa ser aberto
+ * sem ler as entidades e cada uma seja lida do disco apenas no primeiro
+ * acesso.
+ *
+ * O arquivo é dividido em páginas de {@link #TAMANHO_PAGINA} bytes. A primeira
+ * guarda a assinatura, a versão e a posição do índice; em seguida vêm os
+ * registros das entidades, cada um com o seu CRC32, na mesma codificação do
+ * {@link Snapshot}; por fim, a partir de uma página nova, o índice: o estado
+ * do sistema e, para cada entidade, o código (o email, nos pesquisadores), se
+ * está cadastrada, a posição e o tamanho do registro e os textos indexados
+ * para a busca, que assim é reconstruída sem ler os registros. Na versão 1, os
+ * resultados das atividades eram gravados sem o número.
+ *
+ * O arquivo permanece aberto enquanto o sistema aberto dele estiver em uso, e
+ * deve ser fechado depois. As alterações no sistema ficam em memória até que
+ * ele seja gravado, aqui ou em um snapshot.
+ *
+ */
+public class ArquivoPaginado implements Closeable, OrigemRegistros {
+
+	/**
+	 * Assinatura no início do arquivo paginado.
+	 *
+	 */
+	public static final int ASSINATURA = 0x50535150;
+
+	/**
+	 * Versão atual do formato do arquivo paginado.
+	 *
+	 */
+	public static final int VERSAO = 2;
+
+	/**
+	 * Tamanho de uma página do arquivo, em bytes.
+	 *
+	 */
+	public static final int TAMANHO_PAGINA = 1 << 12;
+
+	/**
+	 * Quantidade padrão de entidades não alteradas mantidas em cache, por tipo.
+	 *
+	 */
+	public static final int CAPACIDADE_CACHE = 1024;
+
+	/**
+	 * Codificador dos problemas.
+	 *
+	 */
+	private final CodecProblema codecProblema;
+
+	/**
+	 * Codificador dos objetivos.
+	 *
+	 */
+	private final CodecObjetivo codecObjetivo;
+
+	/**
+	 * Codificador das atividades.
+	 *
+	 */
+	private final CodecAtividade codecAtividade;
+
+	/**
+	 * Quantidade de entidades não alteradas mantidas em cache, por tipo.
+	 *
+	 */
+	private final int capacidade;
+
+	/**
+	 * Quantidade de registros lidos do arquivo aberto.
+	 *
+	 */
+	private final AtomicLong registrosLidos;
+
+	/**
+	 * Canal do arquivo aberto, ou null.
+	 *
+	 */
+	private volatile FileChannel canal;
+
+	/**
+	 * Construtor com o cache padrão.
+	 *
+	 */
+	public ArquivoPaginado() {
+		this(CAPACIDADE_CACHE);
+	}
+
+	/**
+	 * Construtor com a quantidade de entidades mantidas em cache informada.
+	 *
+	 * @param capacidade A quantidade de entidades não alteradas mantidas em
+	 *                   cache, por tipo.
+	 */
+	public ArquivoPaginado(int capacidade) {
+		if (capacidade < 1) {
+			throw new IllegalArgumentException("Capacidade do cache precisa ser positiva.");
+		}
+		this.codecProblema = new CodecProblema();
+		this.codecObjetivo = new CodecObjetivo();
+		this.codecAtividade = new CodecAtividade();
+		this.capacidade = capacidade;
+		this.registrosLidos = new AtomicLong();
+	}
+
+	/**
+	 * Método que grava o estado do sistema em um arquivo paginado, com as
+	 * mesmas garantias do {@link Snapshot}: o arquivo é escrito em um
+	 * temporário, sincronizado com o disco e renomeado sobre o destino.
+	 *
+	 * @param controllerGeral O sistema a ser gravado.
+	 * @param arquivo         O arquivo de destino.
+	 * @return A quantidade de bytes escritos.
+	 * @throws IOException Se a escrita falhar. Nesse caso o destino não é
+	 *                     alterado.
+	 */
+	public long salva(ControllerGeral controllerGeral, Path arquivo) throws IOException {
+		return new Snapshot(1).substitui(arquivo, false, canal -> this.escreve(controllerGeral, canal));
+	}
+
+	/**
+	 * Método que abre um arquivo paginado, lendo apenas o índice. As entidades
+	 * são lidas do arquivo no primeiro acesso. Um arquivo aberto antes por esta
+	 * instância é fechado.
+	 *
+	 * @param arquivo O arquivo de origem.
+	 * @return O sistema aberto.
+	 * @throws IOException Se a leitura falhar ou o arquivo for inválido.
+	 */
+	public ControllerGeral abre(Path arquivo) throws IOException {
+		this.close();
+		FileChannel aberto = FileChannel.open(arquivo, StandardOpenOption.READ);
+		try {
+			this.canal = aberto;
+			this.registrosLidos.set(0);
+			return this.leIndice(aberto);
+		} catch (IOException | RuntimeException e) {
+			this.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Método que retorna quantos registros de entidades foram lidos do arquivo
+	 * aberto.
+	 *
+	 * @return A quantidade de registros lidos.
+	 */
+	public long getRegistrosLidos() {
+		return this.registrosLidos.get();
+	}
+
+	/**
+	 * Método que fecha o arquivo aberto. Entidades ainda não lidas deixam de
+	 * poder ser lidas.
+	 *
+	 * @throws IOException Se o fechamento falhar.
+	 */
+	@Override
+	public void close() throws IOException {
+		FileChannel aberto = this.canal;
+		this.canal = null;
+		if (aberto != null) {
+			aberto.close();
+		}
+	}
+
+	@Override
+	public <T> T le(long posicao, int tamanho, Codec<T> codec, String codigo) throws IOException {
+		FileChannel aberto = this.canal;
+		if (aberto == null) {
+			throw new IOException("Arquivo paginado fechado.");
+		}
+		ByteBuffer registro = ByteBuffer.allocate(tamanho);
+		while (registro.hasRemaining()) {
+			if (aberto.read(registro, posicao + registro.position()) < 0) {
+				throw new EOFException("Arquivo paginado incompleto.");
+			}
+		}
+		registro.flip();
+		EntradaSnapshot entrada = new EntradaSnapshot(registro);
+		entrada.iniciaSecao();
+		T entidade = codec.le(entrada);
+		entrada.verificaSecao(codigo);
+		this.registrosLidos.incrementAndGet();
+		return entidade;
+	}
+
+	/**
+	 * Método interno que escreve o arquivo paginado: a página do cabeçalho, os
+	 * registros e o índice.
+	 *
+	 * @param controllerGeral O sistema a ser gravado.
+	 * @param canal           O canal do arquivo temporário.
+	 * @return A quantidade de bytes escritos.
+	 * @throws IOException Se a escrita falhar.
+	 */
+	private long escreve(ControllerGeral controllerGeral, FileChannel canal) throws IOException {
+		Snapshot.Entidades entidades = new Snapshot.Entidades(controllerGeral);
+		ByteArrayOutputStream conteudoIndice = new ByteArrayOutputStream(1 << 16);
+		SaidaSnapshot indice = new SaidaSnapshot(conteudoIndice);
+		indice.iniciaSecao();
+		indice.escreveLongo(controllerGeral.getSequenciaDiario());
+		Snapshot.escreveContadores(indice, controllerGeral);
+
+		canal.position(TAMANHO_PAGINA);
+		SaidaSnapshot dados = new SaidaSnapshot(canal);
+		escreveSecao(dados, indice, entidades.problemas, this.codecProblema, Problema::getCodigo,
+				problema -> new String[] { problema.getDescricaoNormalizada() });
+		escreveSecao(dados, indice, entidades.objetivos, this.codecObjetivo, Objetivo::getCodigo,
+				objetivo -> new String[] { objetivo.getDescricaoNormalizada() });
+		escreveSecao(dados, indice, entidades.atividades, this.codecAtividade, Atividade::getCodigo,
+				atividade -> new String[] { atividade.getDescricaoNormalizada() });
+		escreveSecao(dados, indice, entidades.pesquisas, entidades.codecPesquisa, Pesquisa::getCodigo,
+				pesquisa -> new String[] { pesquisa.getDescricaoNormalizada(),
+						pesquisa.getCamposInteresseTextoNormalizado() });
+		escreveSecao(dados, indice, entidades.pesquisadores, entidades.codecPesquisador, Pesquisador::getEmail,
+				pesquisador -> new String[] { pesquisador.getBiografiaNormalizada() });
+		indice.terminaSecao();
+		indice.descarrega();
+
+		int resto = (int) (dados.getBytesEscritos() % TAMANHO_PAGINA);
+		if (resto > 0) {
+			dados.escreveBytes(new byte[TAMANHO_PAGINA - resto]);
+		}
+		long posicaoIndice = TAMANHO_PAGINA + dados.getBytesEscritos();
+		dados.escreveBytes(conteudoIndice.toByteArray());
+		dados.descarrega();
+
+		ByteArrayOutputStream conteudoCabecalho = new ByteArrayOutputStream(64);
+		SaidaSnapshot cabecalho = new SaidaSnapshot(conteudoCabecalho, 64);
+		cabecalho.escreveInteiroFixo(ASSINATURA);
+		cabecalho.escreveInteiro(VERSAO);
+		cabecalho.iniciaSecao();
+		cabecalho.escreveLongo(posicaoIndice);
+		cabecalho.terminaSecao();
+		cabecalho.descarrega();
+		ByteBuffer pagina = ByteBuffer.wrap(conteudoCabecalho.toByteArray());
+		while (pagina.hasRemaining()) {
+			canal.write(pagina, pagina.position());
+		}
+		return TAMANHO_PAGINA + dados.getBytesEscritos();
+	}
+
+	/**
+	 * Método interno que escreve os registros das entidades de um tipo e as
+	 * suas entradas no índice.
+	 *
+	 * @param dados     O destino dos registros, logo depois do cabeçalho.
+	 * @param indice    O destino do índice.
+	 * @param entidades As entidades e se estão cadastradas.
+	 * @param codec     O codificador das entidades.
+	 * @param codigo    O código de uma entidade.
+	 * @param textos    Os textos indexados para a busca de uma entidade.
+	 * @throws IOException Se a escrita falhar.
+	 */
+	private static <T> void escreveSecao(SaidaSnapshot dados, SaidaSnapshot indice, Map<T, Boolean> entidades,
+			Codec<T> codec, Function<T, String> codigo, Function<T, String[]> textos) throws IOException {
+		indice.escreveInteiro(entidades.size());
+		for (Map.Entry<T, Boolean> entidade : entidades.entrySet()) {
+			long posicao = TAMANHO_PAGINA + dados.getBytesEscritos();
+			dados.iniciaSecao();
+			codec.escreve(dados, entidade.getKey());
+			dados.terminaSecao();
+			indice.escreveTexto(codigo.apply(entidade.getKey()));
+			indice.escreveBooleano(entidade.getValue());
+			indice.escreveLongo(posicao);
+			indice.escreveInteiro((int) (TAMANHO_PAGINA + dados.getBytesEscritos() - posicao));
+			if (entidade.getValue()) {
+				for (String texto : textos.apply(entidade.getKey())) {
+					indice.escreveTexto(texto);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Método interno que lê o cabeçalho e o índice de um arquivo paginado e
+	 * monta o sistema sobre mapas que leem as entidades sob demanda.
+	 *
+	 * @param aberto O canal do arquivo.
+	 * @return O sistema aberto.
+	 * @throws IOException Se a leitura falhar ou o arquivo for inválido.
+	 */
+	private ControllerGeral leIndice(FileChannel aberto) throws IOException {
+		ByteBuffer pagina = ByteBuffer.allocate(64);
+		while (pagina.hasRemaining()) {
+			if (aberto.read(pagina, pagina.position()) < 0) {
+				break;
+			}
+		}
+		pagina.flip();
+		EntradaSnapshot cabecalho = new EntradaSnapshot(pagina);
+		if (pagina.remaining() < 4 || cabecalho.leInteiroFixo() != ASSINATURA) {
+			throw new IOException("Arquivo nao e um arquivo paginado do sistema.");
+		}
+		int versao = cabecalho.leInteiro();
+		if (versao < 1 || versao > VERSAO) {
+			throw new IOException("Versao de arquivo paginado nao suportada: " + versao + ".");
+		}
+		cabecalho.iniciaSecao();
+		long posicaoIndice = cabecalho.leLongo();
+		cabecalho.verificaSecao("cabecalho");
+		if (posicaoIndice < TAMANHO_PAGINA || posicaoIndice > aberto.size()) {
+			throw new IOException("Arquivo paginado corrompido: indice fora do arquivo.");
+		}
+
+		MapaPaginado<Problema> problemas = new MapaPaginado<>(this.codecProblema, this.capacidade);
+		MapaPaginado<Objetivo> objetivos = new MapaPaginado<>(this.codecObjetivo, this.capacidade);
+		MapaPaginado<Atividade> atividades = new MapaPaginado<>(
+				versao >= 2 ? this.codecAtividade : new CodecAtividade(false), this.capacidade);
+		MapaPaginado<Pesquisa> pesquisas = new MapaPaginado<>(new CodecPesquisa(problemas.getReferencias(),
+				objetivos.getReferencias(), atividades.getReferencias()), this.capacidade);
+		MapaPaginado<Pesquisador> pesquisadores = new MapaPaginado<>(new CodecPesquisador(pesquisas.getReferencias()),
+				this.capacidade);
+		ControllerPesquisa controllerPesquisa = new ControllerPesquisa(pesquisas);
+		ControllerProblemaObjetivo controllerProblemaObjetivo = new ControllerProblemaObjetivo(problemas, objetivos);
+		ControllerPesquisador controllerPesquisador = new ControllerPesquisador(pesquisadores);
+		ControllerAtividade controllerAtividade = new ControllerAtividade(atividades);
+
+		aberto.position(posicaoIndice);
+		EntradaSnapshot indice = new EntradaSnapshot(aberto, 1 << 16);
+		indice.iniciaSecao();
+		long sequenciaDiario = indice.leLongo();
+		String estrategia = indice.leTexto();
+		int codigoProblema = indice.leInteiro();
+		int codigoObjetivo = indice.leInteiro();
+		int codigoAtividade = indice.leInteiro();
+		leSecao(indice, problemas, controllerProblemaObjetivo.getIndiceProblemas());
+		leSecao(indice, objetivos, controllerProblemaObjetivo.getIndiceObjetivos());
+		leSecao(indice, atividades, controllerAtividade.getIndiceAtividades());
+		leSecao(indice, pesquisas, controllerPesquisa.getIndiceDescricao(),
+				controllerPesquisa.getIndiceCamposInteresse());
+		leSecao(indice, pesquisadores, controllerPesquisador.getIndiceBiografia());
+		indice.verificaSecao("indice");
+
+		controllerPesquisa.configuraEstrategia(estrategia);
+		controllerProblemaObjetivo.restauraCodigos(codigoProblema, codigoObjetivo);
+		controllerAtividade.restauraCodigo(codigoAtividade);
+		ControllerGeral controllerGeral = new ControllerGeral(controllerPesquisa, controllerProblemaObjetivo,
+				controllerPesquisador, controllerAtividade);
+		controllerGeral.setSequenciaDiario(sequenciaDiario);
+		return controllerGeral;
+	}
+
+	/**
+	 * Método interno que lê as entradas do índice das entidades de um tipo,
+	 * indexando para a busca as cadastradas.
+	 *
+	 * @param indice O índice.
+	 * @param mapa   O mapa das entidades do tipo.
+	 * @param buscas Os índices de busca do tipo, na ordem dos textos gravados.
+	 * @throws IOException Se a leitura falhar.
+	 */
+	private <T extends Rastreavel> void leSecao(EntradaSnapshot indice, MapaPaginado<T> mapa,
+			IndiceBusca... buscas) throws IOException {
+		int quantidade = indice.leTamanho();
+		for (int i = 0; i < quantidade; i++) {
+			String codigo = indice.leTexto();
+			boolean cadastrada = indice.leBooleano();
+			long posicao = indice.leLongo();
+			int tamanho = indice.leTamanho();
+			mapa.registra(codigo, this, posicao, tamanho, cadastrada);
+			if (cadastrada) {
+				for (IndiceBusca busca : buscas) {
+					busca.indexa(codigo, indice.leTexto());
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,340 @@
+package persistencia;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import controladores.ControllerAtividade;
+import controladores.ControllerGeral;
+import controladores.ControllerPesquisa;
+import controladores.ControllerPesquisador;
+import controladores.ControllerProblemaObjetivo;
+import modulos.Atividade;
+import modulos.Objetivo;
+import modulos.Pesquisa;
+import modulos.Pesquisador;
+import modulos.Problema;
+
+/**
+ * Arquivo do sistema dividido em um {@link Segmento} por tipo de entidade,
+ * para que ferramentas que precisam apenas de parte do sistema (a busca de
+ * atividades, os resumos de pesquisas) leiam apenas os segmentos necessários.
+ *
+ * O arquivo começa com a assinatura e a versão, seguidas de um cabeçalho com
+ * CRC32: o número de sequência do {@link Diario}, a estratégia, os contadores
+ * de códigos e a tabela de segmentos, com a posição e o tamanho de cada um a
+ * partir do fim do cabeçalho. Cada segmento tem as seções do seu tipo na mesma
+ * codificação do {@link Snapshot}, cada uma com o seu CRC32. Na versão 1, os
+ * resultados das atividades eram gravados sem o número.
+ *
+ * Na gravação, os segmentos são codificados em paralelo, cada um em uma
+ * thread, e então escritos em um temporário renomeado sobre o destino, com as
+ * mesmas garantias do {@link Snapshot}.
+ *
+ */
+public class ArquivoSegmentado {
+
+	/**
+	 * Assinatura no início do arquivo segmentado ("PSQS").
+	 *
+	 */
+	public static final int ASSINATURA = 0x50535153;
+
+	/**
+	 * Versão atual do formato do arquivo segmentado.
+	 *
+	 */
+	public static final int VERSAO = 2;
+
+	/**
+	 * Threads que codificam os segmentos, uma por segmento.
+	 *
+	 */
+	private static final ExecutorService CODIFICADORES = Executors.newFixedThreadPool(Segmento.values().length,
+			tarefa -> {
+				Thread thread = new Thread(tarefa, "segmento");
+				thread.setDaemon(true);
+				return thread;
+			});
+
+	/**
+	 * Codificador dos problemas.
+	 *
+	 */
+	private final CodecProblema codecProblema;
+
+	/**
+	 * Codificador dos objetivos.
+	 *
+	 */
+	private final CodecObjetivo codecObjetivo;
+
+	/**
+	 * Codificador das atividades.
+	 *
+	 */
+	private final CodecAtividade codecAtividade;
+
+	/**
+	 * Segmentos lidos pelo último {@link #carrega(Path, Segmento...)}.
+	 *
+	 */
+	private Set<Segmento> segmentosLidos;
+
+	/**
+	 * Construtor do arquivo segmentado.
+	 *
+	 */
+	public ArquivoSegmentado() {
+		this.codecProblema = new CodecProblema();
+		this.codecObjetivo = new CodecObjetivo();
+		this.codecAtividade = new CodecAtividade();
+		this.segmentosLidos = Collections.emptySet();
+	}
+
+	/**
+	 * Método que grava o estado do sistema em um arquivo segmentado,
+	 * codificando os segmentos em paralelo. O sistema não deve ser alterado
+	 * enquanto isso.
+	 *
+	 * @param controllerGeral O sistema a ser gravado.
+	 * @param arquivo         O arquivo de destino.
+	 * @return A quantidade de bytes escritos.
+	 * @throws IOException Se a escrita falhar. Nesse caso o destino não é
+	 *                     alterado.
+	 */
+	public long salva(ControllerGeral controllerGeral, Path arquivo) throws IOException {
+		Snapshot.Entidades entidades = new Snapshot.Entidades(controllerGeral);
+		Map<Segmento, CompletableFuture<byte[]>> codificacoes = new EnumMap<>(Segmento.class);
+		for (Segmento segmento : Segmento.values()) {
+			codificacoes.put(segmento, CompletableFuture.supplyAsync(() -> {
+				try {
+					return this.codifica(segmento, entidades);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}, CODIFICADORES));
+		}
+		Map<Segmento, byte[]> conteudos = new EnumMap<>(Segmento.class);
+		for (Map.Entry<Segmento, CompletableFuture<byte[]>> codificacao : codificacoes.entrySet()) {
+			try {
+				conteudos.put(codificacao.getKey(), codificacao.getValue().join());
+			} catch (CompletionException e) {
+				if (e.getCause() instanceof UncheckedIOException) {
+					throw ((UncheckedIOException) e.getCause()).getCause();
+				}
+				throw new IOException("Falha ao codificar o segmento " + codificacao.getKey() + ".", e.getCause());
+			}
+		}
+		return new Snapshot(1).substitui(arquivo, false, canal -> escreve(controllerGeral, conteudos, canal));
+	}
+
+	/**
+	 * Método que lê do arquivo apenas os segmentos informados e aqueles de que
+	 * eles dependem, reconstruindo os índices de busca das entidades lidas. As
+	 * entidades dos demais segmentos ficam ausentes do sistema devolvido, que
+	 * serve para consulta e não deve ser gravado sobre o arquivo completo.
+	 *
+	 * @param arquivo   O arquivo de origem.
+	 * @param segmentos Os segmentos pedidos, ou nenhum para ler todos.
+	 * @return O sistema com as entidades dos segmentos lidos.
+	 * @throws IOException Se a leitura falhar ou o arquivo for inválido.
+	 */
+	public ControllerGeral carrega(Path arquivo, Segmento... segmentos) throws IOException {
+		Set<Segmento> necessarios = Segmento.necessarios(segmentos.length == 0 ? Segmento.values() : segmentos);
+		try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+			EntradaSnapshot cabecalho = new EntradaSnapshot(canal, 1 << 12);
+			if (canal.size() < 4 || cabecalho.leInteiroFixo() != ASSINATURA) {
+				throw new IOException("Arquivo nao e um arquivo segmentado do sistema.");
+			}
+			int versao = cabecalho.leInteiro();
+			if (versao < 1 || versao > VERSAO) {
+				throw new IOException("Versao de arquivo segmentado nao suportada: " + versao + ".");
+			}
+			cabecalho.iniciaSecao();
+			long sequenciaDiario = cabecalho.leLongo();
+			String estrategia = cabecalho.leTexto();
+			int codigoProblema = cabecalho.leInteiro();
+			int codigoObjetivo = cabecalho.leInteiro();
+			int codigoAtividade = cabecalho.leInteiro();
+			Map<Segmento, long[]> tabela = new EnumMap<>(Segmento.class);
+			int quantidade = cabecalho.leTamanho();
+			for (int i = 0; i < quantidade; i++) {
+				Segmento segmento = Segmento.doCodigo(cabecalho.leInteiro());
+				long[] posicao = { cabecalho.leLongo(), cabecalho.leLongo() };
+				if (segmento != null) {
+					tabela.put(segmento, posicao);
+				}
+			}
+			cabecalho.verificaSecao("cabecalho");
+			long inicio = cabecalho.getBytesLidos();
+
+			ControllerPesquisa controllerPesquisa = new ControllerPesquisa();
+			ControllerProblemaObjetivo controllerProblemaObjetivo = new ControllerProblemaObjetivo();
+			ControllerPesquisador controllerPesquisador = new ControllerPesquisador();
+			ControllerAtividade controllerAtividade = new ControllerAtividade();
+			Map<String, Problema> problemas = Collections.emptyMap();
+			Map<String, Objetivo> objetivos = Collections.emptyMap();
+			Map<String, Atividade> atividades = Collections.emptyMap();
+			Map<String, Pesquisa> pesquisas = Collections.emptyMap();
+			if (necessarios.contains(Segmento.PROBLEMAS_OBJETIVOS)) {
+				EntradaSnapshot entrada = posiciona(canal, inicio, tabela, Segmento.PROBLEMAS_OBJETIVOS);
+				problemas = Snapshot.leSecao(entrada, true, "problemas", true, this.codecProblema,
+						Problema::getCodigo, null, controllerProblemaObjetivo::restauraProblema);
+				objetivos = Snapshot.leSecao(entrada, true, "objetivos", true, this.codecObjetivo,
+						Objetivo::getCodigo, null, controllerProblemaObjetivo::restauraObjetivo);
+				verificaTamanho(entrada, tabela, Segmento.PROBLEMAS_OBJETIVOS);
+			}
+			if (necessarios.contains(Segmento.ATIVIDADES)) {
+				EntradaSnapshot entrada = posiciona(canal, inicio, tabela, Segmento.ATIVIDADES);
+				atividades = Snapshot.leSecao(entrada, true, "atividades", true,
+						versao >= 2 ? this.codecAtividade : new CodecAtividade(false), Atividade::getCodigo, null,
+						controllerAtividade::restauraAtividade);
+				verificaTamanho(entrada, tabela, Segmento.ATIVIDADES);
+			}
+			if (necessarios.contains(Segmento.PESQUISAS)) {
+				EntradaSnapshot entrada = posiciona(canal, inicio, tabela, Segmento.PESQUISAS);
+				pesquisas = Snapshot.leSecao(entrada, true, "pesquisas", false,
+						new CodecPesquisa(problemas::get, objetivos::get, atividades::get), Pesquisa::getCodigo, null,
+						controllerPesquisa::restauraPesquisa);
+				verificaTamanho(entrada, tabela, Segmento.PESQUISAS);
+			}
+			if (necessarios.contains(Segmento.PESQUISADORES)) {
+				EntradaSnapshot entrada = posiciona(canal, inicio, tabela, Segmento.PESQUISADORES);
+				Snapshot.leSecao(entrada, true, "pesquisadores", false, new CodecPesquisador(pesquisas::get),
+						Pesquisador::getEmail, null, controllerPesquisador::restauraPesquisador);
+				verificaTamanho(entrada, tabela, Segmento.PESQUISADORES);
+			}
+			this.segmentosLidos = necessarios;
+
+			controllerPesquisa.configuraEstrategia(estrategia);
+			controllerProblemaObjetivo.restauraCodigos(codigoProblema, codigoObjetivo);
+			controllerAtividade.restauraCodigo(codigoAtividade);
+			ControllerGeral controllerGeral = new ControllerGeral(controllerPesquisa, controllerProblemaObjetivo,
+					controllerPesquisador, controllerAtividade);
+			controllerGeral.setSequenciaDiario(sequenciaDiario);
+			return controllerGeral;
+		}
+	}
+
+	/**
+	 * Método que retorna os segmentos lidos pelo último
+	 * {@link #carrega(Path, Segmento...)}, incluindo as dependências.
+	 *
+	 * @return Os segmentos lidos.
+	 */
+	public Set<Segmento> getSegmentosLidos() {
+		return Collections.unmodifiableSet(this.segmentosLidos);
+	}
+
+	/**
+	 * Método interno que codifica as seções de um segmento.
+	 *
+	 * @param segmento  O segmento.
+	 * @param entidades As entidades do sistema.
+	 * @return O segmento codificado.
+	 * @throws IOException Se a codificação falhar.
+	 */
+	private byte[] codifica(Segmento segmento, Snapshot.Entidades entidades) throws IOException {
+		ByteArrayOutputStream destino = new ByteArrayOutputStream(1 << 16);
+		SaidaSnapshot saida = new SaidaSnapshot(destino);
+		switch (segmento) {
+		case PROBLEMAS_OBJETIVOS:
+			Snapshot.escreveSecao(saida, entidades.problemas, this.codecProblema, true, false);
+			Snapshot.escreveSecao(saida, entidades.objetivos, this.codecObjetivo, true, false);
+			break;
+		case ATIVIDADES:
+			Snapshot.escreveSecao(saida, entidades.atividades, this.codecAtividade, true, false);
+			break;
+		case PESQUISAS:
+			Snapshot.escreveSecao(saida, entidades.pesquisas, entidades.codecPesquisa, false, false);
+			break;
+		case PESQUISADORES:
+			Snapshot.escreveSecao(saida, entidades.pesquisadores, entidades.codecPesquisador, false, false);
+			break;
+		}
+		saida.descarrega();
+		return destino.toByteArray();
+	}
+
+	/**
+	 * Método interno que escreve o arquivo: a assinatura, a versão, o
+	 * cabeçalho com a tabela de segmentos e os segmentos já codificados.
+	 *
+	 * @param controllerGeral O sistema a ser gravado.
+	 * @param conteudos       Os segmentos codificados.
+	 * @param canal           O canal do arquivo temporário.
+	 * @return A quantidade de bytes escritos.
+	 * @throws IOException Se a escrita falhar.
+	 */
+	private static long escreve(ControllerGeral controllerGeral, Map<Segmento, byte[]> conteudos, FileChannel canal)
+			throws IOException {
+		SaidaSnapshot saida = new SaidaSnapshot(canal);
+		saida.escreveInteiroFixo(ASSINATURA);
+		saida.escreveInteiro(VERSAO);
+		saida.iniciaSecao();
+		saida.escreveLongo(controllerGeral.getSequenciaDiario());
+		Snapshot.escreveContadores(saida, controllerGeral);
+		saida.escreveInteiro(conteudos.size());
+		long posicao = 0;
+		for (Map.Entry<Segmento, byte[]> conteudo : conteudos.entrySet()) {
+			saida.escreveInteiro(conteudo.getKey().getCodigo());
+			saida.escreveLongo(posicao);
+			saida.escreveLongo(conteudo.getValue().length);
+			posicao += conteudo.getValue().length;
+		}
+		saida.terminaSecao();
+		for (byte[] conteudo : conteudos.values()) {
+			saida.escreveBytes(conteudo);
+		}
+		saida.descarrega();
+		return saida.getBytesEscritos();
+	}
+
+	/**
+	 * Método interno que prepara a leitura de um segmento.
+	 *
+	 * @param canal    O canal do arquivo.
+	 * @param inicio   A posição do fim do cabeçalho.
+	 * @param tabela   A posição e o tamanho de cada segmento.
+	 * @param segmento O segmento a ser lido.
+	 * @return A origem da leitura do segmento.
+	 * @throws IOException Se o segmento não estiver no arquivo.
+	 */
+	private static EntradaSnapshot posiciona(FileChannel canal, long inicio, Map<Segmento, long[]> tabela,
+			Segmento segmento) throws IOException {
+		long[] posicao = tabela.get(segmento);
+		if (posicao == null || inicio + posicao[0] + posicao[1] > canal.size()) {
+			throw new IOException("Arquivo segmentado sem o segmento " + segmento + ".");
+		}
+		canal.position(inicio + posicao[0]);
+		return new EntradaSnapshot(canal);
+	}
+
+	/**
+	 * Método interno que confere se a leitura de um segmento terminou no fim
+	 * dele.
+	 *
+	 * @param entrada  A origem da leitura do segmento.
+	 * @param tabela   A posição e o tamanho de cada segmento.
+	 * @param segmento O segmento lido.
+	 * @throws IOException Se o tamanho lido for diferente do gravado.
+	 */
+	private static void verificaTamanho(EntradaSnapshot entrada, Map<Segmento, long[]> tabela, Segmento segmento)
+			throws IOException {
+		if (entrada.getBytesLidos() != tabela.get(segmento)[1]) {
+			throw new IOException("Arquivo segmentado corrompido: segmento " + segmento + " com tamanho invalido.");
+		}
+	}
+}
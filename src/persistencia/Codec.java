@@ -0,0 +1,30 @@
+package persistencia;
+
+import java.io.IOException;
+
+/**
+ * Interface dos codificadores de entidades no snapshot binário. Cada entidade
+ * tem um codificador escrito à mão, que grava os campos sempre na mesma ordem.
+ *
+ * @param <T> O tipo da entidade codificada.
+ */
+public interface Codec<T> {
+
+	/**
+	 * Método que escreve uma entidade no snapshot.
+	 *
+	 * @param saida O destino da escrita.
+	 * @param valor A entidade a ser escrita.
+	 * @throws IOException Se a escrita falhar.
+	 */
+	void escreve(SaidaSnapshot saida, T valor) throws IOException;
+
+	/**
+	 * Método que lê uma entidade do snapshot.
+	 *
+	 * @param entrada A origem da leitura.
+	 * @return A entidade lida.
+	 * @throws IOException Se a leitura falhar.
+	 */
+	T le(EntradaSnapshot entrada) throws IOException;
+}
@@ -0,0 +1,109 @@
+package persistencia;
+
+import java.io.IOException;
+import java.util.List;
+
+import modulos.Atividade;
+import modulos.Item;
+import modulos.RegistroResultados;
+
+/**
+ * Codificador de {@link Atividade} no snapshot: dados da atividade, itens com
+ * seus estados, resultados, contadores e a próxima atividade da sequência.
+ * Cada resultado é gravado com o seu número; nos formatos anteriores, sem o
+ * número, os resultados são numerados pela posição.
+ *
+ */
+public class CodecAtividade implements Codec<Atividade> {
+
+	/**
+	 * Estado de um item já realizado.
+	 *
+	 */
+	private static final String REALIZADO = "REALIZADO";
+
+	/**
+	 * Se os resultados são gravados com o número.
+	 *
+	 */
+	private final boolean numerada;
+
+	/**
+	 * Construtor do codificador no formato atual.
+	 *
+	 */
+	public CodecAtividade() {
+		this(true);
+	}
+
+	/**
+	 * Construtor do codificador no formato informado.
+	 *
+	 * @param numerada Se os resultados são gravados com o número, como no
+	 *                 formato atual.
+	 */
+	public CodecAtividade(boolean numerada) {
+		this.numerada = numerada;
+	}
+
+	@Override
+	public void escreve(SaidaSnapshot saida, Atividade atividade) throws IOException {
+		saida.escreveTexto(atividade.getCodigo());
+		saida.escreveTexto(atividade.getDescricao());
+		saida.escreveTexto(atividade.getNivelRisco());
+		saida.escreveTexto(atividade.getDescricaoRisco());
+		List<Item> items = atividade.getItems();
+		saida.escreveInteiro(items.size());
+		for (Item item : items) {
+			saida.escreveTexto(item.getItem());
+			saida.escreveBooleano(REALIZADO.equals(item.getStatus()));
+		}
+		RegistroResultados resultados = atividade.getRegistroResultados();
+		int quantidadeResultados = resultados.quantidade();
+		saida.escreveInteiro(quantidadeResultados);
+		for (int i = 0; i < quantidadeResultados; i++) {
+			if (this.numerada) {
+				saida.escreveInteiro(resultados.getNumero(i));
+			}
+			saida.escreveTexto(resultados.getResultado(i));
+		}
+		saida.escreveInteiro(atividade.getContResultado());
+		saida.escreveInteiro(atividade.getDuracao());
+		saida.escreveBooleano(atividade.isEhAssociada());
+		saida.escreveTexto(atividade.getProximaAtividade());
+	}
+
+	@Override
+	public Atividade le(EntradaSnapshot entrada) throws IOException {
+		String codigo = entrada.leTexto();
+		Atividade atividade = new Atividade(entrada.leTexto(), entrada.leTexto(), entrada.leTexto());
+		atividade.setCodigo(codigo);
+		int quantidadeItems = entrada.leTamanho();
+		for (int i = 0; i < quantidadeItems; i++) {
+			Item item = new Item(entrada.leTexto());
+			if (entrada.leBooleano()) {
+				item.setStatus(REALIZADO);
+			}
+			atividade.getItems().add(item);
+		}
+		int quantidadeResultados = entrada.leTamanho();
+		for (int i = 0; i < quantidadeResultados; i++) {
+			int numero = this.numerada ? entrada.leInteiro() : i + 1;
+			try {
+				atividade.getRegistroResultados().adiciona(numero, entrada.leTexto());
+			} catch (IllegalArgumentException e) {
+				throw new IOException("Snapshot corrompido: resultado " + numero + " fora de ordem.", e);
+			}
+		}
+		atividade.setContResultado(entrada.leInteiro());
+		atividade.setDuracao(entrada.leInteiro());
+		if (entrada.leBooleano()) {
+			atividade.setEhAssociada();
+		}
+		String proxima = entrada.leTexto();
+		if (proxima != null && !proxima.isEmpty()) {
+			atividade.setProximaAtividade(proxima);
+		}
+		return atividade;
+	}
+}
@@ -0,0 +1,33 @@
+package persistencia;
+
+import java.io.IOException;
+
+import modulos.Objetivo;
+
+/**
+ * Codificador de {@link Objetivo} no snapshot: código, tipo, descrição,
+ * aderência, viabilidade e se está associado a uma pesquisa.
+ *
+ */
+public class CodecObjetivo implements Codec<Objetivo> {
+
+	@Override
+	public void escreve(SaidaSnapshot saida, Objetivo objetivo) throws IOException {
+		saida.escreveTexto(objetivo.getCodigo());
+		saida.escreveTexto(objetivo.getTipo());
+		saida.escreveTexto(objetivo.getDescricao());
+		saida.escreveInteiro(objetivo.getAderencia());
+		saida.escreveInteiro(objetivo.getViabilidade());
+		saida.escreveBooleano(objetivo.isAssociado());
+	}
+
+	@Override
+	public Objetivo le(EntradaSnapshot entrada) throws IOException {
+		String codigo = entrada.leTexto();
+		Objetivo objetivo = new Objetivo(entrada.leTexto(), entrada.leTexto(), entrada.leInteiro(),
+				entrada.leInteiro());
+		objetivo.setCodigo(codigo);
+		objetivo.setAssociado(entrada.leBooleano());
+		return objetivo;
+	}
+}
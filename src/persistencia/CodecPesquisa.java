@@ -0,0 +1,122 @@
+package persistencia;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Function;
+
+import modulos.Atividade;
+import modulos.Objetivo;
+import modulos.Pesquisa;
+import modulos.Problema;
+
+/**
+ * Codificador de {@link Pesquisa} no snapshot. O problema, os objetivos e as
+ * atividades são gravados apenas pelo código e, na leitura, resolvidos nas
+ * entidades já lidas, preservando o compartilhamento de referências.
+ *
+ */
+public class CodecPesquisa implements Codec<Pesquisa> {
+
+	/**
+	 * Busca dos problemas já lidos, pelo código.
+	 *
+	 */
+	private final Function<String, Problema> problemas;
+
+	/**
+	 * Busca dos objetivos já lidos, pelo código.
+	 *
+	 */
+	private final Function<String, Objetivo> objetivos;
+
+	/**
+	 * Busca das atividades já lidas, pelo código.
+	 *
+	 */
+	private final Function<String, Atividade> atividades;
+
+	/**
+	 * Construtor do codificador.
+	 *
+	 * @param problemas  Resolve o código de um problema já lido, ou retorna null.
+	 * @param objetivos  Resolve o código de um objetivo já lido, ou retorna null.
+	 * @param atividades Resolve o código de uma atividade já lida, ou retorna null.
+	 */
+	public CodecPesquisa(Function<String, Problema> problemas, Function<String, Objetivo> objetivos,
+			Function<String, Atividade> atividades) {
+		this.problemas = problemas;
+		this.objetivos = objetivos;
+		this.atividades = atividades;
+	}
+
+	@Override
+	public void escreve(SaidaSnapshot saida, Pesquisa pesquisa) throws IOException {
+		saida.escreveTexto(pesquisa.getCodigo());
+		saida.escreveTexto(pesquisa.getDescricao());
+		String[] campos = pesquisa.getCamposInteresse();
+		saida.escreveInteiro(campos.length);
+		for (String campo : campos) {
+			saida.escreveTexto(campo);
+		}
+		saida.escreveBooleano(pesquisa.getAtiva());
+		Problema problema = pesquisa.getProblema();
+		saida.escreveTexto(problema == null ? null : problema.getCodigo());
+		List<Objetivo> objetivos = pesquisa.getObjetivos();
+		saida.escreveInteiro(objetivos.size());
+		for (Objetivo objetivo : objetivos) {
+			saida.escreveTexto(objetivo.getCodigo());
+		}
+		List<Atividade> atividades = pesquisa.getAtividades();
+		saida.escreveInteiro(atividades.size());
+		for (Atividade atividade : atividades) {
+			saida.escreveTexto(atividade.getCodigo());
+		}
+	}
+
+	@Override
+	public Pesquisa le(EntradaSnapshot entrada) throws IOException {
+		String codigo = entrada.leTexto();
+		String descricao = entrada.leTexto();
+		String[] campos = new String[entrada.leTamanho()];
+		StringBuilder camposTexto = new StringBuilder();
+		for (int i = 0; i < campos.length; i++) {
+			campos[i] = entrada.leTexto();
+			if (campos[i] != null) {
+				camposTexto.append(camposTexto.length() > 0 ? "," : "").append(campos[i]);
+			}
+		}
+		Pesquisa pesquisa = new Pesquisa(descricao, camposTexto.toString());
+		pesquisa.setCodigo(codigo);
+		pesquisa.restauraCamposInteresse(campos);
+		pesquisa.setAtiva(entrada.leBooleano());
+		String codigoProblema = entrada.leTexto();
+		if (codigoProblema != null) {
+			pesquisa.associaProblema(resolve(this.problemas, codigoProblema));
+		}
+		int quantidadeObjetivos = entrada.leTamanho();
+		for (int i = 0; i < quantidadeObjetivos; i++) {
+			pesquisa.restauraObjetivo(resolve(this.objetivos, entrada.leTexto()));
+		}
+		int quantidadeAtividades = entrada.leTamanho();
+		for (int i = 0; i < quantidadeAtividades; i++) {
+			pesquisa.restauraAtividade(resolve(this.atividades, entrada.leTexto()));
+		}
+		return pesquisa;
+	}
+
+	/**
+	 * Método que procura uma entidade já lida pelo código.
+	 *
+	 * @param entidades Resolve o código de uma entidade lida, ou retorna null.
+	 * @param codigo    O código procurado.
+	 * @return A entidade encontrada.
+	 * @throws IOException Se o código não foi gravado no snapshot.
+	 */
+	static <T> T resolve(Function<String, T> entidades, String codigo) throws IOException {
+		T entidade = entidades.apply(codigo);
+		if (entidade == null) {
+			throw new IOException("Snapshot corrompido: referencia a " + codigo + " inexistente.");
+		}
+		return entidade;
+	}
+}
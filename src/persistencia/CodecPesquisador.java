@@ -0,0 +1,102 @@
+package persistencia;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Function;
+
+import modulos.Aluno;
+import modulos.InterfacePesquisador;
+import modulos.Pesquisa;
+import modulos.Pesquisador;
+import modulos.Professor;
+
+/**
+ * Codificador de {@link Pesquisador} no snapshot: dados cadastrais, estado,
+ * especialidade e os códigos das pesquisas associadas.
+ *
+ */
+public class CodecPesquisador implements Codec<Pesquisador> {
+
+	/**
+	 * Marcador de pesquisador sem especialidade.
+	 *
+	 */
+	private static final int SEM_ESPECIALIDADE = 0;
+
+	/**
+	 * Marcador de especialidade Aluno.
+	 *
+	 */
+	private static final int ALUNO = 1;
+
+	/**
+	 * Marcador de especialidade Professor.
+	 *
+	 */
+	private static final int PROFESSOR = 2;
+
+	/**
+	 * Busca das pesquisas já lidas, pelo código.
+	 *
+	 */
+	private final Function<String, Pesquisa> pesquisas;
+
+	/**
+	 * Construtor do codificador.
+	 *
+	 * @param pesquisas Resolve o código de uma pesquisa já lida, ou retorna null.
+	 */
+	public CodecPesquisador(Function<String, Pesquisa> pesquisas) {
+		this.pesquisas = pesquisas;
+	}
+
+	@Override
+	public void escreve(SaidaSnapshot saida, Pesquisador pesquisador) throws IOException {
+		saida.escreveTexto(pesquisador.getNome());
+		saida.escreveTexto(pesquisador.getFuncao());
+		saida.escreveTexto(pesquisador.getBiografia());
+		saida.escreveTexto(pesquisador.getEmail());
+		saida.escreveTexto(pesquisador.getFoto());
+		saida.escreveBooleano(pesquisador.getAtivo());
+		InterfacePesquisador especialidade = pesquisador.getEspecialidade();
+		if (especialidade instanceof Aluno) {
+			Aluno aluno = (Aluno) especialidade;
+			saida.escreveInteiro(ALUNO);
+			saida.escreveInteiro(aluno.getSemestre());
+			saida.escreveDecimal(aluno.getIea());
+		} else if (especialidade instanceof Professor) {
+			Professor professor = (Professor) especialidade;
+			saida.escreveInteiro(PROFESSOR);
+			saida.escreveTexto(professor.getFormacao());
+			saida.escreveTexto(professor.getUnidade());
+			saida.escreveTexto(professor.getData());
+		} else {
+			saida.escreveInteiro(SEM_ESPECIALIDADE);
+		}
+		List<Pesquisa> associadas = pesquisador.getPesquisas();
+		saida.escreveInteiro(associadas.size());
+		for (Pesquisa pesquisa : associadas) {
+			saida.escreveTexto(pesquisa.getCodigo());
+		}
+	}
+
+	@Override
+	public Pesquisador le(EntradaSnapshot entrada) throws IOException {
+		Pesquisador pesquisador = new Pesquisador(entrada.leTexto(), entrada.leTexto(), entrada.leTexto(),
+				entrada.leTexto(), entrada.leTexto());
+		pesquisador.setAtivo(entrada.leBooleano());
+		int especialidade = entrada.leInteiro();
+		if (especialidade == ALUNO) {
+			pesquisador.setEspecialidade(new Aluno(entrada.leInteiro(), entrada.leDecimal()));
+		} else if (especialidade == PROFESSOR) {
+			pesquisador.setEspecialidade(new Professor(entrada.leTexto(), entrada.leTexto(), entrada.leTexto()));
+		} else if (especialidade != SEM_ESPECIALIDADE) {
+			throw new IOException("Snapshot corrompido: especialidade invalida.");
+		}
+		int quantidadePesquisas = entrada.leTamanho();
+		for (int i = 0; i < quantidadePesquisas; i++) {
+			pesquisador.restauraPesquisa(CodecPesquisa.resolve(this.pesquisas, entrada.leTexto()));
+		}
+		return pesquisador;
+	}
+}
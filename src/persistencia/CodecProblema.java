@@ -0,0 +1,27 @@
+package persistencia;
+
+import java.io.IOException;
+
+import modulos.Problema;
+
+/**
+ * Codificador de {@link Problema} no snapshot: código, descrição e viabilidade.
+ *
+ */
+public class CodecProblema implements Codec<Problema> {
+
+	@Override
+	public void escreve(SaidaSnapshot saida, Problema problema) throws IOException {
+		saida.escreveTexto(problema.getCodigo());
+		saida.escreveTexto(problema.getDescricao());
+		saida.escreveInteiro(problema.getViabilidade());
+	}
+
+	@Override
+	public Problema le(EntradaSnapshot entrada) throws IOException {
+		String codigo = entrada.leTexto();
+		Problema problema = new Problema(entrada.leTexto(), entrada.leInteiro());
+		problema.setCodigo(codigo);
+		return problema;
+	}
+}
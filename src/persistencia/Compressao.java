@@ -0,0 +1,101 @@
+package persistencia;
+
+/**
+ * Formas de compressão de um snapshot completo, escolhidas a cada gravação. O
+ * código de cada uma é gravado no snapshot e não pode mudar entre versões.
+ *
+ */
+public enum Compressao {
+
+	/**
+	 * Sem compressão: a gravação e a leitura mais rápidas.
+	 *
+	 */
+	NENHUMA(0, false, false),
+
+	/**
+	 * Textos curtos repetidos (níveis de risco, campos de interesse, funções)
+	 * escritos uma única vez e depois referenciados pela posição.
+	 *
+	 */
+	DICIONARIO(1, true, false),
+
+	/**
+	 * Dicionário de textos seguido de compressão deflate: o menor arquivo.
+	 *
+	 */
+	DEFLATE(2, true, true);
+
+	/**
+	 * Código gravado no snapshot.
+	 *
+	 */
+	private final int codigo;
+
+	/**
+	 * Se os textos curtos usam o dicionário.
+	 *
+	 */
+	private final boolean dicionario;
+
+	/**
+	 * Se o conteúdo é comprimido com deflate.
+	 *
+	 */
+	private final boolean deflate;
+
+	/**
+	 * Construtor da forma de compressão.
+	 *
+	 * @param codigo     O código gravado no snapshot.
+	 * @param dicionario Se os textos curtos usam o dicionário.
+	 * @param deflate    Se o conteúdo é comprimido com deflate.
+	 */
+	Compressao(int codigo, boolean dicionario, boolean deflate) {
+		this.codigo = codigo;
+		this.dicionario = dicionario;
+		this.deflate = deflate;
+	}
+
+	/**
+	 * Método que retorna o código gravado no snapshot.
+	 *
+	 * @return O código da compressão.
+	 */
+	public int getCodigo() {
+		return this.codigo;
+	}
+
+	/**
+	 * Método que informa se os textos curtos usam o dicionário.
+	 *
+	 * @return Se o dicionário é usado.
+	 */
+	public boolean usaDicionario() {
+		return this.dicionario;
+	}
+
+	/**
+	 * Método que informa se o conteúdo é comprimido com deflate.
+	 *
+	 * @return Se o deflate é usado.
+	 */
+	public boolean usaDeflate() {
+		return this.deflate;
+	}
+
+	/**
+	 * Método que retorna a compressão de um código lido do snapshot.
+	 *
+	 * @param codigo O código lido.
+	 * @return A compressão, ou null se o código não existe.
+	 */
+	public static Compressao doCodigo(int codigo) {
+		for (Compressao compressao : values()) {
+			if (compressao.codigo == codigo) {
+				return compressao;
+			}
+		}
+		return null;
+	}
+}
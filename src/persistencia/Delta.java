@@ -0,0 +1,133 @@
+package persistencia;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Alterações lidas dos snapshots incrementais de um snapshot completo,
+ * acumuladas na ordem em que foram gravadas.
+ *
+ * Cada snapshot incremental guarda os códigos de todas as entidades do sistema
+ * naquele momento, mas o conteúdo apenas das que mudaram. Ao acumular, os
+ * códigos do mais recente substituem os anteriores e o conteúdo mais recente de
+ * cada entidade prevalece.
+ *
+ */
+class Delta {
+
+	/**
+	 * Número de sequência do {@link Diario} contido no último incremental.
+	 *
+	 */
+	long sequenciaDiario;
+
+	/**
+	 * Estratégia configurada no último incremental.
+	 *
+	 */
+	String estrategia;
+
+	/**
+	 * Contador de códigos de problemas no último incremental.
+	 *
+	 */
+	int codigoProblema;
+
+	/**
+	 * Contador de códigos de objetivos no último incremental.
+	 *
+	 */
+	int codigoObjetivo;
+
+	/**
+	 * Contador de códigos de atividades no último incremental.
+	 *
+	 */
+	int codigoAtividade;
+
+	/**
+	 * Quantidade de incrementais acumulados.
+	 *
+	 */
+	int quantidade;
+
+	/**
+	 * Seção dos problemas.
+	 *
+	 */
+	final Secao problemas = new Secao();
+
+	/**
+	 * Seção dos objetivos.
+	 *
+	 */
+	final Secao objetivos = new Secao();
+
+	/**
+	 * Seção das atividades.
+	 *
+	 */
+	final Secao atividades = new Secao();
+
+	/**
+	 * Seção das pesquisas.
+	 *
+	 */
+	final Secao pesquisas = new Secao();
+
+	/**
+	 * Seção dos pesquisadores.
+	 *
+	 */
+	final Secao pesquisadores = new Secao();
+
+	/**
+	 * Método que acumula um incremental gravado depois dos já acumulados.
+	 *
+	 * @param posterior O incremental seguinte.
+	 */
+	void aplica(Delta posterior) {
+		this.sequenciaDiario = posterior.sequenciaDiario;
+		this.estrategia = posterior.estrategia;
+		this.codigoProblema = posterior.codigoProblema;
+		this.codigoObjetivo = posterior.codigoObjetivo;
+		this.codigoAtividade = posterior.codigoAtividade;
+		this.quantidade++;
+		this.problemas.aplica(posterior.problemas);
+		this.objetivos.aplica(posterior.objetivos);
+		this.atividades.aplica(posterior.atividades);
+		this.pesquisas.aplica(posterior.pesquisas);
+		this.pesquisadores.aplica(posterior.pesquisadores);
+	}
+
+	/**
+	 * Entidades de um tipo em um incremental.
+	 *
+	 */
+	static class Secao {
+
+		/**
+		 * Códigos de todas as entidades, na ordem gravada, e se cada uma está
+		 * cadastrada no sistema.
+		 *
+		 */
+		Map<String, Boolean> codigos = new LinkedHashMap<>();
+
+		/**
+		 * Conteúdo codificado das entidades alteradas, pelo código.
+		 *
+		 */
+		final Map<String, byte[]> registros = new HashMap<>();
+
+		/**
+		 * Método que acumula a mesma seção de um incremental posterior.
+		 *
+		 * @param posterior A seção do incremental seguinte.
+		 */
+		void aplica(Secao posterior) {
+			this.codigos = posterior.codigos;
+			this.registros.putAll(posterior.registros);
+		}
+	}
+}
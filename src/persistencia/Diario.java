@@ -0,0 +1,521 @@
+package persistencia;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Diário (write-ahead log) das operações que alteram o sistema.
+ *
+ * Cada operação é gravada como um registro binário compacto no fim do arquivo:
+ * tamanho e CRC32 do corpo, seguidos do corpo com o número de sequência, o
+ * código da operação e os argumentos. A gravação em disco é feita por uma
+ * thread própria que junta os registros que chegam enquanto o fsync anterior
+ * está em andamento (group commit): {@link #registra} só retorna depois que o
+ * registro está em disco, mas várias chamadas concorrentes dividem um fsync.
+ *
+ * Ao abrir o diário, um registro final incompleto ou com CRC inválido (uma
+ * escrita interrompida) é descartado. Depois de um snapshot, {@link #trunca}
+ * remove os registros que ele já contém.
+ *
+ */
+public class Diario implements Closeable {
+
+	/**
+	 * Marcador de argumento de texto.
+	 *
+	 */
+	private static final int TEXTO = 0;
+
+	/**
+	 * Marcador de argumento inteiro.
+	 *
+	 */
+	private static final int INTEIRO = 1;
+
+	/**
+	 * Marcador de argumento real.
+	 *
+	 */
+	private static final int DECIMAL = 2;
+
+	/**
+	 * Maior tamanho aceito para o corpo de um registro.
+	 *
+	 */
+	private static final int TAMANHO_MAXIMO = 1 << 24;
+
+	/**
+	 * Arquivo do diário.
+	 *
+	 */
+	private final Path arquivo;
+
+	/**
+	 * Canal onde os registros são acrescentados. É trocado, com a trava, quando
+	 * o diário é truncado.
+	 *
+	 */
+	private FileChannel canal;
+
+	/**
+	 * Trava que protege o lote pendente e os números de sequência.
+	 *
+	 */
+	private final Object trava;
+
+	/**
+	 * Registros já codificados que aguardam a próxima gravação em disco.
+	 *
+	 */
+	private ByteArrayOutputStream lote;
+
+	/**
+	 * Destino da codificação do corpo de um registro.
+	 *
+	 */
+	private final ByteArrayOutputStream corpo;
+
+	/**
+	 * Codificador dos valores do corpo de um registro.
+	 *
+	 */
+	private final SaidaSnapshot codificador;
+
+	/**
+	 * Número de sequência do último registro aceito.
+	 *
+	 */
+	private long ultimaSequencia;
+
+	/**
+	 * Número de sequência do último registro gravado em disco.
+	 *
+	 */
+	private long sequenciaDuravel;
+
+	/**
+	 * Falha da thread de gravação, repassada a quem registrar depois dela.
+	 *
+	 */
+	private IOException falha;
+
+	/**
+	 * Se o diário foi fechado.
+	 *
+	 */
+	private boolean fechado;
+
+	/**
+	 * Thread que grava os lotes em disco.
+	 *
+	 */
+	private final Thread escritor;
+
+	/**
+	 * Construtor que abre (ou cria) o diário, descarta um registro final
+	 * incompleto e inicia a thread de gravação.
+	 *
+	 * @param arquivo O arquivo do diário.
+	 * @throws IOException Se o arquivo não puder ser aberto.
+	 */
+	public Diario(Path arquivo) throws IOException {
+		this.arquivo = arquivo;
+		Path diretorio = arquivo.toAbsolutePath().getParent();
+		if (diretorio != null) {
+			Files.createDirectories(diretorio);
+		}
+		this.canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		this.trava = new Object();
+		this.lote = new ByteArrayOutputStream();
+		this.corpo = new ByteArrayOutputStream();
+		this.codificador = new SaidaSnapshot(this.corpo, 1 << 12);
+
+		List<RegistroDiario> registros = new ArrayList<>();
+		long fim = this.varre(registros::add);
+		if (!registros.isEmpty()) {
+			this.ultimaSequencia = registros.get(registros.size() - 1).getSequencia();
+		}
+		this.sequenciaDuravel = this.ultimaSequencia;
+		this.canal.truncate(fim);
+		this.canal.position(fim);
+
+		this.escritor = new Thread(this::gravaLotes, "diario-" + arquivo.getFileName());
+		this.escritor.setDaemon(true);
+		this.escritor.start();
+	}
+
+	/**
+	 * Método que grava uma operação no diário e espera ela chegar ao disco.
+	 *
+	 * @param operacao   A operação realizada.
+	 * @param argumentos Os argumentos da operação (String, Integer ou Double).
+	 * @return O número de sequência do registro.
+	 * @throws IOException Se o diário estiver fechado ou a gravação falhar.
+	 */
+	public long registra(Operacao operacao, Object... argumentos) throws IOException {
+		synchronized (this.trava) {
+			this.verificaEstado();
+			long sequencia = this.ultimaSequencia + 1;
+			this.escreveRegistro(this.lote, new RegistroDiario(sequencia, operacao, argumentos));
+			this.ultimaSequencia = sequencia;
+			this.trava.notifyAll();
+			this.esperaGravacao(sequencia);
+			return sequencia;
+		}
+	}
+
+	/**
+	 * Método que grava várias ocorrências de uma operação no diário, em ordem,
+	 * e espera uma única vez que todas cheguem ao disco.
+	 *
+	 * @param operacao   A operação realizada.
+	 * @param argumentos Os argumentos de cada ocorrência.
+	 * @return O número de sequência do último registro.
+	 * @throws IOException Se o diário estiver fechado ou a gravação falhar.
+	 */
+	public long registraTodos(Operacao operacao, List<Object[]> argumentos) throws IOException {
+		synchronized (this.trava) {
+			this.verificaEstado();
+			long sequencia = this.ultimaSequencia;
+			for (Object[] argumento : argumentos) {
+				sequencia++;
+				this.escreveRegistro(this.lote, new RegistroDiario(sequencia, operacao, argumento));
+			}
+			this.ultimaSequencia = sequencia;
+			this.trava.notifyAll();
+			this.esperaGravacao(sequencia);
+			return sequencia;
+		}
+	}
+
+	/**
+	 * Método que repassa, em ordem, os registros do diário posteriores a um
+	 * número de sequência, como os que ainda não estão em um snapshot.
+	 *
+	 * @param aposSequencia O número de sequência já aplicado.
+	 * @param aplicador     Quem aplica cada registro.
+	 * @throws IOException Se a leitura falhar ou o diário não tiver mais os
+	 *                     registros logo após o número de sequência (por
+	 *                     exemplo, ao partir de um snapshot mais antigo que o
+	 *                     último truncamento).
+	 */
+	public void reproduz(long aposSequencia, Consumer<RegistroDiario> aplicador) throws IOException {
+		synchronized (this.trava) {
+			this.verificaEstado();
+			this.esperaGravacao(this.ultimaSequencia);
+			List<RegistroDiario> posteriores = new ArrayList<>();
+			this.varre(registro -> {
+				if (registro.getSequencia() > aposSequencia) {
+					posteriores.add(registro);
+				}
+			});
+			if (!posteriores.isEmpty() && posteriores.get(0).getSequencia() != aposSequencia + 1) {
+				throw new IOException("Diario nao contem os registros posteriores a " + aposSequencia + ".");
+			}
+			for (RegistroDiario registro : posteriores) {
+				aplicador.accept(registro);
+			}
+		}
+	}
+
+	/**
+	 * Método que garante que os próximos registros recebam números de sequência
+	 * maiores que o informado, como o de um snapshot carregado depois de o
+	 * diário ter sido esvaziado por {@link #trunca}.
+	 *
+	 * @param sequencia O último número de sequência já usado.
+	 */
+	public void avancaSequencia(long sequencia) {
+		synchronized (this.trava) {
+			if (sequencia > this.ultimaSequencia && this.lote.size() == 0) {
+				this.ultimaSequencia = sequencia;
+				this.sequenciaDuravel = sequencia;
+			}
+		}
+	}
+
+	/**
+	 * Método que remove do diário os registros até um número de sequência, já
+	 * contidos em um snapshot gravado. Os registros posteriores são gravados em
+	 * um arquivo temporário, sincronizado com o disco e renomeado sobre o
+	 * diário, de modo que uma queda no meio do truncamento deixa o diário
+	 * antigo ou o novo, sem perder registros já confirmados.
+	 *
+	 * @param ateSequencia O número de sequência contido no snapshot.
+	 * @throws IOException Se a gravação falhar.
+	 */
+	public void trunca(long ateSequencia) throws IOException {
+		synchronized (this.trava) {
+			this.verificaEstado();
+			this.esperaGravacao(this.ultimaSequencia);
+			ByteArrayOutputStream restantes = new ByteArrayOutputStream();
+			List<RegistroDiario> posteriores = new ArrayList<>();
+			this.varre(registro -> {
+				if (registro.getSequencia() > ateSequencia) {
+					posteriores.add(registro);
+				}
+			});
+			for (RegistroDiario registro : posteriores) {
+				this.escreveRegistro(restantes, registro);
+			}
+			Path temporario = this.arquivo.resolveSibling(this.arquivo.getFileName() + ".tmp");
+			try (FileChannel novo = FileChannel.open(temporario, StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				ByteBuffer buffer = ByteBuffer.wrap(restantes.toByteArray());
+				while (buffer.hasRemaining()) {
+					novo.write(buffer);
+				}
+				novo.force(true);
+			} catch (IOException e) {
+				Files.deleteIfExists(temporario);
+				throw e;
+			}
+			Snapshot.move(temporario, this.arquivo);
+			Snapshot.sincroniza(this.arquivo.toAbsolutePath().getParent());
+			FileChannel anterior = this.canal;
+			this.canal = FileChannel.open(this.arquivo, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			this.canal.position(this.canal.size());
+			anterior.close();
+		}
+	}
+
+	/**
+	 * Método que retorna o número de sequência do último registro aceito.
+	 *
+	 * @return O número de sequência.
+	 */
+	public long getUltimaSequencia() {
+		synchronized (this.trava) {
+			return this.ultimaSequencia;
+		}
+	}
+
+	/**
+	 * Método que fecha o diário depois de gravar os registros pendentes.
+	 *
+	 * @throws IOException Se a gravação falhar.
+	 */
+	@Override
+	public void close() throws IOException {
+		synchronized (this.trava) {
+			if (this.fechado) {
+				return;
+			}
+			this.fechado = true;
+			this.trava.notifyAll();
+		}
+		try {
+			this.escritor.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		this.canal.close();
+		if (this.falha != null) {
+			throw this.falha;
+		}
+	}
+
+	/**
+	 * Método interno executado pela thread de gravação: grava em disco, com um
+	 * único fsync, tudo o que se acumulou no lote desde a última gravação.
+	 *
+	 */
+	private void gravaLotes() {
+		while (true) {
+			ByteArrayOutputStream gravar;
+			long alvo;
+			synchronized (this.trava) {
+				while (this.lote.size() == 0 && !this.fechado) {
+					try {
+						this.trava.wait();
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+				if (this.lote.size() == 0) {
+					return;
+				}
+				gravar = this.lote;
+				this.lote = new ByteArrayOutputStream();
+				alvo = this.ultimaSequencia;
+			}
+			try {
+				this.escreveTudo(ByteBuffer.wrap(gravar.toByteArray()));
+				this.canal.force(false);
+			} catch (IOException e) {
+				synchronized (this.trava) {
+					this.falha = e;
+					this.trava.notifyAll();
+				}
+				return;
+			}
+			synchronized (this.trava) {
+				this.sequenciaDuravel = alvo;
+				this.trava.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Método interno que espera a thread de gravação colocar em disco um
+	 * registro. Deve ser chamado com a trava.
+	 *
+	 * @param sequencia O número de sequência do registro.
+	 * @throws IOException Se a gravação falhar ou a espera for interrompida.
+	 */
+	private void esperaGravacao(long sequencia) throws IOException {
+		while (this.sequenciaDuravel < sequencia && this.falha == null) {
+			try {
+				this.trava.wait();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Espera pela gravacao do diario interrompida.");
+			}
+		}
+		if (this.falha != null) {
+			throw new IOException("Falha ao gravar o diario.", this.falha);
+		}
+	}
+
+	/**
+	 * Método interno que verifica se o diário ainda aceita operações.
+	 *
+	 * @throws IOException Se o diário estiver fechado ou a gravação tiver falhado.
+	 */
+	private void verificaEstado() throws IOException {
+		if (this.fechado) {
+			throw new IOException("Diario fechado.");
+		}
+		if (this.falha != null) {
+			throw new IOException("Falha ao gravar o diario.", this.falha);
+		}
+	}
+
+	/**
+	 * Método interno que codifica um registro, com tamanho e CRC32 do corpo.
+	 *
+	 * @param destino  Onde o registro é escrito.
+	 * @param registro O registro a ser escrito.
+	 * @throws IOException Se a codificação falhar.
+	 */
+	private void escreveRegistro(ByteArrayOutputStream destino, RegistroDiario registro) throws IOException {
+		this.corpo.reset();
+		this.codificador.escreveLongo(registro.getSequencia());
+		this.codificador.escreveInteiro(registro.getOperacao().getCodigo());
+		Object[] argumentos = registro.getArgumentos();
+		this.codificador.escreveInteiro(argumentos.length);
+		for (Object argumento : argumentos) {
+			if (argumento instanceof Integer) {
+				this.codificador.escreveInteiro(INTEIRO);
+				this.codificador.escreveInteiro((Integer) argumento);
+			} else if (argumento instanceof Double) {
+				this.codificador.escreveInteiro(DECIMAL);
+				this.codificador.escreveDecimal((Double) argumento);
+			} else {
+				this.codificador.escreveInteiro(TEXTO);
+				this.codificador.escreveTexto((String) argumento);
+			}
+		}
+		this.codificador.descarrega();
+		byte[] bytes = this.corpo.toByteArray();
+		CRC32 crc = new CRC32();
+		crc.update(bytes, 0, bytes.length);
+		ByteBuffer cabecalho = ByteBuffer.allocate(8);
+		cabecalho.putInt(bytes.length).putInt((int) crc.getValue());
+		destino.write(cabecalho.array(), 0, 8);
+		destino.write(bytes, 0, bytes.length);
+	}
+
+	/**
+	 * Método interno que lê os registros válidos do diário, do início até o
+	 * primeiro registro incompleto ou corrompido.
+	 *
+	 * @param leitor Quem recebe cada registro lido.
+	 * @return A posição do fim do último registro válido.
+	 * @throws IOException Se a leitura falhar.
+	 */
+	private long varre(Consumer<RegistroDiario> leitor) throws IOException {
+		try (FileChannel leitura = FileChannel.open(this.arquivo, StandardOpenOption.READ)) {
+			EntradaSnapshot entrada = new EntradaSnapshot(leitura, 1 << 16);
+			long fimValido = 0;
+			CRC32 crc = new CRC32();
+			while (true) {
+				RegistroDiario registro;
+				try {
+					int tamanho = entrada.leInteiroFixo();
+					int verificacao = entrada.leInteiroFixo();
+					if (tamanho < 0 || tamanho > TAMANHO_MAXIMO) {
+						return fimValido;
+					}
+					byte[] bytes = entrada.leBytes(tamanho);
+					crc.reset();
+					crc.update(bytes, 0, bytes.length);
+					if ((int) crc.getValue() != verificacao) {
+						return fimValido;
+					}
+					registro = leRegistro(bytes);
+				} catch (EOFException e) {
+					return fimValido;
+				}
+				if (registro == null) {
+					return fimValido;
+				}
+				fimValido = entrada.getBytesLidos();
+				leitor.accept(registro);
+			}
+		}
+	}
+
+	/**
+	 * Método interno que decodifica o corpo de um registro.
+	 *
+	 * @param bytes O corpo do registro.
+	 * @return O registro, ou null se a operação for desconhecida.
+	 * @throws IOException Se o corpo estiver corrompido.
+	 */
+	private static RegistroDiario leRegistro(byte[] bytes) throws IOException {
+		EntradaSnapshot entrada = new EntradaSnapshot(ByteBuffer.wrap(bytes));
+		long sequencia = entrada.leLongo();
+		Operacao operacao = Operacao.doCodigo(entrada.leInteiro());
+		if (operacao == null) {
+			return null;
+		}
+		Object[] argumentos = new Object[entrada.leTamanho()];
+		for (int i = 0; i < argumentos.length; i++) {
+			int tipo = entrada.leInteiro();
+			if (tipo == INTEIRO) {
+				argumentos[i] = entrada.leInteiro();
+			} else if (tipo == DECIMAL) {
+				argumentos[i] = entrada.leDecimal();
+			} else {
+				argumentos[i] = entrada.leTexto();
+			}
+		}
+		return new RegistroDiario(sequencia, operacao, argumentos);
+	}
+
+	/**
+	 * Método interno que escreve todo o conteúdo de um buffer no canal.
+	 *
+	 * @param buffer O conteúdo a ser escrito.
+	 * @throws IOException Se a escrita falhar.
+	 */
+	private void escreveTudo(ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			this.canal.write(buffer);
+		}
+	}
+}
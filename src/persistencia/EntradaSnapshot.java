@@ -0,0 +1,346 @@
+package persistencia;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Classe que lê os valores primitivos de um snapshot escritos por
+ * {@link SaidaSnapshot}, lendo o canal em blocos grandes para um buffer
+ * direto. Entre {@link #iniciaSecao()} e {@link #verificaSecao(String)} os bytes
+ * lidos entram em um CRC32, comparado com o gravado no fim da seção.
+ *
+ */
+public class EntradaSnapshot {
+
+	/**
+	 * Canal de onde o snapshot é lido.
+	 *
+	 */
+	private ReadableByteChannel canal;
+
+	/**
+	 * Textos do dicionário, na ordem em que apareceram, ou null se o
+	 * dicionário não está em uso.
+	 *
+	 */
+	private List<String> dicionario;
+
+	/**
+	 * Buffer com os bytes lidos do canal e ainda não consumidos.
+	 *
+	 */
+	private final ByteBuffer buffer;
+
+	/**
+	 * Quantidade de bytes já consumidos antes do conteúdo atual do buffer.
+	 *
+	 */
+	private long bytesConsumidos;
+
+	/**
+	 * CRC32 da seção em andamento.
+	 *
+	 */
+	private final CRC32 crc;
+
+	/**
+	 * Posição do buffer a partir da qual os bytes ainda não entraram no CRC, ou
+	 * -1 se não há seção em andamento.
+	 *
+	 */
+	private int inicioCrc;
+
+	/**
+	 * Construtor que lê o snapshot de um canal, com o buffer padrão.
+	 *
+	 * @param canal O canal de origem.
+	 */
+	public EntradaSnapshot(ReadableByteChannel canal) {
+		this(canal, SaidaSnapshot.TAMANHO_BUFFER);
+	}
+
+	/**
+	 * Construtor que lê o snapshot de um fluxo, com um buffer comum.
+	 *
+	 * @param entrada O fluxo de origem.
+	 */
+	public EntradaSnapshot(InputStream entrada) {
+		this(Channels.newChannel(entrada), ByteBuffer.allocate(1 << 16));
+		this.buffer.flip();
+	}
+
+	/**
+	 * Construtor que lê os valores de um conteúdo já em memória.
+	 *
+	 * @param conteudo O conteúdo a ser lido, da posição atual até o limite.
+	 */
+	public EntradaSnapshot(ByteBuffer conteudo) {
+		this(null, conteudo);
+	}
+
+	/**
+	 * Construtor que lê o snapshot de um canal, com um buffer direto do tamanho
+	 * informado.
+	 *
+	 * @param canal         O canal de origem.
+	 * @param tamanhoBuffer O tamanho do buffer, em bytes.
+	 */
+	public EntradaSnapshot(ReadableByteChannel canal, int tamanhoBuffer) {
+		this(canal, ByteBuffer.allocateDirect(tamanhoBuffer));
+		this.buffer.flip();
+	}
+
+	/**
+	 * Construtor que lê o snapshot de um canal usando o buffer informado.
+	 *
+	 * @param canal  O canal de origem, ou null se todo o conteúdo já está no
+	 *               buffer.
+	 * @param buffer O buffer com os bytes ainda não consumidos.
+	 */
+	private EntradaSnapshot(ReadableByteChannel canal, ByteBuffer buffer) {
+		this.canal = canal;
+		this.buffer = buffer;
+		this.crc = new CRC32();
+		this.inicioCrc = -1;
+	}
+
+	/**
+	 * Método que lê um inteiro de 32 bits em tamanho fixo.
+	 *
+	 * @return O valor lido.
+	 * @throws IOException Se a leitura falhar.
+	 */
+	public int leInteiroFixo() throws IOException {
+		this.garante(4);
+		return this.buffer.getInt();
+	}
+
+	/**
+	 * Método que lê um inteiro de 64 bits em tamanho fixo.
+	 *
+	 * @return O valor lido.
+	 * @throws IOException Se a leitura falhar.
+	 */
+	public long leLongo() throws IOException {
+		this.garante(8);
+		return this.buffer.getLong();
+	}
+
+	/**
+	 * Método que lê um inteiro escrito em tamanho variável.
+	 *
+	 * @return O valor lido.
+	 * @throws IOException Se a leitura falhar ou o valor estiver corrompido.
+	 */
+	public int leInteiro() throws IOException {
+		int valor = 0;
+		for (int deslocamento = 0; deslocamento < 35; deslocamento += 7) {
+			this.garante(1);
+			int b = this.buffer.get() & 0xFF;
+			valor |= (b & 0x7F) << deslocamento;
+			if ((b & 0x80) == 0) {
+				return (valor >>> 1) ^ -(valor & 1);
+			}
+		}
+		throw new IOException("Snapshot corrompido: inteiro invalido.");
+	}
+
+	/**
+	 * Método que lê um tamanho, que não pode ser negativo.
+	 *
+	 * @return O tamanho lido.
+	 * @throws IOException Se a leitura falhar ou o tamanho for negativo.
+	 */
+	public int leTamanho() throws IOException {
+		int tamanho = this.leInteiro();
+		if (tamanho < 0) {
+			throw new IOException("Snapshot corrompido: tamanho invalido.");
+		}
+		return tamanho;
+	}
+
+	/**
+	 * Método que lê um número real.
+	 *
+	 * @return O valor lido.
+	 * @throws IOException Se a leitura falhar.
+	 */
+	public double leDecimal() throws IOException {
+		this.garante(8);
+		return this.buffer.getDouble();
+	}
+
+	/**
+	 * Método que lê um booleano.
+	 *
+	 * @return O valor lido.
+	 * @throws IOException Se a leitura falhar.
+	 */
+	public boolean leBooleano() throws IOException {
+		this.garante(1);
+		return this.buffer.get() != 0;
+	}
+
+	/**
+	 * Método que lê um texto, que pode ser nulo.
+	 *
+	 * @return O texto lido.
+	 * @throws IOException Se a leitura falhar.
+	 */
+	public String leTexto() throws IOException {
+		int tamanho = this.leInteiro();
+		if (tamanho == 0) {
+			return null;
+		}
+		if (tamanho < 0) {
+			if (this.dicionario == null || -tamanho > this.dicionario.size()) {
+				throw new IOException("Snapshot corrompido: texto invalido.");
+			}
+			return this.dicionario.get(-tamanho - 1);
+		}
+		String texto = new String(this.leBytes(tamanho - 1), StandardCharsets.UTF_8);
+		if (this.dicionario != null && texto.length() <= SaidaSnapshot.TAMANHO_MAXIMO_DICIONARIO) {
+			this.dicionario.add(texto);
+		}
+		return texto;
+	}
+
+	/**
+	 * Método que lê uma sequência de bytes, em partes se ela não couber no
+	 * buffer.
+	 *
+	 * @param tamanho A quantidade de bytes.
+	 * @return Os bytes lidos.
+	 * @throws IOException Se a leitura falhar.
+	 */
+	public byte[] leBytes(int tamanho) throws IOException {
+		byte[] bytes = new byte[tamanho];
+		int lidos = 0;
+		while (lidos < tamanho) {
+			if (!this.buffer.hasRemaining()) {
+				this.garante(1);
+			}
+			int parte = Math.min(this.buffer.remaining(), tamanho - lidos);
+			this.buffer.get(bytes, lidos, parte);
+			lidos += parte;
+		}
+		return bytes;
+	}
+
+	/**
+	 * Método que inicia uma seção verificada por CRC32.
+	 *
+	 */
+	public void iniciaSecao() {
+		this.crc.reset();
+		this.inicioCrc = this.buffer.position();
+	}
+
+	/**
+	 * Método que termina a seção em andamento, comparando o CRC32 dos bytes
+	 * lidos desde o seu início com o gravado no snapshot.
+	 *
+	 * @param nome O nome da seção, usado na mensagem de erro.
+	 * @throws IOException Se a leitura falhar ou a seção estiver corrompida.
+	 */
+	public void verificaSecao(String nome) throws IOException {
+		this.atualizaCrc();
+		this.inicioCrc = -1;
+		int esperado = this.leInteiroFixo();
+		if ((int) this.crc.getValue() != esperado) {
+			throw new IOException("Snapshot corrompido: secao " + nome + " com CRC invalido.");
+		}
+	}
+
+	/**
+	 * Método que passa a aceitar textos referenciados pela posição no
+	 * dicionário, escritos depois de {@link SaidaSnapshot#usaDicionario()}.
+	 *
+	 */
+	public void usaDicionario() {
+		this.dicionario = new ArrayList<>();
+	}
+
+	/**
+	 * Método que passa a descomprimir com deflate tudo o que for lido a partir
+	 * daqui, escrito depois de {@link SaidaSnapshot#comprime(int)}.
+	 *
+	 */
+	public void descomprime() {
+		byte[] lidos = new byte[this.buffer.remaining()];
+		this.bytesConsumidos += this.buffer.position();
+		this.buffer.get(lidos);
+		InputStream origem = new ByteArrayInputStream(lidos);
+		if (this.canal != null) {
+			origem = new SequenceInputStream(origem, Channels.newInputStream(this.canal));
+		}
+		this.canal = Channels.newChannel(new InflaterInputStream(origem, new Inflater(), 1 << 16));
+		this.buffer.clear();
+		this.buffer.flip();
+	}
+
+	/**
+	 * Método que retorna a quantidade de bytes lidos até agora.
+	 *
+	 * @return A quantidade de bytes lidos.
+	 */
+	public long getBytesLidos() {
+		return this.bytesConsumidos + this.buffer.position();
+	}
+
+	/**
+	 * Método interno que lê do canal até o buffer ter pelo menos a quantidade
+	 * de bytes pedida.
+	 *
+	 * @param tamanho A quantidade de bytes necessária.
+	 * @throws IOException Se a leitura falhar ou o canal terminar antes.
+	 */
+	private void garante(int tamanho) throws IOException {
+		if (this.buffer.remaining() >= tamanho) {
+			return;
+		}
+		if (this.canal == null) {
+			throw new EOFException("Snapshot incompleto.");
+		}
+		this.atualizaCrc();
+		this.bytesConsumidos += this.buffer.position();
+		this.buffer.compact();
+		if (this.inicioCrc >= 0) {
+			this.inicioCrc = 0;
+		}
+		while (this.buffer.position() < tamanho) {
+			if (this.canal.read(this.buffer) < 0) {
+				throw new EOFException("Snapshot incompleto.");
+			}
+		}
+		this.buffer.flip();
+	}
+
+	/**
+	 * Método interno que acrescenta ao CRC32 da seção os bytes consumidos que
+	 * ainda não entraram nele.
+	 *
+	 */
+	private void atualizaCrc() {
+		if (this.inicioCrc < 0) {
+			return;
+		}
+		ByteBuffer consumidos = this.buffer.duplicate();
+		consumidos.limit(this.buffer.position());
+		consumidos.position(this.inicioCrc);
+		this.crc.update(consumidos);
+		this.inicioCrc = this.buffer.position();
+	}
+}
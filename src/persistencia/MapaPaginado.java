@@ -0,0 +1,389 @@
+package persistencia;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import modulos.Rastreavel;
+
+/**
+ * Mapa de entidades de um tipo guardadas fora da memória, em um
+ * {@link ArquivoPaginado} ou em um {@link AcervoEncerradas}, lidas da origem
+ * apenas no primeiro acesso. O mapa também pode manter entidades que estão
+ * apenas em memória.
+ *
+ * Os códigos das entidades cadastradas ficam sempre em memória, de modo que
+ * {@link #containsKey(Object)} e {@link #size()} não leem o arquivo. As
+ * entidades lidas e não alteradas ficam em um cache LRU; ao sair dele, seguem
+ * acessíveis enquanto alguma outra entidade as referenciar, o que preserva o
+ * compartilhamento de referências entre pesquisas, atividades e pesquisadores.
+ * As entidades novas, alteradas ou apagadas desde a abertura do arquivo nunca
+ * são descartadas, pois o arquivo não as tem.
+ *
+ * As consultas podem ser feitas por várias threads, como na busca paralela;
+ * a iteração, como a de um HashMap, não.
+ *
+ * @param <T> O tipo das entidades.
+ */
+class MapaPaginado<T extends Rastreavel> extends AbstractMap<String, T> {
+
+	/**
+	 * Codificador das entidades.
+	 *
+	 */
+	private final Codec<T> codec;
+
+	/**
+	 * Quantidade máxima de entidades não alteradas no cache.
+	 *
+	 */
+	private final int capacidade;
+
+	/**
+	 * Origem e posição de todas as entidades guardadas fora da memória,
+	 * cadastradas ou não, pelo código.
+	 *
+	 */
+	private final Map<String, Localizacao> localizacoes;
+
+	/**
+	 * Códigos das entidades cadastradas.
+	 *
+	 */
+	private final Set<String> chaves;
+
+	/**
+	 * Entidades apenas em memória: as mantidas na construção e as novas,
+	 * alteradas ou apagadas desde então, pelo código.
+	 *
+	 */
+	private final Map<String, T> residentes;
+
+	/**
+	 * Entidades lidas do arquivo e não alteradas, da menos para a mais
+	 * recentemente usada.
+	 *
+	 */
+	private final LinkedHashMap<String, T> quentes;
+
+	/**
+	 * Entidades que saíram do cache, acessíveis enquanto referenciadas por
+	 * outras.
+	 *
+	 */
+	private final Map<String, WeakReference<T>> frias;
+
+	/**
+	 * Construtor do mapa, ainda sem entidades.
+	 *
+	 * @param codec      O codificador das entidades.
+	 * @param capacidade A quantidade máxima de entidades não alteradas no cache.
+	 */
+	MapaPaginado(Codec<T> codec, int capacidade) {
+		this.codec = codec;
+		this.capacidade = capacidade;
+		this.localizacoes = new HashMap<>();
+		this.chaves = new HashSet<>();
+		this.residentes = new HashMap<>();
+		this.frias = new HashMap<>();
+		this.quentes = new LinkedHashMap<String, T>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, T> maisAntiga) {
+				if (this.size() <= MapaPaginado.this.capacidade) {
+					return false;
+				}
+				MapaPaginado.this.frias.put(maisAntiga.getKey(), new WeakReference<>(maisAntiga.getValue()));
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * Método que registra uma entidade guardada fora da memória, sem lê-la.
+	 *
+	 * @param codigo     O código da entidade.
+	 * @param origem     A origem do registro.
+	 * @param posicao    A posição do registro na origem.
+	 * @param tamanho    O tamanho do registro, em bytes.
+	 * @param cadastrada Se a entidade está cadastrada no sistema.
+	 */
+	synchronized void registra(String codigo, OrigemRegistros origem, long posicao, int tamanho,
+			boolean cadastrada) {
+		this.localizacoes.put(codigo, new Localizacao(origem, posicao, tamanho));
+		if (cadastrada) {
+			this.chaves.add(codigo);
+		}
+	}
+
+	/**
+	 * Método que mantém uma entidade apenas em memória.
+	 *
+	 * @param codigo     O código da entidade.
+	 * @param entidade   A entidade.
+	 * @param cadastrada Se a entidade está cadastrada no sistema.
+	 */
+	synchronized void mantem(String codigo, T entidade, boolean cadastrada) {
+		this.residentes.put(codigo, entidade);
+		entidade.observaAlteracao(null);
+		if (cadastrada) {
+			this.chaves.add(codigo);
+		}
+	}
+
+	/**
+	 * Método que retorna a busca de todas as entidades gravadas ou residentes,
+	 * cadastradas ou não, usada pelos codificadores para resolver referências.
+	 *
+	 * @return A busca de uma entidade pelo código, que retorna null se ela não
+	 *         existe.
+	 */
+	Function<String, T> getReferencias() {
+		return this::resolve;
+	}
+
+	/**
+	 * Método que retorna quantas entidades estão em memória sem poderem ser
+	 * descartadas.
+	 *
+	 * @return A quantidade de entidades residentes.
+	 */
+	synchronized int getResidentes() {
+		return this.residentes.size();
+	}
+
+	/**
+	 * Método que retorna quantas entidades estão no cache.
+	 *
+	 * @return A quantidade de entidades no cache.
+	 */
+	synchronized int getEmCache() {
+		return this.quentes.size();
+	}
+
+	@Override
+	public synchronized T get(Object codigo) {
+		return this.chaves.contains(codigo) ? this.resolve(codigo) : null;
+	}
+
+	@Override
+	public synchronized boolean containsKey(Object codigo) {
+		return this.chaves.contains(codigo);
+	}
+
+	@Override
+	public synchronized int size() {
+		return this.chaves.size();
+	}
+
+	@Override
+	public synchronized T put(String codigo, T entidade) {
+		T anterior = this.get(codigo);
+		this.chaves.add(codigo);
+		this.fixa(codigo, entidade);
+		return anterior;
+	}
+
+	@Override
+	public synchronized T remove(Object codigo) {
+		if (!this.chaves.contains(codigo)) {
+			return null;
+		}
+		T entidade = this.resolve(codigo);
+		this.chaves.remove(codigo);
+		this.fixa((String) codigo, entidade);
+		return entidade;
+	}
+
+	@Override
+	public Set<String> keySet() {
+		return new AbstractSet<String>() {
+
+			@Override
+			public Iterator<String> iterator() {
+				return new Chaves();
+			}
+
+			@Override
+			public int size() {
+				return MapaPaginado.this.chaves.size();
+			}
+
+			@Override
+			public boolean contains(Object codigo) {
+				return MapaPaginado.this.chaves.contains(codigo);
+			}
+		};
+	}
+
+	@Override
+	public Set<Map.Entry<String, T>> entrySet() {
+		return new AbstractSet<Map.Entry<String, T>>() {
+
+			@Override
+			public Iterator<Map.Entry<String, T>> iterator() {
+				Chaves chaves = new Chaves();
+				return new Iterator<Map.Entry<String, T>>() {
+
+					@Override
+					public boolean hasNext() {
+						return chaves.hasNext();
+					}
+
+					@Override
+					public Map.Entry<String, T> next() {
+						String codigo = chaves.next();
+						return new AbstractMap.SimpleImmutableEntry<>(codigo, MapaPaginado.this.resolve(codigo));
+					}
+
+					@Override
+					public void remove() {
+						chaves.remove();
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return MapaPaginado.this.chaves.size();
+			}
+		};
+	}
+
+	/**
+	 * Método interno que procura uma entidade em memória e, se não estiver,
+	 * lê do arquivo.
+	 *
+	 * @param codigo O código da entidade.
+	 * @return A entidade, ou null se não existe.
+	 */
+	private synchronized T resolve(Object codigo) {
+		T entidade = this.residentes.get(codigo);
+		if (entidade == null) {
+			entidade = this.quentes.get(codigo);
+		}
+		if (entidade != null) {
+			return entidade;
+		}
+		WeakReference<T> referencia = this.frias.remove(codigo);
+		entidade = referencia == null ? null : referencia.get();
+		if (entidade == null) {
+			Localizacao localizacao = this.localizacoes.get(codigo);
+			if (localizacao == null) {
+				return null;
+			}
+			try {
+				entidade = localizacao.origem.le(localizacao.posicao, localizacao.tamanho, this.codec,
+						(String) codigo);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Nao foi possivel ler " + codigo + ".", e);
+			}
+			entidade.limpaAlteracao();
+			T lida = entidade;
+			entidade.observaAlteracao(() -> this.fixa((String) codigo, lida));
+		}
+		this.quentes.put((String) codigo, entidade);
+		return entidade;
+	}
+
+	/**
+	 * Método interno que mantém uma entidade em memória até o mapa ser
+	 * descartado.
+	 *
+	 * @param codigo   O código da entidade.
+	 * @param entidade A entidade.
+	 */
+	private synchronized void fixa(String codigo, T entidade) {
+		this.quentes.remove(codigo);
+		this.frias.remove(codigo);
+		this.residentes.put(codigo, entidade);
+		entidade.observaAlteracao(null);
+	}
+
+	/**
+	 * Origem e posição de um registro.
+	 *
+	 */
+	private static class Localizacao {
+
+		/**
+		 * Origem do registro.
+		 *
+		 */
+		final OrigemRegistros origem;
+
+		/**
+		 * Posição do início do registro.
+		 *
+		 */
+		final long posicao;
+
+		/**
+		 * Tamanho do registro, em bytes.
+		 *
+		 */
+		final int tamanho;
+
+		/**
+		 * Construtor da posição.
+		 *
+		 * @param origem  A origem do registro.
+		 * @param posicao A posição do início do registro.
+		 * @param tamanho O tamanho do registro, em bytes.
+		 */
+		Localizacao(OrigemRegistros origem, long posicao, int tamanho) {
+			this.origem = origem;
+			this.posicao = posicao;
+			this.tamanho = tamanho;
+		}
+	}
+
+	/**
+	 * Iterador dos códigos cadastrados que, ao remover, também fixa a entidade
+	 * removida em memória.
+	 *
+	 */
+	private class Chaves implements Iterator<String> {
+
+		/**
+		 * Iterador dos códigos.
+		 *
+		 */
+		private final Iterator<String> codigos = MapaPaginado.this.chaves.iterator();
+
+		/**
+		 * Último código retornado.
+		 *
+		 */
+		private String atual;
+
+		@Override
+		public boolean hasNext() {
+			return this.codigos.hasNext();
+		}
+
+		@Override
+		public String next() {
+			this.atual = this.codigos.next();
+			return this.atual;
+		}
+
+		@Override
+		public void remove() {
+			T entidade = MapaPaginado.this.resolve(this.atual);
+			this.codigos.remove();
+			MapaPaginado.this.fixa(this.atual, entidade);
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package persistencia;
+
+/**
+ * Operações da Facade que alteram o estado do sistema e por isso são gravadas
+ * no {@link Diario}. O código de cada operação é o que vai para o arquivo, e
+ * não pode mudar entre versões.
+ *
+ */
+public enum Operacao {
+
+	CADASTRA_PESQUISA(1),
+	ALTERA_PESQUISA(2),
+	ENCERRA_PESQUISA(3),
+	ATIVA_PESQUISA(4),
+	CADASTRA_PESQUISADOR(5),
+	ALTERA_PESQUISADOR(6),
+	DESATIVA_PESQUISADOR(7),
+	ATIVA_PESQUISADOR(8),
+	CADASTRA_PROBLEMA(9),
+	CADASTRA_OBJETIVO(10),
+	APAGAR_PROBLEMA(11),
+	APAGAR_OBJETIVO(12),
+	CADASTRA_ATIVIDADE(13),
+	APAGA_ATIVIDADE(14),
+	CADASTRA_ITEM(15),
+	ASSOCIA_PROBLEMA(16),
+	DESASSOCIA_PROBLEMA(17),
+	ASSOCIA_OBJETIVO(18),
+	DESASSOCIA_OBJETIVO(19),
+	ASSOCIA_PESQUISADOR(20),
+	DESASSOCIA_PESQUISADOR(21),
+	CADASTRA_ESPECIALIDADE_PROFESSOR(22),
+	CADASTRA_ESPECIALIDADE_ALUNO(23),
+	ASSOCIA_ATIVIDADE(24),
+	DESASSOCIA_ATIVIDADE(25),
+	EXECUTA_ATIVIDADE(26),
+	CADASTRA_RESULTADO(27),
+	REMOVE_RESULTADO(28),
+	DEFINE_PROXIMA_ATIVIDADE(29),
+	TIRA_PROXIMA_ATIVIDADE(30),
+	CONFIGURA_ESTRATEGIA(31);
+
+	/**
+	 * Código gravado no diário.
+	 *
+	 */
+	private final int codigo;
+
+	/**
+	 * Construtor da operação.
+	 *
+	 * @param codigo O código gravado no diário.
+	 */
+	Operacao(int codigo) {
+		this.codigo = codigo;
+	}
+
+	/**
+	 * Método que retorna o código gravado no diário.
+	 *
+	 * @return O código da operação.
+	 */
+	public int getCodigo() {
+		return this.codigo;
+	}
+
+	/**
+	 * Método que retorna a operação de um código lido do diário.
+	 *
+	 * @param codigo O código lido.
+	 * @return A operação, ou null se o código não existe.
+	 */
+	public static Operacao doCodigo(int codigo) {
+		for (Operacao operacao : values()) {
+			if (operacao.codigo == codigo) {
+				return operacao;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,25 @@
+package persistencia;
+
+import java.io.IOException;
+
+/**
+ * Origem dos registros de entidades lidos sob demanda por um
+ * {@link MapaPaginado}: cada registro é a entidade codificada seguida do seu
+ * CRC32.
+ *
+ */
+interface OrigemRegistros {
+
+	/**
+	 * Método que lê o registro de uma entidade.
+	 *
+	 * @param <T>     O tipo da entidade.
+	 * @param posicao A posição do registro.
+	 * @param tamanho O tamanho do registro, em bytes.
+	 * @param codec   O codificador da entidade.
+	 * @param codigo  O código da entidade, usado na mensagem de erro.
+	 * @return A entidade lida.
+	 * @throws IOException Se a leitura falhar ou o registro estiver corrompido.
+	 */
+	<T> T le(long posicao, int tamanho, Codec<T> codec, String codigo) throws IOException;
+}
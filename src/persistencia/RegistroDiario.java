@@ -0,0 +1,97 @@
+package persistencia;
+
+/**
+ * Registro do {@link Diario}: uma operação da Facade com seus argumentos e o
+ * número de sequência que ela recebeu ao ser gravada.
+ *
+ */
+public class RegistroDiario {
+
+	/**
+	 * Número de sequência do registro, crescente no diário.
+	 *
+	 */
+	private final long sequencia;
+
+	/**
+	 * Operação registrada.
+	 *
+	 */
+	private final Operacao operacao;
+
+	/**
+	 * Argumentos da operação: textos, inteiros e números reais.
+	 *
+	 */
+	private final Object[] argumentos;
+
+	/**
+	 * Construtor do registro.
+	 *
+	 * @param sequencia  O número de sequência do registro.
+	 * @param operacao   A operação registrada.
+	 * @param argumentos Os argumentos da operação.
+	 */
+	public RegistroDiario(long sequencia, Operacao operacao, Object[] argumentos) {
+		this.sequencia = sequencia;
+		this.operacao = operacao;
+		this.argumentos = argumentos;
+	}
+
+	/**
+	 * Método que retorna o número de sequência do registro.
+	 *
+	 * @return O número de sequência.
+	 */
+	public long getSequencia() {
+		return this.sequencia;
+	}
+
+	/**
+	 * Método que retorna a operação registrada.
+	 *
+	 * @return A operação.
+	 */
+	public Operacao getOperacao() {
+		return this.operacao;
+	}
+
+	/**
+	 * Método que retorna um argumento de texto.
+	 *
+	 * @param posicao A posição do argumento.
+	 * @return O texto.
+	 */
+	public String texto(int posicao) {
+		return (String) this.argumentos[posicao];
+	}
+
+	/**
+	 * Método que retorna um argumento inteiro.
+	 *
+	 * @param posicao A posição do argumento.
+	 * @return O inteiro.
+	 */
+	public int inteiro(int posicao) {
+		return (Integer) this.argumentos[posicao];
+	}
+
+	/**
+	 * Método que retorna um argumento real.
+	 *
+	 * @param posicao A posição do argumento.
+	 * @return O número real.
+	 */
+	public double decimal(int posicao) {
+		return (Double) this.argumentos[posicao];
+	}
+
+	/**
+	 * Método que retorna os argumentos da operação.
+	 *
+	 * @return Os argumentos.
+	 */
+	public Object[] getArgumentos() {
+		return this.argumentos;
+	}
+}
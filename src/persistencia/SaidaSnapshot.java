@@ -0,0 +1,389 @@
+package persistencia;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Classe que escreve os valores primitivos de um snapshot em formato binário
+ * compacto.
+ *
+ * Inteiros são escritos em tamanho variável (zigzag + 7 bits por byte), de
+ * modo que contadores e tamanhos pequenos ocupam um único byte. Textos são
+ * escritos em UTF-8 precedidos do tamanho, e podem ser nulos. Os valores são
+ * acumulados em um buffer direto e enviados ao canal em blocos grandes.
+ * Entre {@link #iniciaSecao()} e {@link #terminaSecao()} os bytes escritos
+ * entram em um CRC32, gravado no fim da seção.
+ *
+ * Opcionalmente, a partir de certo ponto, os textos curtos podem ser escritos
+ * uma única vez e depois referenciados pela posição ({@link #usaDicionario()}),
+ * e o restante do snapshot pode ser comprimido com deflate
+ * ({@link #comprime(int)}).
+ *
+ */
+public class SaidaSnapshot {
+
+	/**
+	 * Tamanho padrão do buffer usado ao escrever em arquivos.
+	 *
+	 */
+	public static final int TAMANHO_BUFFER = 1 << 20;
+
+	/**
+	 * Maior texto, em caracteres, guardado no dicionário. Textos maiores quase
+	 * nunca se repetem e são sempre escritos por inteiro.
+	 *
+	 */
+	public static final int TAMANHO_MAXIMO_DICIONARIO = 64;
+
+	/**
+	 * Canal onde o snapshot é escrito.
+	 *
+	 */
+	private WritableByteChannel canal;
+
+	/**
+	 * Posição de cada texto já escrito no dicionário, ou null se o dicionário
+	 * não está em uso.
+	 *
+	 */
+	private Map<String, Integer> dicionario;
+
+	/**
+	 * Compressor em uso, ou null se a saída não é comprimida.
+	 *
+	 */
+	private Deflater compressor;
+
+	/**
+	 * Fluxo comprimido que envia os bytes ao canal original.
+	 *
+	 */
+	private DeflaterOutputStream fluxoComprimido;
+
+	/**
+	 * Quantidade de bytes enviados ao canal original antes da compressão.
+	 *
+	 */
+	private long bytesAntesCompressao;
+
+	/**
+	 * Buffer onde os valores são acumulados antes de ir para o canal.
+	 *
+	 */
+	private final ByteBuffer buffer;
+
+	/**
+	 * Quantidade de bytes já enviados ao canal.
+	 *
+	 */
+	private long bytesEnviados;
+
+	/**
+	 * CRC32 da seção em andamento.
+	 *
+	 */
+	private final CRC32 crc;
+
+	/**
+	 * Posição do buffer a partir da qual os bytes ainda não entraram no CRC, ou
+	 * -1 se não há seção em andamento.
+	 *
+	 */
+	private int inicioCrc;
+
+	/**
+	 * Construtor que escreve o snapshot em um canal, com o buffer padrão.
+	 *
+	 * @param canal O canal de destino.
+	 */
+	public SaidaSnapshot(WritableByteChannel canal) {
+		this(canal, TAMANHO_BUFFER);
+	}
+
+	/**
+	 * Construtor que escreve o snapshot em um fluxo.
+	 *
+	 * @param saida O fluxo de destino.
+	 */
+	public SaidaSnapshot(OutputStream saida) {
+		this(saida, 1 << 16);
+	}
+
+	/**
+	 * Construtor que escreve o snapshot em um fluxo, com um buffer comum do
+	 * tamanho informado (o fluxo copia os bytes para a memória do heap de
+	 * qualquer forma, então um buffer direto não traz vantagem).
+	 *
+	 * @param saida         O fluxo de destino.
+	 * @param tamanhoBuffer O tamanho do buffer, em bytes.
+	 */
+	public SaidaSnapshot(OutputStream saida, int tamanhoBuffer) {
+		this(Channels.newChannel(saida), ByteBuffer.allocate(tamanhoBuffer));
+	}
+
+	/**
+	 * Construtor que escreve o snapshot em um canal, com um buffer direto do
+	 * tamanho informado.
+	 *
+	 * @param canal         O canal de destino.
+	 * @param tamanhoBuffer O tamanho do buffer, em bytes.
+	 */
+	public SaidaSnapshot(WritableByteChannel canal, int tamanhoBuffer) {
+		this(canal, ByteBuffer.allocateDirect(tamanhoBuffer));
+	}
+
+	/**
+	 * Construtor que escreve o snapshot em um canal usando o buffer informado.
+	 *
+	 * @param canal  O canal de destino.
+	 * @param buffer O buffer onde os valores são acumulados.
+	 */
+	private SaidaSnapshot(WritableByteChannel canal, ByteBuffer buffer) {
+		this.canal = canal;
+		this.buffer = buffer;
+		this.crc = new CRC32();
+		this.inicioCrc = -1;
+	}
+
+	/**
+	 * Método que escreve um inteiro de 32 bits em tamanho fixo.
+	 *
+	 * @param valor O valor a ser escrito.
+	 * @throws IOException Se a escrita falhar.
+	 */
+	public void escreveInteiroFixo(int valor) throws IOException {
+		this.garante(4);
+		this.buffer.putInt(valor);
+	}
+
+	/**
+	 * Método que escreve um inteiro de 64 bits em tamanho fixo.
+	 *
+	 * @param valor O valor a ser escrito.
+	 * @throws IOException Se a escrita falhar.
+	 */
+	public void escreveLongo(long valor) throws IOException {
+		this.garante(8);
+		this.buffer.putLong(valor);
+	}
+
+	/**
+	 * Método que escreve um inteiro em tamanho variável.
+	 *
+	 * @param valor O valor a ser escrito.
+	 * @throws IOException Se a escrita falhar.
+	 */
+	public void escreveInteiro(int valor) throws IOException {
+		this.garante(5);
+		int restante = (valor << 1) ^ (valor >> 31);
+		while ((restante & ~0x7F) != 0) {
+			this.buffer.put((byte) ((restante & 0x7F) | 0x80));
+			restante >>>= 7;
+		}
+		this.buffer.put((byte) restante);
+	}
+
+	/**
+	 * Método que escreve um número real.
+	 *
+	 * @param valor O valor a ser escrito.
+	 * @throws IOException Se a escrita falhar.
+	 */
+	public void escreveDecimal(double valor) throws IOException {
+		this.garante(8);
+		this.buffer.putDouble(valor);
+	}
+
+	/**
+	 * Método que escreve um booleano.
+	 *
+	 * @param valor O valor a ser escrito.
+	 * @throws IOException Se a escrita falhar.
+	 */
+	public void escreveBooleano(boolean valor) throws IOException {
+		this.garante(1);
+		this.buffer.put((byte) (valor ? 1 : 0));
+	}
+
+	/**
+	 * Método que escreve um texto, que pode ser nulo.
+	 *
+	 * @param texto O texto a ser escrito.
+	 * @throws IOException Se a escrita falhar.
+	 */
+	public void escreveTexto(String texto) throws IOException {
+		if (texto == null) {
+			this.escreveInteiro(0);
+			return;
+		}
+		if (this.dicionario != null && texto.length() <= TAMANHO_MAXIMO_DICIONARIO) {
+			Integer posicao = this.dicionario.get(texto);
+			if (posicao != null) {
+				this.escreveInteiro(-posicao - 1);
+				return;
+			}
+			this.dicionario.put(texto, this.dicionario.size());
+		}
+		byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+		this.escreveInteiro(bytes.length + 1);
+		this.escreveBytes(bytes);
+	}
+
+	/**
+	 * Método que escreve uma sequência de bytes, em partes se ela não couber no
+	 * buffer.
+	 *
+	 * @param bytes Os bytes a serem escritos.
+	 * @throws IOException Se a escrita falhar.
+	 */
+	public void escreveBytes(byte[] bytes) throws IOException {
+		int escritos = 0;
+		while (escritos < bytes.length) {
+			if (!this.buffer.hasRemaining()) {
+				this.esvazia();
+			}
+			int parte = Math.min(this.buffer.remaining(), bytes.length - escritos);
+			this.buffer.put(bytes, escritos, parte);
+			escritos += parte;
+		}
+	}
+
+	/**
+	 * Método que inicia uma seção verificada por CRC32.
+	 *
+	 */
+	public void iniciaSecao() {
+		this.crc.reset();
+		this.inicioCrc = this.buffer.position();
+	}
+
+	/**
+	 * Método que termina a seção em andamento, escrevendo o CRC32 dos bytes
+	 * escritos desde o seu início.
+	 *
+	 * @throws IOException Se a escrita falhar.
+	 */
+	public void terminaSecao() throws IOException {
+		this.atualizaCrc();
+		this.inicioCrc = -1;
+		this.escreveInteiroFixo((int) this.crc.getValue());
+	}
+
+	/**
+	 * Método que passa a escrever cada texto curto por inteiro só na primeira
+	 * vez; nas seguintes, é escrita apenas a sua posição no dicionário, como um
+	 * inteiro negativo. A leitura precisa chamar
+	 * {@link EntradaSnapshot#usaDicionario()} no mesmo ponto.
+	 *
+	 */
+	public void usaDicionario() {
+		this.dicionario = new HashMap<>();
+	}
+
+	/**
+	 * Método que passa a comprimir com deflate tudo o que for escrito a partir
+	 * daqui. A leitura precisa chamar {@link EntradaSnapshot#descomprime()} no
+	 * mesmo ponto, e a escrita precisa terminar com {@link #termina()}.
+	 *
+	 * @param nivel O nível de compressão do {@link Deflater}.
+	 * @throws IOException Se a escrita do que está no buffer falhar.
+	 */
+	public void comprime(int nivel) throws IOException {
+		this.esvazia();
+		this.bytesAntesCompressao = this.bytesEnviados;
+		this.compressor = new Deflater(nivel);
+		this.fluxoComprimido = new DeflaterOutputStream(Channels.newOutputStream(this.canal), this.compressor,
+				1 << 16);
+		this.canal = Channels.newChannel(this.fluxoComprimido);
+	}
+
+	/**
+	 * Método que envia ao canal o que ainda está no buffer.
+	 *
+	 * @throws IOException Se a escrita falhar.
+	 */
+	public void descarrega() throws IOException {
+		this.esvazia();
+	}
+
+	/**
+	 * Método que envia ao canal o que ainda está no buffer e, se a saída é
+	 * comprimida, termina a compressão. Nada mais pode ser escrito depois.
+	 *
+	 * @throws IOException Se a escrita falhar.
+	 */
+	public void termina() throws IOException {
+		this.esvazia();
+		if (this.compressor != null) {
+			this.fluxoComprimido.finish();
+			this.bytesEnviados = this.bytesAntesCompressao + this.compressor.getBytesWritten();
+			this.compressor.end();
+			this.compressor = null;
+		}
+	}
+
+	/**
+	 * Método que retorna a quantidade de bytes escritos até agora, incluindo os
+	 * que ainda estão no buffer. Se a saída é comprimida, só depois de
+	 * {@link #termina()} a quantidade é a que chegou ao destino.
+	 *
+	 * @return A quantidade de bytes escritos.
+	 */
+	public long getBytesEscritos() {
+		return this.bytesEnviados + this.buffer.position();
+	}
+
+	/**
+	 * Método interno que esvazia o buffer se não houver espaço para um valor.
+	 *
+	 * @param tamanho O tamanho do valor a ser escrito.
+	 * @throws IOException Se a escrita falhar.
+	 */
+	private void garante(int tamanho) throws IOException {
+		if (this.buffer.remaining() < tamanho) {
+			this.esvazia();
+		}
+	}
+
+	/**
+	 * Método interno que envia todo o conteúdo do buffer ao canal.
+	 *
+	 * @throws IOException Se a escrita falhar.
+	 */
+	private void esvazia() throws IOException {
+		this.atualizaCrc();
+		this.buffer.flip();
+		while (this.buffer.hasRemaining()) {
+			this.bytesEnviados += this.canal.write(this.buffer);
+		}
+		this.buffer.clear();
+		if (this.inicioCrc >= 0) {
+			this.inicioCrc = 0;
+		}
+	}
+
+	/**
+	 * Método interno que acrescenta ao CRC32 da seção os bytes do buffer que
+	 * ainda não entraram nele.
+	 *
+	 */
+	private void atualizaCrc() {
+		if (this.inicioCrc < 0) {
+			return;
+		}
+		ByteBuffer pendentes = this.buffer.duplicate();
+		pendentes.flip();
+		pendentes.position(this.inicioCrc);
+		this.crc.update(pendentes);
+		this.inicioCrc = this.buffer.position();
+	}
+}
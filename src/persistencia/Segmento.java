@@ -0,0 +1,102 @@
+package persistencia;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Segmentos de um {@link ArquivoSegmentado}, um por tipo de entidade, na ordem
+ * em que são lidos. O código de cada um é gravado no arquivo e não pode mudar
+ * entre versões.
+ *
+ */
+public enum Segmento {
+
+	/**
+	 * Problemas e objetivos.
+	 *
+	 */
+	PROBLEMAS_OBJETIVOS(0),
+
+	/**
+	 * Atividades, com os itens e os resultados.
+	 *
+	 */
+	ATIVIDADES(1),
+
+	/**
+	 * Pesquisas, que referenciam problemas, objetivos e atividades.
+	 *
+	 */
+	PESQUISAS(2, PROBLEMAS_OBJETIVOS, ATIVIDADES),
+
+	/**
+	 * Pesquisadores, que referenciam pesquisas.
+	 *
+	 */
+	PESQUISADORES(3, PESQUISAS);
+
+	/**
+	 * Código gravado no arquivo.
+	 *
+	 */
+	private final int codigo;
+
+	/**
+	 * Segmentos cujas entidades são referenciadas por este.
+	 *
+	 */
+	private final Segmento[] dependencias;
+
+	/**
+	 * Construtor do segmento.
+	 *
+	 * @param codigo       O código gravado no arquivo.
+	 * @param dependencias Os segmentos cujas entidades são referenciadas por
+	 *                     este.
+	 */
+	Segmento(int codigo, Segmento... dependencias) {
+		this.codigo = codigo;
+		this.dependencias = dependencias;
+	}
+
+	/**
+	 * Método que retorna o código gravado no arquivo.
+	 *
+	 * @return O código.
+	 */
+	public int getCodigo() {
+		return this.codigo;
+	}
+
+	/**
+	 * Método que retorna os segmentos informados e todos aqueles de que eles
+	 * dependem, direta ou indiretamente.
+	 *
+	 * @param segmentos Os segmentos pedidos.
+	 * @return Os segmentos necessários para lê-los.
+	 */
+	public static Set<Segmento> necessarios(Segmento... segmentos) {
+		Set<Segmento> necessarios = EnumSet.noneOf(Segmento.class);
+		for (Segmento segmento : segmentos) {
+			if (necessarios.add(segmento)) {
+				necessarios.addAll(necessarios(segmento.dependencias));
+			}
+		}
+		return necessarios;
+	}
+
+	/**
+	 * Método que retorna o segmento de um código.
+	 *
+	 * @param codigo O código gravado no arquivo.
+	 * @return O segmento, ou null se o código não existe.
+	 */
+	public static Segmento doCodigo(int codigo) {
+		for (Segmento segmento : values()) {
+			if (segmento.codigo == codigo) {
+				return segmento;
+			}
+		}
+		return null;
+	}
+}
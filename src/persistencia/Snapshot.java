@@ -0,0 +1,1080 @@
+package persistencia;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.zip.Deflater;
+
+import controladores.ControllerAtividade;
+import controladores.ControllerGeral;
+import controladores.ControllerPesquisa;
+import controladores.ControllerPesquisador;
+import controladores.ControllerProblemaObjetivo;
+import modulos.Atividade;
+import modulos.Objetivo;
+import modulos.Pesquisa;
+import modulos.Pesquisador;
+import modulos.Problema;
+import modulos.Rastreavel;
+
+/**
+ * Classe que grava e lê o estado completo do sistema ({@link ControllerGeral})
+ * em um snapshot binário versionado.
+ *
+ * O snapshot começa com uma assinatura e o número da versão do formato, seguidos
+ * do número de sequência do último registro do {@link Diario} que ele contém
+ * (a partir da versão 2), da estratégia configurada, dos contadores de códigos e das seções de
+ * problemas, objetivos, atividades, pesquisas e pesquisadores, nessa ordem.
+ * Problemas, objetivos e atividades apagados do sistema mas ainda ligados a uma
+ * pesquisa também são gravados, marcados como não cadastrados. Os índices de
+ * busca não são gravados: são reconstruídos ao restaurar as entidades.
+ *
+ * A partir da versão 3, o cabeçalho e cada seção terminam com o CRC32 dos seus
+ * bytes, verificado na leitura. Um arquivo é gravado primeiro em um temporário,
+ * sincronizado com o disco e só então renomeado sobre o anterior, que passa a
+ * ser a geração seguinte ("arquivo.1", "arquivo.2", ...). Ao carregar, uma
+ * geração ilegível ou corrompida é ignorada em favor da anterior.
+ *
+ * A partir da versão 4, cada snapshot completo tem um identificador, e sobre
+ * ele podem ser gravados snapshots incrementais ("arquivo.delta.1",
+ * "arquivo.delta.2", ...) com apenas as entidades alteradas ({@link Rastreavel})
+ * desde o snapshot anterior. Ao carregar, os incrementais do snapshot atual são
+ * aplicados em ordem, até o primeiro ausente ou corrompido. Um novo snapshot
+ * completo (a compactação) apaga os incrementais.
+ *
+ * A partir da versão 5, o número da versão é seguido da {@link Compressao}
+ * escolhida na gravação, que vale para todo o restante do snapshot completo.
+ * Os incrementais, pequenos, não são comprimidos.
+ *
+ * A partir da versão 6, cada resultado de atividade é gravado com o seu
+ * número, que não muda quando outros resultados são removidos. Os incrementais
+ * usam o formato do snapshot completo sobre o qual são gravados, e por isso só
+ * são gravados sobre snapshots completos da versão atual.
+ *
+ * Arquivos gravados com a serialização Java ({@link modulos.Persistencia}) não
+ * são suportados: o sistema não é serializável e a leitura falha com um erro
+ * de formato.
+ *
+ */
+public class Snapshot {
+
+	/**
+	 * Assinatura que identifica um snapshot ("PSQZ").
+	 *
+	 */
+	public static final int ASSINATURA = 0x5053515A;
+
+	/**
+	 * Versão atual do formato do snapshot.
+	 *
+	 */
+	public static final int VERSAO = 6;
+
+	/**
+	 * Assinatura que identifica um snapshot incremental ("PSQD").
+	 *
+	 */
+	public static final int ASSINATURA_DELTA = 0x50535144;
+
+	/**
+	 * Versão atual do formato do snapshot incremental.
+	 *
+	 */
+	public static final int VERSAO_DELTA = 1;
+
+	/**
+	 * Quantidade padrão de gerações de um arquivo mantidas em disco.
+	 *
+	 */
+	public static final int GERACOES = 3;
+
+	/**
+	 * Primeiros bytes de um fluxo da serialização Java.
+	 *
+	 */
+	private static final int ASSINATURA_SERIALIZACAO = 0xACED;
+
+	/**
+	 * Codificador dos problemas.
+	 *
+	 */
+	private final CodecProblema codecProblema;
+
+	/**
+	 * Codificador dos objetivos.
+	 *
+	 */
+	private final CodecObjetivo codecObjetivo;
+
+	/**
+	 * Codificador das atividades.
+	 *
+	 */
+	private final CodecAtividade codecAtividade;
+
+	/**
+	 * Quantidade de gerações de um arquivo mantidas em disco.
+	 *
+	 */
+	private final int geracoes;
+
+	/**
+	 * Último arquivo lido com sucesso por {@link #carrega(Path)}.
+	 *
+	 */
+	private Path arquivoCarregado;
+
+	/**
+	 * Construtor que mantém a quantidade padrão de gerações.
+	 *
+	 */
+	public Snapshot() {
+		this(GERACOES);
+	}
+
+	/**
+	 * Construtor que mantém a quantidade de gerações informada.
+	 *
+	 * @param geracoes A quantidade de gerações, contando a atual.
+	 */
+	public Snapshot(int geracoes) {
+		if (geracoes < 1) {
+			throw new IllegalArgumentException("Quantidade de geracoes precisa ser positiva.");
+		}
+		this.codecProblema = new CodecProblema();
+		this.codecObjetivo = new CodecObjetivo();
+		this.codecAtividade = new CodecAtividade();
+		this.geracoes = geracoes;
+	}
+
+	/**
+	 * Método que grava o estado do sistema em um arquivo, criando o diretório se
+	 * necessário. A escrita usa um FileChannel com buffer direto grande e vai
+	 * para um arquivo temporário, sincronizado com o disco e então renomeado
+	 * sobre o destino; o arquivo anterior passa a ser a geração seguinte.
+	 *
+	 * @param controllerGeral O sistema a ser gravado.
+	 * @param arquivo         O arquivo de destino.
+	 * @return A quantidade de bytes escritos.
+	 * @throws IOException Se a escrita falhar. Nesse caso o destino não é
+	 *                     alterado.
+	 */
+	public long salva(ControllerGeral controllerGeral, Path arquivo) throws IOException {
+		return this.salva(controllerGeral, arquivo, Compressao.NENHUMA);
+	}
+
+	/**
+	 * Método que grava o estado do sistema em um arquivo com a compressão
+	 * escolhida, com as mesmas garantias de {@link #salva(ControllerGeral, Path)}.
+	 *
+	 * @param controllerGeral O sistema a ser gravado.
+	 * @param arquivo         O arquivo de destino.
+	 * @param compressao      A compressão do snapshot.
+	 * @return A quantidade de bytes escritos.
+	 * @throws IOException Se a escrita falhar. Nesse caso o destino não é
+	 *                     alterado.
+	 */
+	public long salva(ControllerGeral controllerGeral, Path arquivo, Compressao compressao) throws IOException {
+		long bytes = this.substitui(arquivo, true,
+				canal -> this.escreve(controllerGeral, new SaidaSnapshot(canal), true, compressao));
+		removeDeltas(arquivo, 1);
+		return bytes;
+	}
+
+	/**
+	 * Método que codifica o estado do sistema em memória, sem tocar no disco. O
+	 * resultado é uma cópia do estado naquele instante, que pode ser gravada
+	 * depois por {@link #grava(byte[], Path, LongConsumer)} enquanto o sistema
+	 * continua sendo alterado.
+	 *
+	 * @param controllerGeral O sistema a ser capturado.
+	 * @param compressao      A compressão do snapshot.
+	 * @return O snapshot codificado.
+	 * @throws IOException Se a codificação falhar.
+	 */
+	public byte[] captura(ControllerGeral controllerGeral, Compressao compressao) throws IOException {
+		ByteArrayOutputStream destino = new ByteArrayOutputStream(1 << 16);
+		this.escreve(controllerGeral, new SaidaSnapshot(destino), true, compressao);
+		return destino.toByteArray();
+	}
+
+	/**
+	 * Método que grava em um arquivo um snapshot já codificado por
+	 * {@link #captura(ControllerGeral, Compressao)}, com as mesmas garantias de
+	 * {@link #salva(ControllerGeral, Path)}.
+	 *
+	 * @param conteudo  O snapshot codificado.
+	 * @param arquivo   O arquivo de destino.
+	 * @param progresso Quem recebe a quantidade de bytes já gravados, a cada
+	 *                  bloco.
+	 * @return A quantidade de bytes escritos.
+	 * @throws IOException Se a escrita falhar. Nesse caso o destino não é
+	 *                     alterado.
+	 */
+	public long grava(byte[] conteudo, Path arquivo, LongConsumer progresso) throws IOException {
+		long bytes = this.substitui(arquivo, true, canal -> {
+			ByteBuffer buffer = ByteBuffer.wrap(conteudo);
+			while (buffer.hasRemaining()) {
+				buffer.limit(Math.min(conteudo.length, buffer.position() + SaidaSnapshot.TAMANHO_BUFFER));
+				while (buffer.hasRemaining()) {
+					canal.write(buffer);
+				}
+				progresso.accept(buffer.position());
+				buffer.limit(conteudo.length);
+			}
+			return conteudo.length;
+		});
+		removeDeltas(arquivo, 1);
+		return bytes;
+	}
+
+	/**
+	 * Método que informa se o próximo snapshot do sistema pode ser incremental:
+	 * o snapshot completo em disco precisa ser aquele de onde o estado veio, e
+	 * a quantidade de incrementais sobre ele não pode ter chegado ao máximo.
+	 *
+	 * @param controllerGeral O sistema a ser gravado.
+	 * @param arquivo         O arquivo do snapshot completo.
+	 * @param maximoDeltas    A quantidade máxima de incrementais antes de um
+	 *                        novo snapshot completo.
+	 * @return Se o próximo snapshot pode ser incremental.
+	 */
+	public boolean aceitaDelta(ControllerGeral controllerGeral, Path arquivo, int maximoDeltas) {
+		long identificador = controllerGeral.getIdentificadorSnapshot();
+		int numero = controllerGeral.getNumeroDelta();
+		if (identificador == 0 || numero >= maximoDeltas) {
+			return false;
+		}
+		if (numero > 0 && !Files.exists(arquivoDelta(arquivo, numero))) {
+			return false;
+		}
+		try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+			EntradaSnapshot entrada = new EntradaSnapshot(canal, 64);
+			if (entrada.leInteiroFixo() != ASSINATURA || leVersao(entrada) != VERSAO) {
+				return false;
+			}
+			entrada.leLongo();
+			return entrada.leLongo() == identificador;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Método que grava um snapshot incremental, com apenas as entidades
+	 * alteradas desde o snapshot anterior. Só deve ser chamado se
+	 * {@link #aceitaDelta(ControllerGeral, Path, int)} permitir. Se a escrita
+	 * falhar, o próximo snapshot do sistema precisa ser completo.
+	 *
+	 * @param controllerGeral O sistema a ser gravado.
+	 * @param arquivo         O arquivo do snapshot completo.
+	 * @return A quantidade de bytes escritos.
+	 * @throws IOException Se a escrita falhar.
+	 */
+	public long salvaDelta(ControllerGeral controllerGeral, Path arquivo) throws IOException {
+		long identificador = controllerGeral.getIdentificadorSnapshot();
+		int numero = controllerGeral.getNumeroDelta() + 1;
+		try {
+			long bytes = this.substitui(arquivoDelta(arquivo, numero), false, canal -> this
+					.escreveDelta(controllerGeral, identificador, numero, new SaidaSnapshot(canal)));
+			controllerGeral.setIdentificadorSnapshot(identificador, numero);
+			removeDeltas(arquivo, numero + 1);
+			return bytes;
+		} catch (IOException | RuntimeException e) {
+			controllerGeral.setIdentificadorSnapshot(0, 0);
+			throw e;
+		}
+	}
+
+	/**
+	 * Método que retorna o caminho de um snapshot incremental.
+	 *
+	 * @param arquivo O arquivo do snapshot completo.
+	 * @param numero  O número do incremental, a partir de 1.
+	 * @return O caminho do incremental.
+	 */
+	public static Path arquivoDelta(Path arquivo, int numero) {
+		return arquivo.resolveSibling(arquivo.getFileName() + ".delta." + numero);
+	}
+
+	/**
+	 * Método interno que escreve um arquivo novo em um temporário, sincroniza com
+	 * o disco e o renomeia sobre o destino, deslocando as gerações anteriores.
+	 *
+	 * @param arquivo    O arquivo de destino.
+	 * @param rotaciona  Se o arquivo anterior deve ser mantido como geração.
+	 * @param escrita    Quem escreve o conteúdo no temporário.
+	 * @return A quantidade de bytes escritos.
+	 * @throws IOException Se a escrita falhar. Nesse caso o destino não é
+	 *                     alterado.
+	 */
+	long substitui(Path arquivo, boolean rotaciona, Escrita escrita) throws IOException {
+		Path diretorio = arquivo.toAbsolutePath().getParent();
+		if (diretorio != null) {
+			Files.createDirectories(diretorio);
+		}
+		Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+		long bytes;
+		try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			bytes = escrita.escreve(canal);
+			canal.force(true);
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(temporario);
+			throw e;
+		}
+		if (rotaciona) {
+			this.rotaciona(arquivo);
+		}
+		move(temporario, arquivo);
+		sincroniza(diretorio);
+		return bytes;
+	}
+
+	/**
+	 * Método que grava o estado do sistema em um fluxo. O fluxo não é fechado.
+	 *
+	 * @param controllerGeral O sistema a ser gravado.
+	 * @param destino         O fluxo de destino.
+	 * @return A quantidade de bytes escritos.
+	 * @throws IOException Se a escrita falhar.
+	 */
+	public long salva(ControllerGeral controllerGeral, OutputStream destino) throws IOException {
+		return this.salva(controllerGeral, destino, Compressao.NENHUMA);
+	}
+
+	/**
+	 * Método que grava o estado do sistema em um fluxo com a compressão
+	 * escolhida. O fluxo não é fechado.
+	 *
+	 * @param controllerGeral O sistema a ser gravado.
+	 * @param destino         O fluxo de destino.
+	 * @param compressao      A compressão do snapshot.
+	 * @return A quantidade de bytes escritos.
+	 * @throws IOException Se a escrita falhar.
+	 */
+	public long salva(ControllerGeral controllerGeral, OutputStream destino, Compressao compressao)
+			throws IOException {
+		return this.escreve(controllerGeral, new SaidaSnapshot(destino), false, compressao);
+	}
+
+	/**
+	 * Método interno que grava o estado do sistema.
+	 *
+	 * @param controllerGeral O sistema a ser gravado.
+	 * @param saida           O destino da escrita.
+	 * @param base            Se o snapshot passa a ser a base dos próximos
+	 *                        incrementais: recebe um identificador novo e as
+	 *                        entidades deixam de estar alteradas.
+	 * @param compressao      A compressão do snapshot.
+	 * @return A quantidade de bytes escritos.
+	 * @throws IOException Se a escrita falhar.
+	 */
+	private long escreve(ControllerGeral controllerGeral, SaidaSnapshot saida, boolean base, Compressao compressao)
+			throws IOException {
+		long identificador = 0;
+		if (base) {
+			identificador = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+			controllerGeral.setIdentificadorSnapshot(identificador, 0);
+		}
+		Entidades entidades = new Entidades(controllerGeral);
+
+		saida.escreveInteiroFixo(ASSINATURA);
+		saida.escreveInteiro(VERSAO);
+		saida.escreveInteiro(compressao.getCodigo());
+		if (compressao.usaDeflate()) {
+			saida.comprime(Deflater.DEFAULT_COMPRESSION);
+		}
+		if (compressao.usaDicionario()) {
+			saida.usaDicionario();
+		}
+		saida.iniciaSecao();
+		saida.escreveLongo(controllerGeral.getSequenciaDiario());
+		saida.escreveLongo(identificador);
+		escreveContadores(saida, controllerGeral);
+		saida.terminaSecao();
+		escreveSecao(saida, entidades.problemas, this.codecProblema, true, base);
+		escreveSecao(saida, entidades.objetivos, this.codecObjetivo, true, base);
+		escreveSecao(saida, entidades.atividades, this.codecAtividade, true, base);
+		escreveSecao(saida, entidades.pesquisas, entidades.codecPesquisa, false, base);
+		escreveSecao(saida, entidades.pesquisadores, entidades.codecPesquisador, false, base);
+		saida.termina();
+		return saida.getBytesEscritos();
+	}
+
+	/**
+	 * Método interno que grava um snapshot incremental.
+	 *
+	 * @param controllerGeral O sistema a ser gravado.
+	 * @param identificador   O identificador do snapshot completo.
+	 * @param numero          O número do incremental.
+	 * @param saida           O destino da escrita.
+	 * @return A quantidade de bytes escritos.
+	 * @throws IOException Se a escrita falhar.
+	 */
+	private long escreveDelta(ControllerGeral controllerGeral, long identificador, int numero, SaidaSnapshot saida)
+			throws IOException {
+		Entidades entidades = new Entidades(controllerGeral);
+
+		saida.escreveInteiroFixo(ASSINATURA_DELTA);
+		saida.escreveInteiro(VERSAO_DELTA);
+		saida.iniciaSecao();
+		saida.escreveLongo(identificador);
+		saida.escreveInteiro(numero);
+		saida.escreveLongo(controllerGeral.getSequenciaDiario());
+		escreveContadores(saida, controllerGeral);
+		saida.terminaSecao();
+		escreveSecaoDelta(saida, entidades.problemas, this.codecProblema, Problema::getCodigo);
+		escreveSecaoDelta(saida, entidades.objetivos, this.codecObjetivo, Objetivo::getCodigo);
+		escreveSecaoDelta(saida, entidades.atividades, this.codecAtividade, Atividade::getCodigo);
+		escreveSecaoDelta(saida, entidades.pesquisas, entidades.codecPesquisa, Pesquisa::getCodigo);
+		escreveSecaoDelta(saida, entidades.pesquisadores, entidades.codecPesquisador, Pesquisador::getEmail);
+		saida.descarrega();
+		return saida.getBytesEscritos();
+	}
+
+	/**
+	 * Método que escreve a estratégia configurada e os contadores de códigos.
+	 *
+	 * @param saida           O destino da escrita.
+	 * @param controllerGeral O sistema a ser gravado.
+	 * @throws IOException Se a escrita falhar.
+	 */
+	static void escreveContadores(SaidaSnapshot saida, ControllerGeral controllerGeral) throws IOException {
+		ControllerProblemaObjetivo controllerProblemaObjetivo = controllerGeral.getControllerProblemaObjetivo();
+		saida.escreveTexto(controllerGeral.getControllerPesquisa().getNomeEstrategia());
+		saida.escreveInteiro(controllerProblemaObjetivo.getCodigoProblema());
+		saida.escreveInteiro(controllerProblemaObjetivo.getCodigoObjetivo());
+		saida.escreveInteiro(controllerGeral.getControllerAtividade().getCodigo());
+	}
+
+	/**
+	 * Método que lê o estado do sistema de um arquivo, reconstruindo os índices
+	 * de busca. Se o arquivo não existir ou estiver corrompido, as gerações
+	 * anteriores são tentadas, da mais recente para a mais antiga.
+	 *
+	 * @param arquivo O arquivo de origem.
+	 * @return O sistema restaurado.
+	 * @throws IOException Se nenhuma geração puder ser lida. A exceção da
+	 *                     geração atual é lançada, com as demais suprimidas.
+	 */
+	public ControllerGeral carrega(Path arquivo) throws IOException {
+		IOException falha = null;
+		for (int i = 0; i < this.geracoes; i++) {
+			Path geracao = geracao(arquivo, i);
+			if (i > 0 && !Files.exists(geracao)) {
+				continue;
+			}
+			try {
+				ControllerGeral controllerGeral = this.carregaArquivo(geracao, arquivo);
+				this.arquivoCarregado = geracao;
+				return controllerGeral;
+			} catch (IOException e) {
+				if (falha == null) {
+					falha = e;
+				} else {
+					falha.addSuppressed(e);
+				}
+			}
+		}
+		throw falha;
+	}
+
+	/**
+	 * Método que retorna o último arquivo lido com sucesso por
+	 * {@link #carrega(Path)}, que pode ser uma geração anterior à pedida.
+	 *
+	 * @return O arquivo lido, ou null se nenhum foi lido.
+	 */
+	public Path getArquivoCarregado() {
+		return this.arquivoCarregado;
+	}
+
+	/**
+	 * Método que retorna o menor número de sequência do {@link Diario} entre as
+	 * gerações legíveis de um arquivo. Os registros do diário posteriores a ele
+	 * ainda são necessários para recuperar qualquer geração.
+	 *
+	 * @param arquivo O arquivo atual.
+	 * @return O menor número de sequência, ou 0 se alguma geração não o tiver.
+	 */
+	public long menorSequencia(Path arquivo) {
+		long menor = Long.MAX_VALUE;
+		for (int i = 0; i < this.geracoes; i++) {
+			Path geracao = geracao(arquivo, i);
+			if (!Files.exists(geracao)) {
+				continue;
+			}
+			try (FileChannel canal = FileChannel.open(geracao, StandardOpenOption.READ)) {
+				EntradaSnapshot entrada = new EntradaSnapshot(canal, 64);
+				if (entrada.leInteiroFixo() != ASSINATURA) {
+					return 0;
+				}
+				menor = Math.min(menor, leVersao(entrada) >= 2 ? entrada.leLongo() : 0);
+			} catch (IOException e) {
+				continue;
+			}
+		}
+		return menor == Long.MAX_VALUE ? 0 : menor;
+	}
+
+	/**
+	 * Método interno que lê o estado do sistema de um único arquivo, aplicando
+	 * os incrementais gravados sobre ele. A leitura usa um FileChannel com
+	 * buffer direto grande.
+	 *
+	 * @param arquivo        O arquivo de origem.
+	 * @param arquivoDeltas O arquivo atual, de onde saem os nomes dos
+	 *                       incrementais.
+	 * @return O sistema restaurado.
+	 * @throws IOException Se a leitura falhar ou o snapshot for inválido.
+	 */
+	private ControllerGeral carregaArquivo(Path arquivo, Path arquivoDeltas) throws IOException {
+		try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+			ByteBuffer inicio = ByteBuffer.allocate(2);
+			canal.read(inicio, 0);
+			if (inicio.position() == 2 && (inicio.getShort(0) & 0xFFFF) == ASSINATURA_SERIALIZACAO) {
+				throw formatoNaoSuportado();
+			}
+			return this.le(new EntradaSnapshot(canal), arquivoDeltas);
+		}
+	}
+
+	/**
+	 * Método que lê o estado do sistema de um fluxo, reconstruindo os índices de
+	 * busca. O fluxo não é fechado.
+	 *
+	 * @param origem O fluxo de origem.
+	 * @return O sistema restaurado.
+	 * @throws IOException Se a leitura falhar ou o snapshot for inválido.
+	 */
+	public ControllerGeral carrega(InputStream origem) throws IOException {
+		BufferedInputStream entradaBruta = new BufferedInputStream(origem);
+		entradaBruta.mark(2);
+		int inicio = (entradaBruta.read() << 8) | entradaBruta.read();
+		entradaBruta.reset();
+		if (inicio == ASSINATURA_SERIALIZACAO) {
+			throw formatoNaoSuportado();
+		}
+		return this.le(new EntradaSnapshot(entradaBruta), null);
+	}
+
+	/**
+	 * Método interno que lê o estado do sistema.
+	 *
+	 * @param entrada       A origem da leitura.
+	 * @param arquivoDeltas O arquivo de onde saem os nomes dos incrementais a
+	 *                      aplicar, ou null para não aplicar incrementais.
+	 * @return O sistema restaurado.
+	 * @throws IOException Se a leitura falhar ou o snapshot for inválido.
+	 */
+	private ControllerGeral le(EntradaSnapshot entrada, Path arquivoDeltas) throws IOException {
+		if (entrada.leInteiroFixo() != ASSINATURA) {
+			throw new IOException("Arquivo nao e um snapshot do sistema.");
+		}
+		int versao = leVersao(entrada);
+		boolean verificado = versao >= 3;
+
+		iniciaSecao(entrada, verificado);
+		long sequenciaDiario = versao >= 2 ? entrada.leLongo() : 0;
+		long identificador = versao >= 4 ? entrada.leLongo() : 0;
+		String estrategia = entrada.leTexto();
+		int codigoProblema = entrada.leInteiro();
+		int codigoObjetivo = entrada.leInteiro();
+		int codigoAtividade = entrada.leInteiro();
+		verificaSecao(entrada, verificado, "cabecalho");
+
+		Delta delta = arquivoDeltas == null ? null : this.leDeltas(arquivoDeltas, identificador);
+		if (delta != null) {
+			sequenciaDiario = delta.sequenciaDiario;
+			estrategia = delta.estrategia;
+			codigoProblema = delta.codigoProblema;
+			codigoObjetivo = delta.codigoObjetivo;
+			codigoAtividade = delta.codigoAtividade;
+		}
+
+		ControllerPesquisa controllerPesquisa = new ControllerPesquisa();
+		ControllerProblemaObjetivo controllerProblemaObjetivo = new ControllerProblemaObjetivo();
+		ControllerPesquisador controllerPesquisador = new ControllerPesquisador();
+		ControllerAtividade controllerAtividade = new ControllerAtividade();
+
+		Map<String, Problema> problemas = leSecao(entrada, verificado, "problemas", true, this.codecProblema,
+				Problema::getCodigo, delta == null ? null : delta.problemas,
+				controllerProblemaObjetivo::restauraProblema);
+		Map<String, Objetivo> objetivos = leSecao(entrada, verificado, "objetivos", true, this.codecObjetivo,
+				Objetivo::getCodigo, delta == null ? null : delta.objetivos,
+				controllerProblemaObjetivo::restauraObjetivo);
+		Map<String, Atividade> atividades = leSecao(entrada, verificado, "atividades", true,
+				versao >= 6 ? this.codecAtividade : new CodecAtividade(false), Atividade::getCodigo,
+				delta == null ? null : delta.atividades, controllerAtividade::restauraAtividade);
+		Map<String, Pesquisa> pesquisas = leSecao(entrada, verificado, "pesquisas", false,
+				new CodecPesquisa(problemas::get, objetivos::get, atividades::get), Pesquisa::getCodigo,
+				delta == null ? null : delta.pesquisas, controllerPesquisa::restauraPesquisa);
+		leSecao(entrada, verificado, "pesquisadores", false, new CodecPesquisador(pesquisas::get), Pesquisador::getEmail,
+				delta == null ? null : delta.pesquisadores, controllerPesquisador::restauraPesquisador);
+
+		controllerPesquisa.configuraEstrategia(estrategia);
+		controllerProblemaObjetivo.restauraCodigos(codigoProblema, codigoObjetivo);
+		controllerAtividade.restauraCodigo(codigoAtividade);
+		ControllerGeral controllerGeral = new ControllerGeral(controllerPesquisa, controllerProblemaObjetivo,
+				controllerPesquisador, controllerAtividade);
+		controllerGeral.setSequenciaDiario(sequenciaDiario);
+		controllerGeral.setIdentificadorSnapshot(identificador, delta == null ? 0 : delta.quantidade);
+		return controllerGeral;
+	}
+
+	/**
+	 * Método interno que lê uma seção de entidades do snapshot completo e
+	 * aplica sobre ela os incrementais, restaurando no sistema as entidades
+	 * cadastradas. As entidades lidas deixam de estar alteradas.
+	 *
+	 * @param entrada    A origem da leitura.
+	 * @param verificado Se a versão lida tem CRC por seção.
+	 * @param nome       O nome da seção.
+	 * @param marcadas   Se cada entidade é precedida da marcação de cadastrada.
+	 * @param codec      O codificador das entidades.
+	 * @param codigo     O código de uma entidade.
+	 * @param delta      A mesma seção nos incrementais, ou null.
+	 * @param restaura   Quem restaura no sistema uma entidade cadastrada.
+	 * @return Todas as entidades lidas, pelo código, para resolver referências.
+	 * @throws IOException Se a leitura falhar ou a seção for inválida.
+	 */
+	static <T extends Rastreavel> Map<String, T> leSecao(EntradaSnapshot entrada, boolean verificado,
+			String nome, boolean marcadas, Codec<T> codec, Function<T, String> codigo, Delta.Secao delta,
+			Consumer<T> restaura) throws IOException {
+		Map<String, T> lidas = new HashMap<>();
+		Map<String, Boolean> cadastradas = new LinkedHashMap<>();
+		iniciaSecao(entrada, verificado);
+		int quantidade = entrada.leTamanho();
+		for (int i = 0; i < quantidade; i++) {
+			boolean cadastrada = !marcadas || entrada.leBooleano();
+			T entidade = codec.le(entrada);
+			lidas.put(codigo.apply(entidade), entidade);
+			cadastradas.put(codigo.apply(entidade), cadastrada);
+		}
+		verificaSecao(entrada, verificado, nome);
+
+		if (delta != null) {
+			for (Map.Entry<String, byte[]> registro : delta.registros.entrySet()) {
+				lidas.put(registro.getKey(), codec.le(new EntradaSnapshot(ByteBuffer.wrap(registro.getValue()))));
+			}
+			cadastradas = delta.codigos;
+		}
+		for (Map.Entry<String, Boolean> cadastrada : cadastradas.entrySet()) {
+			T entidade = CodecPesquisa.resolve(lidas::get, cadastrada.getKey());
+			if (cadastrada.getValue()) {
+				restaura.accept(entidade);
+			}
+		}
+		for (T entidade : lidas.values()) {
+			entidade.limpaAlteracao();
+		}
+		return lidas;
+	}
+
+	/**
+	 * Método que lê a versão de um snapshot completo e, a partir da versão 5,
+	 * a compressão usada, preparando a leitura do restante.
+	 *
+	 * @param entrada A origem da leitura, logo depois da assinatura.
+	 * @return A versão lida.
+	 * @throws IOException Se a versão ou a compressão não forem suportadas.
+	 */
+	private static int leVersao(EntradaSnapshot entrada) throws IOException {
+		int versao = entrada.leInteiro();
+		if (versao < 1 || versao > VERSAO) {
+			throw new IOException("Versao de snapshot nao suportada: " + versao + ".");
+		}
+		if (versao >= 5) {
+			int codigo = entrada.leInteiro();
+			Compressao compressao = Compressao.doCodigo(codigo);
+			if (compressao == null) {
+				throw new IOException("Compressao de snapshot nao suportada: " + codigo + ".");
+			}
+			if (compressao.usaDeflate()) {
+				entrada.descomprime();
+			}
+			if (compressao.usaDicionario()) {
+				entrada.usaDicionario();
+			}
+		}
+		return versao;
+	}
+
+	/**
+	 * Método interno que lê, em ordem, os incrementais gravados sobre um
+	 * snapshot completo, parando no primeiro ausente, corrompido ou de outro
+	 * snapshot.
+	 *
+	 * @param arquivo       O arquivo do snapshot completo.
+	 * @param identificador O identificador do snapshot completo.
+	 * @return Os incrementais acumulados, ou null se não houver nenhum.
+	 */
+	private Delta leDeltas(Path arquivo, long identificador) {
+		if (identificador == 0) {
+			return null;
+		}
+		Delta acumulado = new Delta();
+		for (int numero = 1;; numero++) {
+			Path incremental = arquivoDelta(arquivo, numero);
+			if (!Files.exists(incremental)) {
+				break;
+			}
+			try (FileChannel canal = FileChannel.open(incremental, StandardOpenOption.READ)) {
+				acumulado.aplica(leDelta(new EntradaSnapshot(canal), identificador, numero));
+			} catch (IOException e) {
+				break;
+			}
+		}
+		return acumulado.quantidade == 0 ? null : acumulado;
+	}
+
+	/**
+	 * Método interno que lê um snapshot incremental.
+	 *
+	 * @param entrada       A origem da leitura.
+	 * @param identificador O identificador esperado do snapshot completo.
+	 * @param numero        O número esperado do incremental.
+	 * @return O incremental lido.
+	 * @throws IOException Se a leitura falhar ou o incremental não for o
+	 *                     esperado.
+	 */
+	private static Delta leDelta(EntradaSnapshot entrada, long identificador, int numero) throws IOException {
+		if (entrada.leInteiroFixo() != ASSINATURA_DELTA) {
+			throw new IOException("Arquivo nao e um snapshot incremental.");
+		}
+		int versao = entrada.leInteiro();
+		if (versao != VERSAO_DELTA) {
+			throw new IOException("Versao de snapshot incremental nao suportada: " + versao + ".");
+		}
+		Delta delta = new Delta();
+		entrada.iniciaSecao();
+		if (entrada.leLongo() != identificador || entrada.leInteiro() != numero) {
+			throw new IOException("Snapshot incremental de outro snapshot.");
+		}
+		delta.sequenciaDiario = entrada.leLongo();
+		delta.estrategia = entrada.leTexto();
+		delta.codigoProblema = entrada.leInteiro();
+		delta.codigoObjetivo = entrada.leInteiro();
+		delta.codigoAtividade = entrada.leInteiro();
+		entrada.verificaSecao("cabecalho");
+		leSecaoDelta(entrada, delta.problemas, "problemas");
+		leSecaoDelta(entrada, delta.objetivos, "objetivos");
+		leSecaoDelta(entrada, delta.atividades, "atividades");
+		leSecaoDelta(entrada, delta.pesquisas, "pesquisas");
+		leSecaoDelta(entrada, delta.pesquisadores, "pesquisadores");
+		return delta;
+	}
+
+	/**
+	 * Método interno que lê uma seção de um snapshot incremental: o código de
+	 * cada entidade, se está cadastrada e, se foi alterada, o seu conteúdo.
+	 *
+	 * @param entrada A origem da leitura.
+	 * @param secao   Onde a seção é guardada.
+	 * @param nome    O nome da seção.
+	 * @throws IOException Se a leitura falhar ou a seção estiver corrompida.
+	 */
+	private static void leSecaoDelta(EntradaSnapshot entrada, Delta.Secao secao, String nome) throws IOException {
+		entrada.iniciaSecao();
+		int quantidade = entrada.leTamanho();
+		for (int i = 0; i < quantidade; i++) {
+			String codigo = entrada.leTexto();
+			secao.codigos.put(codigo, entrada.leBooleano());
+			if (entrada.leBooleano()) {
+				secao.registros.put(codigo, entrada.leBytes(entrada.leTamanho()));
+			}
+		}
+		entrada.verificaSecao(nome);
+	}
+
+	/**
+	 * Método que escreve uma seção de entidades, cada uma precedida, se pedido,
+	 * da marcação de que ainda está cadastrada no sistema.
+	 *
+	 * @param saida     O destino da escrita.
+	 * @param entidades As entidades e se estão cadastradas.
+	 * @param codec     O codificador das entidades.
+	 * @param marcadas  Se a marcação de cadastrada é escrita.
+	 * @param limpa     Se as entidades deixam de estar alteradas.
+	 * @throws IOException Se a escrita falhar.
+	 */
+	static <T extends Rastreavel> void escreveSecao(SaidaSnapshot saida, Map<T, Boolean> entidades,
+			Codec<T> codec, boolean marcadas, boolean limpa) throws IOException {
+		saida.iniciaSecao();
+		saida.escreveInteiro(entidades.size());
+		for (Map.Entry<T, Boolean> entidade : entidades.entrySet()) {
+			if (marcadas) {
+				saida.escreveBooleano(entidade.getValue());
+			}
+			codec.escreve(saida, entidade.getKey());
+			if (limpa) {
+				entidade.getKey().limpaAlteracao();
+			}
+		}
+		saida.terminaSecao();
+	}
+
+	/**
+	 * Método que escreve uma seção de um snapshot incremental: o código de
+	 * todas as entidades e o conteúdo apenas das alteradas, que deixam de estar
+	 * alteradas.
+	 *
+	 * @param saida     O destino da escrita.
+	 * @param entidades As entidades e se estão cadastradas.
+	 * @param codec     O codificador das entidades.
+	 * @param codigo    O código de uma entidade.
+	 * @throws IOException Se a escrita falhar.
+	 */
+	private static <T extends Rastreavel> void escreveSecaoDelta(SaidaSnapshot saida, Map<T, Boolean> entidades,
+			Codec<T> codec, Function<T, String> codigo) throws IOException {
+		ByteArrayOutputStream registro = new ByteArrayOutputStream();
+		SaidaSnapshot codificador = new SaidaSnapshot(registro, 1 << 12);
+		saida.iniciaSecao();
+		saida.escreveInteiro(entidades.size());
+		for (Map.Entry<T, Boolean> entidade : entidades.entrySet()) {
+			T alvo = entidade.getKey();
+			saida.escreveTexto(codigo.apply(alvo));
+			saida.escreveBooleano(entidade.getValue());
+			saida.escreveBooleano(alvo.isAlterado());
+			if (alvo.isAlterado()) {
+				registro.reset();
+				codec.escreve(codificador, alvo);
+				codificador.descarrega();
+				saida.escreveInteiro(registro.size());
+				saida.escreveBytes(registro.toByteArray());
+				alvo.limpaAlteracao();
+			}
+		}
+		saida.terminaSecao();
+	}
+
+	/**
+	 * Método que inicia a verificação de uma seção, se a versão lida tiver CRC.
+	 *
+	 * @param entrada    A origem da leitura.
+	 * @param verificado Se a versão lida tem CRC por seção.
+	 */
+	private static void iniciaSecao(EntradaSnapshot entrada, boolean verificado) {
+		if (verificado) {
+			entrada.iniciaSecao();
+		}
+	}
+
+	/**
+	 * Método que confere o CRC de uma seção, se a versão lida tiver CRC.
+	 *
+	 * @param entrada    A origem da leitura.
+	 * @param verificado Se a versão lida tem CRC por seção.
+	 * @param nome       O nome da seção.
+	 * @throws IOException Se a seção estiver corrompida.
+	 */
+	private static void verificaSecao(EntradaSnapshot entrada, boolean verificado, String nome) throws IOException {
+		if (verificado) {
+			entrada.verificaSecao(nome);
+		}
+	}
+
+	/**
+	 * Método interno que desloca as gerações de um arquivo, descartando a mais
+	 * antiga, para que o arquivo atual possa ser substituído.
+	 *
+	 * @param arquivo O arquivo atual.
+	 * @throws IOException Se alguma geração não puder ser movida.
+	 */
+	private void rotaciona(Path arquivo) throws IOException {
+		for (int i = this.geracoes - 1; i > 0; i--) {
+			Path anterior = geracao(arquivo, i - 1);
+			if (Files.exists(anterior)) {
+				move(anterior, geracao(arquivo, i));
+			}
+		}
+	}
+
+	/**
+	 * Método que retorna o caminho de uma geração de um arquivo.
+	 *
+	 * @param arquivo O arquivo atual.
+	 * @param geracao O número da geração, 0 para o arquivo atual.
+	 * @return O caminho da geração.
+	 */
+	private static Path geracao(Path arquivo, int geracao) {
+		if (geracao == 0) {
+			return arquivo;
+		}
+		return arquivo.resolveSibling(arquivo.getFileName() + "." + geracao);
+	}
+
+	/**
+	 * Método que renomeia um arquivo substituindo o destino, de forma atômica
+	 * quando o sistema de arquivos permite.
+	 *
+	 * @param origem  O arquivo a ser renomeado.
+	 * @param destino O novo nome.
+	 * @throws IOException Se a renomeação falhar.
+	 */
+	static void move(Path origem, Path destino) throws IOException {
+		try {
+			Files.move(origem, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(origem, destino, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Método que sincroniza um diretório com o disco, para que as renomeações
+	 * feitas nele sobrevivam a uma queda. Sistemas que não permitem abrir um
+	 * diretório (como o Windows) já gravam a renomeação de forma síncrona.
+	 *
+	 * @param diretorio O diretório, ou null.
+	 */
+	static void sincroniza(Path diretorio) {
+		if (diretorio == null) {
+			return;
+		}
+		try (FileChannel canal = FileChannel.open(diretorio, StandardOpenOption.READ)) {
+			canal.force(true);
+		} catch (IOException e) {
+			return;
+		}
+	}
+
+	/**
+	 * Método que cria o erro de um arquivo gravado com a serialização Java,
+	 * formato que não é mais lido.
+	 *
+	 * @return O erro de formato.
+	 */
+	private static IOException formatoNaoSuportado() {
+		return new IOException("Formato de snapshot nao suportado: serializacao Java.");
+	}
+
+	/**
+	 * Método que apaga os incrementais de um arquivo a partir de um número.
+	 *
+	 * @param arquivo O arquivo do snapshot completo.
+	 * @param inicio  O número do primeiro incremental a apagar.
+	 * @throws IOException Se algum incremental não puder ser apagado.
+	 */
+	private static void removeDeltas(Path arquivo, int inicio) throws IOException {
+		for (int numero = inicio; Files.deleteIfExists(arquivoDelta(arquivo, numero)); numero++) {
+			continue;
+		}
+	}
+
+	/**
+	 * Entidades do sistema na ordem em que são gravadas. Problemas, objetivos
+	 * e atividades apagados do sistema mas ainda ligados a uma pesquisa entram
+	 * marcados como não cadastrados.
+	 *
+	 */
+	static class Entidades {
+
+		/**
+		 * Problemas e se estão cadastrados.
+		 *
+		 */
+		final Map<Problema, Boolean> problemas = new LinkedHashMap<>();
+
+		/**
+		 * Objetivos e se estão cadastrados.
+		 *
+		 */
+		final Map<Objetivo, Boolean> objetivos = new LinkedHashMap<>();
+
+		/**
+		 * Atividades e se estão cadastradas.
+		 *
+		 */
+		final Map<Atividade, Boolean> atividades = new LinkedHashMap<>();
+
+		/**
+		 * Pesquisas, todas cadastradas.
+		 *
+		 */
+		final Map<Pesquisa, Boolean> pesquisas = new LinkedHashMap<>();
+
+		/**
+		 * Pesquisadores, todos cadastrados.
+		 *
+		 */
+		final Map<Pesquisador, Boolean> pesquisadores = new LinkedHashMap<>();
+
+		/**
+		 * Codificador das pesquisas, que na escrita não resolve referências.
+		 *
+		 */
+		final CodecPesquisa codecPesquisa = new CodecPesquisa(codigo -> null, codigo -> null, codigo -> null);
+
+		/**
+		 * Codificador dos pesquisadores, que na escrita não resolve referências.
+		 *
+		 */
+		final CodecPesquisador codecPesquisador = new CodecPesquisador(codigo -> null);
+
+		/**
+		 * Construtor que coleta as entidades do sistema.
+		 *
+		 * @param controllerGeral O sistema.
+		 */
+		Entidades(ControllerGeral controllerGeral) {
+			ControllerProblemaObjetivo controllerProblemaObjetivo = controllerGeral.getControllerProblemaObjetivo();
+			for (Problema problema : controllerProblemaObjetivo.getProblemas()) {
+				this.problemas.put(problema, true);
+			}
+			for (Objetivo objetivo : controllerProblemaObjetivo.getObjetivos()) {
+				this.objetivos.put(objetivo, true);
+			}
+			for (Atividade atividade : controllerGeral.getControllerAtividade().getAtividades()) {
+				this.atividades.put(atividade, true);
+			}
+			for (Pesquisa pesquisa : controllerGeral.getControllerPesquisa().getPesquisas()) {
+				this.pesquisas.put(pesquisa, true);
+				if (pesquisa.getProblema() != null) {
+					this.problemas.putIfAbsent(pesquisa.getProblema(), false);
+				}
+				for (Objetivo objetivo : pesquisa.getObjetivos()) {
+					this.objetivos.putIfAbsent(objetivo, false);
+				}
+				for (Atividade atividade : pesquisa.getAtividades()) {
+					this.atividades.putIfAbsent(atividade, false);
+				}
+			}
+			for (Pesquisador pesquisador : controllerGeral.getControllerPesquisador().getPesquisadores()) {
+				this.pesquisadores.put(pesquisador, true);
+			}
+		}
+	}
+
+	/**
+	 * Escrita do conteúdo de um arquivo novo.
+	 *
+	 */
+	interface Escrita {
+
+		/**
+		 * Método que escreve o conteúdo no canal.
+		 *
+		 * @param canal O canal do arquivo temporário.
+		 * @return A quantidade de bytes escritos.
+		 * @throws IOException Se a escrita falhar.
+		 */
+		long escreve(FileChannel canal) throws IOException;
+	}
+}
@@ -0,0 +1,193 @@
+package persistencia;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import controladores.ControllerGeral;
+
+/**
+ * Snapshot gravado em segundo plano.
+ *
+ * O estado do sistema é capturado (codificado em memória) na thread de quem
+ * inicia o snapshot, o que dá uma visão consistente daquele instante sem exigir
+ * que as entidades sejam imutáveis. A gravação em disco, a parte lenta, é feita
+ * por uma thread própria enquanto o sistema continua sendo alterado. Os
+ * snapshots em segundo plano são gravados um de cada vez, na ordem em que foram
+ * iniciados.
+ *
+ */
+public class SnapshotAssincrono {
+
+	/**
+	 * Thread que grava os snapshots em segundo plano.
+	 *
+	 */
+	private static final ExecutorService ESCRITOR = Executors.newSingleThreadExecutor(tarefa -> {
+		Thread thread = new Thread(tarefa, "snapshot");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Arquivo de destino.
+	 *
+	 */
+	private final Path arquivo;
+
+	/**
+	 * Tamanho do snapshot capturado, em bytes.
+	 *
+	 */
+	private final long bytesTotais;
+
+	/**
+	 * Duração da captura, em nanossegundos.
+	 *
+	 */
+	private final long duracaoCaptura;
+
+	/**
+	 * Instante do início da captura, em nanossegundos.
+	 *
+	 */
+	private final long inicio;
+
+	/**
+	 * Quantidade de bytes já gravados no disco.
+	 *
+	 */
+	private volatile long bytesGravados;
+
+	/**
+	 * Duração total, da captura ao fim da gravação, em nanossegundos, ou -1
+	 * enquanto a gravação não terminou.
+	 *
+	 */
+	private volatile long duracao;
+
+	/**
+	 * Conclusão da gravação, com a quantidade de bytes gravados.
+	 *
+	 */
+	private final CompletableFuture<Long> conclusao;
+
+	/**
+	 * Construtor que captura o estado do sistema e agenda a gravação.
+	 *
+	 * @param snapshot        Quem codifica e grava o snapshot.
+	 * @param controllerGeral O sistema a ser gravado.
+	 * @param arquivo         O arquivo de destino.
+	 * @param compressao      A compressão do snapshot.
+	 * @param aposGravar      Executado na thread de gravação depois que o
+	 *                        arquivo está em disco, ou null.
+	 * @throws IOException Se a captura falhar.
+	 */
+	public SnapshotAssincrono(Snapshot snapshot, ControllerGeral controllerGeral, Path arquivo, Compressao compressao,
+			Runnable aposGravar) throws IOException {
+		this.inicio = System.nanoTime();
+		this.arquivo = arquivo;
+		byte[] conteudo = snapshot.captura(controllerGeral, compressao);
+		this.bytesTotais = conteudo.length;
+		this.duracaoCaptura = System.nanoTime() - this.inicio;
+		this.duracao = -1;
+		this.conclusao = CompletableFuture.supplyAsync(() -> {
+			try {
+				long bytes = snapshot.grava(conteudo, arquivo, gravados -> this.bytesGravados = gravados);
+				if (aposGravar != null) {
+					aposGravar.run();
+				}
+				return bytes;
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			} finally {
+				this.duracao = System.nanoTime() - this.inicio;
+			}
+		}, ESCRITOR);
+	}
+
+	/**
+	 * Método que retorna o arquivo de destino.
+	 *
+	 * @return O arquivo.
+	 */
+	public Path getArquivo() {
+		return this.arquivo;
+	}
+
+	/**
+	 * Método que retorna o tamanho do snapshot, em bytes.
+	 *
+	 * @return O tamanho.
+	 */
+	public long getBytesTotais() {
+		return this.bytesTotais;
+	}
+
+	/**
+	 * Método que retorna a quantidade de bytes já gravados no disco.
+	 *
+	 * @return A quantidade de bytes gravados.
+	 */
+	public long getBytesGravados() {
+		return this.bytesGravados;
+	}
+
+	/**
+	 * Método que retorna quanto tempo a captura do estado bloqueou o sistema.
+	 *
+	 * @return A duração da captura, em milissegundos.
+	 */
+	public long getDuracaoCaptura() {
+		return this.duracaoCaptura / 1_000_000;
+	}
+
+	/**
+	 * Método que retorna a duração do snapshot, da captura ao fim da gravação,
+	 * ou até agora se ainda está em andamento.
+	 *
+	 * @return A duração, em milissegundos.
+	 */
+	public long getDuracao() {
+		long total = this.duracao;
+		if (total < 0) {
+			total = System.nanoTime() - this.inicio;
+		}
+		return total / 1_000_000;
+	}
+
+	/**
+	 * Método que informa se a gravação já terminou, com sucesso ou não.
+	 *
+	 * @return Se a gravação terminou.
+	 */
+	public boolean isConcluido() {
+		return this.conclusao.isDone();
+	}
+
+	/**
+	 * Método que espera a gravação terminar.
+	 *
+	 * @return A quantidade de bytes gravados.
+	 * @throws IOException Se a gravação falhou ou a espera foi interrompida.
+	 */
+	public long aguarda() throws IOException {
+		try {
+			return this.conclusao.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Espera pelo snapshot interrompida.");
+		} catch (ExecutionException e) {
+			Throwable causa = e.getCause();
+			if (causa instanceof UncheckedIOException) {
+				throw ((UncheckedIOException) causa).getCause();
+			}
+			throw new IOException("Falha ao gravar o snapshot.", causa);
+		}
+	}
+}
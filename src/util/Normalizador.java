@@ -0,0 +1,53 @@
+package util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Classe utilitária para a normalização dos textos usados na busca.
+ *
+ * Um texto normalizado está em minúsculo e sem acentos, de modo que
+ * "Computação" e "computacao" possuem a mesma forma normalizada. As entidades
+ * guardam a forma normalizada dos seus textos quando são criadas ou alteradas,
+ * evitando normalizar o texto a cada consulta.
+ *
+ */
+public final class Normalizador {
+
+	/**
+	 * Padrão das marcas (acentos) separadas das letras pela decomposição.
+	 *
+	 */
+	private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+
+	private Normalizador() {
+	}
+
+	/**
+	 * Método que normaliza um texto: decompõe os caracteres acentuados, remove
+	 * os acentos e converte o resultado para minúsculo.
+	 *
+	 * @param texto O texto a ser normalizado.
+	 * @return O texto normalizado, ou null se o texto for nulo.
+	 */
+	public static String normaliza(String texto) {
+		if (texto == null)
+			return null;
+		String decomposto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+		return MARCAS.matcher(decomposto).replaceAll("").toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Método que normaliza cada texto de uma lista, mantendo as posições nulas.
+	 *
+	 * @param textos Os textos a serem normalizados.
+	 * @return Uma nova lista com os textos normalizados.
+	 */
+	public static String[] normaliza(String[] textos) {
+		String[] normalizados = new String[textos.length];
+		for (int i = 0; i < textos.length; i++)
+			normalizados[i] = normaliza(textos[i]);
+		return normalizados;
+	}
+}
@@ -329,4 +329,19 @@ public class Validador implements Serializable {
 			throw new IllegalArgumentException("EnesimaAtividade nao pode ser negativa ou zero.");
 		}
 	}
+
+	/**
+	 * Método responsável pela verificação de que as listas de um cadastro em
+	 * lote têm todas a mesma quantidade de entradas.
+	 * 
+	 * @param msg         A mensagem definida para exibição.
+	 * @param quantidades A quantidade de entradas de cada lista.
+	 */
+	public void validaQuantidades(String msg, int... quantidades) {
+		for (int quantidade : quantidades) {
+			if (quantidade != quantidades[0]) {
+				throw new IllegalArgumentException(msg);
+			}
+		}
+	}
 }
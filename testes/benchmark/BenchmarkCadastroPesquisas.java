@@ -0,0 +1,40 @@
+package benchmark;
+
+import controladores.ControllerPesquisa;
+
+/**
+ * Mede o cadastro em massa de pesquisas, em que a geração de códigos precisa
+ * ser constante: o tempo de cada bloco de cadastros não deve crescer com a
+ * quantidade de pesquisas já cadastradas. As descrições se repetem, para que
+ * o custo da indexação para a busca fique constante e o tempo medido seja o
+ * do cadastro. Recebe opcionalmente a quantidade de pesquisas e o tamanho do
+ * bloco.
+ *
+ */
+public class BenchmarkCadastroPesquisas {
+
+	private static final String[] CAMPOS = { "computacao, ensino", "eleicao, estatistica", "saude publica",
+			"robotica", "agricultura familiar" };
+
+	public static void main(String[] args) {
+		int quantidade = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+		int bloco = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+		ControllerPesquisa controller = new ControllerPesquisa();
+		System.out.printf("%12s %12s %14s%n", "pesquisas", "bloco (ms)", "cadastros/s");
+		long inicioTotal = System.nanoTime();
+		long inicio = inicioTotal;
+		String ultimo = null;
+		for (int i = 1; i <= quantidade; i++) {
+			ultimo = controller.cadastraPesquisa("Pesquisa de campo.", CAMPOS[i % CAMPOS.length]);
+			if (i % bloco == 0 || i == quantidade) {
+				long agora = System.nanoTime();
+				int feitos = i % bloco == 0 ? bloco : i % bloco;
+				System.out.printf("%12d %12d %14d%n", i, (agora - inicio) / 1_000_000,
+						feitos * 1_000_000_000L / Math.max(1, agora - inicio));
+				inicio = agora;
+			}
+		}
+		System.out.printf("total: %d pesquisas em %d ms, ultimo codigo %s%n", quantidade,
+				(System.nanoTime() - inicioTotal) / 1_000_000, ultimo);
+	}
+}
@@ -0,0 +1,84 @@
+package benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import controladores.Facade;
+
+/**
+ * Mede a listagem das pesquisas em cada ordem, montando a lista inteira em
+ * uma String e escrevendo-a aos poucos em um Writer que apenas conta os
+ * caracteres, além de uma página no fim da lista. Recebe opcionalmente a
+ * quantidade de pesquisas.
+ *
+ */
+public class BenchmarkListagemPesquisas {
+
+	private static final String[] CAMPOS = { "computacao, ensino", "eleicao, estatistica", "saude publica",
+			"robotica", "agricultura familiar" };
+
+	private static final String[] ORDENS = { "PESQUISA", "PROBLEMA", "OBJETIVOS" };
+
+	/**
+	 * Writer que descarta o que recebe, contando os caracteres.
+	 *
+	 */
+	private static class Contador extends Writer {
+
+		private long caracteres;
+
+		@Override
+		public void write(char[] cbuf, int off, int len) {
+			this.caracteres += len;
+		}
+
+		@Override
+		public Writer append(CharSequence csq) {
+			this.caracteres += csq.length();
+			return this;
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		int quantidade = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+		Facade facade = new Facade();
+		String[] descricoes = new String[quantidade];
+		String[] campos = new String[quantidade];
+		for (int i = 0; i < quantidade; i++) {
+			descricoes[i] = "Pesquisa de campo numero " + i + ".";
+			campos[i] = CAMPOS[i % CAMPOS.length];
+		}
+		facade.cadastraPesquisas(descricoes, campos);
+
+		System.out.printf("%10s %14s %14s %14s %16s%n", "ordem", "String (ms)", "Writer (ms)", "pagina (ms)",
+				"caracteres");
+		for (String ordem : ORDENS) {
+			long inicio = System.nanoTime();
+			int tamanho = facade.listaPesquisas(ordem).length();
+			long lista = System.nanoTime() - inicio;
+
+			Contador contador = new Contador();
+			inicio = System.nanoTime();
+			facade.escrevePesquisas(ordem, contador);
+			long escrita = System.nanoTime() - inicio;
+
+			inicio = System.nanoTime();
+			facade.listaPesquisasPaginada(ordem, quantidade - 50, 50);
+			long pagina = System.nanoTime() - inicio;
+
+			if (contador.caracteres != tamanho) {
+				throw new IllegalStateException("Listagens diferentes para a ordem " + ordem + ".");
+			}
+			System.out.printf("%10s %14d %14d %14d %16d%n", ordem, lista / 1_000_000, escrita / 1_000_000,
+					pagina / 1_000_000, tamanho);
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import controladores.ControllerGeral;
+import persistencia.Compressao;
+import persistencia.Snapshot;
+
+/**
+ * Compara o tamanho e o tempo de gravação e leitura de um snapshot completo em
+ * cada {@link Compressao}. Recebe opcionalmente a quantidade de pesquisas (e de
+ * atividades e pesquisadores) do sistema gerado.
+ *
+ */
+public class BenchmarkSnapshot {
+
+	private static final String[] RISCOS = { "BAIXO", "MEDIO", "ALTO" };
+
+	private static final int REPETICOES = 5;
+
+	public static void main(String[] args) throws IOException {
+		int quantidade = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+		ControllerGeral controller = gera(quantidade);
+		Snapshot snapshot = new Snapshot();
+		Path diretorio = Files.createTempDirectory("benchmark");
+		try {
+			System.out.printf("%-12s %12s %12s %12s%n", "compressao", "bytes", "salva (ms)", "carrega (ms)");
+			for (Compressao compressao : Compressao.values()) {
+				Path arquivo = diretorio.resolve(compressao + ".snap");
+				long bytes = 0;
+				long melhorSalva = Long.MAX_VALUE;
+				long melhorCarrega = Long.MAX_VALUE;
+				for (int i = 0; i < REPETICOES; i++) {
+					long inicio = System.nanoTime();
+					bytes = snapshot.salva(controller, arquivo, compressao);
+					melhorSalva = Math.min(melhorSalva, System.nanoTime() - inicio);
+					inicio = System.nanoTime();
+					snapshot.carrega(arquivo);
+					melhorCarrega = Math.min(melhorCarrega, System.nanoTime() - inicio);
+				}
+				System.out.printf("%-12s %12d %12d %12d%n", compressao, bytes, melhorSalva / 1_000_000,
+						melhorCarrega / 1_000_000);
+			}
+		} finally {
+			for (Path arquivo : Files.list(diretorio).toArray(Path[]::new)) {
+				Files.delete(arquivo);
+			}
+			Files.delete(diretorio);
+		}
+	}
+
+	private static ControllerGeral gera(int quantidade) {
+		ControllerGeral controller = new ControllerGeral();
+		for (int i = 0; i < quantidade; i++) {
+			controller.cadastraPesquisa("Pesquisa numero " + i + " sobre ensino.",
+					i % 2 == 0 ? "computacao, ensino" : "eleicao, estatistica");
+			String pesquisa = (i % 2 == 0 ? "COM" : "ELE") + (i / 2 + 1);
+			String atividade = controller.cadastraAtividade("Atividade numero " + i + ".", RISCOS[i % 3],
+					"Riscos da atividade " + i + ".");
+			controller.cadastraItem(atividade, "Item de coleta");
+			controller.cadastraItem(atividade, "Item de analise");
+			controller.associaAtividade(pesquisa, atividade);
+			controller.executaAtividade(atividade, 1, 10);
+			controller.cadastraResultado(atividade, "Resultado parcial.");
+			controller.cadastraPesquisador("Pesquisador " + i, "externo", "Colaborador externo.",
+					"p" + i + "@ufcg", "https://p" + i);
+		}
+		return controller;
+	}
+}
@@ -0,0 +1,128 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import busca.Busca;
+import controladores.ControllerGeral;
+import controladores.Facade;
+import persistencia.AcervoEncerradas;
+import persistencia.Snapshot;
+
+class AcervoEncerradasTest {
+
+	@TempDir
+	Path diretorio;
+
+	private ControllerGeral controller;
+	private AcervoEncerradas acervo;
+	private Path arquivo;
+
+	@BeforeEach
+	void init() {
+		this.controller = new ControllerGeral();
+		this.acervo = new AcervoEncerradas(2);
+		this.arquivo = this.diretorio.resolve("encerradas.acv");
+
+		this.controller.cadastraPesquisa("Homofobia em mensagens online de alunos de computação.",
+				"computacao, homofobia");
+		this.controller.cadastraPesquisa("Avaliação de modelos preditivos para as eleições.", "eleicao");
+		this.controller.cadastraProblema("A homofobia nas redes sociais.", 4);
+		this.controller.cadastraAtividade("Monitoramento de chats.", "BAIXO", "Sem riscos.");
+		this.controller.cadastraAtividade("Coleta de pesquisas eleitorais.", "MEDIO", "Riscos medios.");
+		this.controller.cadastraAtividade("Atividade compartilhada.", "ALTO", "Riscos altos.");
+		this.controller.cadastraItem("A2", "Coleta nas capitais");
+		this.controller.cadastraPesquisador("Ana", "professor", "Professora de estatistica.", "ana@ufcg",
+				"https://ana");
+		this.controller.cadastraPesquisador("Bia", "estudante", "Estudante de computação.", "bia@ufcg",
+				"https://bia");
+
+		this.controller.associaProblema("ELE1", "P1");
+		this.controller.associaAtividade("COM1", "A1");
+		this.controller.associaAtividade("COM1", "A3");
+		this.controller.associaAtividade("ELE1", "A2");
+		this.controller.associaAtividade("ELE1", "A3");
+		this.controller.executaAtividade("A2", 1, 20);
+		this.controller.cadastraResultado("A2", "Modelo calibrado");
+		this.controller.associaPesquisador("ELE1", "ana@ufcg");
+		this.controller.associaPesquisador("COM1", "bia@ufcg");
+		this.controller.encerraPesquisa("ELE1", "Pesquisa concluida.");
+	}
+
+	@Test
+	void testArquivaSemLerEntidades() throws IOException {
+		String pesquisa = this.controller.exibePesquisa("ELE1");
+		String atividade = this.controller.exibeAtividade("A2");
+		String pesquisador = this.controller.exibePesquisador("ana@ufcg");
+		String busca = new Busca(this.controller).busca("eleic", false);
+		ControllerGeral arquivado = this.acervo.arquiva(this.controller, this.arquivo);
+
+		assertEquals(1, this.acervo.getPesquisasArquivadas());
+		assertEquals(this.controller.exibePesquisa("COM1"), arquivado.exibePesquisa("COM1"));
+		assertEquals(0, this.acervo.getRegistrosLidos());
+		assertEquals(pesquisa, arquivado.exibePesquisa("ELE1"));
+		assertEquals(atividade, arquivado.exibeAtividade("A2"));
+		assertEquals(pesquisador, arquivado.exibePesquisador("ana@ufcg"));
+		assertEquals(3, this.acervo.getRegistrosLidos());
+		assertEquals(busca, new Busca(arquivado).busca("eleic", false));
+		assertEquals("Modelo calibrado", arquivado.listaResultados("A2"));
+		assertFalse(arquivado.pesquisaEhAtiva("ELE1"));
+	}
+
+	@Test
+	void testAtivaPesquisaReidrata() throws IOException {
+		ControllerGeral arquivado = this.acervo.arquiva(this.controller, this.arquivo);
+		arquivado.ativaPesquisa("ELE1");
+		arquivado.cadastraResultado("A2", "Modelo revisado");
+		for (int i = 0; i < 5; i++) {
+			arquivado.exibeAtividade("A1");
+			System.gc();
+		}
+		long lidos = this.acervo.getRegistrosLidos();
+
+		assertTrue(arquivado.pesquisaEhAtiva("ELE1"));
+		assertEquals("Modelo calibrado | Modelo revisado", arquivado.listaResultados("A2"));
+		assertEquals(20, arquivado.getDuracao("A2"));
+		assertEquals(lidos, this.acervo.getRegistrosLidos());
+		arquivado.associaAtividade("ELE1", "A1");
+		assertTrue(arquivado.exibePesquisa("ELE1").contains("ELE1"));
+	}
+
+	@Test
+	void testSnapshotDoSistemaArquivado() throws IOException {
+		ControllerGeral arquivado = this.acervo.arquiva(this.controller, this.arquivo);
+		assertEquals("A4", arquivado.cadastraAtividade("Nova atividade.", "BAIXO", "Sem riscos."));
+		this.controller.cadastraAtividade("Nova atividade.", "BAIXO", "Sem riscos.");
+		Path snapshot = this.diretorio.resolve("psquiza.snap");
+		new Snapshot().salva(arquivado, snapshot);
+		ControllerGeral carregado = new Snapshot().carrega(snapshot);
+
+		for (String codigo : new String[] { "COM1", "ELE1" }) {
+			assertEquals(this.controller.exibePesquisa(codigo), carregado.exibePesquisa(codigo));
+		}
+		for (int i = 1; i <= 4; i++) {
+			assertEquals(this.controller.exibeAtividade("A" + i), carregado.exibeAtividade("A" + i));
+		}
+		assertEquals(this.controller.exibePesquisador("ana@ufcg"), carregado.exibePesquisador("ana@ufcg"));
+		assertFalse(carregado.pesquisaEhAtiva("ELE1"));
+	}
+
+	@Test
+	void testFacadeArquivaEncerradas() {
+		Facade facade = new Facade();
+		facade.cadastraPesquisa("Pesquisa encerrada.", "computacao");
+		facade.encerraPesquisa("COM1", "Fim.");
+
+		assertTrue(facade.arquivaEncerradas(this.arquivo.toString())
+				.startsWith("1 pesquisas arquivadas em " + this.arquivo));
+		assertFalse(facade.pesquisaEhAtiva("COM1"));
+		facade.ativaPesquisa("COM1");
+		assertTrue(facade.pesquisaEhAtiva("COM1"));
+	}
+}
@@ -0,0 +1,150 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import busca.Busca;
+import controladores.ControllerGeral;
+import controladores.Facade;
+import persistencia.ArquivoPaginado;
+
+class ArquivoPaginadoTest {
+
+	@TempDir
+	Path diretorio;
+
+	private ControllerGeral controller;
+	private ArquivoPaginado paginado;
+	private Path arquivo;
+
+	@BeforeEach
+	void init() throws IOException {
+		this.controller = new ControllerGeral();
+		this.paginado = new ArquivoPaginado(2);
+		this.arquivo = this.diretorio.resolve("psquiza.pag");
+
+		this.controller.cadastraPesquisa("Homofobia em mensagens online de alunos de computação.",
+				"computacao, homofobia");
+		this.controller.cadastraPesquisa("Avaliação de modelos preditivos para as eleições.", "eleicao");
+		this.controller.cadastraProblema("A homofobia nas redes sociais.", 4);
+		this.controller.cadastraProblema("Problema que sera apagado.", 2);
+		this.controller.cadastraObjetivo("GERAL", "Diminuir a homofobia.", 4, 2);
+		this.controller.cadastraAtividade("Monitoramento de chats.", "BAIXO", "Sem riscos.");
+		this.controller.cadastraAtividade("Degustacao de cervejas.", "ALTO", "Alergias.");
+		for (int i = 0; i < 10; i++) {
+			this.controller.cadastraAtividade("Atividade extra " + i + ".", "MEDIO", "Riscos medios.");
+		}
+		this.controller.cadastraItem("A1", "Monitoramento slack");
+		this.controller.cadastraPesquisador("Ana", "professor", "Professora de computação.", "ana@ufcg",
+				"https://ana");
+		this.controller.cadastraEspecialidadeProfessor("ana@ufcg", "Doutorado", "UASC", "01/01/2010");
+
+		this.controller.associaProblema("COM1", "P2");
+		this.controller.associaObjetivo("COM1", "O1");
+		this.controller.associaAtividade("COM1", "A1");
+		this.controller.associaAtividade("COM1", "A2");
+		this.controller.executaAtividade("A1", 1, 15);
+		this.controller.cadastraResultado("A1", "Primeiro resultado");
+		this.controller.associaPesquisador("COM1", "ana@ufcg");
+		this.controller.apagarProblema("P2");
+		this.controller.encerraPesquisa("ELE1", "Pesquisa concluida.");
+		this.controller.configuraEstrategia("MAIOR_RISCO");
+		this.paginado.salva(this.controller, this.arquivo);
+	}
+
+	@AfterEach
+	void fecha() throws IOException {
+		this.paginado.close();
+	}
+
+	@Test
+	void testAbreSemLerEntidades() throws IOException {
+		ControllerGeral aberto = this.paginado.abre(this.arquivo);
+
+		assertEquals(0, this.paginado.getRegistrosLidos());
+		assertEquals(this.controller.exibeAtividade("A3"), aberto.exibeAtividade("A3"));
+		assertEquals(1, this.paginado.getRegistrosLidos());
+		assertEquals(new Busca(this.controller).busca("computacao", false),
+				new Busca(aberto).busca("computacao", false));
+	}
+
+	@Test
+	void testAbreRestauraEstado() throws IOException {
+		ControllerGeral aberto = this.paginado.abre(this.arquivo);
+
+		assertEquals(this.controller.exibePesquisa("COM1"), aberto.exibePesquisa("COM1"));
+		assertEquals(this.controller.exibeProblema("P1"), aberto.exibeProblema("P1"));
+		assertThrows(IllegalArgumentException.class, () -> aberto.exibeProblema("P2"));
+		assertEquals(this.controller.exibePesquisador("ana@ufcg"), aberto.exibePesquisador("ana@ufcg"));
+		assertFalse(aberto.pesquisaEhAtiva("ELE1"));
+		assertEquals(15, aberto.getDuracao("A1"));
+		assertEquals("Primeiro resultado", aberto.listaResultados("A1"));
+		assertEquals("A13", aberto.cadastraAtividade("Nova atividade.", "MEDIO", "Riscos medios."));
+		for (String ordem : new String[] { "PROBLEMA", "OBJETIVOS", "PESQUISA" }) {
+			assertEquals(this.controller.listaPesquisas(ordem), aberto.listaPesquisas(ordem));
+		}
+	}
+
+	@Test
+	void testCacheNaoPerdeAlteracoes() throws IOException {
+		ControllerGeral aberto = this.paginado.abre(this.arquivo);
+		aberto.cadastraResultado("A1", "Segundo resultado");
+		aberto.desassociaAtividade("COM1", "A2");
+		for (int i = 3; i <= 12; i++) {
+			aberto.exibeAtividade("A" + i);
+		}
+		System.gc();
+		for (int i = 3; i <= 12; i++) {
+			aberto.exibeAtividade("A" + i);
+		}
+
+		assertEquals("Primeiro resultado | Segundo resultado", aberto.listaResultados("A1"));
+		this.controller.cadastraResultado("A1", "Segundo resultado");
+		this.controller.desassociaAtividade("COM1", "A2");
+		Path copia = this.diretorio.resolve("copia.pag");
+		new ArquivoPaginado().salva(aberto, copia);
+		ControllerGeral reaberto = new ArquivoPaginado().abre(copia);
+		for (int i = 1; i <= 12; i++) {
+			assertEquals(this.controller.exibeAtividade("A" + i), reaberto.exibeAtividade("A" + i));
+		}
+		assertEquals(this.controller.exibePesquisa("COM1"), reaberto.exibePesquisa("COM1"));
+		assertEquals(this.controller.listaResultados("A1"), reaberto.listaResultados("A1"));
+	}
+
+	@Test
+	void testArquivoInvalido() throws IOException {
+		Files.write(this.arquivo, new byte[] { 1, 2, 3, 4, 5 });
+
+		IOException erro = assertThrows(IOException.class, () -> this.paginado.abre(this.arquivo));
+		assertEquals("Arquivo nao e um arquivo paginado do sistema.", erro.getMessage());
+	}
+
+	@Test
+	void testRegistroCorrompidoDetectado() throws IOException {
+		byte[] conteudo = Files.readAllBytes(this.arquivo);
+		conteudo[ArquivoPaginado.TAMANHO_PAGINA + 2] ^= 0x01;
+		Files.write(this.arquivo, conteudo);
+		ControllerGeral aberto = this.paginado.abre(this.arquivo);
+
+		assertThrows(RuntimeException.class, () -> aberto.exibeProblema("P1"));
+	}
+
+	@Test
+	void testFacadeAbrePaginado() {
+		Facade facade = new Facade();
+		facade.cadastraProblema("Problema paginado.", 4);
+		assertTrue(facade.salvaPaginado(this.arquivo.toString()).startsWith("Sistema salvo em " + this.arquivo));
+
+		Facade aberta = new Facade();
+		assertTrue(aberta.abrePaginado(this.arquivo.toString()).startsWith("Sistema aberto de " + this.arquivo));
+		assertEquals("P1 - Problema paginado. - 4", aberta.exibeProblema("P1"));
+	}
+}
@@ -0,0 +1,125 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import busca.Busca;
+import controladores.ControllerGeral;
+import controladores.Facade;
+import persistencia.ArquivoSegmentado;
+import persistencia.Segmento;
+
+class ArquivoSegmentadoTest {
+
+	@TempDir
+	Path diretorio;
+
+	private ControllerGeral controller;
+	private ArquivoSegmentado segmentado;
+	private Path arquivo;
+
+	@BeforeEach
+	void init() throws IOException {
+		this.controller = new ControllerGeral();
+		this.segmentado = new ArquivoSegmentado();
+		this.arquivo = this.diretorio.resolve("psquiza.seg");
+
+		this.controller.cadastraPesquisa("Homofobia em mensagens online de alunos de computação.",
+				"computacao, homofobia");
+		this.controller.cadastraPesquisa("Avaliação de modelos preditivos para as eleições.", "eleicao");
+		this.controller.cadastraProblema("A homofobia nas redes sociais.", 4);
+		this.controller.cadastraProblema("Problema que sera apagado.", 2);
+		this.controller.cadastraObjetivo("GERAL", "Diminuir a homofobia.", 4, 2);
+		this.controller.cadastraAtividade("Monitoramento de chats sobre homofobia.", "BAIXO", "Sem riscos.");
+		this.controller.cadastraAtividade("Degustacao de cervejas.", "ALTO", "Alergias.");
+		this.controller.cadastraItem("A1", "Monitoramento slack");
+		this.controller.cadastraPesquisador("Ana", "professor", "Professora de computação.", "ana@ufcg",
+				"https://ana");
+
+		this.controller.associaProblema("COM1", "P2");
+		this.controller.associaObjetivo("COM1", "O1");
+		this.controller.associaAtividade("COM1", "A1");
+		this.controller.executaAtividade("A1", 1, 15);
+		this.controller.cadastraResultado("A1", "Primeiro resultado");
+		this.controller.associaPesquisador("COM1", "ana@ufcg");
+		this.controller.apagarProblema("P2");
+		this.controller.encerraPesquisa("ELE1", "Pesquisa concluida.");
+		this.controller.configuraEstrategia("MAIOR_RISCO");
+		this.segmentado.salva(this.controller, this.arquivo);
+	}
+
+	@Test
+	void testCarregaTodosOsSegmentos() throws IOException {
+		ControllerGeral carregado = this.segmentado.carrega(this.arquivo);
+
+		assertEquals(EnumSet.allOf(Segmento.class), this.segmentado.getSegmentosLidos());
+		assertEquals(this.controller.exibePesquisa("COM1"), carregado.exibePesquisa("COM1"));
+		assertEquals(this.controller.exibePesquisador("ana@ufcg"), carregado.exibePesquisador("ana@ufcg"));
+		assertThrows(IllegalArgumentException.class, () -> carregado.exibeProblema("P2"));
+		assertFalse(carregado.pesquisaEhAtiva("ELE1"));
+		assertEquals("Primeiro resultado", carregado.listaResultados("A1"));
+		assertEquals("A3", carregado.cadastraAtividade("Nova atividade.", "MEDIO", "Riscos medios."));
+		assertEquals(new Busca(this.controller).busca("homofobia", false),
+				new Busca(carregado).busca("homofobia", false));
+	}
+
+	@Test
+	void testCarregaApenasSegmentosPedidos() throws IOException {
+		ControllerGeral carregado = this.segmentado.carrega(this.arquivo, Segmento.ATIVIDADES);
+
+		assertEquals(EnumSet.of(Segmento.ATIVIDADES), this.segmentado.getSegmentosLidos());
+		assertEquals(this.controller.exibeAtividade("A1"), carregado.exibeAtividade("A1"));
+		assertThrows(IllegalArgumentException.class, () -> carregado.exibePesquisa("COM1"));
+		assertEquals("A1: Monitoramento de chats sobre homofobia.",
+				new Busca(carregado).busca("homofobia", false));
+	}
+
+	@Test
+	void testCarregaDependencias() throws IOException {
+		ControllerGeral carregado = this.segmentado.carrega(this.arquivo, Segmento.PESQUISAS);
+
+		assertEquals(EnumSet.of(Segmento.PROBLEMAS_OBJETIVOS, Segmento.ATIVIDADES, Segmento.PESQUISAS),
+				this.segmentado.getSegmentosLidos());
+		assertEquals(this.controller.exibePesquisa("COM1"), carregado.exibePesquisa("COM1"));
+		assertEquals(this.controller.listaPesquisas("PROBLEMA"), carregado.listaPesquisas("PROBLEMA"));
+		assertThrows(IllegalArgumentException.class, () -> carregado.exibePesquisador("ana@ufcg"));
+	}
+
+	@Test
+	void testSegmentoCorrompidoDetectado() throws IOException {
+		byte[] conteudo = Files.readAllBytes(this.arquivo);
+		conteudo[conteudo.length - 3] ^= 0x01;
+		Files.write(this.arquivo, conteudo);
+
+		assertNotNull(this.segmentado.carrega(this.arquivo, Segmento.ATIVIDADES));
+		assertThrows(IOException.class, () -> this.segmentado.carrega(this.arquivo, Segmento.PESQUISADORES));
+	}
+
+	@Test
+	void testArquivoInvalido() throws IOException {
+		Files.write(this.arquivo, new byte[] { 1, 2, 3, 4, 5 });
+
+		IOException erro = assertThrows(IOException.class, () -> this.segmentado.carrega(this.arquivo));
+		assertEquals("Arquivo nao e um arquivo segmentado do sistema.", erro.getMessage());
+	}
+
+	@Test
+	void testFacadeSalvaSegmentado() {
+		Facade facade = new Facade();
+		facade.cadastraProblema("Problema segmentado.", 4);
+		assertTrue(facade.salvaSegmentado(this.arquivo.toString()).startsWith("Sistema salvo em " + this.arquivo));
+
+		Facade carregada = new Facade();
+		assertTrue(carregada.carregaSegmentado(this.arquivo.toString())
+				.startsWith("Sistema carregado de " + this.arquivo));
+		assertEquals("P1 - Problema segmentado. - 4", carregada.exibeProblema("P1"));
+	}
+}
@@ -0,0 +1,339 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import busca.Busca;
+import busca.IndiceNGrama;
+import busca.RespostaBusca;
+import busca.ResultadoBusca;
+import controladores.ControllerGeral;
+
+class BuscaTest {
+
+	private static final String[] PALAVRAS = { "computacao", "eleicao", "paraiba", "areia", "rock", "lee",
+			"homofobia", "cerveja", "poo", "chat" };
+
+	private static final String[] TERMOS = { "computacao", "parai", "a", "rock", "cerveja", "chat", "o" };
+
+	private ControllerGeral controller;
+	private Busca busca;
+
+	@BeforeEach
+	void init() {
+		controller = new ControllerGeral();
+		busca = new Busca(controller);
+
+		for (int i = 0; i < 400; i++) {
+			String descricao = PALAVRAS[i % PALAVRAS.length] + " " + PALAVRAS[(i * 7) % PALAVRAS.length] + " "
+					+ PALAVRAS[(i * 3) % PALAVRAS.length];
+			controller.cadastraPesquisa(descricao, PALAVRAS[(i * 5) % PALAVRAS.length] + ", teste");
+			controller.cadastraAtividade(descricao, "BAIXO", "Sem riscos.");
+			controller.cadastraProblema(descricao, 3);
+			controller.cadastraObjetivo("GERAL", descricao, 2, 3);
+			controller.cadastraPesquisador("Pesquisador " + i, "estudante", descricao, "pesquisador" + i + "@ufcg",
+					"https://foto" + i);
+		}
+	}
+
+	@Test
+	void testBuscaNumeradaEContagem() {
+		controller.cadastraPesquisa("Unico resultado xyzw", "xyzw");
+
+		assertEquals("XYZ1: Unico resultado xyzw | XYZ1: xyzw", busca.busca("xyzw", false));
+		assertEquals(2, busca.contaResultadosBusca("xyzw"));
+		assertEquals("XYZ1: Unico resultado xyzw", busca.busca("xyzw", 1));
+		assertEquals("", busca.busca("nada disso aqui", false));
+		assertThrows(Error.class, () -> busca.contaResultadosBusca("nada disso aqui"));
+		assertThrows(Error.class, () -> busca.busca("xyzw", -1));
+	}
+
+	@Test
+	void testCacheInvalidadoPorAlteracao() {
+		controller.cadastraPesquisa("Primeira descricao qwer", "qwer");
+		assertEquals(2, busca.contaResultadosBusca("qwer"));
+
+		controller.alteraPesquisa("QWE1", "DESCRICAO", "Outra descricao");
+		assertEquals(1, busca.contaResultadosBusca("qwer"));
+		assertEquals("QWE1: qwer", busca.busca("qwer", false));
+	}
+
+	@Test
+	void testPaginacao() {
+		String todos = busca.busca("rock", false);
+		String[] resultados = todos.split(" \\| ");
+
+		assertEquals(resultados[0] + " | " + resultados[1], busca.buscaLimit("rock", 2));
+		assertEquals(resultados[2], busca.buscaPagina("rock", 2, 1));
+		assertEquals("", busca.buscaPagina("rock", resultados.length, 5));
+		assertEquals(todos, busca.buscaPagina("rock", 0, resultados.length));
+	}
+
+	@Test
+	void testBuscaRanqueada() {
+		controller.cadastraPesquisa("zzkw zzkw zzkw", "zzkw");
+		controller.cadastraPesquisa("zzkw uma vez", "outro");
+		controller.cadastraPesquisador("Fulano", "estudante", "zzkw zzkw zzkw zzkw", "fulano@zzkw", "https://foto");
+
+		assertEquals("ZZK1: zzkw zzkw zzkw | fulano@zzkw: zzkw zzkw zzkw zzkw", busca.buscaRanqueada("zzkw", 2));
+		assertEquals("ZZK1: zzkw zzkw zzkw | fulano@zzkw: zzkw zzkw zzkw zzkw | OUT1: zzkw uma vez | ZZK1: zzkw",
+				busca.buscaRanqueada("zzkw", 10));
+		assertEquals("", busca.buscaRanqueada("zzkw", 0));
+		assertThrows(IllegalArgumentException.class, () -> busca.buscaRanqueada("zzkw", -1));
+
+		String todos = busca.busca("rock", false);
+		assertEquals(todos.split(" \\| ").length, busca.melhores("rock", 100000).size());
+	}
+
+	@Test
+	void testBuscaBooleana() {
+		controller.cadastraPesquisa("Teoria dos grafos na UFCG", "grafos, ufcg");
+		controller.cadastraPesquisa("Grafos e teoria dos numeros", "numeros");
+		controller.cadastraPesquisa("Teoria musical", "musica, ufcg");
+
+		assertEquals("NUM1: Grafos e teoria dos numeros | GRA1: Teoria dos grafos na UFCG",
+				busca.buscaBooleana("teoria AND grafos"));
+		assertEquals(busca.buscaBooleana("teoria AND grafos"), busca.buscaBooleana("grafos teoria"));
+		assertEquals("GRA1: Teoria dos grafos na UFCG", busca.buscaBooleana("\"teoria dos grafos\""));
+		assertEquals("NUM1: Grafos e teoria dos numeros", busca.buscaBooleana("grafos NOT ufcg"));
+		assertEquals("NUM1: Grafos e teoria dos numeros | MUS1: Teoria musical | GRA1: Teoria dos grafos na UFCG",
+				busca.buscaBooleana("teoria AND (grafos OR musical)"));
+		assertEquals("MUS1: musica, ufcg | GRA1: grafos, ufcg", busca.buscaBooleana("ufcg NOT \"teoria dos grafos\""));
+		assertEquals("", busca.buscaBooleana("grafos AND musical"));
+		assertTrue(busca.buscaBooleana("NOT teoria").length() > 0);
+
+		assertThrows(IllegalArgumentException.class, () -> busca.buscaBooleana("teoria AND"));
+		assertThrows(IllegalArgumentException.class, () -> busca.buscaBooleana("(teoria OR grafos"));
+		assertThrows(IllegalArgumentException.class, () -> busca.buscaBooleana("\"teoria"));
+		assertThrows(IllegalArgumentException.class, () -> busca.buscaBooleana(""));
+	}
+
+	@Test
+	void testBuscaIgnoraAcentos() {
+		controller.cadastraPesquisa("Avaliação da Informática", "educação");
+		controller.cadastraProblema("PROBLEMA DE INFORMÁTICA", 2);
+
+		String esperado = "EDU1: Avaliação da Informática | P401: PROBLEMA DE INFORMÁTICA";
+		assertEquals(esperado, busca.busca("informática", false));
+		assertEquals(esperado, busca.busca("INFORMATICA", false));
+		assertEquals("EDU1: educação", busca.busca("Educacao", false));
+		assertEquals("EDU1: Avaliação da Informática", busca.buscaBooleana("avaliacao informatica"));
+	}
+
+	@Test
+	void testBuscaAproximada() {
+		controller.cadastraPesquisa("Estudo de algoritmos geneticos", "otimizacao");
+		controller.cadastraAtividade("Implementar algoritmo genetico", "BAIXO", "Sem riscos.");
+
+		assertEquals("", busca.busca("algoritmso", false));
+		assertEquals("OTI1: Estudo de algoritmos geneticos | A401: Implementar algoritmo genetico",
+				busca.buscaAproximada("algoritmso genetico", 2));
+		assertEquals("A401: Implementar algoritmo genetico", busca.buscaAproximada("algoritmo genetico", 0));
+		assertEquals("", busca.buscaAproximada("zzzzzz", 2));
+		assertThrows(IllegalArgumentException.class, () -> busca.buscaAproximada("algoritmo", -1));
+
+		assertThrows(Error.class, () -> busca.contaResultadosBusca("otimizacoa"));
+		busca.configuraBuscaAproximada(2);
+		assertEquals(1, busca.contaResultadosBusca("otimizacoa"));
+		assertEquals("OTI1: otimizacao", busca.buscaLimit("otimizacoa", 5));
+		assertEquals("A401: Implementar algoritmo genetico", busca.busca("Implementar", false));
+		busca.configuraBuscaAproximada(0);
+		assertThrows(Error.class, () -> busca.contaResultadosBusca("otimizacoa"));
+	}
+
+	@Test
+	void testBuscaParalelaMantemOrdem() {
+		Map<String, String> esperado = new HashMap<>();
+		for (String termo : TERMOS) {
+			esperado.put(termo, busca.busca(termo, false));
+		}
+
+		Busca paralela = new Busca(controller);
+		paralela.configuraParalelismo(4);
+		for (String termo : TERMOS) {
+			assertEquals(esperado.get(termo), paralela.busca(termo, false));
+		}
+		paralela.configuraParalelismo(1);
+	}
+
+	@Test
+	void testCursorParaleloUsaPoolConfigurado() {
+		for (int i = 0; i < Busca.LIMIAR_PARALELO; i++) {
+			controller.cadastraPesquisa("Pesquisa volumosa " + i, "volumosa");
+		}
+		List<ResultadoBusca> esperado = busca.consulta("volumosa").getResultados();
+
+		AtomicInteger threads = new AtomicInteger();
+		ForkJoinPool pool = new ForkJoinPool(2, p -> {
+			threads.incrementAndGet();
+			return ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+		}, null, false);
+		Busca paralela = new Busca(controller);
+		paralela.configuraPool(pool);
+
+		List<ResultadoBusca> obtido = new ArrayList<>();
+		paralela.cursor("volumosa").forEachRemaining(obtido::add);
+
+		assertEquals(esperado.toString(), obtido.toString());
+		assertTrue(threads.get() > 0);
+		pool.shutdown();
+	}
+
+	@Test
+	void testCandidatoRemovidoEIgnorado() {
+		controller.getControllerPesquisa().getIndiceDescricao().indexa("ZZZ9", "fantasma");
+		controller.getControllerPesquisa().getIndiceCamposInteresse().indexa("ZZZ9", "fantasma");
+		controller.getControllerPesquisador().getIndiceBiografia().indexa("fantasma@ufcg", "fantasma");
+		controller.getControllerProblemaObjetivo().getIndiceProblemas().indexa("P9999", "fantasma");
+		controller.getControllerProblemaObjetivo().getIndiceObjetivos().indexa("O9999", "fantasma");
+		controller.getControllerAtividade().getIndiceAtividades().indexa("A9999", "fantasma");
+
+		assertEquals("", busca.busca("fantasma", false));
+		assertEquals("", busca.buscaBooleana("fantasma OR \"fantasma\""));
+		assertEquals("", busca.buscaAproximada("fantasma", 1));
+	}
+
+	@Test
+	void testIndiceNGramaComRemocoesConcorrentes() throws Exception {
+		IndiceNGrama indice = new IndiceNGrama();
+		for (int i = 0; i < 50; i++) {
+			indice.indexa("FIXO" + i, "computacao " + i);
+		}
+
+		int threads = 4;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch largada = new CountDownLatch(1);
+		AtomicBoolean parar = new AtomicBoolean();
+		List<Future<Integer>> tarefas = new ArrayList<>();
+
+		for (int t = 0; t < threads; t++) {
+			tarefas.add(executor.submit(() -> {
+				largada.await();
+				int consultas = 0;
+				while (!parar.get()) {
+					assertEquals(50, indice.candidatos("computacao").size());
+					Set<String> raros = indice.candidatos("xkcdwq");
+					assertTrue(raros.isEmpty() || raros.equals(Collections.singleton("RARO")));
+					consultas++;
+				}
+				return consultas;
+			}));
+		}
+
+		// Cada remocao apaga todos os trigramas de "xkcdwq" que os leitores consultam.
+		largada.countDown();
+		for (int i = 0; i < 20000; i++) {
+			indice.indexa("RARO", "xkcdwq");
+			indice.remove("RARO");
+		}
+		parar.set(true);
+		for (Future<Integer> tarefa : tarefas) {
+			assertTrue(tarefa.get(60, TimeUnit.SECONDS) > 0);
+		}
+		executor.shutdown();
+	}
+
+	@Test
+	void testConsultasConcorrentes() throws Exception {
+		controller.cadastraPesquisa("qqq", "xyz");
+		// O escritor alterna a descricao de XYZ1 entre textos com e sem "rock",
+		// mudando as respostas de "rock" e "o" enquanto as consultas rodam.
+		String[] descricoes = { "qqq", "qqq rock" };
+		List<Map<String, String>> estados = new ArrayList<>();
+		List<Map<String, List<String>>> codigosPorEstado = new ArrayList<>();
+		for (String descricao : descricoes) {
+			controller.alteraPesquisa("XYZ1", "DESCRICAO", descricao);
+			Busca referencia = new Busca(controller);
+			Map<String, String> respostas = new HashMap<>();
+			Map<String, List<String>> codigos = new HashMap<>();
+			for (String termo : TERMOS) {
+				RespostaBusca resposta = referencia.consulta(termo);
+				respostas.put(termo, resposta.toString());
+				codigos.put(termo, codigos(resposta));
+			}
+			estados.add(respostas);
+			codigosPorEstado.add(codigos);
+		}
+		assertNotEquals(estados.get(0).get("rock"), estados.get(1).get("rock"));
+
+		Busca compartilhada = new Busca(controller);
+		int threads = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch largada = new CountDownLatch(1);
+		AtomicBoolean escritorTerminou = new AtomicBoolean();
+		List<Future<Integer>> tarefas = new ArrayList<>();
+
+		// Os leitores so param depois do escritor, para que as consultas
+		// concorram tambem com a ultima alteracao. Durante a alteracao o texto
+		// exibido de XYZ1 pode ser o anterior, entao so os codigos sao comparados.
+		for (int t = 0; t < threads; t++) {
+			final int semente = t;
+			tarefas.add(executor.submit(() -> {
+				largada.await();
+				int verificacoes = 0;
+				for (int rodada = 0; rodada < 200 || !escritorTerminou.get(); rodada++) {
+					String termo = TERMOS[(semente + rodada) % TERMOS.length];
+					List<String> codigos = codigos(compartilhada.consulta(termo));
+					assertTrue(codigos.equals(codigosPorEstado.get(0).get(termo))
+							|| codigos.equals(codigosPorEstado.get(1).get(termo)), termo);
+					verificacoes++;
+				}
+				return verificacoes;
+			}));
+		}
+
+		// Terminada cada alteracao, o cache compartilhado nao pode guardar uma
+		// resposta calculada no meio dela.
+		ExecutorService escritor = Executors.newSingleThreadExecutor();
+		Future<?> alteracoes = escritor.submit(() -> {
+			try {
+				for (int i = 0; i < 2000; i++) {
+					controller.alteraPesquisa("XYZ1", "DESCRICAO", descricoes[i % 2]);
+					assertEquals(estados.get(i % 2).get("rock"), compartilhada.consulta("rock").toString());
+				}
+			} finally {
+				escritorTerminou.set(true);
+			}
+		});
+
+		largada.countDown();
+		alteracoes.get(60, TimeUnit.SECONDS);
+		for (Future<Integer> tarefa : tarefas) {
+			assertTrue(tarefa.get(60, TimeUnit.SECONDS) >= 200);
+		}
+		escritor.shutdown();
+		executor.shutdown();
+
+		// Depois das alteracoes, a resposta guardada no cache e a de uma busca sem cache.
+		Busca semCache = new Busca(controller);
+		for (String termo : TERMOS) {
+			assertEquals(semCache.consulta(termo).toString(), compartilhada.consulta(termo).toString(), termo);
+			assertEquals(estados.get(1).get(termo), compartilhada.consulta(termo).toString(), termo);
+		}
+	}
+
+	private static List<String> codigos(RespostaBusca resposta) {
+		List<String> codigos = new ArrayList<>();
+		for (ResultadoBusca resultado : resposta.getResultados()) {
+			codigos.add(resultado.getCodigo());
+		}
+		return codigos;
+	}
+}
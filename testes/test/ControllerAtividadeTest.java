@@ -2,11 +2,15 @@ package test;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.Arrays;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import controladores.ControllerAtividade;
 import controladores.ControllerPesquisa;
+import modulos.Atividade;
+import modulos.Pesquisa;
 
 class ControllerAtividadeTest {
 
@@ -304,4 +308,36 @@ class ControllerAtividadeTest {
 		assertThrows(IllegalArgumentException.class, () -> this.controllerAtividade.listaResultados("A3"));
 	}
 
-}
\ No newline at end of file
+	@Test
+	void testCadastraAtividadesEmLote() {
+		assertEquals(Arrays.asList("A3", "A4"),
+				this.controllerAtividade.cadastraAtividades(new String[] { "Entrevistas.", "Questionarios." },
+						new String[] { "BAIXO", "ALTO" }, new String[] { "Sem riscos.", "Exposicao de dados." }));
+		assertEquals("Questionarios. (ALTO - Exposicao de dados.)",
+				this.controllerAtividade.exibeAtividade("A4"));
+		assertThrows(IllegalArgumentException.class,
+				() -> this.controllerAtividade.cadastraAtividades(new String[] { "Entrevistas.", "Grupos focais." },
+						new String[] { "BAIXO", "EXTREMO" }, new String[] { "Sem riscos.", "Riscos." }));
+		assertEquals("A5", this.controllerAtividade.cadastraAtividade("Grupos focais.", "MEDIO", "Riscos."));
+	}
+
+	@Test
+	void testOperacoesRejeitadasNaoMarcamAlteracao() {
+		Atividade atividade = this.controllerAtividade.getAtividade("A1");
+		Pesquisa pesquisa = this.controllerPesquisa.getPesquisa("COM1");
+		atividade.limpaAlteracao();
+		pesquisa.limpaAlteracao();
+
+		assertThrows(IllegalArgumentException.class, () -> atividade.cadastraItem(""));
+		assertFalse(this.controllerPesquisa.associaAtividade("COM1", "A1", atividade));
+		assertFalse(atividade.isAlterado());
+		assertFalse(pesquisa.isAlterado());
+
+		assertTrue(this.controllerPesquisa.associaAtividade("COM1", "A2", this.controllerAtividade.getAtividade("A2")));
+		assertTrue(pesquisa.isAlterado());
+		assertFalse(atividade.isAlterado());
+		this.controllerAtividade.cadastraItem("A1", "Monitoramento telegram");
+		assertTrue(atividade.isAlterado());
+	}
+
+}
@@ -2,9 +2,14 @@ package test;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.IOException;
+import java.util.Arrays;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import controladores.ControllerPesquisa;
+import modulos.Objetivo;
+import modulos.Problema;
 
 
 class ControllerPesquisaTest {
@@ -79,4 +84,90 @@ class ControllerPesquisaTest {
 
         assertThrows(IllegalArgumentException.class, () -> controller.pesquisaEhAtiva("COM4"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testCadastraPesquisasEmLote() {
+        assertEquals(Arrays.asList("COM2", "ELE2", "COM3", "ROB1"), controller.cadastraPesquisas(
+                new String[] { "Ensino de programacao.", "Urnas eletronicas.", "Evasao em computacao.",
+                        "Robos de servico." },
+                new String[] { "computacao", "eleicao", "computacao, ensino", "robotica" }));
+        assertEquals("COM3 - Evasao em computacao. - computacao, ensino", controller.exibePesquisa("COM3"));
+        assertEquals("COM4", controller.cadastraPesquisa("Nova pesquisa.", "computacao"));
+    }
+
+    @Test
+    void testCadastraPesquisasEmLoteInvalido() {
+        assertThrows(IllegalArgumentException.class, () -> controller.cadastraPesquisas(
+                new String[] { "Ensino de programacao.", "" }, new String[] { "computacao", "eleicao" }));
+        assertThrows(IllegalArgumentException.class, () -> controller.cadastraPesquisas(
+                new String[] { "Ensino de programacao." }, new String[] { "computacao", "eleicao" }));
+        assertThrows(IllegalArgumentException.class, () -> controller.exibePesquisa("COM2"));
+        assertEquals("COM2", controller.cadastraPesquisa("Nova pesquisa.", "computacao"));
+    }
+
+    @Test
+    void testCadastraPesquisasEmLoteComCamposInvalidosNoFim() {
+        String lista = controller.listaPesquisas("PESQUISA");
+        assertThrows(IllegalArgumentException.class, () -> controller.cadastraPesquisas(
+                new String[] { "Ensino de programacao.", "Evasao em computacao." },
+                new String[] { "computacao", "computacao,,x" }));
+        assertThrows(IllegalArgumentException.class, () -> controller.cadastraPesquisas(
+                new String[] { "Robos de servico.", "Robos industriais." },
+                new String[] { "robotica", "robotica, a, b, c, d" }));
+        assertThrows(IllegalArgumentException.class, () -> controller.exibePesquisa("COM2"));
+        assertThrows(IllegalArgumentException.class, () -> controller.exibePesquisa("ROB1"));
+        assertEquals(lista, controller.listaPesquisas("PESQUISA"));
+        assertEquals("COM2", controller.cadastraPesquisa("Nova pesquisa.", "computacao"));
+        assertEquals("ROB1", controller.cadastraPesquisa("Robos de servico.", "robotica"));
+    }
+
+    @Test
+    void testOrdenacoesAcompanhamAssociacoes() {
+        Problema problema = new Problema("Evasao no curso.", 3);
+        problema.geraCodigo(1);
+        Objetivo primeiro = new Objetivo("GERAL", "Reduzir a evasao.", 3, 4);
+        primeiro.geraCodigo(1);
+        Objetivo segundo = new Objetivo("ESPECIFICO", "Acompanhar os alunos.", 3, 4);
+        segundo.geraCodigo(2);
+        String com = "COM1 - Autoavaliacao na Disciplina de Programacao Orientada a Objeto. - computacao, homofobia";
+        String ele = "ELE1 - Aumento da evasao no numero de eleitores paraibanos. - eleicao, paraiba";
+
+        assertEquals(ele + " | " + com, controller.listaPesquisas("PROBLEMA"));
+        controller.associaProblema("COM1", problema);
+        controller.associaObjetivo("ELE1", primeiro, "O1");
+        assertEquals(com + " | " + ele, controller.listaPesquisas("PROBLEMA"));
+        assertEquals(ele + " | " + com, controller.listaPesquisas("OBJETIVOS"));
+
+        controller.associaObjetivo("COM1", segundo, "O2");
+        assertEquals(com + " | " + ele, controller.listaPesquisas("OBJETIVOS"));
+        controller.desassociaObjetivo("COM1", "O2");
+        controller.desassociaProblema("COM1");
+        assertEquals(ele + " | " + com, controller.listaPesquisas("OBJETIVOS"));
+        assertEquals(ele + " | " + com, controller.listaPesquisas("PROBLEMA"));
+
+        controller.cadastraPesquisa("Robos de servico.", "robotica");
+        assertTrue(controller.listaPesquisas("PESQUISA").startsWith("ROB1 - Robos de servico."));
+        assertThrows(IllegalArgumentException.class, () -> controller.listaPesquisas("LEGAL"));
+    }
+
+    @Test
+    void testListaPesquisasPaginada() throws IOException {
+        controller.cadastraPesquisa("Robos de servico.", "robotica");
+        String rob = "ROB1 - Robos de servico. - robotica";
+        String ele = "ELE1 - Aumento da evasao no numero de eleitores paraibanos. - eleicao, paraiba";
+        String com = "COM1 - Autoavaliacao na Disciplina de Programacao Orientada a Objeto. - computacao, homofobia";
+
+        StringBuilder pagina = new StringBuilder();
+        assertEquals(2, controller.escrevePesquisas("PESQUISA", 1, 2, pagina));
+        assertEquals(ele + " | " + com, pagina.toString());
+        StringBuilder inteira = new StringBuilder();
+        assertEquals(3, controller.escrevePesquisas("PESQUISA", 0, Integer.MAX_VALUE, inteira));
+        assertEquals(controller.listaPesquisas("PESQUISA"), inteira.toString());
+        assertEquals(rob + " | " + ele + " | " + com, inteira.toString());
+        assertEquals(0, controller.escrevePesquisas("PESQUISA", 5, 2, new StringBuilder()));
+        assertThrows(IllegalArgumentException.class,
+                () -> controller.escrevePesquisas("PESQUISA", -1, 2, new StringBuilder()));
+        assertThrows(IllegalArgumentException.class,
+                () -> controller.escrevePesquisas("LEGAL", 0, 2, new StringBuilder()));
+    }
+}
@@ -2,10 +2,13 @@ package test;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.IOException;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import controladores.ControllerPesquisador;
+import modulos.Pesquisador;
 
 class ControllerPesquisadorTest {
 
@@ -162,4 +165,78 @@ class ControllerPesquisadorTest {
         assertFalse(this.controllerpesquisador.pesquisadorEhAtivo("breakingbad@200"));
     }
 
+    @Test
+    public void testaEspecialidadeRejeitadaNaoMarcaAlteracao() {
+        Pesquisador professor = this.controllerpesquisador.getPesquisador("andre1706@gmail.com");
+        professor.limpaAlteracao();
+        assertThrows(IllegalArgumentException.class, () -> professor.cadastraEspecialidadeAluno(3, 8.5));
+        assertFalse(professor.isAlterado());
+        professor.cadastraEspecialidadeProfessor("Doutorado", "DSC", "01/01/2010");
+        assertTrue(professor.isAlterado());
+    }
+
+    @Test
+    public void testaListaPesquisadoresPaginada() throws IOException {
+        String todos = this.controllerpesquisador.listaPesquisadores("externo");
+        String[] pesquisadores = todos.split(" \\| ");
+        assertEquals(2, pesquisadores.length);
+
+        StringBuilder primeira = new StringBuilder();
+        assertEquals(1, this.controllerpesquisador.escrevePesquisadores("EXTERNO", 0, 1, primeira));
+        assertEquals(pesquisadores[0], primeira.toString());
+        StringBuilder segunda = new StringBuilder();
+        assertEquals(1, this.controllerpesquisador.escrevePesquisadores("externo", 1, 5, segunda));
+        assertEquals(pesquisadores[1], segunda.toString());
+        assertEquals(0, this.controllerpesquisador.escrevePesquisadores("externo", 2, 5, new StringBuilder()));
+        assertThrows(IllegalArgumentException.class,
+                () -> this.controllerpesquisador.escrevePesquisadores("externo", 0, -1, new StringBuilder()));
+    }
+
+    @Test
+    public void testaPaginasEstaveisComCadastroEntreLeituras() throws IOException {
+        String[] pesquisadores = this.controllerpesquisador.listaPesquisadores("externo").split(" \\| ");
+
+        StringBuilder primeira = new StringBuilder();
+        assertEquals(1, this.controllerpesquisador.escrevePesquisadores("externo", 0, 1, primeira));
+        assertEquals(pesquisadores[0], primeira.toString());
+
+        for (int i = 0; i < 50; i++) {
+            this.controllerpesquisador.cadastraPesquisador("Novo " + i, "externo", "Cadastrado entre paginas",
+                    "novo" + i + "@entre.com", "https://novo.com");
+        }
+        this.controllerpesquisador.alteraPesquisador("breakingbad@200", "EMAIL", "breakingbad@2008");
+
+        StringBuilder segunda = new StringBuilder();
+        assertEquals(1, this.controllerpesquisador.escrevePesquisadores("externo", 1, 1, segunda));
+        assertEquals(pesquisadores[1].replace("breakingbad@200", "breakingbad@2008"), segunda.toString());
+        StringBuilder terceira = new StringBuilder();
+        assertEquals(1, this.controllerpesquisador.escrevePesquisadores("externo", 2, 1, terceira));
+        assertTrue(terceira.toString().startsWith("Novo 0 (externo)"));
+        assertEquals(52, this.controllerpesquisador.listaPesquisadores("externo").split(" \\| ").length);
+    }
+
+    @Test
+    public void testaListaPesquisadoresVazia() {
+        ControllerPesquisador vazio = new ControllerPesquisador();
+        assertEquals("", vazio.listaPesquisadores("externo"));
+        assertEquals("", this.controllerpesquisador.listaPesquisadores("inexistente"));
+    }
+
+    @Test
+    public void testaListaPesquisadoresEmOrdemDeCadastro() {
+        assertEquals("heisenberg (externo) - Interresado nos efeitos da metafetamina e no estudo sobre o cancer. Pesquisador principal da pesquisa de radigrafia a fotons, peca fundamental na pesquisa que ganhou um premio nobel. - breakingbad@200 - https://Cordyceps"
+                + " | Arthur (externo) - Personalidade forte e destemido naquilo que faz - tutucds@mc.com - https://tirafotoai.net",
+                this.controllerpesquisador.listaPesquisadores("externo"));
+
+        ControllerPesquisador ordenado = new ControllerPesquisador();
+        String[] emails = { "zeca@z.com", "ana@a.com", "mel@m.com", "bia@b.com", "caio@c.com" };
+        for (String email : emails) {
+            ordenado.cadastraPesquisador("Pesquisador " + email, "externo", "Bio", email, "https://foto.com");
+        }
+        String[] listados = ordenado.listaPesquisadores("externo").split(" \\| ");
+        assertEquals(emails.length, listados.length);
+        for (int i = 0; i < emails.length; i++) {
+            assertTrue(listados[i].startsWith("Pesquisador " + emails[i] + " (externo)"));
+        }
+    }
 }
@@ -2,6 +2,8 @@ package test;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.Arrays;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -146,4 +148,21 @@ class ControllerProblemaObjetivoTest {
 		assertThrows(IllegalArgumentException.class, () -> this.controllerProblemaObjetivo.exibeObjetivo("O1"));
 	}
 
+	@Test
+	void testCadastraProblemasEObjetivosEmLote() {
+		assertEquals(Arrays.asList("P4", "P5"), this.controllerProblemaObjetivo
+				.cadastraProblemas(new String[] { "Evasao no curso.", "Baixa participacao." }, new int[] { 2, 4 }));
+		assertEquals("P5 - Baixa participacao. - 4", this.controllerProblemaObjetivo.exibeProblema("P5"));
+		assertEquals(Arrays.asList("O3"),
+				this.controllerProblemaObjetivo.cadastraObjetivos(new String[] { "GERAL" },
+						new String[] { "Reduzir a evasao." }, new int[] { 3 }, new int[] { 5 }));
+		assertThrows(IllegalArgumentException.class,
+				() -> this.controllerProblemaObjetivo.cadastraObjetivos(new String[] { "GERAL", "AMPLO" },
+						new String[] { "Objetivo.", "Objetivo." }, new int[] { 3, 3 }, new int[] { 5, 5 }));
+		assertThrows(IllegalArgumentException.class,
+				() -> this.controllerProblemaObjetivo.cadastraProblemas(new String[] { "Problema." }, new int[] { 6 }));
+		assertThrows(IllegalArgumentException.class, () -> this.controllerProblemaObjetivo.exibeObjetivo("O4"));
+		assertThrows(IllegalArgumentException.class, () -> this.controllerProblemaObjetivo.exibeProblema("P6"));
+	}
+
 }
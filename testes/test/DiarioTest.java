@@ -0,0 +1,217 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import controladores.Facade;
+import persistencia.Diario;
+import persistencia.Operacao;
+import persistencia.RegistroDiario;
+
+class DiarioTest {
+
+	@TempDir
+	Path diretorio;
+
+	private Path arquivoDiario;
+	private Facade facade;
+
+	@BeforeEach
+	void init() {
+		this.arquivoDiario = this.diretorio.resolve("psquiza.log");
+		this.facade = new Facade();
+		this.facade.configuraArquivoSnapshot(this.diretorio.resolve("psquiza.snap").toString());
+		this.facade.configuraDiario(this.arquivoDiario.toString());
+		this.facade.cadastraPesquisa("Homofobia em mensagens online de alunos de computacao.", "computacao, homofobia");
+		this.facade.cadastraAtividade("Monitoramento de chats.", "BAIXO", "Sem riscos.");
+		this.facade.cadastraItem("A1", "Monitoramento slack");
+		this.facade.associaAtividade("COM1", "A1");
+		this.facade.executaAtividade("A1", 1, 10);
+		this.facade.cadastraPesquisador("Ana", "estudante", "Aluna de computacao.", "ana@ufcg", "https://ana");
+		this.facade.cadastraEspecialidadeAluno("ana@ufcg", 4, 8.5);
+	}
+
+	@AfterEach
+	void fecha() {
+		this.facade.desativaDiario();
+	}
+
+	private Facade reinicia() {
+		this.facade.desativaDiario();
+		Facade reiniciada = new Facade();
+		reiniciada.configuraArquivoSnapshot(this.diretorio.resolve("psquiza.snap").toString());
+		return reiniciada;
+	}
+
+	@Test
+	void testDiarioReaplicaOperacoes() {
+		Facade reiniciada = reinicia();
+		reiniciada.configuraDiario(this.arquivoDiario.toString());
+
+		assertEquals(this.facade.exibePesquisa("COM1"), reiniciada.exibePesquisa("COM1"));
+		assertEquals(this.facade.exibeAtividade("A1"), reiniciada.exibeAtividade("A1"));
+		assertEquals(this.facade.exibePesquisador("ana@ufcg"), reiniciada.exibePesquisador("ana@ufcg"));
+		assertEquals(10, reiniciada.getDuracao("A1"));
+	}
+
+	@Test
+	void testDiarioComSnapshot() throws IOException {
+		this.facade.cadastraResultado("A1", "Primeiro resultado");
+		this.facade.salva();
+		assertEquals(0, Files.size(this.arquivoDiario));
+		this.facade.cadastraResultado("A1", "Segundo resultado");
+
+		Facade reiniciada = reinicia();
+		reiniciada.carrega();
+		reiniciada.configuraDiario(this.arquivoDiario.toString());
+
+		assertEquals("Primeiro resultado | Segundo resultado", reiniciada.listaResultados("A1"));
+		assertEquals(3, reiniciada.cadastraResultado("A1", "Terceiro resultado"));
+	}
+
+	@Test
+	void testDiarioComSnapshotEmSegundoPlano() {
+		this.facade.salvaEmSegundoPlano();
+		this.facade.cadastraProblema("Problema durante o snapshot.", 3);
+		this.facade.aguardaSnapshot();
+
+		Facade reiniciada = reinicia();
+		reiniciada.carrega();
+		reiniciada.configuraDiario(this.arquivoDiario.toString());
+
+		assertEquals("P1 - Problema durante o snapshot. - 3", reiniciada.exibeProblema("P1"));
+		assertEquals(this.facade.exibeAtividade("A1"), reiniciada.exibeAtividade("A1"));
+		reiniciada.desativaDiario();
+	}
+
+	@Test
+	void testDiarioContinuaSequenciaDoSnapshot() {
+		this.facade.salva();
+
+		Facade reiniciada = reinicia();
+		reiniciada.carrega();
+		reiniciada.configuraDiario(this.arquivoDiario.toString());
+		reiniciada.cadastraProblema("Problema depois do snapshot.", 3);
+		reiniciada.desativaDiario();
+
+		Facade outra = new Facade();
+		outra.configuraArquivoSnapshot(this.diretorio.resolve("psquiza.snap").toString());
+		outra.carrega();
+		outra.configuraDiario(this.arquivoDiario.toString());
+		assertEquals("P1 - Problema depois do snapshot. - 3", outra.exibeProblema("P1"));
+		outra.desativaDiario();
+	}
+
+	@Test
+	void testDiarioDescartaRegistroIncompleto() throws IOException {
+		this.facade.desativaDiario();
+		long tamanho = Files.size(this.arquivoDiario);
+		Files.write(this.arquivoDiario, new byte[] { 0, 0, 0, 40, 1, 2, 3 }, StandardOpenOption.APPEND);
+
+		Facade reiniciada = new Facade();
+		reiniciada.configuraDiario(this.arquivoDiario.toString());
+		reiniciada.cadastraProblema("Problema depois da falha.", 3);
+		reiniciada.desativaDiario();
+
+		assertEquals("P1 - Problema depois da falha. - 3", reiniciada.exibeProblema("P1"));
+		assertTrue(Files.size(this.arquivoDiario) > tamanho);
+		Facade outra = new Facade();
+		outra.configuraDiario(this.arquivoDiario.toString());
+		assertEquals(reiniciada.exibeAtividade("A1"), outra.exibeAtividade("A1"));
+		assertEquals("P1 - Problema depois da falha. - 3", outra.exibeProblema("P1"));
+		outra.desativaDiario();
+	}
+
+	@Test
+	void testDiarioRegistrosConcorrentes() throws Exception {
+		this.facade.desativaDiario();
+		Path arquivo = this.diretorio.resolve("concorrente.log");
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try (Diario diario = new Diario(arquivo)) {
+			List<Future<Long>> sequencias = new ArrayList<>();
+			for (int i = 0; i < 200; i++) {
+				final int numero = i;
+				sequencias.add(executor.submit(() -> diario.registra(Operacao.CADASTRA_PROBLEMA, "p" + numero, 3)));
+			}
+			Set<Long> distintas = new HashSet<>();
+			for (Future<Long> sequencia : sequencias) {
+				distintas.add(sequencia.get());
+			}
+			assertEquals(200, distintas.size());
+		} finally {
+			executor.shutdown();
+		}
+
+		List<RegistroDiario> lidos = new ArrayList<>();
+		try (Diario diario = new Diario(arquivo)) {
+			diario.reproduz(150, lidos::add);
+			assertEquals(200, diario.getUltimaSequencia());
+		}
+		assertEquals(50, lidos.size());
+		assertEquals(151, lidos.get(0).getSequencia());
+		assertEquals(3, lidos.get(0).inteiro(1));
+	}
+
+	@Test
+	void testDiarioReaplicaCadastrosEmLote() {
+		assertEquals(Arrays.asList("COM2", "ELE1"), this.facade.cadastraPesquisas(
+				new String[] { "Ensino de programacao.", "Urnas eletronicas." }, new String[] { "computacao", "eleicao" }));
+		assertEquals(Arrays.asList("A2", "A3"), this.facade.cadastraAtividades(
+				new String[] { "Entrevistas.", "Questionarios." }, new String[] { "BAIXO", "ALTO" },
+				new String[] { "Sem riscos.", "Exposicao de dados." }));
+		assertEquals(Arrays.asList("P1"), this.facade.cadastraProblemas(new String[] { "Evasao." }, new int[] { 2 }));
+		assertEquals(Arrays.asList("O1"), this.facade.cadastraObjetivos(new String[] { "GERAL" },
+				new String[] { "Reduzir a evasao." }, new int[] { 3 }, new int[] { 5 }));
+
+		Facade reiniciada = reinicia();
+		reiniciada.configuraDiario(this.arquivoDiario.toString());
+
+		assertEquals(this.facade.exibePesquisa("ELE1"), reiniciada.exibePesquisa("ELE1"));
+		assertEquals(this.facade.exibeAtividade("A3"), reiniciada.exibeAtividade("A3"));
+		assertEquals(this.facade.exibeProblema("P1"), reiniciada.exibeProblema("P1"));
+		assertEquals(this.facade.exibeObjetivo("O1"), reiniciada.exibeObjetivo("O1"));
+	}
+
+	@Test
+	void testDiarioTruncadoMantemRegistrosPosteriores() throws IOException {
+		this.facade.desativaDiario();
+		Path arquivo = this.diretorio.resolve("truncado.log");
+		try (Diario diario = new Diario(arquivo)) {
+			for (int i = 1; i <= 10; i++) {
+				diario.registra(Operacao.CADASTRA_PROBLEMA, "p" + i, 3);
+			}
+			diario.trunca(6);
+			assertFalse(Files.exists(arquivo.resolveSibling("truncado.log.tmp")));
+			diario.registra(Operacao.CADASTRA_PROBLEMA, "p11", 4);
+		}
+
+		List<RegistroDiario> lidos = new ArrayList<>();
+		try (Diario diario = new Diario(arquivo)) {
+			diario.reproduz(6, lidos::add);
+			assertEquals(11, diario.getUltimaSequencia());
+		}
+		assertEquals(5, lidos.size());
+		assertEquals(7, lidos.get(0).getSequencia());
+		assertEquals("p7", lidos.get(0).texto(0));
+		assertEquals(11, lidos.get(4).getSequencia());
+		assertEquals(4, lidos.get(4).inteiro(1));
+	}
+
+}
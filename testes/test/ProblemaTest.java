@@ -24,4 +24,15 @@ class ProblemaTest {
 		assertEquals("P - A problematica do aprendizado dos conceitos de programacao orientada a objeto - 3",
 				problema.toString());
 	}
+
+	@Test
+	void testAlteracao() {
+		problema = new Problema("A problematica do aprendizado dos conceitos de programacao orientada a objeto", 3);
+		assertTrue(problema.isAlterado());
+
+		problema.limpaAlteracao();
+		assertFalse(problema.isAlterado());
+		problema.geraCodigo(1);
+		assertTrue(problema.isAlterado());
+	}
 }
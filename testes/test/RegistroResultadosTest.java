@@ -0,0 +1,115 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import modulos.Atividade;
+import modulos.RegistroResultados;
+
+class RegistroResultadosTest {
+
+	private RegistroResultados registro;
+
+	@BeforeEach
+	void init() {
+		this.registro = new RegistroResultados();
+		this.registro.adiciona(1, "Primeiro resultado");
+		this.registro.adiciona(2, "Segundo resultado com acentuação");
+		this.registro.adiciona(3, "Terceiro resultado");
+	}
+
+	@Test
+	void testAdicionaELista() {
+		assertEquals(3, this.registro.quantidade());
+		assertEquals("Segundo resultado com acentuação", this.registro.getResultado(1));
+		assertEquals("Primeiro resultado | Segundo resultado com acentuação | Terceiro resultado",
+				this.registro.lista(" | "));
+		assertEquals(RegistroResultados.TAMANHO_MINIMO_BLOCO, this.registro.getBytesForaDoHeap());
+	}
+
+	@Test
+	void testNumerosEstaveis() {
+		assertTrue(this.registro.remove(1));
+		assertFalse(this.registro.remove(1));
+		assertTrue(this.registro.remove(3));
+
+		assertEquals(1, this.registro.quantidade());
+		assertEquals(2, this.registro.getNumero(0));
+		assertEquals("Segundo resultado com acentuação", this.registro.getResultado(0));
+		this.registro.adiciona(4, "Quarto resultado");
+		assertEquals(Arrays.asList("Segundo resultado com acentuação", "Quarto resultado"),
+				this.registro.getResultados());
+	}
+
+	@Test
+	void testNumeroForaDeOrdem() {
+		assertThrows(IllegalArgumentException.class, () -> this.registro.adiciona(3, "Repetido"));
+	}
+
+	@Test
+	void testCompactaAposRemocoes() {
+		RegistroResultados grande = new RegistroResultados();
+		char[] texto = new char[1000];
+		Arrays.fill(texto, 'r');
+		for (int i = 1; i <= 500; i++) {
+			grande.adiciona(i, i + new String(texto));
+		}
+		long antes = grande.getBytesForaDoHeap();
+		for (int i = 1; i <= 450; i++) {
+			assertTrue(grande.remove(i));
+		}
+
+		assertTrue(grande.getBytesForaDoHeap() < antes / 2);
+		assertEquals(50, grande.quantidade());
+		assertEquals(451, grande.getNumero(0));
+		assertEquals("451" + new String(texto), grande.getResultado(0));
+		assertEquals("500" + new String(texto), grande.getResultado(49));
+	}
+
+	@Test
+	void testRemoveTodosLiberaBlocos() {
+		for (int i = 1; i <= 3; i++) {
+			this.registro.remove(i);
+		}
+
+		assertEquals(0, this.registro.getBytesForaDoHeap());
+		assertEquals("", this.registro.lista(" | "));
+	}
+
+	@Test
+	void testSerializacao() throws IOException, ClassNotFoundException {
+		this.registro.remove(2);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream saida = new ObjectOutputStream(bytes)) {
+			saida.writeObject(this.registro);
+		}
+		RegistroResultados lido = (RegistroResultados) new ObjectInputStream(
+				new ByteArrayInputStream(bytes.toByteArray())).readObject();
+
+		assertEquals(this.registro.lista(" | "), lido.lista(" | "));
+		assertEquals(3, lido.getNumero(1));
+	}
+
+	@Test
+	void testAtividadeRemovePeloNumero() {
+		Atividade atividade = new Atividade("Monitoramento de chats.", "BAIXO", "Sem riscos.");
+		assertEquals(1, atividade.addResultado("Primeiro"));
+		assertEquals(2, atividade.addResultado("Segundo"));
+		assertEquals(3, atividade.addResultado("Terceiro"));
+		assertTrue(atividade.removeResultado(1));
+		assertTrue(atividade.removeResultado(3));
+
+		assertEquals("Segundo", atividade.listaResultados());
+		assertThrows(IllegalArgumentException.class, () -> atividade.removeResultado(3));
+		assertEquals(4, atividade.addResultado("Quarto"));
+	}
+}
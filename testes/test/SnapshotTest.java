@@ -0,0 +1,410 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import busca.Busca;
+import controladores.ControllerGeral;
+import controladores.Facade;
+import persistencia.Compressao;
+import persistencia.Snapshot;
+
+class SnapshotTest {
+
+	private ControllerGeral controller;
+	private Snapshot snapshot;
+
+	@BeforeEach
+	void init() {
+		this.controller = new ControllerGeral();
+		this.snapshot = new Snapshot();
+
+		this.controller.cadastraPesquisa("Homofobia em mensagens online de alunos de computação.",
+				"computacao, homofobia");
+		this.controller.cadastraPesquisa("Avaliação de modelos preditivos para as eleições.", "eleicao");
+		this.controller.cadastraProblema("A homofobia nas redes sociais.", 4);
+		this.controller.cadastraProblema("Problema que sera apagado.", 2);
+		this.controller.cadastraObjetivo("GERAL", "Diminuir a homofobia.", 4, 2);
+		this.controller.cadastraObjetivo("ESPECIFICO", "Objetivo que sera apagado.", 3, 3);
+		this.controller.cadastraAtividade("Monitoramento de chats.", "BAIXO", "Sem riscos.");
+		this.controller.cadastraAtividade("Degustacao de cervejas.", "ALTO", "Alergias.");
+		this.controller.cadastraItem("A1", "Monitoramento slack");
+		this.controller.cadastraItem("A1", "Monitoramento whatsapp");
+		this.controller.cadastraPesquisador("Ana", "professor", "Professora de computação.", "ana@ufcg",
+				"https://ana");
+		this.controller.cadastraPesquisador("Beto", "estudante", "Aluno de computação.", "beto@ufcg",
+				"https://beto");
+		this.controller.cadastraEspecialidadeProfessor("ana@ufcg", "Doutorado", "UASC", "01/01/2010");
+		this.controller.cadastraEspecialidadeAluno("beto@ufcg", 4, 8.5);
+
+		this.controller.associaProblema("COM1", "P2");
+		this.controller.associaObjetivo("COM1", "O2");
+		this.controller.associaAtividade("COM1", "A1");
+		this.controller.associaAtividade("COM1", "A2");
+		this.controller.executaAtividade("A1", 2, 15);
+		this.controller.cadastraResultado("A1", "Primeiro resultado");
+		this.controller.cadastraResultado("A1", "Segundo resultado");
+		this.controller.removeResultado("A1", 1);
+		this.controller.defineProximaAtividade("A1", "A2");
+		this.controller.associaPesquisador("COM1", "ana@ufcg");
+		this.controller.apagarProblema("P2");
+		this.controller.apagarObjetivo("O2");
+		this.controller.encerraPesquisa("ELE1", "Pesquisa concluida.");
+		this.controller.desativaPesquisador("beto@ufcg");
+		this.controller.configuraEstrategia("MAIOR_RISCO");
+	}
+
+	private ControllerGeral copia(ControllerGeral original) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		this.snapshot.salva(original, bytes);
+		return this.snapshot.carrega(new ByteArrayInputStream(bytes.toByteArray()));
+	}
+
+	@Test
+	void testSnapshotRestauraEstado() throws IOException {
+		ControllerGeral restaurado = copia(this.controller);
+
+		assertEquals(this.controller.exibePesquisa("COM1"), restaurado.exibePesquisa("COM1"));
+		assertEquals(this.controller.exibeProblema("P1"), restaurado.exibeProblema("P1"));
+		assertEquals(this.controller.exibeObjetivo("O1"), restaurado.exibeObjetivo("O1"));
+		assertEquals(this.controller.exibeAtividade("A1"), restaurado.exibeAtividade("A1"));
+		assertEquals(this.controller.exibePesquisador("ana@ufcg"), restaurado.exibePesquisador("ana@ufcg"));
+		assertEquals(this.controller.exibePesquisador("beto@ufcg"), restaurado.exibePesquisador("beto@ufcg"));
+		assertFalse(restaurado.pesquisaEhAtiva("ELE1"));
+		assertFalse(restaurado.pesquisadorEhAtivo("beto@ufcg"));
+		assertEquals(1, restaurado.contaItensRealizados("A1"));
+		assertEquals(15, restaurado.getDuracao("A1"));
+		assertEquals("Segundo resultado", restaurado.listaResultados("A1"));
+		assertEquals(3, restaurado.cadastraResultado("A1", "Terceiro resultado"));
+		assertEquals(1, restaurado.contaProximos("A1"));
+		assertEquals(this.controller.proximaAtividade("COM1"), restaurado.proximaAtividade("COM1"));
+		for (String ordem : new String[] { "PROBLEMA", "OBJETIVOS", "PESQUISA" }) {
+			assertEquals(this.controller.listaPesquisas(ordem), restaurado.listaPesquisas(ordem));
+		}
+	}
+
+	@Test
+	void testSnapshotMantemNumerosDosResultados() throws IOException {
+		ControllerGeral restaurado = copia(this.controller);
+		assertEquals(3, restaurado.cadastraResultado("A1", "Terceiro resultado"));
+		ControllerGeral copiado = copia(restaurado);
+
+		assertThrows(IllegalArgumentException.class, () -> copiado.removeResultado("A1", 1));
+		assertTrue(copiado.removeResultado("A1", 2));
+		assertEquals("Terceiro resultado", copiado.listaResultados("A1"));
+	}
+
+	@Test
+	void testSnapshotMantemEntidadesApagadasAssociadas() throws IOException {
+		ControllerGeral restaurado = copia(this.controller);
+
+		assertThrows(IllegalArgumentException.class, () -> restaurado.exibeProblema("P2"));
+		assertThrows(IllegalArgumentException.class, () -> restaurado.exibeObjetivo("O2"));
+		assertEquals("P2", restaurado.getControllerPesquisa().getPesquisa("COM1").getProblema().getCodigo());
+		assertEquals(1, restaurado.getControllerPesquisa().getPesquisa("COM1").getQuantiadeDeObjetivos());
+		assertSame(restaurado.getControllerAtividade().getAtividade("A1"),
+				restaurado.getControllerPesquisa().getPesquisa("COM1").getAtividades().stream()
+						.filter(a -> a.getCodigo().equals("A1")).findFirst().get());
+	}
+
+	@Test
+	void testSnapshotRestauraContadoresEBusca() throws IOException {
+		ControllerGeral restaurado = copia(this.controller);
+
+		assertEquals("A3", restaurado.cadastraAtividade("Nova atividade.", "MEDIO", "Riscos medios."));
+		restaurado.cadastraProblema("Novo problema.", 3);
+		assertEquals("P3 - Novo problema. - 3", restaurado.exibeProblema("P3"));
+		restaurado.cadastraObjetivo("GERAL", "Novo objetivo.", 1, 1);
+		assertEquals("O3 - GERAL - Novo objetivo. - 2", restaurado.exibeObjetivo("O3"));
+		assertEquals(new Busca(this.controller).busca("computacao", false),
+				new Busca(restaurado).busca("computacao", false));
+	}
+
+	@Test
+	void testSnapshotInvalido() {
+		assertThrows(IOException.class,
+				() -> this.snapshot.carrega(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 5 })));
+	}
+
+	@Test
+	void testSnapshotSerializacaoJavaNaoSuportado(@TempDir Path diretorio) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream saida = new ObjectOutputStream(bytes);
+		saida.writeObject("estado antigo");
+		saida.close();
+
+		IOException erro = assertThrows(IOException.class,
+				() -> this.snapshot.carrega(new ByteArrayInputStream(bytes.toByteArray())));
+		assertEquals("Formato de snapshot nao suportado: serializacao Java.", erro.getMessage());
+
+		Path arquivo = diretorio.resolve("sistema.snap");
+		Files.write(arquivo, bytes.toByteArray());
+		erro = assertThrows(IOException.class, () -> this.snapshot.carrega(arquivo));
+		assertEquals("Formato de snapshot nao suportado: serializacao Java.", erro.getMessage());
+	}
+
+	@Test
+	void testSnapshotEmArquivo(@TempDir Path diretorio) throws IOException {
+		Path arquivo = diretorio.resolve("dados").resolve("sistema.snap");
+		long bytes = this.snapshot.salva(this.controller, arquivo);
+		ControllerGeral restaurado = this.snapshot.carrega(arquivo);
+
+		assertEquals(Files.size(arquivo), bytes);
+		assertEquals(this.controller.exibePesquisa("COM1"), restaurado.exibePesquisa("COM1"));
+		assertEquals(this.controller.exibeAtividade("A1"), restaurado.exibeAtividade("A1"));
+	}
+
+	@Test
+	void testFacadeSalvaECarrega(@TempDir Path diretorio) {
+		String arquivo = diretorio.resolve("psquiza.snap").toString();
+		Facade original = new Facade();
+		original.configuraArquivoSnapshot(arquivo);
+		original.cadastraPesquisa("Homofobia em mensagens online de alunos de computacao.", "computacao, homofobia");
+		original.cadastraProblema("A homofobia nas redes sociais.", 4);
+		assertTrue(original.salva().endsWith(" ms"));
+
+		Facade carregada = new Facade();
+		carregada.configuraArquivoSnapshot(arquivo);
+		assertEquals("", carregada.busca("homofobia"));
+		carregada.carrega();
+
+		assertEquals(original.exibePesquisa("COM1"), carregada.exibePesquisa("COM1"));
+		assertEquals(original.busca("homofobia"), carregada.busca("homofobia"));
+	}
+
+	@Test
+	void testSnapshotCorrompidoDetectado() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		this.snapshot.salva(this.controller, bytes);
+		byte[] conteudo = bytes.toByteArray();
+		conteudo[conteudo.length / 2] ^= 0x10;
+
+		IOException erro = assertThrows(IOException.class,
+				() -> this.snapshot.carrega(new ByteArrayInputStream(conteudo)));
+		assertTrue(erro.getMessage().startsWith("Snapshot corrompido"));
+	}
+
+	@Test
+	void testSnapshotMantemGeracoes(@TempDir Path diretorio) throws IOException {
+		Path arquivo = diretorio.resolve("sistema.snap");
+		Snapshot snapshot = new Snapshot(2);
+		snapshot.salva(this.controller, arquivo);
+		this.controller.cadastraProblema("Problema da segunda geracao.", 1);
+		snapshot.salva(this.controller, arquivo);
+		this.controller.cadastraProblema("Problema da terceira geracao.", 1);
+		snapshot.salva(this.controller, arquivo);
+
+		assertTrue(Files.exists(diretorio.resolve("sistema.snap.1")));
+		assertFalse(Files.exists(diretorio.resolve("sistema.snap.2")));
+		assertFalse(Files.exists(diretorio.resolve("sistema.snap.tmp")));
+		assertEquals("P4 - Problema da terceira geracao. - 1", snapshot.carrega(arquivo).exibeProblema("P4"));
+	}
+
+	@Test
+	void testSnapshotCorrompidoUsaGeracaoAnterior(@TempDir Path diretorio) throws IOException {
+		Path arquivo = diretorio.resolve("sistema.snap");
+		this.snapshot.salva(this.controller, arquivo);
+		this.controller.cadastraProblema("Problema perdido na queda.", 1);
+		this.snapshot.salva(this.controller, arquivo);
+		byte[] conteudo = Files.readAllBytes(arquivo);
+		Files.write(arquivo, Arrays.copyOf(conteudo, conteudo.length - 7));
+
+		ControllerGeral restaurado = this.snapshot.carrega(arquivo);
+
+		assertEquals(diretorio.resolve("sistema.snap.1"), this.snapshot.getArquivoCarregado());
+		assertEquals(this.controller.exibePesquisa("COM1"), restaurado.exibePesquisa("COM1"));
+		assertThrows(IllegalArgumentException.class, () -> restaurado.exibeProblema("P3"));
+	}
+
+	@Test
+	void testSnapshotSemGeracaoLegivel(@TempDir Path diretorio) throws IOException {
+		Path arquivo = diretorio.resolve("sistema.snap");
+		Files.write(arquivo, new byte[] { 0x50, 0x53, 0x51, 0x5A, 18 });
+
+		IOException erro = assertThrows(IOException.class, () -> this.snapshot.carrega(arquivo));
+		assertEquals("Versao de snapshot nao suportada: 9.", erro.getMessage());
+	}
+
+	@Test
+	void testFacadeSalvaEmSegundoPlano(@TempDir Path diretorio) {
+		String arquivo = diretorio.resolve("psquiza.snap").toString();
+		Facade original = new Facade();
+		original.configuraArquivoSnapshot(arquivo);
+		original.cadastraProblema("Problema antes da captura.", 4);
+		assertTrue(original.salvaEmSegundoPlano().startsWith("Snapshot de " + arquivo + " iniciado: "));
+		original.cadastraProblema("Problema depois da captura.", 2);
+
+		assertTrue(original.aguardaSnapshot().startsWith("Sistema salvo em " + arquivo + ": "));
+		Facade carregada = new Facade();
+		carregada.configuraArquivoSnapshot(arquivo);
+		carregada.carrega();
+
+		assertEquals("P1 - Problema antes da captura. - 4", carregada.exibeProblema("P1"));
+		assertThrows(IllegalArgumentException.class, () -> carregada.exibeProblema("P2"));
+	}
+
+	@Test
+	void testFacadeFalhaEmSegundoPlanoNaProximaPersistencia(@TempDir Path diretorio) throws IOException {
+		Path ocupado = Files.createFile(diretorio.resolve("ocupado"));
+		Facade facade = new Facade();
+		facade.configuraArquivoSnapshot(ocupado.resolve("psquiza.snap").toString());
+		facade.cadastraProblema("Problema sem destino.", 4);
+		facade.salvaEmSegundoPlano();
+
+		UncheckedIOException erro = assertThrows(UncheckedIOException.class, () -> facade.salva());
+		assertEquals("Nao foi possivel salvar o sistema em segundo plano.", erro.getMessage());
+		assertEquals("Nenhum snapshot em segundo plano.", facade.progressoSnapshot());
+
+		String arquivo = diretorio.resolve("psquiza.snap").toString();
+		facade.configuraArquivoSnapshot(arquivo);
+		assertTrue(facade.salva().startsWith("Sistema salvo em " + arquivo + ": "));
+	}
+
+	@Test
+	void testSnapshotIncrementalAplicaAlteracoes(@TempDir Path diretorio) throws IOException {
+		Path arquivo = diretorio.resolve("sistema.snap");
+		long completo = this.snapshot.salva(this.controller, arquivo);
+		assertTrue(this.snapshot.aceitaDelta(this.controller, arquivo, 8));
+
+		this.controller.cadastraResultado("A1", "Terceiro resultado");
+		this.controller.alteraPesquisa("COM1", "DESCRICAO", "Nova descricao.");
+		this.controller.cadastraPesquisador("Caio", "externo", "Pesquisador externo.", "caio@ufcg", "https://caio");
+		this.controller.apagarProblema("P1");
+		long incremental = this.snapshot.salvaDelta(this.controller, arquivo);
+		this.controller.executaAtividade("A1", 1, 5);
+		this.snapshot.salvaDelta(this.controller, arquivo);
+
+		assertTrue(incremental < completo);
+		assertTrue(Files.exists(Snapshot.arquivoDelta(arquivo, 2)));
+		ControllerGeral restaurado = this.snapshot.carrega(arquivo);
+		assertEquals(2, restaurado.getNumeroDelta());
+		assertEquals(this.controller.exibePesquisa("COM1"), restaurado.exibePesquisa("COM1"));
+		assertEquals(this.controller.exibeAtividade("A1"), restaurado.exibeAtividade("A1"));
+		assertEquals(this.controller.listaResultados("A1"), restaurado.listaResultados("A1"));
+		assertEquals(this.controller.getDuracao("A1"), restaurado.getDuracao("A1"));
+		assertEquals(this.controller.exibePesquisador("caio@ufcg"), restaurado.exibePesquisador("caio@ufcg"));
+		assertThrows(IllegalArgumentException.class, () -> restaurado.exibeProblema("P1"));
+		assertEquals(this.controller.exibeObjetivo("O1"), restaurado.exibeObjetivo("O1"));
+	}
+
+	@Test
+	void testSnapshotIncrementalGravaApenasAlteradas(@TempDir Path diretorio) throws IOException {
+		Path arquivo = diretorio.resolve("sistema.snap");
+		this.snapshot.salva(this.controller, arquivo);
+		long semAlteracoes = this.snapshot.salvaDelta(this.controller, arquivo);
+
+		this.controller.cadastraResultado("A1", "Terceiro resultado");
+		long umaAlteracao = this.snapshot.salvaDelta(this.controller, arquivo);
+
+		assertTrue(umaAlteracao > semAlteracoes);
+		assertEquals(this.controller.listaResultados("A1"),
+				this.snapshot.carrega(arquivo).listaResultados("A1"));
+	}
+
+	@Test
+	void testSnapshotIncrementalCorrompidoInterrompeAplicacao(@TempDir Path diretorio) throws IOException {
+		Path arquivo = diretorio.resolve("sistema.snap");
+		this.snapshot.salva(this.controller, arquivo);
+		this.controller.cadastraProblema("Problema do primeiro incremental.", 1);
+		this.snapshot.salvaDelta(this.controller, arquivo);
+		this.controller.cadastraProblema("Problema do segundo incremental.", 1);
+		this.snapshot.salvaDelta(this.controller, arquivo);
+		byte[] conteudo = Files.readAllBytes(Snapshot.arquivoDelta(arquivo, 2));
+		conteudo[conteudo.length - 6] ^= 0x01;
+		Files.write(Snapshot.arquivoDelta(arquivo, 2), conteudo);
+
+		ControllerGeral restaurado = this.snapshot.carrega(arquivo);
+
+		assertEquals(1, restaurado.getNumeroDelta());
+		assertEquals("P3 - Problema do primeiro incremental. - 1", restaurado.exibeProblema("P3"));
+		assertThrows(IllegalArgumentException.class, () -> restaurado.exibeProblema("P4"));
+	}
+
+	@Test
+	void testFacadeSalvaIncrementalCompacta(@TempDir Path diretorio) {
+		Path arquivo = diretorio.resolve("psquiza.snap");
+		Facade facade = new Facade();
+		facade.configuraArquivoSnapshot(arquivo.toString());
+		facade.configuraCompactacao(1);
+		facade.cadastraProblema("Problema da base.", 4);
+		assertTrue(facade.salvaIncremental().startsWith("Sistema salvo em " + arquivo + ":"));
+		facade.cadastraProblema("Problema do incremental.", 2);
+		assertTrue(facade.salvaIncremental().startsWith("Sistema salvo em " + Snapshot.arquivoDelta(arquivo, 1)));
+		facade.cadastraProblema("Problema da compactacao.", 3);
+		assertTrue(facade.salvaIncremental().startsWith("Sistema salvo em " + arquivo + ":"));
+
+		assertFalse(Files.exists(Snapshot.arquivoDelta(arquivo, 1)));
+		Facade carregada = new Facade();
+		carregada.configuraArquivoSnapshot(arquivo.toString());
+		carregada.carrega();
+		assertEquals("P3 - Problema da compactacao. - 3", carregada.exibeProblema("P3"));
+	}
+
+	@Test
+	void testSnapshotComprimidoRestauraEstado(@TempDir Path diretorio) throws IOException {
+		for (Compressao compressao : Compressao.values()) {
+			Path arquivo = diretorio.resolve(compressao + ".snap");
+			long bytes = this.snapshot.salva(this.controller, arquivo, compressao);
+			this.controller.cadastraProblema("Problema do incremental " + compressao + ".", 2);
+			assertTrue(this.snapshot.aceitaDelta(this.controller, arquivo, 8));
+			this.snapshot.salvaDelta(this.controller, arquivo);
+			ControllerGeral restaurado = this.snapshot.carrega(arquivo);
+
+			assertEquals(Files.size(arquivo), bytes);
+			assertEquals(this.controller.exibePesquisa("COM1"), restaurado.exibePesquisa("COM1"));
+			assertEquals(this.controller.exibeAtividade("A1"), restaurado.exibeAtividade("A1"));
+			assertEquals(this.controller.exibePesquisador("ana@ufcg"), restaurado.exibePesquisador("ana@ufcg"));
+			assertEquals(this.controller.exibePesquisador("beto@ufcg"), restaurado.exibePesquisador("beto@ufcg"));
+			assertEquals(this.controller.listaPesquisas("PESQUISA"), restaurado.listaPesquisas("PESQUISA"));
+			assertEquals("Segundo resultado", restaurado.listaResultados("A1"));
+		}
+	}
+
+	@Test
+	void testSnapshotComprimidoMenor() throws IOException {
+		for (int i = 0; i < 500; i++) {
+			this.controller.cadastraPesquisa("Pesquisa numero " + i + " sobre computacao.", "computacao, ensino");
+			this.controller.cadastraAtividade("Atividade numero " + i + ".", "MEDIO", "Riscos moderados.");
+		}
+		long[] tamanhos = new long[Compressao.values().length];
+		for (Compressao compressao : Compressao.values()) {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			tamanhos[compressao.ordinal()] = this.snapshot.salva(this.controller, bytes, compressao);
+			assertEquals(bytes.size(), tamanhos[compressao.ordinal()]);
+			ControllerGeral restaurado = this.snapshot.carrega(new ByteArrayInputStream(bytes.toByteArray()));
+			assertEquals(this.controller.exibeAtividade("A500"), restaurado.exibeAtividade("A500"));
+		}
+
+		assertTrue(tamanhos[Compressao.DICIONARIO.ordinal()] < tamanhos[Compressao.NENHUMA.ordinal()]);
+		assertTrue(tamanhos[Compressao.DEFLATE.ordinal()] < tamanhos[Compressao.DICIONARIO.ordinal()]);
+	}
+
+	@Test
+	void testFacadeConfiguraCompressao(@TempDir Path diretorio) {
+		String arquivo = diretorio.resolve("psquiza.snap").toString();
+		Facade facade = new Facade();
+		facade.configuraArquivoSnapshot(arquivo);
+		assertThrows(IllegalArgumentException.class, () -> facade.configuraCompressao("ZIP"));
+		assertThrows(IllegalArgumentException.class, () -> facade.configuraCompressao(""));
+		facade.configuraCompressao("deflate");
+		facade.cadastraProblema("Problema comprimido.", 4);
+		facade.salva();
+
+		Facade carregada = new Facade();
+		carregada.configuraArquivoSnapshot(arquivo);
+		carregada.carrega();
+		assertEquals("P1 - Problema comprimido. - 4", carregada.exibeProblema("P1"));
+	}
+}